@@ -0,0 +1,77 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application jar as a child process and waits until its readiness probe is UP
+ */
+public final class AppLauncher implements AutoCloseable {
+
+    private final Process process;
+
+    private AppLauncher(Process process) {
+        this.process = process;
+    }
+
+    public static AppLauncher start(String jarPath, String databaseUrl, int port, String profiles,
+                                    ParkingApiClient client, int startupTimeoutSeconds)
+            throws IOException, InterruptedException {
+        return start(jarPath, databaseUrl, port, profiles, List.of(), client, startupTimeoutSeconds);
+    }
+
+    /**
+     * Start with extra command line arguments, such as --key=value application properties
+     */
+    public static AppLauncher start(String jarPath, String databaseUrl, int port, String profiles,
+                                    List<String> arguments, ParkingApiClient client, int startupTimeoutSeconds)
+            throws IOException, InterruptedException {
+        File jar = new File(jarPath);
+        if (!jar.isFile()) {
+            throw new IOException("Application jar not found: " + jar.getAbsolutePath()
+                    + " (build it with ./mvnw package -DskipTests)");
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-jar");
+        command.add(jar.getAbsolutePath());
+        command.add("--server.port=" + port);
+        command.add("--spring.profiles.active=" + profiles);
+        command.addAll(arguments);
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("load-test-app.log"));
+        builder.environment().put("DATABASE_URL", databaseUrl);
+        builder.environment().putIfAbsent("APP_LOG_LEVEL", "INFO");
+
+        System.out.printf("Starting %s on port %d (log: load-test-app.log)%n", jar.getName(), port);
+        AppLauncher launcher = new AppLauncher(builder.start());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(startupTimeoutSeconds);
+        while (client.readinessStatus() != 200) {
+            if (!launcher.process.isAlive()) {
+                throw new IOException("Application exited during startup, see load-test-app.log");
+            }
+            if (System.nanoTime() > deadline) {
+                launcher.close();
+                throw new IOException("Application not ready after " + startupTimeoutSeconds + " s");
+            }
+            Thread.sleep(250);
+        }
+        System.out.println("Application is ready");
+        return launcher;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
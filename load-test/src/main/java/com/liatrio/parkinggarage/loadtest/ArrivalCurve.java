@@ -0,0 +1,86 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Piecewise-linear arrival rate (cars per second across all entry gates) over the run.
+ *
+ * Written as "seconds:rate" points, e.g. "0:2,60:40,180:40,240:2". The run lasts until
+ * the last point.
+ */
+public final class ArrivalCurve {
+
+    /** Compressed rush hour: ramp up, sustained peak, ramp down */
+    public static final Map<String, String> PRESETS = Map.of(
+            "rush-hour", "0:2,60:40,180:40,240:5,300:2",
+            "steady", "0:20,300:20",
+            "spike", "0:5,60:5,70:100,100:100,110:5,180:5"
+    );
+
+    private final double[] seconds;
+    private final double[] rates;
+
+    private ArrivalCurve(double[] seconds, double[] rates) {
+        this.seconds = seconds;
+        this.rates = rates;
+    }
+
+    /**
+     * Parse a preset name or a "seconds:rate,..." specification
+     */
+    public static ArrivalCurve parse(String specification) {
+        String points = PRESETS.getOrDefault(specification, specification);
+        List<double[]> parsed = new ArrayList<>();
+        for (String point : points.split(",")) {
+            String[] parts = point.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid arrival curve point '" + point + "', expected seconds:rate");
+            }
+            double second = Double.parseDouble(parts[0]);
+            double rate = Double.parseDouble(parts[1]);
+            if (rate < 0) {
+                throw new IllegalArgumentException("Arrival rate must not be negative: " + point);
+            }
+            if (!parsed.isEmpty() && second <= parsed.get(parsed.size() - 1)[0]) {
+                throw new IllegalArgumentException("Arrival curve points must be in increasing time order: " + point);
+            }
+            parsed.add(new double[]{second, rate});
+        }
+        if (parsed.size() < 2) {
+            throw new IllegalArgumentException("Arrival curve needs at least two points");
+        }
+        return new ArrivalCurve(
+                parsed.stream().mapToDouble(p -> p[0]).toArray(),
+                parsed.stream().mapToDouble(p -> p[1]).toArray());
+    }
+
+    /**
+     * Arrival rate in cars per second at the given offset into the run
+     */
+    public double rateAt(double second) {
+        if (second <= seconds[0]) {
+            return rates[0];
+        }
+        for (int i = 1; i < seconds.length; i++) {
+            if (second <= seconds[i]) {
+                double fraction = (second - seconds[i - 1]) / (seconds[i] - seconds[i - 1]);
+                return rates[i - 1] + fraction * (rates[i] - rates[i - 1]);
+            }
+        }
+        return rates[rates.length - 1];
+    }
+
+    public double maxRate() {
+        double max = 0;
+        for (double rate : rates) {
+            max = Math.max(max, rate);
+        }
+        return max;
+    }
+
+    public double durationSeconds() {
+        return seconds[seconds.length - 1];
+    }
+}
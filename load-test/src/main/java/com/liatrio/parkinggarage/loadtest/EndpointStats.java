@@ -0,0 +1,78 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms and success/error counts.
+ *
+ * Latency is recorded from the intended start time of each request, so a stalled
+ * server is not hidden by the load generator waiting on it (coordinated omission).
+ */
+public final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        stats.recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1, latencyNanos / 1_000)));
+        (success ? stats.successes : stats.errors).increment();
+    }
+
+    public void recordSkipped(String endpoint) {
+        endpoints.computeIfAbsent(endpoint, key -> new Endpoint()).skipped.increment();
+    }
+
+    /**
+     * Successful requests over all endpoints so far
+     */
+    public long successes() {
+        return endpoints.values().stream().mapToLong(e -> e.successes.sum()).sum();
+    }
+
+    public void report(PrintStream out, double elapsedSeconds) {
+        out.printf("%n%-28s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "skipped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalRequests = 0;
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Endpoint stats = entry.getValue();
+            Histogram histogram = stats.recorder.getIntervalHistogram();
+            total.add(histogram);
+            long requests = stats.successes.sum() + stats.errors.sum();
+            totalRequests += requests;
+            printRow(out, entry.getKey(), requests, stats.errors.sum(), stats.skipped.sum(), elapsedSeconds, histogram);
+        }
+        printRow(out, "TOTAL", totalRequests, endpoints.values().stream().mapToLong(e -> e.errors.sum()).sum(),
+                endpoints.values().stream().mapToLong(e -> e.skipped.sum()).sum(), elapsedSeconds, total);
+    }
+
+    private static void printRow(PrintStream out, String name, long requests, long errors, long skipped,
+                                 double elapsedSeconds, Histogram histogram) {
+        out.printf("%-28s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, requests, errors, skipped, requests / Math.max(elapsedSeconds, 0.001),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static final class Endpoint {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+    }
+}
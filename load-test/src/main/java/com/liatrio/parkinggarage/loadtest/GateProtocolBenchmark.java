@@ -0,0 +1,243 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gate event rate and latency of REST check-in/check-out against the same commands over the gate
+ * stream WebSocket (/api/gate/stream).
+ *
+ * Each gate owns one spot and one car and checks it in and out in a closed loop for a fixed time.
+ * Over REST a gate sends one request at a time on a kept-alive HTTP/1.1 connection; over the
+ * stream it keeps up to --window commands in flight on its connection, and the server's ordering
+ * guarantees each check-out runs after its check-in. Latency is measured from sending a command to
+ * receiving its response or ack. Spots are created on floor 9901 on first use and reused.
+ *
+ * Usage (from the repository root, with the application running):
+ * mvn -f load-test/pom.xml compile exec:java -Dexec.mainClass=com.liatrio.parkinggarage.loadtest.GateProtocolBenchmark
+ *
+ * Options (all --key=value):
+ *   --base-url         API base URL (default http://localhost:8080)
+ *   --gates            concurrent gates (default 8)
+ *   --window           commands in flight per gate stream (default 16)
+ *   --warmup-seconds   warm-up per protocol (default 5)
+ *   --measure-seconds  measurement per protocol (default 20)
+ *   --protocols        rest, stream or rest,stream (default rest,stream)
+ */
+public final class GateProtocolBenchmark {
+
+    static final String REST_CHECK_IN = "REST check-in";
+    static final String REST_CHECK_OUT = "REST check-out";
+    static final String STREAM_CHECK_IN = "stream check-in";
+    static final String STREAM_CHECK_OUT = "stream check-out";
+
+    private static final int FLOOR_NUMBER = 9901;
+    private static final String SUB_PROTOCOL = "parking-gate.v1";
+
+    private final String baseUrl;
+    private final int gates;
+    private final int window;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private GateProtocolBenchmark(String baseUrl, int gates, int window) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.gates = gates;
+        this.window = window;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTest.parseOptions(args);
+        GateProtocolBenchmark benchmark = new GateProtocolBenchmark(
+                options.getOrDefault("base-url", "http://localhost:8080"),
+                Integer.parseInt(options.getOrDefault("gates", "8")),
+                Integer.parseInt(options.getOrDefault("window", "16")));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup-seconds", "5")));
+        long measureNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("measure-seconds", "20")));
+
+        benchmark.createSpots();
+        for (String protocol : options.getOrDefault("protocols", "rest,stream").split(",")) {
+            boolean stream = switch (protocol.trim()) {
+                case "rest" -> false;
+                case "stream" -> true;
+                default -> throw new IllegalArgumentException("Unknown protocol '" + protocol + "'");
+            };
+            benchmark.run(stream, warmupNanos, new EndpointStats());
+            EndpointStats stats = new EndpointStats();
+            double seconds = benchmark.run(stream, measureNanos, stats);
+            System.out.printf("%n%s, %d gates%s:", stream ? "Gate stream" : "REST", benchmark.gates,
+                    stream ? ", window " + benchmark.window : "");
+            stats.report(System.out, seconds);
+        }
+    }
+
+    /**
+     * Run every gate for {@code nanos} and wait for its last check-out; returns the elapsed seconds
+     */
+    private double run(boolean stream, long nanos, EndpointStats stats) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(gates);
+        long start = System.nanoTime();
+        long deadline = start + nanos;
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (int gate = 1; gate <= gates; gate++) {
+            String spot = spotIdentifier(gate);
+            String plate = "GB-" + gate;
+            runs.add(CompletableFuture.runAsync(() -> {
+                try {
+                    if (stream) {
+                        runStreamGate(spot, plate, deadline, stats);
+                    } else {
+                        runRestGate(spot, plate, deadline, stats);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException("Gate " + spot + " failed", e);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).join();
+        executor.shutdown();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private void runRestGate(String spot, String plate, long deadline, EndpointStats stats) throws Exception {
+        while (System.nanoTime() < deadline) {
+            post(REST_CHECK_IN, "/api/parking/check-in", Map.of("licensePlate", plate, "spotIdentifier", spot), stats);
+            post(REST_CHECK_OUT, "/api/parking/check-out", Map.of("spotIdentifier", spot), stats);
+        }
+    }
+
+    private void post(String endpoint, String path, Object body, EndpointStats stats) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        long sent = System.nanoTime();
+        int status = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+        stats.record(endpoint, System.nanoTime() - sent, status >= 200 && status < 300);
+    }
+
+    private void runStreamGate(String spot, String plate, long deadline, EndpointStats stats) throws Exception {
+        Semaphore inFlight = new Semaphore(window);
+        ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+        WebSocket webSocket = httpClient.newWebSocketBuilder()
+                .subprotocols(SUB_PROTOCOL)
+                .buildAsync(URI.create(baseUrl.replaceFirst("^http", "ws") + "/api/gate/stream"),
+                        new AckListener(pending, inFlight, stats))
+                .get(10, TimeUnit.SECONDS);
+        String checkIn = objectMapper.writeValueAsString(Map.of("type", "CHECK_IN",
+                "checkIn", Map.of("licensePlate", plate, "spotIdentifier", spot)));
+        String checkOut = objectMapper.writeValueAsString(Map.of("type", "CHECK_OUT",
+                "checkOut", Map.of("spotIdentifier", spot)));
+
+        while (System.nanoTime() < deadline) {
+            send(webSocket, checkIn, STREAM_CHECK_IN, pending, inFlight);
+            send(webSocket, checkOut, STREAM_CHECK_OUT, pending, inFlight);
+        }
+        if (!inFlight.tryAcquire(window, 30, TimeUnit.SECONDS)) {
+            throw new IOException("Acks still missing after 30 s");
+        }
+        webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "done").get(10, TimeUnit.SECONDS);
+    }
+
+    private static void send(WebSocket webSocket, String command, String endpoint,
+                             ConcurrentLinkedQueue<Pending> pending, Semaphore inFlight) throws Exception {
+        inFlight.acquire();
+        pending.add(new Pending(endpoint, System.nanoTime()));
+        webSocket.sendText(command, true).get(10, TimeUnit.SECONDS);
+    }
+
+    private record Pending(String endpoint, long sentNanos) {
+    }
+
+    /**
+     * Acks come back in command order, so each one completes the oldest pending command
+     */
+    private final class AckListener implements WebSocket.Listener {
+
+        private final ConcurrentLinkedQueue<Pending> pending;
+        private final Semaphore inFlight;
+        private final EndpointStats stats;
+        private final StringBuilder frame = new StringBuilder();
+
+        private AckListener(ConcurrentLinkedQueue<Pending> pending, Semaphore inFlight, EndpointStats stats) {
+            this.pending = pending;
+            this.inFlight = inFlight;
+            this.stats = stats;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            frame.append(data);
+            if (last) {
+                long received = System.nanoTime();
+                Pending command = pending.poll();
+                int status;
+                try {
+                    status = objectMapper.readTree(frame.toString()).get("status").asInt();
+                } catch (IOException e) {
+                    status = -1;
+                }
+                frame.setLength(0);
+                if (command != null) {
+                    stats.record(command.endpoint(), received - command.sentNanos(), status >= 200 && status < 300);
+                }
+                inFlight.release();
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+
+    /**
+     * One spot per gate, imported once and reused by later runs; cars left parked by an aborted run
+     * are checked out
+     */
+    private void createSpots() throws IOException, InterruptedException {
+        send("/api/spot-types", Map.of("name", "GATEBENCH", "description", "Gate protocol benchmark"));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int gate = 1; gate <= gates; gate++) {
+            rows.add(Map.of("floorNumber", FLOOR_NUMBER, "floorName", "Gate benchmark", "bayIdentifier", "B",
+                    "bayName", "Gate benchmark", "spotIdentifier", spotIdentifier(gate),
+                    "spotNumber", String.format("%03d", gate), "spotType", "GATEBENCH"));
+        }
+        JsonNode result = objectMapper.readTree(send("/api/topology/import", rows));
+        for (int gate = 1; gate <= gates; gate++) {
+            send("/api/parking/check-out", Map.of("spotIdentifier", spotIdentifier(gate)));
+        }
+        System.out.printf("%d gate spots on floor %d (%d created)%n", gates, FLOOR_NUMBER,
+                result.path("spotsCreated").asInt());
+    }
+
+    private String send(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static String spotIdentifier(int gate) {
+        return String.format("GB-%03d", gate);
+    }
+}
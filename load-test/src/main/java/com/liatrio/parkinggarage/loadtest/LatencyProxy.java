@@ -0,0 +1,138 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A TCP proxy that delays everything it forwards by a fixed time in each direction, to move a
+ * database further away from the application: every round trip costs twice the delay more.
+ *
+ * Bytes are forwarded in order as soon as their delay is up, so a connection's throughput is not
+ * limited by the delay, only its latency.
+ */
+final class LatencyProxy implements AutoCloseable {
+
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final ServerSocket serverSocket;
+    private final InetSocketAddress target;
+    private final long delayNanos;
+    private final ExecutorService threads = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "latency-proxy");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private LatencyProxy(ServerSocket serverSocket, InetSocketAddress target, Duration delay) {
+        this.serverSocket = serverSocket;
+        this.target = target;
+        this.delayNanos = delay.toNanos();
+    }
+
+    /**
+     * Listen on a free local port and forward to host:port with {@code delay} each way
+     */
+    static LatencyProxy start(String host, int port, Duration delay) throws IOException {
+        LatencyProxy proxy = new LatencyProxy(new ServerSocket(0), new InetSocketAddress(host, port), delay);
+        proxy.threads.execute(proxy::accept);
+        return proxy;
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket server = new Socket();
+                try {
+                    server.connect(target, 5_000);
+                } catch (IOException e) {
+                    client.close();
+                    System.err.printf("Latency proxy cannot reach %s: %s%n", target, e.getMessage());
+                    continue;
+                }
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                forward(client, server);
+                forward(server, client);
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.printf("Latency proxy accept failed: %s%n", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * One thread reads and timestamps what arrives, another writes it out once it is due
+     */
+    private void forward(Socket from, Socket to) {
+        BlockingQueue<Chunk> chunks = new LinkedBlockingQueue<>();
+        threads.execute(() -> {
+            byte[] buffer = new byte[16 * 1024];
+            try (InputStream in = from.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    chunks.add(new Chunk(System.nanoTime() + delayNanos, Arrays.copyOf(buffer, read)));
+                }
+            } catch (IOException e) {
+                // Closed by either side: whatever was read is still delivered
+            }
+            chunks.add(new Chunk(System.nanoTime() + delayNanos, END_OF_STREAM));
+        });
+        threads.execute(() -> {
+            try {
+                OutputStream out = to.getOutputStream();
+                while (true) {
+                    Chunk chunk = chunks.take();
+                    long wait;
+                    while ((wait = chunk.dueNanos() - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (chunk.bytes() == END_OF_STREAM) {
+                        break;
+                    }
+                    out.write(chunk.bytes());
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // The other side is gone
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            close(from);
+            close(to);
+        });
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        threads.shutdownNow();
+    }
+
+    private record Chunk(long dueNanos, byte[] bytes) {
+    }
+}
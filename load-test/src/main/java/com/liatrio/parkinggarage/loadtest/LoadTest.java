@@ -0,0 +1,238 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gate rush-hour load test for the Parking Garage API.
+ *
+ * Entry gates check cars in following the arrival curve (an open-loop, non-homogeneous
+ * Poisson process split across the gates). Each car stays for an exponentially distributed
+ * dwell time and is then checked out at an exit gate, by spot or by license plate. Dashboard
+ * pollers hit the availability and active-session endpoints in the background.
+ *
+ * Usage (from the repository root):
+ * mvn -f load-test/pom.xml compile exec:java -Dexec.args="--curve=rush-hour --entry-gates=20 --exit-gates=20"
+ *
+ * Options (all --key=value):
+ *   --base-url              API base URL (default http://localhost:PORT)
+ *   --start-app             start the application jar against a local database first
+ *   --jar                   application jar (default target/parking-garage-0.0.1-SNAPSHOT.jar)
+ *   --database-url          JDBC URL for --start-app (default jdbc:postgresql://localhost:5432/parking_garage)
+ *   --profiles              Spring profiles for --start-app (default dev)
+ *   --port                  port for --start-app (default 8080)
+ *   --curve                 preset (rush-hour, steady, spike) or "seconds:rate,..." in cars/s
+ *   --entry-gates           number of entry gates (default 10)
+ *   --exit-gates            number of exit gates (default 10)
+ *   --mean-dwell            mean dwell time in seconds (default 30)
+ *   --plate-checkout-ratio  share of check-outs done by license plate (default 0.5)
+ *   --dashboard-pollers     background dashboard pollers (default 2)
+ *   --poll-interval-ms      dashboard poll interval (default 1000)
+ *   --seed                  random seed (default 42)
+ */
+public final class LoadTest {
+
+    private final Map<String, String> options;
+    private final EndpointStats stats = new EndpointStats();
+    private final ConcurrentLinkedQueue<String> freeSpots = new ConcurrentLinkedQueue<>();
+    private final DelayQueue<ParkedCar> parkedCars = new DelayQueue<>();
+    private final AtomicLong plateSequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis() % 1_000_000, 36).toUpperCase();
+
+    private volatile boolean running = true;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest(parseOptions(args)).run();
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument '" + arg + "', options are --key=value");
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    private void run() throws Exception {
+        int port = intOption("port", 8080);
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:" + port);
+        ArrivalCurve curve = ArrivalCurve.parse(options.getOrDefault("curve", "rush-hour"));
+        int entryGates = intOption("entry-gates", 10);
+        int exitGates = intOption("exit-gates", 10);
+        int pollers = intOption("dashboard-pollers", 2);
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        ParkingApiClient client = new ParkingApiClient(baseUrl, stats);
+        AppLauncher launcher = null;
+        if (options.containsKey("start-app")) {
+            launcher = AppLauncher.start(
+                    options.getOrDefault("jar", "target/parking-garage-0.0.1-SNAPSHOT.jar"),
+                    options.getOrDefault("database-url", "jdbc:postgresql://localhost:5432/parking_garage"),
+                    port, options.getOrDefault("profiles", "dev"), client, intOption("startup-timeout", 180));
+        }
+
+        try {
+            freeSpots.addAll(client.availableSpotIdentifiers());
+            System.out.printf("Running %.0f s against %s: %d entry gates, %d exit gates, %d dashboard pollers, %d free spots%n",
+                    curve.durationSeconds(), baseUrl, entryGates, exitGates, pollers, freeSpots.size());
+
+            ExecutorService executor = Executors.newFixedThreadPool(entryGates + exitGates + pollers);
+            long startNanos = System.nanoTime();
+            for (int gate = 0; gate < entryGates; gate++) {
+                SplittableRandom random = new SplittableRandom(seed + gate);
+                executor.submit(() -> runEntryGate(client, curve, entryGates, startNanos, random));
+            }
+            for (int gate = 0; gate < exitGates; gate++) {
+                SplittableRandom random = new SplittableRandom(seed * 7 + gate);
+                executor.submit(() -> runExitGate(client, random));
+            }
+            for (int poller = 0; poller < pollers; poller++) {
+                executor.submit(() -> runDashboardPoller(client));
+            }
+
+            Thread.sleep((long) (curve.durationSeconds() * 1_000));
+            running = false;
+            executor.shutdown();
+            executor.awaitTermination(60, TimeUnit.SECONDS);
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+            stats.report(System.out, elapsedSeconds);
+            checkOutRemainingCars(baseUrl);
+        } finally {
+            if (launcher != null) {
+                launcher.close();
+            }
+        }
+    }
+
+    private void runEntryGate(ParkingApiClient client, ArrivalCurve curve, int gates, long startNanos,
+                              SplittableRandom random) {
+        double meanDwellNanos = doubleOption("mean-dwell", 30) * 1_000_000_000.0;
+        double maxRate = curve.maxRate() / gates;
+        if (maxRate <= 0) {
+            return;
+        }
+        double offsetSeconds = 0;
+        while (running) {
+            // Thinning: candidate arrivals at the peak rate, accepted in proportion to the current rate
+            offsetSeconds += -Math.log(1.0 - random.nextDouble()) / maxRate;
+            if (offsetSeconds >= curve.durationSeconds()) {
+                return;
+            }
+            if (random.nextDouble() * maxRate > curve.rateAt(offsetSeconds) / gates) {
+                continue;
+            }
+            long intendedNanos = startNanos + (long) (offsetSeconds * 1_000_000_000L);
+            sleepUntil(intendedNanos);
+
+            String spot = freeSpots.poll();
+            if (spot == null) {
+                stats.recordSkipped(ParkingApiClient.CHECK_IN);
+                continue;
+            }
+            String plate = "LT-" + runId + "-" + Long.toString(plateSequence.incrementAndGet(), 36).toUpperCase();
+            if (client.checkIn(plate, spot, intendedNanos)) {
+                long dwellNanos = (long) (-Math.log(1.0 - random.nextDouble()) * meanDwellNanos);
+                parkedCars.add(new ParkedCar(plate, spot, System.nanoTime() + dwellNanos));
+            } else {
+                freeSpots.add(spot);
+            }
+        }
+    }
+
+    private void runExitGate(ParkingApiClient client, SplittableRandom random) {
+        double plateRatio = doubleOption("plate-checkout-ratio", 0.5);
+        while (running) {
+            ParkedCar car;
+            try {
+                car = parkedCars.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (car == null) {
+                continue;
+            }
+            boolean checkedOut = random.nextDouble() < plateRatio
+                    ? client.checkOutByLicensePlate(car.licensePlate(), car.exitAtNanos())
+                    : client.checkOut(car.spotIdentifier(), car.exitAtNanos());
+            if (checkedOut) {
+                freeSpots.add(car.spotIdentifier());
+            }
+        }
+    }
+
+    private void runDashboardPoller(ParkingApiClient client) {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intOption("poll-interval-ms", 1000));
+        long next = System.nanoTime();
+        while (running) {
+            client.pollDashboard();
+            next += intervalNanos;
+            sleepUntil(next);
+        }
+    }
+
+    /**
+     * Leaves the garage as it was found; these calls are not part of the report
+     */
+    private void checkOutRemainingCars(String baseUrl) {
+        ParkingApiClient cleanupClient = new ParkingApiClient(baseUrl, new EndpointStats());
+        List<ParkedCar> remaining = new ArrayList<>(parkedCars);
+        parkedCars.clear();
+        remaining.forEach(car -> cleanupClient.checkOut(car.spotIdentifier(), System.nanoTime()));
+        if (!remaining.isEmpty()) {
+            System.out.printf("%nChecked out %d cars still parked at the end of the run%n", remaining.size());
+        }
+    }
+
+    private void sleepUntil(long nanoTime) {
+        long remaining;
+        while (running && (remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        return Double.parseDouble(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    private record ParkedCar(String licensePlate, String spotIdentifier, long exitAtNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(exitAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(exitAtNanos, ((ParkedCar) other).exitAtNanos);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Blocking client for the parking endpoints that records every call in {@link EndpointStats}
+ */
+public final class ParkingApiClient {
+
+    public static final String CHECK_IN = "POST check-in";
+    public static final String CHECK_OUT = "POST check-out";
+    public static final String CHECK_OUT_BY_PLATE = "POST check-out by plate";
+    public static final String AVAILABLE_SPOTS = "GET available spots";
+    public static final String ACTIVE_TRANSACTIONS = "GET active transactions";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final EndpointStats stats;
+
+    public ParkingApiClient(String baseUrl, EndpointStats stats) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.stats = stats;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public boolean checkIn(String licensePlate, String spotIdentifier, long intendedStartNanos) {
+        return post(CHECK_IN, "/api/parking/check-in",
+                Map.of("licensePlate", licensePlate, "spotIdentifier", spotIdentifier), intendedStartNanos) == 201;
+    }
+
+    public boolean checkOut(String spotIdentifier, long intendedStartNanos) {
+        return post(CHECK_OUT, "/api/parking/check-out",
+                Map.of("spotIdentifier", spotIdentifier), intendedStartNanos) == 200;
+    }
+
+    public boolean checkOutByLicensePlate(String licensePlate, long intendedStartNanos) {
+        return post(CHECK_OUT_BY_PLATE, "/api/parking/check-out/license-plate/" + licensePlate,
+                null, intendedStartNanos) == 200;
+    }
+
+    public void pollDashboard() {
+        get(AVAILABLE_SPOTS, "/api/parking-spots/available");
+        get(ACTIVE_TRANSACTIONS, "/api/parking/transactions/active");
+    }
+
+    /**
+     * Identifiers of all currently available spots (not recorded in the stats)
+     */
+    public List<String> availableSpotIdentifiers() throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/parking-spots/available")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Could not list available spots: HTTP " + response.statusCode());
+        }
+        List<String> identifiers = new ArrayList<>();
+        for (JsonNode spot : objectMapper.readTree(response.body())) {
+            identifiers.add(spot.get("spotIdentifier").asText());
+        }
+        return identifiers;
+    }
+
+    /**
+     * Status of the readiness probe, or -1 if the application is not reachable
+     */
+    public int readinessStatus() {
+        try {
+            return httpClient.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness"))
+                            .timeout(Duration.ofSeconds(2)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private int post(String endpoint, String path, Object body, long intendedStartNanos) {
+        try {
+            HttpRequest.BodyPublisher publisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(publisher)
+                    .build();
+            return send(endpoint, request, intendedStartNanos);
+        } catch (IOException e) {
+            stats.record(endpoint, System.nanoTime() - intendedStartNanos, false);
+            return -1;
+        }
+    }
+
+    private void get(String endpoint, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        send(endpoint, request, System.nanoTime());
+    }
+
+    private int send(String endpoint, HttpRequest request, long intendedStartNanos) {
+        int status;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = -1;
+        }
+        stats.record(endpoint, System.nanoTime() - intendedStartNanos, status >= 200 && status < 300);
+        return status;
+    }
+}
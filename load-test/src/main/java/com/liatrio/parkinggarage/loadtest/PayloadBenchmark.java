@@ -0,0 +1,137 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Payload size and serialization throughput of the API's response bodies in JSON (as served by
+ * default, ISO dates) against CBOR (as served for Accept: application/cbor, dates as number arrays)
+ * and Smile with the same settings.
+ *
+ * Payloads: a check-out response (one ParkingTransactionDto) and an available-spots page (100
+ * ParkingSpotDto). Each encoding is written and read back into the same records for a fixed time
+ * after a warm-up; no server is involved.
+ *
+ * Usage (from the repository root):
+ * mvn -f load-test/pom.xml compile exec:java -Dexec.mainClass=com.liatrio.parkinggarage.loadtest.PayloadBenchmark
+ *
+ * Options (all --key=value):
+ *   --warmup-seconds   warm-up per encoding and payload (default 3)
+ *   --measure-seconds  measurement per encoding and payload (default 5)
+ */
+public final class PayloadBenchmark {
+
+    /** Fields of the API's ParkingTransactionDto */
+    record Transaction(Long id, Long carId, String licensePlate, Long parkingSpotId, String spotIdentifier,
+                       Integer floorNumber, String bayIdentifier, String spotNumber, LocalDateTime checkInTime,
+                       LocalDateTime checkOutTime, Double parkingFee, Double durationInHours, String notes,
+                       Boolean active) {
+    }
+
+    /** Fields of the API's ParkingSpotDto */
+    record Spot(Long id, String spotIdentifier, String spotNumber, Long spotTypeId, String spotTypeName, Long bayId,
+                String bayIdentifier, Integer floorNumber, Boolean active, Boolean occupied, Long currentTransactionId) {
+    }
+
+    record Result(int bytes, double writesPerSecond, double readsPerSecond) {
+    }
+
+    private PayloadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTest.parseOptions(args);
+        long warmupNanos = Long.parseLong(options.getOrDefault("warmup-seconds", "3")) * 1_000_000_000L;
+        long measureNanos = Long.parseLong(options.getOrDefault("measure-seconds", "5")) * 1_000_000_000L;
+
+        Map<String, ObjectMapper> encodings = new LinkedHashMap<>();
+        encodings.put("json", JsonMapper.builder().addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build());
+        encodings.put("cbor", binary(CBORMapper.builder().build()));
+        encodings.put("smile", binary(SmileMapper.builder().build()));
+
+        LocalDateTime checkIn = LocalDateTime.of(2024, 6, 3, 8, 14, 27, 512_000_000);
+        Transaction transaction = new Transaction(48_213L, 9_107L, "ABC-1234", 311L, "F3-B-027", 3, "B", "027",
+                checkIn, checkIn.plusMinutes(137).plusSeconds(12), 12.5, 2.29, null, false);
+        List<Spot> spots = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            spots.add(new Spot(1_000L + i, String.format("F2-A-%03d", i), String.format("%03d", i), 1L, "REGULAR",
+                    20L, "A", 2, true, false, null));
+        }
+
+        System.out.printf("%-26s %-6s %8s %14s %14s%n", "payload", "format", "bytes", "writes/s", "reads/s");
+        for (Map.Entry<String, ObjectMapper> encoding : encodings.entrySet()) {
+            print("check-out response", encoding.getKey(),
+                    run(encoding.getValue(), transaction, Transaction.class, warmupNanos, measureNanos));
+        }
+        for (Map.Entry<String, ObjectMapper> encoding : encodings.entrySet()) {
+            print("available spots (100)", encoding.getKey(),
+                    run(encoding.getValue(), spots.toArray(new Spot[0]), Spot[].class, warmupNanos, measureNanos));
+        }
+    }
+
+    /**
+     * Dates as number arrays with milliseconds last, as the API's CBOR converter writes them
+     */
+    private static ObjectMapper binary(ObjectMapper mapper) {
+        return mapper.registerModule(new JavaTimeModule())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                .disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS);
+    }
+
+    private static <T> Result run(ObjectMapper mapper, T value, Class<T> type, long warmupNanos, long measureNanos)
+            throws Exception {
+        byte[] encoded = mapper.writeValueAsBytes(value);
+        if (!Objects.deepEquals(mapper.readValue(encoded, type), value)) {
+            throw new IllegalStateException("Round trip changed the payload");
+        }
+        measure(() -> mapper.writeValueAsBytes(value), warmupNanos);
+        double writes = measure(() -> mapper.writeValueAsBytes(value), measureNanos);
+        measure(() -> mapper.readValue(encoded, type), warmupNanos);
+        double reads = measure(() -> mapper.readValue(encoded, type), measureNanos);
+        return new Result(encoded.length, writes, reads);
+    }
+
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Operations per second over {@code nanos}, checking the clock every 1000 operations
+     */
+    private static double measure(Operation operation, long nanos) throws Exception {
+        long sink = 0;
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 1000; i++) {
+                sink += operation.run().hashCode();
+            }
+            operations += 1000;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < nanos);
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return operations * 1e9 / elapsed;
+    }
+
+    private static void print(String payload, String format, Result result) {
+        System.out.printf("%-26s %-6s %8d %14.0f %14.0f%n", payload, format, result.bytes(),
+                result.writesPerSecond(), result.readsPerSecond());
+    }
+}
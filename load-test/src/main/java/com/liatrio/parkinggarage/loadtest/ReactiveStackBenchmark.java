@@ -0,0 +1,307 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Check-in/check-out on the servlet stack (Tomcat, JPA over JDBC) against the reactive stack
+ * (Reactor Netty, R2DBC) of the same application under a slow database: throughput, latency,
+ * database connections, threads and server memory per in-flight request.
+ *
+ * Each of --gates gates owns one spot and one car and checks it in and out in a closed loop, so
+ * about --gates requests are in flight at any time. While a stack is measured, the application's
+ * metrics are sampled on the servlet port: database connections in use and waiting for one
+ * (hikaricp.connections.* or r2dbc.pool.*), live threads and heap used. Memory per in-flight
+ * request is the growth over the idle application of heap used plus thread stacks (--thread-stack-kb
+ * per extra thread), divided by --gates; the heap part includes garbage not yet collected, so
+ * compare it between stacks rather than read it as an exact figure.
+ *
+ * With --start-app the application jar is started with the reactive stack enabled and admission
+ * control off (the servlet stack is measured rather than its load shedding), and both its JDBC and
+ * R2DBC connections go through a {@link LatencyProxy} adding --db-latency-ms to every database
+ * round trip. Without it, run the application with parking.reactive.enabled=true against a
+ * database that is slow on its own.
+ *
+ * Spots are created on floor 9902 on first use and reused. Tomcat serves at most 200 requests at
+ * once by default (server.tomcat.threads.max); past that, servlet requests queue for a thread.
+ *
+ * Usage (from the repository root, after ./mvnw package -DskipTests):
+ * mvn -f load-test/pom.xml compile exec:java -Dexec.mainClass=com.liatrio.parkinggarage.loadtest.ReactiveStackBenchmark -Dexec.args="--start-app"
+ *
+ * Options (all --key=value):
+ *   --servlet-url      servlet API base URL (default http://localhost:PORT)
+ *   --reactive-url     reactive API base URL (default http://localhost:REACTIVE_PORT)
+ *   --gates            concurrent gates (default 200)
+ *   --warmup-seconds   warm-up per stack (default 10)
+ *   --measure-seconds  measurement per stack (default 30)
+ *   --stacks           servlet, reactive or servlet,reactive (default servlet,reactive)
+ *   --thread-stack-kb  memory counted per thread (default 1024, the 64-bit JVM default)
+ *   --start-app        start the application jar against a local PostgreSQL first
+ *   --jar              application jar (default target/parking-garage-0.0.1-SNAPSHOT.jar)
+ *   --database-host    PostgreSQL host:port for --start-app (default localhost:5432)
+ *   --database-name    database for --start-app (default parking_garage)
+ *   --db-latency-ms    added database round-trip time for --start-app (default 20)
+ *   --profiles         Spring profiles for --start-app (default dev)
+ *   --port             servlet port for --start-app (default 8080)
+ *   --reactive-port    reactive port for --start-app (default 8081)
+ */
+public final class ReactiveStackBenchmark {
+
+    static final String CHECK_IN = "check-in";
+    static final String CHECK_OUT = "check-out";
+
+    private static final int FLOOR_NUMBER = 9902;
+    private static final long SAMPLE_INTERVAL_MILLIS = 250;
+
+    private final String servletUrl;
+    private final int gates;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ReactiveStackBenchmark(String servletUrl, int gates) {
+        this.servletUrl = trimSlash(servletUrl);
+        this.gates = gates;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTest.parseOptions(args);
+        int port = Integer.parseInt(options.getOrDefault("port", "8080"));
+        int reactivePort = Integer.parseInt(options.getOrDefault("reactive-port", "8081"));
+        String servletUrl = options.getOrDefault("servlet-url", "http://localhost:" + port);
+        String reactiveUrl = trimSlash(options.getOrDefault("reactive-url", "http://localhost:" + reactivePort));
+        ReactiveStackBenchmark benchmark = new ReactiveStackBenchmark(servletUrl,
+                Integer.parseInt(options.getOrDefault("gates", "200")));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup-seconds", "10")));
+        long measureNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("measure-seconds", "30")));
+        long threadStackBytes = Long.parseLong(options.getOrDefault("thread-stack-kb", "1024")) * 1024;
+
+        LatencyProxy proxy = null;
+        AppLauncher launcher = null;
+        if (options.containsKey("start-app")) {
+            String[] database = options.getOrDefault("database-host", "localhost:5432").split(":");
+            Duration latency = Duration.ofMillis(Long.parseLong(options.getOrDefault("db-latency-ms", "20")));
+            proxy = LatencyProxy.start(database[0], database.length > 1 ? Integer.parseInt(database[1]) : 5432,
+                    latency.dividedBy(2));
+            String databaseAddress = "localhost:" + proxy.port() + "/"
+                    + options.getOrDefault("database-name", "parking_garage");
+            System.out.printf("Database round trips through port %d take %d ms more%n",
+                    proxy.port(), latency.toMillis());
+            launcher = AppLauncher.start(
+                    options.getOrDefault("jar", "target/parking-garage-0.0.1-SNAPSHOT.jar"),
+                    "jdbc:postgresql://" + databaseAddress, port, options.getOrDefault("profiles", "dev"),
+                    List.of("--parking.reactive.enabled=true",
+                            "--parking.reactive.port=" + reactivePort,
+                            "--parking.reactive.r2dbc-url=r2dbc:postgresql://" + databaseAddress,
+                            "--parking.admission.enabled=false"),
+                    new ParkingApiClient(servletUrl, new EndpointStats()), 180);
+        }
+
+        try {
+            benchmark.createSpots();
+            List<String> rows = new ArrayList<>();
+            for (String stack : options.getOrDefault("stacks", "servlet,reactive").split(",")) {
+                boolean reactive = switch (stack.trim()) {
+                    case "servlet" -> false;
+                    case "reactive" -> true;
+                    default -> throw new IllegalArgumentException("Unknown stack '" + stack + "'");
+                };
+                String baseUrl = reactive ? reactiveUrl : benchmark.servletUrl;
+                Sample idle = benchmark.idleSample(reactive);
+                benchmark.run(baseUrl, warmupNanos, new EndpointStats());
+
+                EndpointStats stats = new EndpointStats();
+                List<Sample> samples = new ArrayList<>();
+                ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+                sampler.scheduleAtFixedRate(() -> samples.add(benchmark.sample(reactive)),
+                        0, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                double seconds = benchmark.run(baseUrl, measureNanos, stats);
+                sampler.shutdown();
+                sampler.awaitTermination(10, TimeUnit.SECONDS);
+
+                System.out.printf("%n%s stack, %d gates:", reactive ? "Reactive" : "Servlet", benchmark.gates);
+                stats.report(System.out, seconds);
+                rows.add(benchmark.summary(reactive ? "reactive" : "servlet", stats.successes() / seconds,
+                        idle, samples, threadStackBytes));
+            }
+            System.out.printf("%n%-10s %10s %12s %12s %10s %10s %16s%n", "stack", "ok req/s", "db conns max",
+                    "db wait max", "threads +", "heap +MB", "KB per in-flight");
+            rows.forEach(System.out::println);
+        } finally {
+            if (launcher != null) {
+                launcher.close();
+            }
+            if (proxy != null) {
+                proxy.close();
+            }
+        }
+    }
+
+    /**
+     * Run every gate for {@code nanos} and wait for its last check-out; returns the elapsed seconds
+     */
+    private double run(String baseUrl, long nanos, EndpointStats stats) {
+        ExecutorService executor = Executors.newFixedThreadPool(gates);
+        long start = System.nanoTime();
+        long deadline = start + nanos;
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (int gate = 1; gate <= gates; gate++) {
+            String spot = spotIdentifier(gate);
+            String plate = "RB-" + gate;
+            runs.add(CompletableFuture.runAsync(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        post(CHECK_IN, baseUrl + "/api/parking/check-in",
+                                Map.of("licensePlate", plate, "spotIdentifier", spot), stats);
+                        post(CHECK_OUT, baseUrl + "/api/parking/check-out", Map.of("spotIdentifier", spot), stats);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException("Gate " + spot + " failed", e);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).join();
+        executor.shutdown();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private void post(String endpoint, String url, Object body, EndpointStats stats) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        long sent = System.nanoTime();
+        int status;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        }
+        stats.record(endpoint, System.nanoTime() - sent, status >= 200 && status < 300);
+    }
+
+    /**
+     * Database connections in use and waiting, live threads and heap used, at one point in time
+     */
+    private record Sample(double connections, double waiting, double threads, double heapBytes) {
+    }
+
+    private Sample sample(boolean reactive) {
+        return new Sample(
+                metric(reactive ? "r2dbc.pool.acquired?tag=name:reactive" : "hikaricp.connections.active"),
+                metric(reactive ? "r2dbc.pool.pending?tag=name:reactive" : "hikaricp.connections.pending"),
+                metric("jvm.threads.live"),
+                metric("jvm.memory.used?tag=area:heap"));
+    }
+
+    /**
+     * The idle application, averaged over a few samples as the heap moves with every collection
+     */
+    private Sample idleSample(boolean reactive) throws InterruptedException {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            samples.add(sample(reactive));
+            Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+        }
+        return new Sample(0, 0, average(samples, Sample::threads), average(samples, Sample::heapBytes));
+    }
+
+    private String summary(String stack, double throughput, Sample idle, List<Sample> samples,
+                           long threadStackBytes) {
+        double extraThreads = Math.max(0, average(samples, Sample::threads) - idle.threads());
+        double extraHeap = Math.max(0, average(samples, Sample::heapBytes) - idle.heapBytes());
+        double perRequest = (extraHeap + extraThreads * threadStackBytes) / gates;
+        return String.format("%-10s %10.1f %12.0f %12.0f %10.0f %10.1f %16.1f", stack, throughput,
+                max(samples, Sample::connections), max(samples, Sample::waiting), extraThreads,
+                extraHeap / (1024 * 1024), perRequest / 1024);
+    }
+
+    private static double average(List<Sample> samples, ToDoubleFunction<Sample> value) {
+        return samples.stream().mapToDouble(value).filter(v -> !Double.isNaN(v)).average().orElse(Double.NaN);
+    }
+
+    private static double max(List<Sample> samples, ToDoubleFunction<Sample> value) {
+        return samples.stream().mapToDouble(value).filter(v -> !Double.isNaN(v)).max().orElse(Double.NaN);
+    }
+
+    /**
+     * The VALUE of an actuator metric, or NaN when the application does not have it
+     */
+    private double metric(String nameAndTags) {
+        try {
+            HttpResponse<byte[]> response = httpClient.send(
+                    HttpRequest.newBuilder(URI.create(servletUrl + "/actuator/metrics/" + nameAndTags))
+                            .timeout(Duration.ofSeconds(5)).GET().build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+                if ("VALUE".equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+            return Double.NaN;
+        } catch (IOException e) {
+            return Double.NaN;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * One spot per gate, imported once and reused by later runs; cars left parked by an aborted run
+     * are checked out
+     */
+    private void createSpots() throws IOException, InterruptedException {
+        send("/api/spot-types", Map.of("name", "STACKBENCH", "description", "Reactive stack benchmark"));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int gate = 1; gate <= gates; gate++) {
+            rows.add(Map.of("floorNumber", FLOOR_NUMBER, "floorName", "Stack benchmark", "bayIdentifier", "B",
+                    "bayName", "Stack benchmark", "spotIdentifier", spotIdentifier(gate),
+                    "spotNumber", String.format("%04d", gate), "spotType", "STACKBENCH"));
+        }
+        JsonNode result = objectMapper.readTree(send("/api/topology/import", rows));
+        for (int gate = 1; gate <= gates; gate++) {
+            send("/api/parking/check-out", Map.of("spotIdentifier", spotIdentifier(gate)));
+        }
+        System.out.printf("%d gate spots on floor %d (%d created)%n", gates, FLOOR_NUMBER,
+                result.path("spotsCreated").asInt());
+    }
+
+    private String send(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(servletUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static String spotIdentifier(int gate) {
+        return String.format("RB-%04d", gate);
+    }
+
+    private static String trimSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,57 @@
+package com.liatrio.parkinggarage.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrivalCurveTest {
+
+    @Test
+    void parse_ShouldInterpolateBetweenPoints() {
+        // Arrange
+        ArrivalCurve curve = ArrivalCurve.parse("0:10,60:70,120:10");
+
+        // Act & Assert
+        assertEquals(10.0, curve.rateAt(0), 1e-9);
+        assertEquals(40.0, curve.rateAt(30), 1e-9);
+        assertEquals(70.0, curve.rateAt(60), 1e-9);
+        assertEquals(40.0, curve.rateAt(90), 1e-9);
+        assertEquals(10.0, curve.rateAt(500), 1e-9);
+        assertEquals(70.0, curve.maxRate(), 1e-9);
+        assertEquals(120.0, curve.durationSeconds(), 1e-9);
+    }
+
+    @Test
+    void parse_WhenPresetName_ShouldUsePreset() {
+        // Act
+        ArrivalCurve curve = ArrivalCurve.parse("rush-hour");
+
+        // Assert
+        assertEquals(300.0, curve.durationSeconds(), 1e-9);
+        assertEquals(40.0, curve.maxRate(), 1e-9);
+    }
+
+    @Test
+    void parse_WhenPointsOutOfOrder_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ArrivalCurve.parse("0:10,60:5,30:1"));
+    }
+
+    @Test
+    void parse_WhenSinglePoint_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ArrivalCurve.parse("0:10"));
+    }
+
+    @Test
+    void parseOptions_ShouldReadKeyValuesAndFlags() {
+        // Act
+        Map<String, String> options = LoadTest.parseOptions(new String[]{"--curve=0:1,10:2", "--start-app"});
+
+        // Assert
+        assertEquals("0:1,10:2", options.get("curve"));
+        assertEquals("true", options.get("start-app"));
+    }
+}
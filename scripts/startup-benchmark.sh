@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time from `docker run` to the first successful check-in,
+# comparing the standard image against the AOT + AppCDS fast-start image.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#
+# Requires docker and curl. Uses the Postgres service from docker-compose.dev.yml
+# and the dev profile seed data (spot F1-A-02 starts out free). A container that
+# has not checked a car in after STARTUP_TIMEOUT seconds (default 120) fails the run.
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+SPOT="${BENCH_SPOT:-F1-A-02}"
+STARTUP_TIMEOUT="${STARTUP_TIMEOUT:-120}"
+COMPOSE_FILE="docker-compose.dev.yml"
+CONTAINER="parking-garage-startup-bench"
+
+cd "$(dirname "$0")/.."
+
+echo "Starting Postgres..."
+docker compose -f "$COMPOSE_FILE" up -d --wait postgres
+
+echo "Building images..."
+docker build -q -t parking-garage:standard . > /dev/null
+docker build -q --target fast-start --build-arg FAST_START_PROFILES=dev -t parking-garage:fast-start . > /dev/null
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+cleanup() {
+  docker rm -f "$CONTAINER" > /dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+# Runs one container and prints the milliseconds until a check-in succeeds
+time_to_first_check_in() {
+  local image="$1"
+  local run="$2"
+  local plate="BENCH-${run}-$$"
+
+  cleanup
+  local start
+  start=$(now_ms)
+  local deadline=$(( start + STARTUP_TIMEOUT * 1000 ))
+  docker run -d --name "$CONTAINER" --network host \
+    -e DATABASE_URL="jdbc:postgresql://localhost:5432/parking_garage" \
+    -e DATABASE_USERNAME=postgres \
+    -e DATABASE_PASSWORD=postgres \
+    -e SPRING_PROFILES_ACTIVE=dev \
+    -e PORT="$PORT" \
+    "$image" > /dev/null
+
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST "http://localhost:${PORT}/api/parking/check-in" \
+      -H 'Content-Type: application/json' \
+      -d "{\"licensePlate\":\"${plate}\",\"spotIdentifier\":\"${SPOT}\"}")" = "201" ]; do
+    if [ "$(now_ms)" -ge "$deadline" ]; then
+      echo "${image} run ${run}: no check-in within ${STARTUP_TIMEOUT} s, last container output:" >&2
+      docker logs --tail 50 "$CONTAINER" >&2 || true
+      exit 1
+    fi
+    sleep 0.05
+  done
+  local elapsed=$(( $(now_ms) - start ))
+
+  # Free the spot again for the next run
+  curl -s -o /dev/null -X POST "http://localhost:${PORT}/api/parking/check-out" \
+    -H 'Content-Type: application/json' \
+    -d "{\"spotIdentifier\":\"${SPOT}\"}"
+  cleanup
+
+  echo "$elapsed"
+}
+
+for image in parking-garage:standard parking-garage:fast-start; do
+  total=0
+  for run in $(seq 1 "$RUNS"); do
+    ms=$(time_to_first_check_in "$image" "$run")
+    echo "${image} run ${run}: ${ms} ms"
+    total=$(( total + ms ))
+  done
+  echo "${image} average time to first check-in: $(( total / RUNS )) ms"
+done
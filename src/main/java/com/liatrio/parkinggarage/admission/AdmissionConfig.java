@@ -0,0 +1,40 @@
+package com.liatrio.parkinggarage.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "parking.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public AdmissionLimiter admissionLimiter(MeterRegistry meterRegistry,
+                                             @Value("${parking.admission.max-concurrent:40}") int maxConcurrent,
+                                             @Value("${parking.admission.query-share:0.75}") double queryShare,
+                                             @Value("${parking.admission.admin-share:0.5}") double adminShare,
+                                             @Value("${parking.admission.max-queue:50}") int maxQueue,
+                                             @Value("${parking.admission.max-wait:100ms}") Duration maxWait) {
+        return new AdmissionLimiter(meterRegistry, maxConcurrent, queryShare, adminShare, maxQueue, maxWait);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionLimiter admissionLimiter,
+                                                                   ObjectMapper objectMapper,
+                                                                   @Value("${parking.admission.retry-after:1s}") Duration retryAfter) {
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        FilterRegistrationBean<AdmissionFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionFilter(admissionLimiter, objectMapper, retryAfterSeconds));
+        registration.addUrlPatterns("/api/*");
+        // Ahead of the garage filter, so rejected requests never resolve a garage
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
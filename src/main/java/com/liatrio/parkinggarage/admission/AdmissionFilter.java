@@ -0,0 +1,69 @@
+package com.liatrio.parkinggarage.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.exception.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Admits each API request through the {@link AdmissionLimiter}, answering 429 Too Many Requests
+ * with a Retry-After header when its traffic class is saturated. Runs before the garage is resolved
+ * and the persistence session is opened, so a rejected request costs no database work.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final AdmissionLimiter admissionLimiter;
+    private final ObjectMapper objectMapper;
+    private final long retryAfterSeconds;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TrafficClass trafficClass = TrafficClass.of(request);
+        boolean admitted;
+        try {
+            admitted = admissionLimiter.tryAcquire(trafficClass);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            log.debug("Rejected {} {} ({} traffic saturated)", request.getMethod(), request.getRequestURI(),
+                    trafficClass.tag());
+            writeTooManyRequests(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            admissionLimiter.release();
+        }
+    }
+
+    private void writeTooManyRequests(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                .message("The parking service is busy, retry in " + retryAfterSeconds + " seconds")
+                .path(request.getRequestURI())
+                .build();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,141 @@
+package com.liatrio.parkinggarage.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds the number of API requests in flight, shedding the least urgent traffic first.
+ *
+ * All classes share one pool of maxConcurrent slots, but each class may only take a slot while
+ * fewer requests than its ceiling are in flight: gate traffic up to maxConcurrent, queries up to
+ * queryShare of it and admin writes up to adminShare of it. As the database slows down and requests
+ * stay in flight longer, admin writes are turned away first and queries next, while the slots above
+ * the query ceiling stay free for check-in and check-out. A request that finds its class at the
+ * ceiling waits up to maxWait for a slot, with at most maxQueue requests of a class waiting; beyond
+ * that it is rejected straight away.
+ *
+ * parking.admission.in_flight           - requests holding a slot
+ * parking.admission.queued{class}       - requests waiting for a slot
+ * parking.admission.rejections{class}   - requests turned away
+ */
+public class AdmissionLimiter {
+
+    static final String IN_FLIGHT_GAUGE = "parking.admission.in_flight";
+    static final String QUEUED_GAUGE = "parking.admission.queued";
+    static final String REJECTION_COUNTER = "parking.admission.rejections";
+
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Map<TrafficClass, Integer> ceilings = new EnumMap<>(TrafficClass.class);
+    private final Map<TrafficClass, Integer> queued = new EnumMap<>(TrafficClass.class);
+    private final Map<TrafficClass, Counter> rejections = new EnumMap<>(TrafficClass.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int inFlight;
+
+    public AdmissionLimiter(MeterRegistry meterRegistry, int maxConcurrent, double queryShare, double adminShare,
+                            int maxQueue, Duration maxWait) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+        ceilings.put(TrafficClass.GATE, maxConcurrent);
+        ceilings.put(TrafficClass.QUERY, ceiling(maxConcurrent, queryShare));
+        ceilings.put(TrafficClass.ADMIN, ceiling(maxConcurrent, adminShare));
+
+        Gauge.builder(IN_FLIGHT_GAUGE, this, AdmissionLimiter::inFlight)
+                .description("API requests being processed")
+                .register(meterRegistry);
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            queued.put(trafficClass, 0);
+            Gauge.builder(QUEUED_GAUGE, this, limiter -> limiter.queued(trafficClass))
+                    .description("API requests waiting for a slot")
+                    .tag("class", trafficClass.tag())
+                    .register(meterRegistry);
+            rejections.put(trafficClass, Counter.builder(REJECTION_COUNTER)
+                    .description("API requests rejected because the application is saturated")
+                    .tag("class", trafficClass.tag())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Take a slot, waiting up to maxWait for one; every true result must be paired with {@link #release()}
+     */
+    public boolean tryAcquire(TrafficClass trafficClass) throws InterruptedException {
+        int ceiling = ceilings.get(trafficClass);
+        lock.lock();
+        try {
+            if (inFlight < ceiling) {
+                inFlight++;
+                return true;
+            }
+            if (maxWaitNanos <= 0 || queued.get(trafficClass) >= maxQueue) {
+                rejections.get(trafficClass).increment();
+                return false;
+            }
+            queued.merge(trafficClass, 1, Integer::sum);
+            try {
+                long remainingNanos = maxWaitNanos;
+                while (inFlight >= ceiling) {
+                    if (remainingNanos <= 0) {
+                        rejections.get(trafficClass).increment();
+                        return false;
+                    }
+                    remainingNanos = released.awaitNanos(remainingNanos);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queued.merge(trafficClass, -1, Integer::sum);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            // Waiters of every class share the pool, each re-checks against its own ceiling
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int ceiling(TrafficClass trafficClass) {
+        return ceilings.get(trafficClass);
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued(TrafficClass trafficClass) {
+        lock.lock();
+        try {
+            return queued.get(trafficClass);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int ceiling(int maxConcurrent, double share) {
+        return Math.max(1, Math.min(maxConcurrent, (int) Math.floor(maxConcurrent * share)));
+    }
+}
@@ -0,0 +1,34 @@
+package com.liatrio.parkinggarage.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * API traffic grouped by how long it can wait, in the order it is shed under load
+ */
+public enum TrafficClass {
+    /** Check-in and check-out from the gates */
+    GATE,
+    /** Lookups and lists */
+    QUERY,
+    /** Every other write: garages, floors, bays, spots, spot types, cars and reservations */
+    ADMIN;
+
+    private static final String PARKING_PATH = "/api/parking/";
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+
+    static TrafficClass of(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return QUERY;
+        }
+        String path = request.getRequestURI();
+        if ("POST".equals(method) && (path.equals(PARKING_PATH + "check-in")
+                || path.startsWith(PARKING_PATH + "check-out"))) {
+            return GATE;
+        }
+        return ADMIN;
+    }
+}
@@ -0,0 +1,194 @@
+package com.liatrio.parkinggarage.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static com.liatrio.parkinggarage.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Encoded response bodies of the hot read endpoints, so a repeated request is answered without
+ * running the service layer or Jackson (see {@link ResponseCacheFilter}).
+ *
+ * Entries are never updated in place. Each one is stamped with the generations current when its
+ * request started, and is only served while they are still current: the topology generation moves
+ * when floors, bays, spot types or spots change, and a garage's occupancy generation moves when a
+ * car checks in or out there. Both are moved after the change commits, so an entry filled from data
+ * read before the commit always carries an older generation. The generations only see writes made
+ * through this instance, so entries also expire after a short max age per scope, which bounds how
+ * long a write made elsewhere (another instance, SQL) goes unseen. The map is a bounded LRU; stale
+ * entries are dropped when next looked up or pushed out by newer ones.
+ *
+ * parking.response_cache.requests{outcome} - cacheable requests by hit, miss or uncacheable response
+ */
+@Component
+public class ResponseCache {
+
+    public static final String HIT = "hit";
+    public static final String MISS = "miss";
+    public static final String UNCACHEABLE = "uncacheable";
+
+    static final String REQUEST_COUNTER = "parking.response_cache.requests";
+
+    /** Smaller bodies are served uncompressed, gzip would barely shrink them */
+    static final int MIN_GZIP_BYTES = 256;
+
+    /**
+     * Which changes invalidate an endpoint's responses
+     */
+    public enum Scope {
+        TOPOLOGY,
+        OCCUPANCY
+    }
+
+    public record Key(Long garageId, String path, String query, String accept) {
+    }
+
+    public record Generation(long topology, long occupancy) {
+    }
+
+    /**
+     * An encoded body, and its gzip encoding when it is large enough to be worth compressing
+     */
+    public record Entry(Scope scope, Generation generation, long expiresAt, String contentType, byte[] body,
+                        byte[] gzipped) {
+    }
+
+    private final boolean gzip;
+    private final long maxEntryBytes;
+    private final Duration topologyMaxAge;
+    private final Duration occupancyMaxAge;
+    private final Map<Key, Entry> entries;
+    private final AtomicLong topologyGeneration = new AtomicLong();
+    private final Map<Long, AtomicLong> occupancyGenerations = new ConcurrentHashMap<>();
+    private final Map<String, Counter> requests = new ConcurrentHashMap<>();
+    Clock clock = Clock.systemDefaultZone();
+
+    public ResponseCache(MeterRegistry meterRegistry,
+                         @Value("${parking.response-cache.max-entries:1000}") int maxEntries,
+                         @Value("${parking.response-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+                         @Value("${parking.response-cache.gzip:true}") boolean gzip,
+                         @Value("${parking.response-cache.max-age:5m}") Duration topologyMaxAge,
+                         @Value("${parking.response-cache.occupancy-max-age:5s}") Duration occupancyMaxAge) {
+        this.gzip = gzip;
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.topologyMaxAge = topologyMaxAge;
+        this.occupancyMaxAge = occupancyMaxAge;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        for (String outcome : new String[]{HIT, MISS, UNCACHEABLE}) {
+            requests.put(outcome, Counter.builder(REQUEST_COUNTER)
+                    .description("Requests to cached read endpoints by cache outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * The generations to stamp on a response whose data is about to be read
+     */
+    public Generation currentGeneration(Long garageId) {
+        return new Generation(topologyGeneration.get(), occupancyGeneration(garageId).get());
+    }
+
+    /**
+     * The cached response, or null when there is none or it is out of date or expired
+     */
+    public Entry get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.millis() || !isCurrent(entry, currentGeneration(key.garageId()))) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Cache a response read at the given generation; does nothing if the body is too large or the
+     * data has changed since
+     */
+    public boolean put(Key key, Scope scope, Generation generation, String contentType, byte[] body) {
+        if (body.length > maxEntryBytes) {
+            return false;
+        }
+        Duration maxAge = scope == Scope.OCCUPANCY ? occupancyMaxAge : topologyMaxAge;
+        Entry entry = new Entry(scope, generation, clock.millis() + maxAge.toMillis(), contentType, body,
+                gzip && body.length >= MIN_GZIP_BYTES ? gzip(body) : null);
+        if (!isCurrent(entry, currentGeneration(key.garageId()))) {
+            return false;
+        }
+        entries.put(key, entry);
+        return true;
+    }
+
+    /**
+     * Invalidate every response once the current transaction commits (straight away outside one)
+     */
+    public void topologyChanged() {
+        afterCommit(topologyGeneration::incrementAndGet);
+    }
+
+    /**
+     * Invalidate the availability responses of a garage once the current transaction commits
+     * (straight away outside one)
+     */
+    public void occupancyChanged(Long garageId) {
+        if (garageId == null) {
+            topologyChanged();
+            return;
+        }
+        afterCommit(occupancyGeneration(garageId)::incrementAndGet);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    void record(String outcome) {
+        requests.get(outcome).increment();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static boolean isCurrent(Entry entry, Generation current) {
+        return entry.generation().topology() == current.topology()
+                && (entry.scope() == Scope.TOPOLOGY || entry.generation().occupancy() == current.occupancy());
+    }
+
+    private AtomicLong occupancyGeneration(Long garageId) {
+        return occupancyGenerations.computeIfAbsent(garageId, id -> new AtomicLong());
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
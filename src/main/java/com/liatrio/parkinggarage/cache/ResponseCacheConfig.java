@@ -0,0 +1,22 @@
+package com.liatrio.parkinggarage.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "parking.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(ResponseCache responseCache) {
+        FilterRegistrationBean<ResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(new ResponseCacheFilter(responseCache));
+        registration.addUrlPatterns("/api/*");
+        // Behind the garage filter, which resolves the garage the responses are keyed by
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,134 @@
+package com.liatrio.parkinggarage.cache;
+
+import com.liatrio.parkinggarage.cache.ResponseCache.Entry;
+import com.liatrio.parkinggarage.cache.ResponseCache.Generation;
+import com.liatrio.parkinggarage.cache.ResponseCache.Key;
+import com.liatrio.parkinggarage.cache.ResponseCache.Scope;
+import com.liatrio.parkinggarage.tenancy.GarageContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Answers GET requests to the floor, bay, spot type and available spot endpoints from the
+ * {@link ResponseCache}, and caches their 200 responses on a miss. Runs after the garage is
+ * resolved, keying each response by garage, path, query string and Accept header; a hit never
+ * reaches the dispatcher, so it costs no service call, database query or serialization.
+ *
+ * The gzip encoding is sent to clients that accept it, with Vary set so shared caches keep the
+ * encodings apart.
+ */
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+    private static final Map<String, Scope> CACHED_PATHS = Map.of(
+            "/api/floors", Scope.TOPOLOGY,
+            "/api/bays", Scope.TOPOLOGY,
+            "/api/spot-types", Scope.TOPOLOGY,
+            "/api/parking-spots/available", Scope.OCCUPANCY);
+
+    private final ResponseCache responseCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || scope(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long garageId = GarageContext.current();
+        if (garageId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Key key = new Key(garageId, request.getRequestURI(), request.getQueryString(),
+                request.getHeader(HttpHeaders.ACCEPT));
+        Entry cached = responseCache.get(key);
+        if (cached != null) {
+            responseCache.record(ResponseCache.HIT);
+            write(cached, acceptsGzip(request), response);
+            return;
+        }
+
+        Generation generation = responseCache.currentGeneration(garageId);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            boolean cacheable = wrapper.getStatus() == HttpStatus.OK.value()
+                    && !wrapper.containsHeader(HttpHeaders.CONTENT_ENCODING)
+                    && responseCache.put(key, scope(request.getRequestURI()), generation, wrapper.getContentType(),
+                    wrapper.getContentAsByteArray());
+            responseCache.record(cacheable ? ResponseCache.MISS : ResponseCache.UNCACHEABLE);
+            if (cacheable) {
+                wrapper.setHeader(HttpHeaders.VARY, VARY);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void write(Entry entry, boolean gzip, HttpServletResponse response) throws IOException {
+        byte[] body = entry.body();
+        if (gzip && entry.gzipped() != null) {
+            body = entry.gzipped();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setHeader(HttpHeaders.VARY, VARY);
+        if (entry.contentType() != null) {
+            response.setContentType(entry.contentType());
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    static Scope scope(String path) {
+        for (Map.Entry<String, Scope> cached : CACHED_PATHS.entrySet()) {
+            String prefix = cached.getKey();
+            if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                return cached.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether Accept-Encoding lists gzip (or *) without q=0
+     */
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].replace(" ", "").matches("q=0(\\.0*)?")) {
+                    refused = true;
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
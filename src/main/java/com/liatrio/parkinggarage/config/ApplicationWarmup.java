@@ -0,0 +1,175 @@
+package com.liatrio.parkinggarage.config;
+
+import com.liatrio.parkinggarage.dto.CheckInRequest;
+import com.liatrio.parkinggarage.dto.CheckOutRequest;
+import com.liatrio.parkinggarage.entity.Car;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.repository.CarRepository;
+import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
+import com.liatrio.parkinggarage.service.BillingService;
+import com.liatrio.parkinggarage.service.ParkingTransactionService;
+import com.liatrio.parkinggarage.tenancy.GarageContext;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Warms up Hibernate metadata, query plans and the JIT before the instance takes traffic.
+ *
+ * Registered as the "warmup" health indicator, which is part of the readiness group,
+ * so /actuator/health/readiness stays DOWN until warm-up has finished.
+ */
+@Component("warmup")
+@Slf4j
+public class ApplicationWarmup implements HealthIndicator {
+
+    static final String WARMUP_PLATE_PREFIX = "WARMUP-";
+
+    private final ParkingTransactionService parkingTransactionService;
+    private final BillingService billingService;
+    private final ParkingSpotRepository parkingSpotRepository;
+    private final CarRepository carRepository;
+    private final TransactionTemplate dryRunTemplate;
+    private final GarageDirectory garageDirectory;
+
+    @Value("${parking.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${parking.warmup.iterations:200}")
+    private int iterations = 200;
+
+    @Value("${parking.warmup.lookup-sample-size:100}")
+    private int lookupSampleSize = 100;
+
+    private volatile boolean complete;
+    private volatile long durationMillis;
+
+    public ApplicationWarmup(ParkingTransactionService parkingTransactionService,
+                             BillingService billingService,
+                             ParkingSpotRepository parkingSpotRepository,
+                             CarRepository carRepository,
+                             PlatformTransactionManager transactionManager,
+                             GarageDirectory garageDirectory) {
+        this.parkingTransactionService = parkingTransactionService;
+        this.billingService = billingService;
+        this.parkingSpotRepository = parkingSpotRepository;
+        this.carRepository = carRepository;
+        this.dryRunTemplate = new TransactionTemplate(transactionManager);
+        this.garageDirectory = garageDirectory;
+    }
+
+    /**
+     * Runs after all runners (including the data seeder) have completed, against the default garage.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        GarageContext.runAs(garageDirectory.defaultGarageId(), this::warmUp);
+    }
+
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Warm-up disabled, skipping");
+            complete = true;
+            return;
+        }
+
+        log.info("Starting warm-up with {} iterations", iterations);
+        long start = System.nanoTime();
+
+        try {
+            List<ParkingSpot> spots = primeSpotLookups();
+            primePlateLookups();
+            primeBilling();
+            if (!spots.isEmpty()) {
+                runDryRunSessions(spots.get(0).getSpotIdentifier());
+            } else {
+                log.info("No available spots found, skipping dry-run check-in/check-out");
+            }
+        } catch (RuntimeException e) {
+            // Warm-up is best effort - never keep an instance out of rotation because of it
+            log.warn("Warm-up failed: {}", e.getMessage());
+        }
+
+        durationMillis = (System.nanoTime() - start) / 1_000_000;
+        complete = true;
+        log.info("Warm-up completed in {} ms", durationMillis);
+    }
+
+    private List<ParkingSpot> primeSpotLookups() {
+        List<ParkingSpot> spots = parkingSpotRepository.findAvailableSpots();
+        parkingSpotRepository.findOccupiedSpots();
+        spots.stream()
+                .limit(lookupSampleSize)
+                .forEach(spot -> parkingSpotRepository.findBySpotIdentifier(spot.getSpotIdentifier()));
+        return spots;
+    }
+
+    private void primePlateLookups() {
+        carRepository.findAll(PageRequest.of(0, lookupSampleSize)).stream()
+                .map(Car::getLicensePlate)
+                .forEach(carRepository::findByLicensePlate);
+    }
+
+    private void primeBilling() {
+        LocalDateTime checkInTime = LocalDateTime.now();
+        for (int i = 0; i < iterations; i++) {
+            // Spread durations across the grace period, partial hours and multi-day stays
+            billingService.calculateParkingFee(checkInTime, checkInTime.plusMinutes(i * 37L % 4320));
+        }
+    }
+
+    /**
+     * Exercises the real check-in/check-out paths inside transactions that are always rolled back.
+     */
+    private void runDryRunSessions(String spotIdentifier) {
+        for (int i = 0; i < iterations; i++) {
+            String licensePlate = WARMUP_PLATE_PREFIX + i;
+            boolean byPlate = i % 2 == 1;
+            try {
+                dryRunTemplate.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    parkingTransactionService.checkIn(CheckInRequest.builder()
+                            .licensePlate(licensePlate)
+                            .spotIdentifier(spotIdentifier)
+                            .build());
+                    if (byPlate) {
+                        parkingTransactionService.checkOutByLicensePlate(licensePlate);
+                    } else {
+                        parkingTransactionService.checkOut(CheckOutRequest.builder()
+                                .spotIdentifier(spotIdentifier)
+                                .build());
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.debug("Dry-run session {} failed: {}", i, e.getMessage());
+            }
+        }
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public Health health() {
+        if (!complete) {
+            return Health.outOfService().withDetail("warmup", "in progress").build();
+        }
+        return Health.up().withDetail("durationMs", durationMillis).build();
+    }
+}
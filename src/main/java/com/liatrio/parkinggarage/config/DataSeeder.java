@@ -2,6 +2,7 @@ package com.liatrio.parkinggarage.config;
 
 import com.liatrio.parkinggarage.entity.*;
 import com.liatrio.parkinggarage.repository.*;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -26,7 +27,8 @@ public class DataSeeder {
             ParkingSpotRepository parkingSpotRepository,
             SpotTypeRepository spotTypeRepository,
             CarRepository carRepository,
-            ParkingTransactionRepository transactionRepository) {
+            ParkingTransactionRepository transactionRepository,
+            GarageDirectory garageDirectory) {
         
         return args -> {
             log.info("Starting data seeding...");
@@ -65,8 +67,10 @@ public class DataSeeder {
             spotTypeRepository.saveAll(List.of(regularType, compactType, largeType, handicapType));
             log.info("Created 4 spot types");
             
-            // Create Floors
+            // Create Floors (seeding runs outside a request, so rows are stamped with the default garage)
+            Long garageId = garageDirectory.defaultGarageId();
             Floor floor1 = Floor.builder()
+                    .garageId(garageId)
                     .floorNumber(1)
                     .name("Ground Floor")
                     .active(true)
@@ -74,6 +78,7 @@ public class DataSeeder {
                     .build();
             
             Floor floor2 = Floor.builder()
+                    .garageId(garageId)
                     .floorNumber(2)
                     .name("Second Floor")
                     .active(true)
@@ -81,6 +86,7 @@ public class DataSeeder {
                     .build();
             
             Floor floor3 = Floor.builder()
+                    .garageId(garageId)
                     .floorNumber(3)
                     .name("Third Floor")
                     .active(true)
@@ -168,6 +174,7 @@ public class DataSeeder {
             ParkingSpot spot2 = spots.get(15);
             
             ParkingTransaction transaction1 = ParkingTransaction.builder()
+                    .garageId(spot1.getGarageId())
                     .car(car1)
                     .parkingSpot(spot1)
                     .checkInTime(LocalDateTime.now().minusHours(2))
@@ -175,6 +182,7 @@ public class DataSeeder {
                     .build();
             
             ParkingTransaction transaction2 = ParkingTransaction.builder()
+                    .garageId(spot2.getGarageId())
                     .car(car2)
                     .parkingSpot(spot2)
                     .checkInTime(LocalDateTime.now().minusMinutes(30))
@@ -187,6 +195,7 @@ public class DataSeeder {
             // Create a completed transaction
             ParkingSpot spot3 = spots.get(5);
             ParkingTransaction completedTransaction = ParkingTransaction.builder()
+                    .garageId(spot3.getGarageId())
                     .car(car3)
                     .parkingSpot(spot3)
                     .checkInTime(LocalDateTime.now().minusDays(1))
@@ -203,6 +212,7 @@ public class DataSeeder {
     
     private Bay createBay(String identifier, String name, Floor floor) {
         return Bay.builder()
+                .garageId(floor.getGarageId())
                 .bayIdentifier(identifier)
                 .name(name)
                 .floor(floor)
@@ -221,6 +231,7 @@ public class DataSeeder {
                     spotNumber);
             
             ParkingSpot spot = ParkingSpot.builder()
+                    .garageId(bay.getGarageId())
                     .spotIdentifier(spotIdentifier)
                     .spotNumber(spotNumber)
                     .spotType(spotType)
@@ -0,0 +1,460 @@
+package com.liatrio.parkinggarage.config;
+
+import com.liatrio.parkinggarage.service.BillingService;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates a large synthetic garage and transaction history for performance testing.
+ *
+ * Activated with the "generate" profile, e.g.
+ * SPRING_PROFILES_ACTIVE=generate GENERATOR_FLOORS=200 GENERATOR_SPOTS_PER_BAY=250 ...
+ *
+ * Rows are written with batched JDBC inserts from a fixed thread pool (add
+ * reWriteBatchedInserts=true to the Postgres URL for multi-row inserts). Sessions are
+ * generated per spot so a spot never has overlapping sessions: arrivals follow a
+ * diurnal curve and dwell times a lognormal mixture of short visits, workdays and
+ * multi-day stays. Cars are then handed out so each car's sessions follow each other
+ * too, and no car is parked twice at once. Floors, bays, spots and sessions are generated in the default garage.
+ */
+@Component
+@Profile("generate")
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    static final String PLATE_PREFIX = "SYN-";
+
+    /** Relative arrival intensity per hour of day (morning and evening peaks) */
+    static final double[] HOURLY_ARRIVAL_WEIGHTS = {
+            0.10, 0.05, 0.05, 0.05, 0.10, 0.30, 0.80, 1.60, 2.20, 1.80, 1.30, 1.20,
+            1.40, 1.30, 1.10, 1.20, 1.60, 2.00, 1.70, 1.20, 0.90, 0.60, 0.40, 0.20
+    };
+
+    private static final double MAX_ARRIVAL_WEIGHT = Arrays.stream(HOURLY_ARRIVAL_WEIGHTS).max().orElse(1.0);
+    private static final double MEAN_ARRIVAL_WEIGHT = Arrays.stream(HOURLY_ARRIVAL_WEIGHTS).average().orElse(1.0);
+
+    private static final String[] SPOT_TYPES = {"REGULAR", "COMPACT", "LARGE", "HANDICAP"};
+    private static final String[] MAKES = {"Toyota", "Honda", "Ford", "Chevrolet", "Tesla", "BMW", "Subaru", "Kia"};
+    private static final String[] COLORS = {"Black", "White", "Silver", "Blue", "Red", "Gray"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BillingService billingService;
+    private final GarageDirectory garageDirectory;
+
+    @Value("${parking.generator.floors:10}")
+    private int floors;
+
+    @Value("${parking.generator.bays-per-floor:10}")
+    private int baysPerFloor;
+
+    @Value("${parking.generator.spots-per-bay:50}")
+    private int spotsPerBay;
+
+    @Value("${parking.generator.cars:100000}")
+    private int cars;
+
+    @Value("${parking.generator.history-days:30}")
+    private int historyDays;
+
+    @Value("${parking.generator.daily-turnover:3.0}")
+    private double dailyTurnover;
+
+    @Value("${parking.generator.threads:4}")
+    private int threads;
+
+    @Value("${parking.generator.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${parking.generator.seed:42}")
+    private long seed;
+
+    @Override
+    public void run(String... args) throws Exception {
+        log.info("Generating synthetic garage: {} floors x {} bays x {} spots, {} cars, {} days of history",
+                floors, baysPerFloor, spotsPerBay, cars, historyDays);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        long garageId = garageDirectory.defaultGarageId();
+        try {
+            long[] spotTypeIds = ensureSpotTypes();
+            List<BayRef> bays = insertFloorsAndBays(garageId);
+            long[] spotIds = insertSpots(executor, garageId, bays, spotTypeIds);
+            long[] carIds = insertCars(executor);
+            insertTransactions(executor, garageId, spotIds, carIds);
+        } finally {
+            executor.shutdown();
+        }
+        log.info("Synthetic data generation completed in {} s", (System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private long[] ensureSpotTypes() {
+        long[] ids = new long[SPOT_TYPES.length];
+        for (int i = 0; i < SPOT_TYPES.length; i++) {
+            String name = SPOT_TYPES[i];
+            List<Long> existing = jdbcTemplate.queryForList("SELECT id FROM spot_types WHERE name = ?", Long.class, name);
+            if (existing.isEmpty()) {
+                jdbcTemplate.update("INSERT INTO spot_types (name, description, active) VALUES (?, ?, true)",
+                        name, name + " spot (synthetic)");
+                existing = jdbcTemplate.queryForList("SELECT id FROM spot_types WHERE name = ?", Long.class, name);
+            }
+            ids[i] = existing.get(0);
+        }
+        return ids;
+    }
+
+    private List<BayRef> insertFloorsAndBays(long garageId) {
+        long started = System.nanoTime();
+        Integer maxFloorNumber = jdbcTemplate.queryForObject(
+                "SELECT MAX(floor_number) FROM floors WHERE garage_id = ?", Integer.class, garageId);
+        int firstFloor = maxFloorNumber == null ? 1 : maxFloorNumber + 1;
+        long maxFloorId = maxId("floors");
+        long maxBayId = maxId("bays");
+
+        List<Object[]> floorRows = new ArrayList<>(floors);
+        for (int f = 0; f < floors; f++) {
+            int floorNumber = firstFloor + f;
+            floorRows.add(new Object[]{garageId, floorNumber, "Synthetic Floor " + floorNumber});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO floors (garage_id, floor_number, name, active) VALUES (?, ?, ?, true)",
+                floorRows);
+
+        List<Object[]> bayRows = new ArrayList<>(floors * baysPerFloor);
+        jdbcTemplate.query("SELECT id FROM floors WHERE id > ? ORDER BY id", rs -> {
+            long floorId = rs.getLong(1);
+            for (int b = 0; b < baysPerFloor; b++) {
+                String bayIdentifier = bayIdentifier(b);
+                bayRows.add(new Object[]{garageId, bayIdentifier, "Bay " + bayIdentifier, floorId});
+            }
+        }, maxFloorId);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO bays (garage_id, bay_identifier, name, floor_id, active) VALUES (?, ?, ?, ?, true)", bayRows);
+
+        List<BayRef> bays = jdbcTemplate.query("""
+                SELECT b.id, b.bay_identifier, f.floor_number FROM bays b
+                JOIN floors f ON f.id = b.floor_id
+                WHERE b.id > ? ORDER BY b.id
+                """, (rs, rowNum) -> new BayRef(rs.getLong(1), rs.getString(2), rs.getInt(3)), maxBayId);
+
+        report("floors + bays", floorRows.size() + bayRows.size(), started);
+        return bays;
+    }
+
+    private long[] insertSpots(ExecutorService executor, long garageId, List<BayRef> bays, long[] spotTypeIds)
+            throws InterruptedException, ExecutionException {
+        long started = System.nanoTime();
+        long maxSpotId = maxId("parking_spots");
+        int baysPerTask = Math.max(1, batchSize / Math.max(1, spotsPerBay));
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < bays.size(); from += baysPerTask) {
+            List<BayRef> slice = bays.subList(from, Math.min(bays.size(), from + baysPerTask));
+            futures.add(executor.submit(() -> {
+                List<Object[]> rows = new ArrayList<>(slice.size() * spotsPerBay);
+                for (BayRef bay : slice) {
+                    for (int s = 1; s <= spotsPerBay; s++) {
+                        String spotNumber = String.format("%03d", s);
+                        String spotIdentifier = String.format("G%d-%s-%s", bay.floorNumber(), bay.bayIdentifier(), spotNumber);
+                        rows.add(new Object[]{garageId, spotIdentifier, spotNumber, spotTypeIds[spotTypeIndex(s)], bay.id()});
+                    }
+                }
+                jdbcTemplate.batchUpdate("""
+                        INSERT INTO parking_spots (garage_id, spot_identifier, spot_number, spot_type_id, bay_id, active, version)
+                        VALUES (?, ?, ?, ?, ?, true, 0)
+                        """, rows);
+            }));
+        }
+        awaitAll(futures);
+
+        long[] spotIds = jdbcTemplate.queryForList("SELECT id FROM parking_spots WHERE id > ? ORDER BY id", Long.class, maxSpotId)
+                .stream().mapToLong(Long::longValue).toArray();
+        report("parking_spots", spotIds.length, started);
+        return spotIds;
+    }
+
+    private long[] insertCars(ExecutorService executor) throws InterruptedException, ExecutionException {
+        long started = System.nanoTime();
+        long maxCarId = maxId("cars");
+        long plateOffset = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cars WHERE license_plate LIKE ?", Long.class, PLATE_PREFIX + "%");
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < cars; from += batchSize) {
+            int sliceStart = from;
+            int sliceEnd = Math.min(cars, from + batchSize);
+            futures.add(executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed ^ sliceStart);
+                List<Object[]> rows = new ArrayList<>(sliceEnd - sliceStart);
+                for (int c = sliceStart; c < sliceEnd; c++) {
+                    rows.add(new Object[]{licensePlate(plateOffset + c),
+                            MAKES[random.nextInt(MAKES.length)], "Model " + (char) ('A' + random.nextInt(26)),
+                            COLORS[random.nextInt(COLORS.length)]});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO cars (license_plate, make, model, color) VALUES (?, ?, ?, ?)", rows);
+            }));
+        }
+        awaitAll(futures);
+
+        long[] carIds = jdbcTemplate.queryForList("SELECT id FROM cars WHERE id > ? ORDER BY id", Long.class, maxCarId)
+                .stream().mapToLong(Long::longValue).toArray();
+        report("cars", carIds.length, started);
+        return carIds;
+    }
+
+    private void insertTransactions(ExecutorService executor, long garageId, long[] spotIds, long[] carIds)
+            throws InterruptedException, ExecutionException {
+        if (spotIds.length == 0 || carIds.length == 0) {
+            log.info("No spots or cars generated, skipping transactions");
+            return;
+        }
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime historyStart = now.minusDays(historyDays);
+        AtomicLong rowCount = new AtomicLong();
+        AtomicLong skippedCount = new AtomicLong();
+        int spotsPerTask = Math.max(1, (int) (batchSize / Math.max(1.0, historyDays * dailyTurnover)));
+        int tasks = (spotIds.length + spotsPerTask - 1) / spotsPerTask;
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int task = 0; task < tasks; task++) {
+            int sliceStart = task * spotsPerTask;
+            int sliceEnd = Math.min(spotIds.length, sliceStart + spotsPerTask);
+            // Each task parks its own cars, so no car is in two tasks' sessions at once
+            long[] taskCarIds = everyNth(carIds, task, tasks);
+            futures.add(executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed * 31 + sliceStart);
+                List<Session> sessions = new ArrayList<>();
+                List<Long> sessionSpotIds = new ArrayList<>();
+                for (int s = sliceStart; s < sliceEnd; s++) {
+                    for (Session session : generateSessions(random, historyStart, now, dailyTurnover)) {
+                        sessions.add(session);
+                        sessionSpotIds.add(spotIds[s]);
+                    }
+                }
+                long[] sessionCarIds = assignCars(sessions, taskCarIds);
+
+                List<Object[]> rows = new ArrayList<>(batchSize);
+                for (int i = 0; i < sessions.size(); i++) {
+                    if (sessionCarIds[i] < 0) {
+                        skippedCount.incrementAndGet();
+                        continue;
+                    }
+                    Session session = sessions.get(i);
+                    Double fee = session.checkOutTime() == null ? null
+                            : billingService.calculateParkingFee(session.checkInTime(), session.checkOutTime());
+                    rows.add(new Object[]{garageId, sessionCarIds[i], sessionSpotIds.get(i),
+                            session.checkInTime(), session.checkOutTime(), fee});
+                    if (rows.size() >= batchSize) {
+                        flushTransactions(rows);
+                        rowCount.addAndGet(rows.size());
+                        rows.clear();
+                    }
+                }
+                flushTransactions(rows);
+                rowCount.addAndGet(rows.size());
+            }));
+        }
+        awaitAll(futures);
+        if (skippedCount.get() > 0) {
+            log.warn("Skipped {} sessions that started while every car was parked (raise parking.generator.cars)",
+                    skippedCount.get());
+        }
+        report("parking_transactions", rowCount.get(), started);
+    }
+
+    private void flushTransactions(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO parking_transactions (garage_id, car_id, parking_spot_id, check_in_time, check_out_time, parking_fee)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, rows);
+    }
+
+    /**
+     * Generates the non-overlapping sessions of one spot between {@code from} and {@code now}.
+     * A session still running at {@code now} is returned with a null check-out time.
+     */
+    static List<Session> generateSessions(SplittableRandom random, LocalDateTime from, LocalDateTime now,
+                                          double dailyTurnover) {
+        List<Session> sessions = new ArrayList<>();
+        double cycleMinutes = 24 * 60 / Math.max(0.01, dailyTurnover);
+        double meanIdleMinutes = Math.max(5.0, cycleMinutes - meanDwellMinutes());
+
+        // Start each spot at a random point so spots are not in lock step
+        LocalDateTime cursor = from.plusMinutes((long) (random.nextDouble() * cycleMinutes));
+        while (cursor.isBefore(now)) {
+            LocalDateTime checkInTime = cursor;
+            LocalDateTime checkOutTime = checkInTime.plusMinutes(Math.max(1, (long) sampleDwellMinutes(random)));
+            if (!checkOutTime.isBefore(now)) {
+                sessions.add(new Session(checkInTime, null));
+                break;
+            }
+            sessions.add(new Session(checkInTime, checkOutTime));
+            cursor = checkOutTime.plusMinutes(Math.max(1, (long) sampleIdleMinutes(random, checkOutTime, meanIdleMinutes)));
+        }
+        return sessions;
+    }
+
+    /**
+     * Gives each session one of {@code carIds} so that a car's sessions follow each other without
+     * overlapping: sessions are taken in check-in order and each goes to the car that has been free
+     * the longest. A car with an open session stays parked. A session starting while every car is
+     * parked gets no car (-1). Returns the car ids in the order of {@code sessions}.
+     */
+    static long[] assignCars(List<Session> sessions, long[] carIds) {
+        Integer[] order = new Integer[sessions.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> sessions.get(i).checkInTime()));
+
+        PriorityQueue<ParkedUntil> cars = new PriorityQueue<>(Math.max(1, carIds.length),
+                Comparator.comparing(ParkedUntil::checkOutTime).thenComparingLong(ParkedUntil::carId));
+        for (long carId : carIds) {
+            cars.add(new ParkedUntil(carId, LocalDateTime.MIN));
+        }
+        long[] assigned = new long[sessions.size()];
+        for (int i : order) {
+            Session session = sessions.get(i);
+            if (cars.isEmpty() || cars.peek().checkOutTime().isAfter(session.checkInTime())) {
+                assigned[i] = -1;
+                continue;
+            }
+            long carId = cars.poll().carId();
+            assigned[i] = carId;
+            if (session.checkOutTime() != null) {
+                cars.add(new ParkedUntil(carId, session.checkOutTime()));
+            }
+        }
+        return assigned;
+    }
+
+    private static long[] everyNth(long[] ids, int offset, int step) {
+        long[] slice = new long[Math.max(0, (ids.length - offset + step - 1) / step)];
+        for (int i = 0; i < slice.length; i++) {
+            slice[i] = ids[offset + i * step];
+        }
+        return slice;
+    }
+
+    /**
+     * Idle time until the next arrival: a non-homogeneous Poisson process sampled by thinning,
+     * so arrivals cluster in the busy hours while the average idle time stays at {@code meanIdleMinutes}
+     */
+    static double sampleIdleMinutes(SplittableRandom random, LocalDateTime after, double meanIdleMinutes) {
+        double maxRate = MAX_ARRIVAL_WEIGHT / (MEAN_ARRIVAL_WEIGHT * meanIdleMinutes);
+        double elapsed = 0;
+        while (true) {
+            elapsed += -Math.log(1.0 - random.nextDouble()) / maxRate;
+            int hour = after.plusMinutes((long) elapsed).getHour();
+            if (random.nextDouble() * MAX_ARRIVAL_WEIGHT <= HOURLY_ARRIVAL_WEIGHTS[hour]) {
+                return elapsed;
+            }
+        }
+    }
+
+    /**
+     * Dwell time: 70% short visits (~90 min), 25% workdays (~8 h), 5% multi-day stays (~30 h)
+     */
+    static double sampleDwellMinutes(SplittableRandom random) {
+        double p = random.nextDouble();
+        if (p < 0.70) {
+            return lognormal(random, Math.log(90), 0.8);
+        } else if (p < 0.95) {
+            return lognormal(random, Math.log(480), 0.25);
+        }
+        return lognormal(random, Math.log(1800), 0.5);
+    }
+
+    private static double meanDwellMinutes() {
+        return 0.70 * Math.exp(Math.log(90) + 0.32)
+                + 0.25 * Math.exp(Math.log(480) + 0.03125)
+                + 0.05 * Math.exp(Math.log(1800) + 0.125);
+    }
+
+    private static double lognormal(SplittableRandom random, double mu, double sigma) {
+        // Box-Muller transform
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        double normal = Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+        return Math.exp(mu + sigma * normal);
+    }
+
+    /**
+     * Bay identifiers A..Z, then AA, AB, ...
+     */
+    static String bayIdentifier(int index) {
+        StringBuilder identifier = new StringBuilder();
+        int n = index;
+        do {
+            identifier.insert(0, (char) ('A' + n % 26));
+            n = n / 26 - 1;
+        } while (n >= 0);
+        return identifier.toString();
+    }
+
+    static String licensePlate(long index) {
+        return PLATE_PREFIX + Long.toString(index, 36).toUpperCase();
+    }
+
+    private static int spotTypeIndex(int spotNumber) {
+        // Per bay: mostly REGULAR, every 10th COMPACT, every 20th LARGE, first two HANDICAP
+        if (spotNumber <= 2) {
+            return 3;
+        } else if (spotNumber % 20 == 0) {
+            return 2;
+        } else if (spotNumber % 10 == 0) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    private void awaitAll(List<Future<?>> futures) throws InterruptedException, ExecutionException {
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private void report(String table, long rows, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+        log.info("Inserted {} {} rows in {} s ({} rows/s)",
+                rows, table, String.format("%.2f", seconds), String.format("%.0f", rows / Math.max(seconds, 0.001)));
+    }
+
+    record BayRef(long id, String bayIdentifier, int floorNumber) {
+    }
+
+    record Session(LocalDateTime checkInTime, LocalDateTime checkOutTime) {
+    }
+
+    private record ParkedUntil(long carId, LocalDateTime checkOutTime) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.liatrio.parkinggarage.controller;
 
 import com.liatrio.parkinggarage.dto.CarDto;
+import com.liatrio.parkinggarage.dto.PlateMatchDto;
 import com.liatrio.parkinggarage.service.CarService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -44,6 +45,14 @@ public class CarController {
         return ResponseEntity.ok(carService.getCarByLicensePlate(licensePlate));
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Find plates matching a misread or partial license plate, best matches first")
+    public ResponseEntity<List<PlateMatchDto>> searchLicensePlates(
+            @RequestParam String plate,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(carService.searchLicensePlates(plate, limit));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new car")
     public ResponseEntity<CarDto> createCar(@Valid @RequestBody CarDto carDto) {
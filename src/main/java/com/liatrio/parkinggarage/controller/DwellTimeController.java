@@ -0,0 +1,37 @@
+package com.liatrio.parkinggarage.controller;
+
+import com.liatrio.parkinggarage.dto.DwellTimeDto;
+import com.liatrio.parkinggarage.service.DwellTimeHistograms;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/dwell-times")
+@RequiredArgsConstructor
+@Tag(name = "Dwell Times", description = "Dwell-time percentiles per floor, spot type and hour")
+public class DwellTimeController {
+
+    private final DwellTimeHistograms dwellTimeHistograms;
+
+    @GetMapping
+    @Operation(summary = "Get dwell-time percentiles of sessions checked out in a window (defaults to the full retention window)",
+            description = "groupBy takes floor and/or spotType; without it all matching sessions are merged into one result")
+    public ResponseEntity<List<DwellTimeDto>> getDwellTimes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer floorNumber,
+            @RequestParam(required = false) String spotType,
+            @RequestParam(required = false) Integer hourOfDay,
+            @RequestParam(defaultValue = "") List<String> groupBy,
+            @RequestParam(required = false) List<Double> percentiles) {
+        return ResponseEntity.ok(dwellTimeHistograms.getDwellTimes(from, to, floorNumber, spotType, hourOfDay,
+                groupBy, percentiles));
+    }
+}
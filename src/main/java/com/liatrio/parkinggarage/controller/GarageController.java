@@ -0,0 +1,40 @@
+package com.liatrio.parkinggarage.controller;
+
+import com.liatrio.parkinggarage.dto.GarageDto;
+import com.liatrio.parkinggarage.service.GarageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/garages")
+@RequiredArgsConstructor
+@Tag(name = "Garages", description = "Garage management APIs; other APIs act on the garage named by the X-Garage header")
+public class GarageController {
+
+    private final GarageService garageService;
+
+    @GetMapping
+    @Operation(summary = "Get all garages")
+    public ResponseEntity<List<GarageDto>> getAllGarages() {
+        return ResponseEntity.ok(garageService.getAllGarages());
+    }
+
+    @GetMapping("/{code}")
+    @Operation(summary = "Get garage by code")
+    public ResponseEntity<GarageDto> getGarageByCode(@PathVariable String code) {
+        return ResponseEntity.ok(garageService.getGarageByCode(code));
+    }
+
+    @PostMapping
+    @Operation(summary = "Create a new garage")
+    public ResponseEntity<GarageDto> createGarage(@Valid @RequestBody GarageDto garageDto) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(garageService.createGarage(garageDto));
+    }
+}
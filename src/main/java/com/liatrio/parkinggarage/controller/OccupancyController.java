@@ -0,0 +1,33 @@
+package com.liatrio.parkinggarage.controller;
+
+import com.liatrio.parkinggarage.dto.OccupancySeriesDto;
+import com.liatrio.parkinggarage.service.OccupancyTimeSeries;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/occupancy")
+@RequiredArgsConstructor
+@Tag(name = "Occupancy", description = "Occupancy over time per floor and spot type")
+public class OccupancyController {
+
+    private final OccupancyTimeSeries occupancyTimeSeries;
+
+    @GetMapping
+    @Operation(summary = "Get per-minute occupancy per floor and spot type (defaults to the full retention window)")
+    public ResponseEntity<List<OccupancySeriesDto>> getOccupancy(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer floorNumber,
+            @RequestParam(required = false) String spotType,
+            @RequestParam(defaultValue = "1") int step) {
+        return ResponseEntity.ok(occupancyTimeSeries.getOccupancy(from, to, floorNumber, spotType, step));
+    }
+}
@@ -2,10 +2,17 @@ package com.liatrio.parkinggarage.controller;
 
 import com.liatrio.parkinggarage.dto.BillingConfigDto;
 import com.liatrio.parkinggarage.dto.CheckInRequest;
+import com.liatrio.parkinggarage.dto.CheckOutDeadLetterDto;
 import com.liatrio.parkinggarage.dto.CheckOutRequest;
 import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
+import com.liatrio.parkinggarage.dto.RerateJobDto;
+import com.liatrio.parkinggarage.dto.RerateRequest;
+import com.liatrio.parkinggarage.repository.ParkingTransactionFieldsRepository.Listing;
 import com.liatrio.parkinggarage.service.BillingService;
+import com.liatrio.parkinggarage.service.CheckOutPipeline;
+import com.liatrio.parkinggarage.service.IdempotencyService;
 import com.liatrio.parkinggarage.service.ParkingTransactionService;
+import com.liatrio.parkinggarage.service.RerateService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -15,6 +22,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.liatrio.parkinggarage.metrics.ParkingMetrics.CHECK_IN;
+import static com.liatrio.parkinggarage.metrics.ParkingMetrics.CHECK_OUT;
+import static com.liatrio.parkinggarage.metrics.ParkingMetrics.CHECK_OUT_BY_PLATE;
+import static com.liatrio.parkinggarage.service.IdempotencyService.IDEMPOTENCY_KEY_HEADER;
 
 @RestController
 @RequestMapping("/api/parking")
@@ -22,43 +36,61 @@ import java.util.List;
 @Tag(name = "Parking Operations", description = "Check-in and check-out operations")
 public class ParkingController {
 
+    private static final String FIELDS_DESCRIPTION = "fields takes a comma-separated subset of the "
+            + "ParkingTransactionDto properties to return only those, e.g. fields=id,licensePlate,checkInTime";
+
     private final ParkingTransactionService parkingTransactionService;
     private final BillingService billingService;
+    private final IdempotencyService idempotencyService;
+    private final RerateService rerateService;
+    private final CheckOutPipeline checkOutPipeline;
 
     @PostMapping("/check-in")
-    @Operation(summary = "Check in a car to a parking spot")
-    public ResponseEntity<ParkingTransactionDto> checkIn(@Valid @RequestBody CheckInRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(parkingTransactionService.checkIn(request));
+    @Operation(summary = "Check in a car to a parking spot",
+            description = "Retries with the same Idempotency-Key get the original response")
+    public ResponseEntity<ParkingTransactionDto> checkIn(
+            @Valid @RequestBody CheckInRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return respond(HttpStatus.CREATED, CHECK_IN, idempotencyKey, request,
+                () -> parkingTransactionService.checkIn(request));
     }
 
     @PostMapping("/check-out")
-    @Operation(summary = "Check out a car from a parking spot")
-    public ResponseEntity<ParkingTransactionDto> checkOut(@Valid @RequestBody CheckOutRequest request) {
-        return ResponseEntity.ok(parkingTransactionService.checkOut(request));
+    @Operation(summary = "Check out a car from a parking spot",
+            description = "Retries with the same Idempotency-Key get the original response")
+    public ResponseEntity<ParkingTransactionDto> checkOut(
+            @Valid @RequestBody CheckOutRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return respond(HttpStatus.OK, CHECK_OUT, idempotencyKey, request,
+                () -> parkingTransactionService.checkOut(request));
     }
 
     @PostMapping("/check-out/license-plate/{licensePlate}")
-    @Operation(summary = "Check out a car by license plate")
-    public ResponseEntity<ParkingTransactionDto> checkOutByLicensePlate(@PathVariable String licensePlate) {
-        return ResponseEntity.ok(parkingTransactionService.checkOutByLicensePlate(licensePlate));
+    @Operation(summary = "Check out a car by license plate",
+            description = "Retries with the same Idempotency-Key get the original response")
+    public ResponseEntity<ParkingTransactionDto> checkOutByLicensePlate(
+            @PathVariable String licensePlate,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return respond(HttpStatus.OK, CHECK_OUT_BY_PLATE, idempotencyKey, licensePlate,
+                () -> parkingTransactionService.checkOutByLicensePlate(licensePlate));
     }
 
     @GetMapping("/transactions")
-    @Operation(summary = "Get all parking transactions")
-    public ResponseEntity<List<ParkingTransactionDto>> getAllTransactions() {
-        return ResponseEntity.ok(parkingTransactionService.getAllTransactions());
+    @Operation(summary = "Get all parking transactions", description = FIELDS_DESCRIPTION)
+    public ResponseEntity<List<?>> getAllTransactions(@RequestParam(required = false) String fields) {
+        return transactions(fields, Listing.ALL, null, parkingTransactionService::getAllTransactions);
     }
 
     @GetMapping("/transactions/active")
-    @Operation(summary = "Get all active parking transactions")
-    public ResponseEntity<List<ParkingTransactionDto>> getActiveTransactions() {
-        return ResponseEntity.ok(parkingTransactionService.getActiveTransactions());
+    @Operation(summary = "Get all active parking transactions", description = FIELDS_DESCRIPTION)
+    public ResponseEntity<List<?>> getActiveTransactions(@RequestParam(required = false) String fields) {
+        return transactions(fields, Listing.ACTIVE, null, parkingTransactionService::getActiveTransactions);
     }
 
     @GetMapping("/transactions/completed")
-    @Operation(summary = "Get all completed parking transactions")
-    public ResponseEntity<List<ParkingTransactionDto>> getCompletedTransactions() {
-        return ResponseEntity.ok(parkingTransactionService.getCompletedTransactions());
+    @Operation(summary = "Get all completed parking transactions", description = FIELDS_DESCRIPTION)
+    public ResponseEntity<List<?>> getCompletedTransactions(@RequestParam(required = false) String fields) {
+        return transactions(fields, Listing.COMPLETED, null, parkingTransactionService::getCompletedTransactions);
     }
 
     @GetMapping("/transactions/{id}")
@@ -68,9 +100,10 @@ public class ParkingController {
     }
 
     @GetMapping("/transactions/car/{carId}")
-    @Operation(summary = "Get parking transactions by car ID")
-    public ResponseEntity<List<ParkingTransactionDto>> getTransactionsByCarId(@PathVariable Long carId) {
-        return ResponseEntity.ok(parkingTransactionService.getTransactionsByCarId(carId));
+    @Operation(summary = "Get parking transactions by car ID", description = FIELDS_DESCRIPTION)
+    public ResponseEntity<List<?>> getTransactionsByCarId(@PathVariable Long carId,
+                                                          @RequestParam(required = false) String fields) {
+        return transactions(fields, Listing.ALL, carId, () -> parkingTransactionService.getTransactionsByCarId(carId));
     }
 
     @GetMapping("/billing/config")
@@ -83,4 +116,68 @@ public class ParkingController {
                 .build();
         return ResponseEntity.ok(config);
     }
+
+    @PostMapping("/billing/rerate")
+    @Operation(summary = "Recompute the fees of transactions checked out in a range with the current billing configuration",
+            description = "Runs in the background; poll the returned job for progress")
+    public ResponseEntity<RerateJobDto> startRerate(@Valid @RequestBody RerateRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(rerateService.startRerate(request));
+    }
+
+    @GetMapping("/billing/rerate")
+    @Operation(summary = "Get all rerate jobs, newest first")
+    public ResponseEntity<List<RerateJobDto>> getRerateJobs() {
+        return ResponseEntity.ok(rerateService.getRerateJobs());
+    }
+
+    @GetMapping("/billing/rerate/{id}")
+    @Operation(summary = "Get a rerate job and its progress")
+    public ResponseEntity<RerateJobDto> getRerateJob(@PathVariable Long id) {
+        return ResponseEntity.ok(rerateService.getRerateJob(id));
+    }
+
+    @PostMapping("/billing/rerate/{id}/resume")
+    @Operation(summary = "Resume a failed or interrupted rerate job after its last committed chunk")
+    public ResponseEntity<RerateJobDto> resumeRerate(@PathVariable Long id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(rerateService.resumeRerate(id));
+    }
+
+    @GetMapping("/dead-letters")
+    @Operation(summary = "Get check-outs a check-out listener still failed on after its retries, oldest first")
+    public ResponseEntity<List<CheckOutDeadLetterDto>> getDeadLetters(
+            @RequestParam(required = false) String listener,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(checkOutPipeline.getDeadLetters(listener, limit));
+    }
+
+    @PostMapping("/dead-letters/replay")
+    @Operation(summary = "Hand the oldest dead letters to their check-out listeners again",
+            description = "Replayed dead letters are deleted; those whose listener is behind are kept")
+    public ResponseEntity<Map<String, Integer>> replayDeadLetters(
+            @RequestParam(required = false) String listener,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(Map.of("replayed", checkOutPipeline.replayDeadLetters(listener, limit)));
+    }
+
+    /**
+     * The full transactions, or only the requested fields of each
+     */
+    private ResponseEntity<List<?>> transactions(String fields, Listing listing, Long carId,
+                                                 Supplier<List<ParkingTransactionDto>> transactions) {
+        if (fields == null) {
+            return ResponseEntity.ok(transactions.get());
+        }
+        return ResponseEntity.ok(parkingTransactionService.getTransactionFields(listing, carId, fields));
+    }
+
+    private ResponseEntity<ParkingTransactionDto> respond(HttpStatus status, String operation, String idempotencyKey,
+                                                          Object request, Supplier<ParkingTransactionDto> action) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(status).body(action.get());
+        }
+        IdempotencyService.Outcome outcome = idempotencyService.execute(operation, idempotencyKey, request, action);
+        return ResponseEntity.status(status)
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(outcome.replayed()))
+                .body(outcome.response());
+    }
 }
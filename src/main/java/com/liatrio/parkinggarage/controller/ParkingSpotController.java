@@ -1,7 +1,9 @@
 package com.liatrio.parkinggarage.controller;
 
 import com.liatrio.parkinggarage.dto.ParkingSpotDto;
+import com.liatrio.parkinggarage.repository.ParkingSpotFieldsRepository.Listing;
 import com.liatrio.parkinggarage.service.ParkingSpotService;
+import com.liatrio.parkinggarage.service.SpotWaiters;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -9,8 +11,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/parking-spots")
@@ -18,30 +23,48 @@ import java.util.List;
 @Tag(name = "Parking Spots", description = "Parking spot management APIs")
 public class ParkingSpotController {
 
+    private static final String FIELDS_DESCRIPTION = "fields takes a comma-separated subset of the "
+            + "ParkingSpotDto properties to return only those, e.g. fields=id,spotIdentifier,floorNumber";
+
     private final ParkingSpotService parkingSpotService;
+    private final SpotWaiters spotWaiters;
 
     @GetMapping
-    @Operation(summary = "Get all parking spots")
-    public ResponseEntity<List<ParkingSpotDto>> getAllParkingSpots() {
-        return ResponseEntity.ok(parkingSpotService.getAllParkingSpots());
+    @Operation(summary = "Get all parking spots", description = FIELDS_DESCRIPTION)
+    public ResponseEntity<List<?>> getAllParkingSpots(@RequestParam(required = false) String fields) {
+        return respond(fields, Listing.ALL, null, parkingSpotService::getAllParkingSpots);
     }
 
     @GetMapping("/available")
-    @Operation(summary = "Get all available parking spots")
-    public ResponseEntity<List<ParkingSpotDto>> getAvailableParkingSpots() {
-        return ResponseEntity.ok(parkingSpotService.getAvailableParkingSpots());
+    @Operation(summary = "Get all available parking spots", description = FIELDS_DESCRIPTION)
+    public ResponseEntity<List<?>> getAvailableParkingSpots(@RequestParam(required = false) String fields) {
+        return respond(fields, Listing.AVAILABLE, null, parkingSpotService::getAvailableParkingSpots);
     }
 
     @GetMapping("/occupied")
-    @Operation(summary = "Get all occupied parking spots")
-    public ResponseEntity<List<ParkingSpotDto>> getOccupiedParkingSpots() {
-        return ResponseEntity.ok(parkingSpotService.getOccupiedParkingSpots());
+    @Operation(summary = "Get all occupied parking spots", description = FIELDS_DESCRIPTION)
+    public ResponseEntity<List<?>> getOccupiedParkingSpots(@RequestParam(required = false) String fields) {
+        return respond(fields, Listing.OCCUPIED, null, parkingSpotService::getOccupiedParkingSpots);
     }
 
     @GetMapping("/available/floor/{floorId}")
-    @Operation(summary = "Get available parking spots by floor")
-    public ResponseEntity<List<ParkingSpotDto>> getAvailableSpotsByFloor(@PathVariable Long floorId) {
-        return ResponseEntity.ok(parkingSpotService.getAvailableSpotsByFloor(floorId));
+    @Operation(summary = "Get available parking spots by floor", description = FIELDS_DESCRIPTION)
+    public ResponseEntity<List<?>> getAvailableSpotsByFloor(@PathVariable Long floorId,
+                                                            @RequestParam(required = false) String fields) {
+        return respond(fields, Listing.AVAILABLE, floorId, () -> parkingSpotService.getAvailableSpotsByFloor(floorId));
+    }
+
+    @GetMapping("/next-available")
+    @Operation(summary = "Wait for an available parking spot",
+            description = "Returns an available spot of the type and floor (both optional) straight away, or "
+                    + "waits up to timeout (ISO-8601, e.g. PT30S) for a check-out to free one. Each freed spot "
+                    + "wakes only the longest-waiting request; the others keep waiting. 204 No Content when "
+                    + "the timeout passes first, 429 when too many requests are already waiting.")
+    public DeferredResult<ResponseEntity<ParkingSpotDto>> awaitAvailableSpot(
+            @RequestParam(required = false) Long spotTypeId,
+            @RequestParam(required = false) Long floorId,
+            @RequestParam(required = false) Duration timeout) {
+        return spotWaiters.await(spotTypeId, floorId, timeout);
     }
 
     @GetMapping("/{id}")
@@ -74,4 +97,15 @@ public class ParkingSpotController {
         parkingSpotService.deleteParkingSpot(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * The full spots, or only the requested fields of each
+     */
+    private ResponseEntity<List<?>> respond(String fields, Listing listing, Long floorId,
+                                            Supplier<List<ParkingSpotDto>> spots) {
+        if (fields == null) {
+            return ResponseEntity.ok(spots.get());
+        }
+        return ResponseEntity.ok(parkingSpotService.getParkingSpotFields(listing, floorId, fields));
+    }
 }
@@ -0,0 +1,44 @@
+package com.liatrio.parkinggarage.controller;
+
+import com.liatrio.parkinggarage.dto.UsageReportDto;
+import com.liatrio.parkinggarage.service.UsageCubeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "Dwell, turnover and revenue reports from the pre-aggregated usage cube")
+public class ReportController {
+
+    private final UsageCubeService usageCubeService;
+
+    @GetMapping("/usage")
+    @Operation(summary = "Get sessions, average dwell, turnover per spot and revenue of sessions that checked in during [from, to)",
+            description = "groupBy takes any of hourOfDay, weekday, floor, bay and spotType; defaults to the last 30 days")
+    public ResponseEntity<UsageReportDto> getUsage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "") List<String> groupBy,
+            @RequestParam(required = false) Integer floorNumber,
+            @RequestParam(required = false) String spotType) {
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(30);
+        return ResponseEntity.ok(usageCubeService.getUsage(start, end, groupBy, floorNumber, spotType));
+    }
+
+    @PostMapping("/usage/rebuild")
+    @Operation(summary = "Rebuild the usage cube from all completed sessions",
+            description = "Needed after sessions are written behind the aggregation watermark, e.g. by a fee rerate")
+    public ResponseEntity<Map<String, Integer>> rebuild() {
+        return ResponseEntity.ok(Map.of("sessions", usageCubeService.rebuild()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.liatrio.parkinggarage.controller;
+
+import com.liatrio.parkinggarage.dto.ReservationDto;
+import com.liatrio.parkinggarage.dto.ReservationRequest;
+import com.liatrio.parkinggarage.dto.SpotAvailabilityDto;
+import com.liatrio.parkinggarage.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reservations")
+@RequiredArgsConstructor
+@Tag(name = "Reservations", description = "Reserve parking spots for future time windows")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @PostMapping
+    @Operation(summary = "Reserve a spot, or any free spot of a type, for a time window")
+    public ResponseEntity<ReservationDto> createReservation(@Valid @RequestBody ReservationRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationService.createReservation(request));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get reservation by ID")
+    public ResponseEntity<ReservationDto> getReservationById(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.getReservationById(id));
+    }
+
+    @GetMapping("/license-plate/{licensePlate}")
+    @Operation(summary = "Get reservations by license plate")
+    public ResponseEntity<List<ReservationDto>> getReservationsByLicensePlate(@PathVariable String licensePlate) {
+        return ResponseEntity.ok(reservationService.getReservationsByLicensePlate(licensePlate));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Cancel a reservation")
+    public ResponseEntity<ReservationDto> cancelReservation(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.cancelReservation(id));
+    }
+
+    @GetMapping("/availability")
+    @Operation(summary = "Check whether any spot of a type is free during [start, end)")
+    public ResponseEntity<SpotAvailabilityDto> checkAvailability(
+            @RequestParam String spotType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return ResponseEntity.ok(reservationService.checkAvailability(spotType, start, end));
+    }
+
+    @GetMapping("/earliest")
+    @Operation(summary = "Find the earliest free window of a given length on a spot or any spot of a type")
+    public ResponseEntity<SpotAvailabilityDto> findEarliestWindow(
+            @RequestParam(required = false) String spotIdentifier,
+            @RequestParam(required = false) String spotType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime notBefore,
+            @RequestParam long durationMinutes) {
+        return ResponseEntity.ok(reservationService.findEarliestWindow(spotIdentifier, spotType, notBefore, durationMinutes));
+    }
+}
@@ -0,0 +1,37 @@
+package com.liatrio.parkinggarage.controller;
+
+import com.liatrio.parkinggarage.dto.TopologyImportResult;
+import com.liatrio.parkinggarage.service.TopologyImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/topology")
+@RequiredArgsConstructor
+@Tag(name = "Topology", description = "Bulk floor, bay and spot import APIs")
+public class TopologyController {
+
+    static final String TEXT_CSV = "text/csv";
+
+    private final TopologyImportService topologyImportService;
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    @Operation(summary = "Import floors, bays and spots from CSV, one spot per row")
+    public ResponseEntity<TopologyImportResult> importCsv(InputStream body) {
+        return ResponseEntity.ok(topologyImportService.importCsv(body));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Import floors, bays and spots from a JSON array, one spot per element")
+    public ResponseEntity<TopologyImportResult> importJson(InputStream body) {
+        return ResponseEntity.ok(topologyImportService.importJson(body));
+    }
+}
@@ -0,0 +1,29 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckOutDeadLetterDto {
+    
+    private Long id;
+    
+    private String listener;
+    
+    private Long transactionId;
+    
+    private Integer attempts;
+    
+    private String error;
+    
+    private LocalDateTime createdAt;
+    
+    private CheckOutEvent event;
+}
@@ -0,0 +1,21 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A committed check-out, as handed to the check-out listeners. The transaction is the one returned
+ * to the gate and is shared by every listener, so listeners must not change it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckOutEvent {
+
+    private Long garageId;
+
+    private ParkingTransactionDto transaction;
+}
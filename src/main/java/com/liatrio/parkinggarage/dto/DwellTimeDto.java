@@ -0,0 +1,28 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DwellTimeDto {
+    
+    private Integer floorNumber;
+    
+    private String spotTypeName;
+    
+    private Long sessions;
+    
+    private Double meanMinutes;
+    
+    private Long maxMinutes;
+    
+    /** Dwell minutes by percentile, keyed like "p50" or "p99.9" */
+    private Map<String, Long> percentiles;
+}
@@ -0,0 +1,26 @@
+package com.liatrio.parkinggarage.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GarageDto {
+    
+    private Long id;
+    
+    @NotBlank(message = "Code is required")
+    @Pattern(regexp = "^[A-Z0-9-]+$", message = "Code must contain only uppercase letters, numbers, and hyphens")
+    private String code;
+    
+    @NotBlank(message = "Name is required")
+    private String name;
+    
+    private Boolean active;
+}
@@ -0,0 +1,30 @@
+package com.liatrio.parkinggarage.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.liatrio.parkinggarage.exception.ErrorResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a {@link GateCommand}, with the HTTP status the REST endpoint would have answered
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GateAck {
+
+    private Long id;
+
+    private int status;
+
+    /** Whether the response was replayed for a repeated idempotency key */
+    private Boolean replayed;
+
+    private ParkingTransactionDto transaction;
+
+    private ErrorResponse error;
+}
@@ -0,0 +1,37 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One command sent by a gate over the gate stream; acknowledged by a {@link GateAck} with the same id
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GateCommand {
+
+    public enum Type {
+        CHECK_IN,
+        CHECK_OUT,
+        CHECK_OUT_BY_PLATE
+    }
+
+    private Long id;
+
+    private Type type;
+
+    private String idempotencyKey;
+
+    /** Body of a CHECK_IN */
+    private CheckInRequest checkIn;
+
+    /** Body of a CHECK_OUT */
+    private CheckOutRequest checkOut;
+
+    /** Plate of a CHECK_OUT_BY_PLATE */
+    private String licensePlate;
+}
@@ -0,0 +1,21 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OccupancyPointDto {
+    
+    private LocalDateTime time;
+    
+    private Integer occupied;
+    
+    private Integer peak;
+}
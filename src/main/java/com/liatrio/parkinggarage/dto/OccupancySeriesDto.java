@@ -0,0 +1,27 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OccupancySeriesDto {
+    
+    private Long floorId;
+    
+    private Integer floorNumber;
+    
+    private Long spotTypeId;
+    
+    private String spotTypeName;
+    
+    private Integer stepMinutes;
+    
+    private List<OccupancyPointDto> points;
+}
@@ -0,0 +1,20 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlateMatchDto {
+    
+    private String licensePlate;
+    
+    /**
+     * EXACT, CONFUSABLE (e.g. O read as 0), ONE_EDIT or PREFIX
+     */
+    private String matchType;
+}
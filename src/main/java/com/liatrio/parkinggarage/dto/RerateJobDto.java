@@ -0,0 +1,39 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RerateJobDto {
+    
+    private Long id;
+    
+    private LocalDateTime checkOutFrom;
+    
+    private LocalDateTime checkOutTo;
+    
+    private String status;
+    
+    private LocalDateTime lastCheckOutTime;
+    
+    private Long lastTransactionId;
+    
+    private Long processed;
+    
+    private Long changed;
+    
+    private String error;
+    
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime updatedAt;
+    
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,22 @@
+package com.liatrio.parkinggarage.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RerateRequest {
+    
+    @NotNull(message = "Check-out from is required")
+    private LocalDateTime checkOutFrom;
+    
+    @NotNull(message = "Check-out to is required")
+    private LocalDateTime checkOutTo;
+}
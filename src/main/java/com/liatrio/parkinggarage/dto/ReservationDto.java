@@ -0,0 +1,31 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationDto {
+    
+    private Long id;
+    
+    private Long parkingSpotId;
+    
+    private String spotIdentifier;
+    
+    private String licensePlate;
+    
+    private LocalDateTime startTime;
+    
+    private LocalDateTime endTime;
+    
+    private String status;
+    
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,37 @@
+package com.liatrio.parkinggarage.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationRequest {
+    
+    @NotBlank(message = "License plate is required")
+    @Pattern(regexp = "^[A-Z0-9-]+$", message = "License plate must contain only uppercase letters, numbers, and hyphens")
+    private String licensePlate;
+    
+    /**
+     * Reserve this spot; when omitted, any free spot of {@link #spotType} is assigned
+     */
+    private String spotIdentifier;
+    
+    private String spotType;
+    
+    @NotNull(message = "Start time is required")
+    @Future(message = "Start time must be in the future")
+    private LocalDateTime startTime;
+    
+    @NotNull(message = "End time is required")
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,25 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpotAvailabilityDto {
+    
+    private Boolean available;
+    
+    private String spotIdentifier;
+    
+    private String spotTypeName;
+    
+    private LocalDateTime startTime;
+    
+    private LocalDateTime endTime;
+}
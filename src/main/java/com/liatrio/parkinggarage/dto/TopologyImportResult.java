@@ -0,0 +1,44 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopologyImportResult {
+    
+    private int rows;
+    
+    private int floorsCreated;
+    
+    private int baysCreated;
+    
+    private int spotsCreated;
+    
+    private int errorCount;
+    
+    /**
+     * The first rejected rows, in file order
+     */
+    private List<RowError> errors;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowError {
+        
+        /** CSV line number (the header is line 1) or 1-based JSON array element */
+        private int row;
+        
+        private String spotIdentifier;
+        
+        private String message;
+    }
+}
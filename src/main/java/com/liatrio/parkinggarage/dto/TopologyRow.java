@@ -0,0 +1,30 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One spot of a topology import, with the floor and bay it belongs to
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopologyRow {
+    
+    private Integer floorNumber;
+    
+    private String floorName;
+    
+    private String bayIdentifier;
+    
+    private String bayName;
+    
+    private String spotIdentifier;
+    
+    private String spotNumber;
+    
+    private String spotType;
+}
@@ -0,0 +1,28 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsageReportDto {
+    
+    private LocalDate from;
+    
+    private LocalDate to;
+    
+    private List<String> groupBy;
+    
+    /** Sessions checked out before this time are included */
+    private LocalDateTime aggregatedUntil;
+    
+    private List<UsageReportRowDto> rows;
+}
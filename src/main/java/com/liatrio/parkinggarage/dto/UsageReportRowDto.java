@@ -0,0 +1,34 @@
+package com.liatrio.parkinggarage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsageReportRowDto {
+    
+    private Integer hourOfDay;
+    
+    private DayOfWeek weekday;
+    
+    private Integer floorNumber;
+    
+    private String bayIdentifier;
+    
+    private String spotType;
+    
+    private Long sessions;
+    
+    private Double averageDwellMinutes;
+    
+    /** Sessions per active spot per day */
+    private Double turnoverPerSpot;
+    
+    private Double revenue;
+}
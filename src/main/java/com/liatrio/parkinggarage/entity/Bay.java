@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,6 +13,8 @@ import java.util.List;
 @Entity
 @Table(name = "bays", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"floor_id", "bay_identifier"})
+}, indexes = {
+    @Index(name = "idx_bays_garage", columnList = "garage_id")
 })
 @Data
 @NoArgsConstructor
@@ -23,6 +26,13 @@ public class Bay {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
     @Column(nullable = false)
     private String bayIdentifier;
 
@@ -0,0 +1,60 @@
+package com.liatrio.parkinggarage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed check-out that a check-out listener still failed on after its retries, kept to be
+ * replayed to that listener
+ */
+@Entity
+@Table(name = "check_out_dead_letters", indexes = {
+    @Index(name = "idx_check_out_dead_letters_garage_listener", columnList = "garage_id, listener")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckOutDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
+    /**
+     * Name of the listener that failed
+     */
+    @Column(nullable = false, length = 100)
+    private String listener;
+
+    @Column(nullable = false)
+    private Long transactionId;
+
+    /**
+     * The check-out event as JSON
+     */
+    @Column(nullable = false, length = 4000)
+    private String event;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -5,12 +5,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "floors")
+@Table(name = "floors", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"garage_id", "floor_number"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,7 +24,14 @@ public class Floor {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
+    @Column(nullable = false)
     private Integer floorNumber;
 
     @Column(nullable = false)
@@ -0,0 +1,36 @@
+package com.liatrio.parkinggarage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A garage served by this deployment; floors, bays, spots, sessions and reservations belong to one
+ */
+@Entity
+@Table(name = "garages")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Garage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Routing key sent in the X-Garage request header
+     */
+    @Column(nullable = false, unique = true)
+    private String code;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+}
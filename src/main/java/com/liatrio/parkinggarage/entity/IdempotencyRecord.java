@@ -0,0 +1,60 @@
+package com.liatrio.parkinggarage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * The response of a parking operation sent with an Idempotency-Key header, replayed to retries
+ * of the same request
+ */
+@Entity
+@Table(name = "idempotency_records", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_idempotency_records_garage_key",
+            columnNames = {"garage_id", "operation", "idempotency_key"})
+}, indexes = {
+    @Index(name = "idx_idempotency_records_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
+    @Column(nullable = false, length = 32)
+    private String operation;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the request body, so a key reused for a different request is rejected
+     */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * Response body as JSON
+     */
+    @Column(nullable = false, length = 4000)
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -5,13 +5,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "parking_spots", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"bay_id", "spot_number"})
+    @UniqueConstraint(columnNames = {"bay_id", "spot_number"}),
+    @UniqueConstraint(columnNames = {"garage_id", "spot_identifier"})
+}, indexes = {
+    @Index(name = "idx_parking_spots_garage_type", columnList = "garage_id, spot_type_id, active")
 })
 @Data
 @NoArgsConstructor
@@ -23,7 +27,14 @@ public class ParkingSpot {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
+    @Column(nullable = false)
     private String spotIdentifier;
 
     @Column(nullable = false)
@@ -5,11 +5,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "parking_transactions")
+@Table(name = "parking_transactions", indexes = {
+    @Index(name = "idx_parking_transactions_garage_open", columnList = "garage_id, check_out_time"),
+    @Index(name = "idx_parking_transactions_garage_check_in", columnList = "garage_id, check_in_time"),
+    @Index(name = "idx_parking_transactions_garage_check_out", columnList = "garage_id, check_out_time, id"),
+    @Index(name = "idx_parking_transactions_spot_open", columnList = "parking_spot_id, check_out_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +26,13 @@ public class ParkingTransaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id", nullable = false)
     private Car car;
@@ -53,6 +66,13 @@ public class ParkingTransaction {
      */
     @Transient
     public Double getDurationInHours() {
+        return durationInHours(checkInTime, checkOutTime);
+    }
+    
+    /**
+     * Parking duration in hours of a session, up to now while it is still active
+     */
+    public static Double durationInHours(LocalDateTime checkInTime, LocalDateTime checkOutTime) {
         if (checkInTime == null) return 0.0;
         LocalDateTime endTime = checkOutTime != null ? checkOutTime : LocalDateTime.now();
         long minutes = java.time.Duration.between(checkInTime, endTime).toMinutes();
@@ -0,0 +1,84 @@
+package com.liatrio.parkinggarage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * A recomputation of the parking fee of the completed transactions checked out during
+ * [checkOutFrom, checkOutTo), with the progress needed to resume it
+ */
+@Entity
+@Table(name = "rerate_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RerateJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
+    @Column(nullable = false)
+    private LocalDateTime checkOutFrom;
+
+    @Column(nullable = false)
+    private LocalDateTime checkOutTo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private RerateJobStatus status = RerateJobStatus.RUNNING;
+
+    /**
+     * Check-out time of the last transaction rerated, or null before the first chunk; transactions
+     * are rerated in (check-out time, id) order, so a resumed job continues after this and
+     * {@link #lastTransactionId}
+     */
+    private LocalDateTime lastCheckOutTime;
+
+    /**
+     * Id of the last transaction rerated
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastTransactionId = 0L;
+
+    /**
+     * Transactions rerated so far
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Long processed = 0L;
+
+    /**
+     * Transactions whose fee changed
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Long changed = 0L;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,7 @@
+package com.liatrio.parkinggarage.entity;
+
+public enum RerateJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,58 @@
+package com.liatrio.parkinggarage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * A parking spot held for a license plate during [startTime, endTime)
+ */
+@Entity
+@Table(name = "reservations", indexes = {
+    @Index(name = "idx_reservations_garage_status_end", columnList = "garage_id, status, end_time"),
+    @Index(name = "idx_reservations_spot_start", columnList = "parking_spot_id, start_time"),
+    @Index(name = "idx_reservations_license_plate", columnList = "license_plate")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Reservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parking_spot_id", nullable = false)
+    private ParkingSpot parkingSpot;
+
+    @Column(nullable = false)
+    private String licensePlate;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ReservationStatus status = ReservationStatus.BOOKED;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,72 @@
+package com.liatrio.parkinggarage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDate;
+
+/**
+ * Completed sessions of one bay and spot type that arrived in one hour of one day, summed for
+ * reporting
+ */
+@Entity
+@Table(name = "usage_cube", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_usage_cube_cell",
+            columnNames = {"garage_id", "check_in_date", "hour_of_day", "bay_id", "spot_type_id"})
+}, indexes = {
+    @Index(name = "idx_usage_cube_garage_date", columnList = "garage_id, check_in_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsageCubeCell {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
+    @Column(nullable = false)
+    private LocalDate checkInDate;
+
+    /**
+     * Check-in hour, 0 to 23
+     */
+    @Column(nullable = false)
+    private Integer hourOfDay;
+
+    /**
+     * ISO day of week of {@link #checkInDate}, 1 (Monday) to 7 (Sunday)
+     */
+    @Column(nullable = false)
+    private Integer weekday;
+
+    @Column(nullable = false)
+    private Long floorId;
+
+    @Column(nullable = false)
+    private Long bayId;
+
+    @Column(nullable = false)
+    private Long spotTypeId;
+
+    @Column(nullable = false)
+    private Long sessions;
+
+    @Column(nullable = false)
+    private Long dwellMinutes;
+
+    @Column(nullable = false)
+    private Double revenue;
+}
@@ -0,0 +1,44 @@
+package com.liatrio.parkinggarage.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far a garage's completed sessions have been added to the usage cube
+ */
+@Entity
+@Table(name = "usage_cube_watermarks", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_usage_cube_watermarks_garage", columnNames = {"garage_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsageCubeWatermark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Owning garage; queries are filtered to the current garage and inserts stamped with it
+     */
+    @TenantId
+    @Column(name = "garage_id", nullable = false, updatable = false)
+    private Long garageId;
+
+    /**
+     * Sessions checked out before this time are in the cube
+     */
+    @Column(nullable = false)
+    private LocalDateTime checkOutTime;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,71 @@
+package com.liatrio.parkinggarage.gate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.admission.AdmissionLimiter;
+import com.liatrio.parkinggarage.service.IdempotencyService;
+import com.liatrio.parkinggarage.service.ParkingTransactionService;
+import com.liatrio.parkinggarage.tenancy.GarageContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+@EnableWebSocket
+@ConditionalOnProperty(name = "parking.gate-stream.enabled", havingValue = "true", matchIfMissing = true)
+public class GateStreamConfig implements WebSocketConfigurer {
+
+    private final GateStreamHandler gateStreamHandler;
+
+    public GateStreamConfig(ParkingTransactionService parkingTransactionService,
+                            IdempotencyService idempotencyService,
+                            ObjectProvider<AdmissionLimiter> admissionLimiter,
+                            Validator validator,
+                            ObjectMapper objectMapper,
+                            MappingJackson2CborHttpMessageConverter cborHttpMessageConverter,
+                            MeterRegistry meterRegistry,
+                            @Value("${parking.gate-stream.send-time-limit:5s}") Duration sendTimeLimit,
+                            @Value("${parking.gate-stream.send-buffer-limit:512KB}") DataSize sendBufferLimit) {
+        this.gateStreamHandler = new GateStreamHandler(parkingTransactionService, idempotencyService,
+                admissionLimiter.getIfAvailable(), validator, objectMapper, cborHttpMessageConverter.getObjectMapper(),
+                meterRegistry, (int) sendTimeLimit.toMillis(), (int) sendBufferLimit.toBytes());
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(gateStreamHandler, GateStreamHandler.PATH)
+                .addInterceptors(new GarageHandshakeInterceptor());
+    }
+
+    /**
+     * Keeps the garage the handshake was routed to (see GarageFilter) for the commands of the connection
+     */
+    private static final class GarageHandshakeInterceptor implements HandshakeInterceptor {
+
+        @Override
+        public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Map<String, Object> attributes) {
+            attributes.put(GateStreamHandler.GARAGE_ATTRIBUTE, GarageContext.current());
+            return true;
+        }
+
+        @Override
+        public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Exception exception) {
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.liatrio.parkinggarage.gate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.admission.AdmissionLimiter;
+import com.liatrio.parkinggarage.admission.TrafficClass;
+import com.liatrio.parkinggarage.dto.GateAck;
+import com.liatrio.parkinggarage.dto.GateCommand;
+import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.exception.ErrorResponse;
+import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
+import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
+import com.liatrio.parkinggarage.service.IdempotencyService;
+import com.liatrio.parkinggarage.service.ParkingTransactionService;
+import com.liatrio.parkinggarage.tenancy.GarageContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.liatrio.parkinggarage.metrics.ParkingMetrics.CHECK_IN;
+import static com.liatrio.parkinggarage.metrics.ParkingMetrics.CHECK_OUT;
+import static com.liatrio.parkinggarage.metrics.ParkingMetrics.CHECK_OUT_BY_PLATE;
+
+/**
+ * The gate stream: one WebSocket per gate carrying check-in and check-out commands and their
+ * acknowledgements, instead of one HTTP request per car.
+ *
+ * Each text frame is a JSON {@link GateCommand} and each binary frame a CBOR one; the
+ * {@link GateAck} is sent back in the same encoding. A gate may pipeline commands without waiting
+ * for their acks. The commands of a connection run one at a time, in the order they were sent, so
+ * acks arrive in that order too, and a check-out sent right behind its check-in sees it committed.
+ *
+ * Backpressure: the frames of a connection are read only as fast as its commands run, so a gate
+ * that sends faster than the garage can commit fills its TCP window and is slowed down by its own
+ * socket. Every command also takes a gate slot from the {@link AdmissionLimiter} like the REST
+ * check-in and check-out do, and is acknowledged 429 when none frees up in time. A gate that does
+ * not read its acks is disconnected once more than the send buffer limit is waiting for it.
+ *
+ * parking.gate_stream.sessions - open gate connections
+ */
+@Slf4j
+public class GateStreamHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
+
+    public static final String PATH = "/api/gate/stream";
+    public static final String SUB_PROTOCOL = "parking-gate.v1";
+
+    static final String GARAGE_ATTRIBUTE = "garageId";
+    static final String SESSIONS_GAUGE = "parking.gate_stream.sessions";
+
+    private final ParkingTransactionService parkingTransactionService;
+    private final IdempotencyService idempotencyService;
+    private final AdmissionLimiter admissionLimiter;
+    private final Validator validator;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final int sendTimeLimitMillis;
+    private final int sendBufferLimitBytes;
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    public GateStreamHandler(ParkingTransactionService parkingTransactionService,
+                             IdempotencyService idempotencyService,
+                             AdmissionLimiter admissionLimiter,
+                             Validator validator,
+                             ObjectMapper jsonMapper,
+                             ObjectMapper cborMapper,
+                             MeterRegistry meterRegistry,
+                             int sendTimeLimitMillis,
+                             int sendBufferLimitBytes) {
+        this.parkingTransactionService = parkingTransactionService;
+        this.idempotencyService = idempotencyService;
+        this.admissionLimiter = admissionLimiter;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = cborMapper;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.sendBufferLimitBytes = sendBufferLimitBytes;
+        Gauge.builder(SESSIONS_GAUGE, sessions, Map::size)
+                .description("Open gate stream connections")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(SUB_PROTOCOL);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(),
+                new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, sendBufferLimitBytes));
+        log.debug("Gate stream {} opened from {}", session.getId(), session.getRemoteAddress());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        GateAck ack = handle(session, jsonMapper, message.asBytes());
+        send(session, new TextMessage(jsonMapper.writeValueAsBytes(ack)));
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        byte[] payload = new byte[message.getPayloadLength()];
+        message.getPayload().get(payload);
+        GateAck ack = handle(session, cborMapper, payload);
+        send(session, new BinaryMessage(cborMapper.writeValueAsBytes(ack)));
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Gate stream {} transport error: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+        log.debug("Gate stream {} closed: {}", session.getId(), status);
+    }
+
+    private void send(WebSocketSession session, WebSocketMessage<?> message) throws IOException {
+        WebSocketSession decorated = sessions.get(session.getId());
+        (decorated != null ? decorated : session).sendMessage(message);
+    }
+
+    GateAck handle(WebSocketSession session, ObjectMapper mapper, byte[] payload) {
+        GateCommand command;
+        try {
+            command = mapper.readValue(payload, GateCommand.class);
+        } catch (JsonProcessingException e) {
+            return error(null, HttpStatus.BAD_REQUEST, "Malformed gate command: " + e.getOriginalMessage(), null);
+        } catch (IOException e) {
+            return error(null, HttpStatus.BAD_REQUEST, "Malformed gate command", null);
+        }
+        if (command.getType() == null) {
+            return error(command.getId(), HttpStatus.BAD_REQUEST, "Gate command type is required", null);
+        }
+
+        boolean admitted;
+        try {
+            admitted = admissionLimiter == null || admissionLimiter.tryAcquire(TrafficClass.GATE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            return error(command.getId(), HttpStatus.TOO_MANY_REQUESTS, "The parking service is busy, retry later", null);
+        }
+        try {
+            Long garageId = (Long) session.getAttributes().get(GARAGE_ATTRIBUTE);
+            return GarageContext.callAs(garageId, () -> execute(command));
+        } catch (ResourceNotFoundException e) {
+            return error(command.getId(), HttpStatus.NOT_FOUND, e.getMessage(), null);
+        } catch (ResourceAlreadyExistsException e) {
+            return error(command.getId(), HttpStatus.CONFLICT, e.getMessage(), null);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return error(command.getId(), HttpStatus.CONFLICT, "The resource was modified concurrently, please retry", null);
+        } catch (BusinessLogicException e) {
+            return error(command.getId(), HttpStatus.BAD_REQUEST, e.getMessage(), null);
+        } catch (InvalidCommandException e) {
+            return error(command.getId(), HttpStatus.BAD_REQUEST, "Validation failed", e.details);
+        } catch (RuntimeException e) {
+            log.error("Gate command {} {} failed", command.getType(), command.getId(), e);
+            return error(command.getId(), HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred", null);
+        } finally {
+            if (admissionLimiter != null) {
+                admissionLimiter.release();
+            }
+        }
+    }
+
+    private GateAck execute(GateCommand command) {
+        return switch (command.getType()) {
+            case CHECK_IN -> {
+                Object request = validated("checkIn", command.getCheckIn());
+                yield respond(command, HttpStatus.CREATED, CHECK_IN, request,
+                        () -> parkingTransactionService.checkIn(command.getCheckIn()));
+            }
+            case CHECK_OUT -> {
+                Object request = validated("checkOut", command.getCheckOut());
+                yield respond(command, HttpStatus.OK, CHECK_OUT, request,
+                        () -> parkingTransactionService.checkOut(command.getCheckOut()));
+            }
+            case CHECK_OUT_BY_PLATE -> {
+                if (command.getLicensePlate() == null || command.getLicensePlate().isBlank()) {
+                    throw new InvalidCommandException(List.of("licensePlate: is required"));
+                }
+                yield respond(command, HttpStatus.OK, CHECK_OUT_BY_PLATE, command.getLicensePlate(),
+                        () -> parkingTransactionService.checkOutByLicensePlate(command.getLicensePlate()));
+            }
+        };
+    }
+
+    private GateAck respond(GateCommand command, HttpStatus status, String operation, Object request,
+                            Supplier<ParkingTransactionDto> action) {
+        GateAck.GateAckBuilder ack = GateAck.builder().id(command.getId()).status(status.value());
+        if (command.getIdempotencyKey() == null) {
+            return ack.transaction(action.get()).build();
+        }
+        IdempotencyService.Outcome outcome =
+                idempotencyService.execute(operation, command.getIdempotencyKey(), request, action);
+        return ack.transaction(outcome.response()).replayed(outcome.replayed()).build();
+    }
+
+    private Object validated(String field, Object request) {
+        if (request == null) {
+            throw new InvalidCommandException(List.of(field + ": is required"));
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new InvalidCommandException(violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .toList());
+        }
+        return request;
+    }
+
+    private static GateAck error(Long id, HttpStatus status, String message, List<String> details) {
+        return GateAck.builder()
+                .id(id)
+                .status(status.value())
+                .error(ErrorResponse.builder()
+                        .timestamp(LocalDateTime.now())
+                        .status(status.value())
+                        .error(status.getReasonPhrase())
+                        .message(message)
+                        .path(PATH)
+                        .details(details)
+                        .build())
+                .build();
+    }
+
+    private static final class InvalidCommandException extends RuntimeException {
+
+        private final List<String> details;
+
+        private InvalidCommandException(List<String> details) {
+            super("Validation failed", null, false, false);
+            this.details = details;
+        }
+    }
+}
@@ -78,4 +78,34 @@ public class EntityMapper {
                 .active(transaction.isActive())
                 .build();
     }
+
+    public ReservationDto toReservationDto(Reservation reservation) {
+        return ReservationDto.builder()
+                .id(reservation.getId())
+                .parkingSpotId(reservation.getParkingSpot().getId())
+                .spotIdentifier(reservation.getParkingSpot().getSpotIdentifier())
+                .licensePlate(reservation.getLicensePlate())
+                .startTime(reservation.getStartTime())
+                .endTime(reservation.getEndTime())
+                .status(reservation.getStatus().name())
+                .createdAt(reservation.getCreatedAt())
+                .build();
+    }
+
+    public RerateJobDto toRerateJobDto(RerateJob job) {
+        return RerateJobDto.builder()
+                .id(job.getId())
+                .checkOutFrom(job.getCheckOutFrom())
+                .checkOutTo(job.getCheckOutTo())
+                .status(job.getStatus().name())
+                .lastCheckOutTime(job.getLastCheckOutTime())
+                .lastTransactionId(job.getLastTransactionId())
+                .processed(job.getProcessed())
+                .changed(job.getChanged())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
 }
@@ -0,0 +1,194 @@
+package com.liatrio.parkinggarage.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * On-demand Java Flight Recordings at /actuator/flightrecording, without restarting the JVM.
+ *
+ * GET shows the current recording and the retained dumps, POST starts a recording (optional
+ * settings, maxAgeSeconds and durationSeconds) and DELETE stops it and writes the .jfr dump.
+ * Retention is bounded: the recording keeps at most parking.jfr.max-age / max-size of data,
+ * stops on its own after parking.jfr.max-duration, and only the newest retained-dumps files are kept:
+ * dumps are pruned when a recording is stopped, and when one is started, which also covers the
+ * dumps of recordings that stopped on their own.
+ */
+@Component
+@WebEndpoint(id = "flightrecording")
+@Slf4j
+public class FlightRecordingEndpoint {
+
+    static final String RECORDING_NAME = "parking-garage-on-demand";
+    private static final int STATUS_CONFLICT = 409;
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    @Value("${parking.jfr.directory:${java.io.tmpdir}/parking-garage-jfr}")
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "parking-garage-jfr");
+
+    @Value("${parking.jfr.max-age:10m}")
+    private Duration maxAge = Duration.ofMinutes(10);
+
+    @Value("${parking.jfr.max-size:100MB}")
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    @Value("${parking.jfr.max-duration:30m}")
+    private Duration maxDuration = Duration.ofMinutes(30);
+
+    @Value("${parking.jfr.retained-dumps:5}")
+    private int retainedDumps = 5;
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("recording", recording != null ? describe(recording) : null);
+        status.put("dumps", listDumps().stream().map(Path::toString).toList());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable String settings,
+                                                                       @Nullable Long maxAgeSeconds,
+                                                                       @Nullable Long durationSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return response(STATUS_CONFLICT, "A flight recording is already running, stop it first");
+        }
+        closeRecording();
+        // Leave room for this recording's dump
+        pruneDumps(retainedDumps - 1);
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : "default");
+        } catch (IOException | ParseException e) {
+            return response(WebEndpointResponse.STATUS_BAD_REQUEST,
+                    "Unknown JFR settings '" + settings + "', use default or profile");
+        }
+
+        try {
+            Files.createDirectories(directory);
+            Path destination = directory.resolve("parking-garage-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+
+            Recording newRecording = new Recording(configuration);
+            newRecording.setName(RECORDING_NAME);
+            newRecording.setToDisk(true);
+            newRecording.setMaxAge(clamp(maxAgeSeconds, maxAge));
+            newRecording.setMaxSize(maxSize.toBytes());
+            newRecording.setDuration(clamp(durationSeconds, maxDuration));
+            newRecording.setDestination(destination);
+            newRecording.enable(ParkingJfrEvents.CheckInEvent.class);
+            newRecording.enable(ParkingJfrEvents.CheckOutEvent.class);
+            newRecording.enable(ParkingJfrEvents.SpotLookupEvent.class);
+            newRecording.enable(ParkingJfrEvents.FeeCalculationEvent.class);
+            newRecording.enable(ParkingJfrEvents.MappingEvent.class);
+            newRecording.start();
+            recording = newRecording;
+        } catch (IOException e) {
+            log.error("Could not start flight recording", e);
+            return response(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+
+        log.info("Started flight recording {} (max age {}, max duration {})", recording.getId(),
+                recording.getMaxAge(), recording.getDuration());
+        return new WebEndpointResponse<>(describe(recording), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> stop() {
+        if (recording == null) {
+            return response(WebEndpointResponse.STATUS_NOT_FOUND, "No flight recording has been started");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            // Writes the retained data to the destination chosen at start
+            recording.stop();
+        }
+        Map<String, Object> stopped = describe(recording);
+        closeRecording();
+        pruneDumps(retainedDumps);
+        log.info("Stopped flight recording, dump written to {}", stopped.get("destination"));
+        return new WebEndpointResponse<>(stopped, WebEndpointResponse.STATUS_OK);
+    }
+
+    private Duration clamp(@Nullable Long requestedSeconds, Duration limit) {
+        if (requestedSeconds == null || requestedSeconds <= 0) {
+            return limit;
+        }
+        Duration requested = Duration.ofSeconds(requestedSeconds);
+        return requested.compareTo(limit) < 0 ? requested : limit;
+    }
+
+    private Map<String, Object> describe(Recording current) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", current.getId());
+        description.put("state", current.getState().name());
+        description.put("startTime", current.getStartTime());
+        description.put("maxAge", current.getMaxAge());
+        description.put("maxSizeBytes", current.getMaxSize());
+        description.put("duration", current.getDuration());
+        description.put("destination", current.getDestination() != null ? current.getDestination().toString() : null);
+        return description;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private List<Path> listDumps() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Could not list flight recording dumps in {}", directory, e);
+            return List.of();
+        }
+    }
+
+    private void pruneDumps(int keep) {
+        List<Path> dumps = listDumps();
+        for (Path old : dumps.subList(Math.min(Math.max(0, keep), dumps.size()), dumps.size())) {
+            try {
+                Files.deleteIfExists(old);
+            } catch (IOException e) {
+                log.warn("Could not delete old flight recording dump {}", old, e);
+            }
+        }
+    }
+
+    private static WebEndpointResponse<Map<String, Object>> response(int status, String message) {
+        return new WebEndpointResponse<>(Map.of("message", message), status);
+    }
+}
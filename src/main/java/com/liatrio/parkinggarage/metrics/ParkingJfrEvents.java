@@ -0,0 +1,148 @@
+package com.liatrio.parkinggarage.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Custom Java Flight Recorder events for the parking operations.
+ *
+ * Operation events (check-in, check-out) span the whole transaction including the commit and carry
+ * the time spent in each stage; stage events (spot lookup, fee calculation, mapping) are emitted for
+ * each stage on their own so they line up with the JVM's own events in JDK Mission Control.
+ * License plates are never recorded, only a truncated SHA-256 hash.
+ */
+public final class ParkingJfrEvents {
+
+    static final String CATEGORY = "Parking Garage";
+
+    private ParkingJfrEvents() {
+    }
+
+    /**
+     * Truncated SHA-256 of a license plate, stable across recordings so one car can be followed
+     */
+    public static String hashLicensePlate(String licensePlate) {
+        if (licensePlate == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(licensePlate.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Category({CATEGORY, "Operation"})
+    @StackTrace(false)
+    public abstract static class OperationEvent extends Event {
+
+        @Label("Operation")
+        public String operation;
+
+        @Label("Spot Identifier")
+        public String spotIdentifier;
+
+        @Label("License Plate Hash")
+        public String plateHash;
+
+        @Label("Outcome")
+        @Description("committed, rolled_back or unknown")
+        public String outcome;
+
+        @Label("Rejection Reason")
+        public String rejectionReason;
+
+        @Label("Spot Lookup")
+        @Timespan(Timespan.NANOSECONDS)
+        public long spotLookupNanos;
+
+        @Label("Car Lookup")
+        @Timespan(Timespan.NANOSECONDS)
+        public long carLookupNanos;
+
+        @Label("Session Lookup")
+        @Timespan(Timespan.NANOSECONDS)
+        public long sessionLookupNanos;
+
+        @Label("Fee Calculation")
+        @Timespan(Timespan.NANOSECONDS)
+        public long billingNanos;
+
+        @Label("Save")
+        @Timespan(Timespan.NANOSECONDS)
+        public long saveNanos;
+
+        @Label("Mapping")
+        @Timespan(Timespan.NANOSECONDS)
+        public long mappingNanos;
+
+        @Label("Commit")
+        @Timespan(Timespan.NANOSECONDS)
+        public long commitNanos;
+
+        void addStageDuration(String stage, long nanos) {
+            switch (stage) {
+                case ParkingMetrics.STAGE_SPOT_LOOKUP -> spotLookupNanos += nanos;
+                case ParkingMetrics.STAGE_CAR_LOOKUP -> carLookupNanos += nanos;
+                case ParkingMetrics.STAGE_SESSION_LOOKUP -> sessionLookupNanos += nanos;
+                case ParkingMetrics.STAGE_BILLING -> billingNanos += nanos;
+                case ParkingMetrics.STAGE_SAVE -> saveNanos += nanos;
+                case ParkingMetrics.STAGE_MAPPING -> mappingNanos += nanos;
+                case ParkingMetrics.STAGE_COMMIT -> commitNanos += nanos;
+                default -> {
+                }
+            }
+        }
+    }
+
+    @Name("com.liatrio.parkinggarage.CheckIn")
+    @Label("Check-In")
+    @Description("A check-in transaction, from the spot lookup to the commit")
+    public static final class CheckInEvent extends OperationEvent {
+    }
+
+    @Name("com.liatrio.parkinggarage.CheckOut")
+    @Label("Check-Out")
+    @Description("A check-out transaction (by spot or by license plate), from the lookup to the commit")
+    public static final class CheckOutEvent extends OperationEvent {
+    }
+
+    @Category({CATEGORY, "Stage"})
+    @StackTrace(false)
+    public abstract static class StageEvent extends Event {
+
+        @Label("Operation")
+        public String operation;
+
+        @Label("Spot Identifier")
+        public String spotIdentifier;
+    }
+
+    @Name("com.liatrio.parkinggarage.SpotLookup")
+    @Label("Spot Lookup")
+    public static final class SpotLookupEvent extends StageEvent {
+    }
+
+    @Name("com.liatrio.parkinggarage.FeeCalculation")
+    @Label("Fee Calculation")
+    public static final class FeeCalculationEvent extends StageEvent {
+    }
+
+    @Name("com.liatrio.parkinggarage.Mapping")
+    @Label("Entity Mapping")
+    @Description("EntityMapper invocation building the response DTO")
+    public static final class MappingEvent extends StageEvent {
+    }
+}
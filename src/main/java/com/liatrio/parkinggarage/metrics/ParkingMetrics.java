@@ -0,0 +1,238 @@
+package com.liatrio.parkinggarage.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer timers for each stage of the check-in/check-out paths and counters for rejections.
+ *
+ * parking.operation.stage{operation, stage} - percentile histogram per stage
+ * parking.rejections{operation, reason}     - rejected operations by reason
+ * parking.plate.corrections{operation, match_type} - misread plates resolved through the plate index
+ * parking.idempotency.requests{operation, outcome} - requests with an Idempotency-Key, by whether the
+ *                                                   stored response was replayed from the cache or database
+ *
+ * The same stages are emitted as JFR events (see {@link ParkingJfrEvents}) while a flight recording
+ * that enables them is running; otherwise the events cost a single enabled check.
+ */
+@Component
+public class ParkingMetrics {
+
+    public static final String CHECK_IN = "check_in";
+    public static final String CHECK_OUT = "check_out";
+    public static final String CHECK_OUT_BY_PLATE = "check_out_by_plate";
+
+    public static final String STAGE_SPOT_LOOKUP = "spot_lookup";
+    public static final String STAGE_CAR_LOOKUP = "car_lookup";
+    public static final String STAGE_SESSION_LOOKUP = "session_lookup";
+    public static final String STAGE_BILLING = "billing";
+    public static final String STAGE_SAVE = "save";
+    public static final String STAGE_MAPPING = "mapping";
+    public static final String STAGE_COMMIT = "commit";
+
+    public static final String REASON_SPOT_NOT_FOUND = "spot_not_found";
+    public static final String REASON_SPOT_INACTIVE = "spot_inactive";
+    public static final String REASON_SPOT_OCCUPIED = "spot_occupied";
+    public static final String REASON_ALREADY_PARKED = "already_parked";
+    public static final String REASON_SPOT_RESERVED = "spot_reserved";
+    public static final String REASON_CAR_NOT_FOUND = "car_not_found";
+    public static final String REASON_NO_ACTIVE_SESSION = "no_active_session";
+    public static final String REASON_AMBIGUOUS_PLATE = "ambiguous_plate";
+
+    public static final String IDEMPOTENCY_CACHE_HIT = "cache_hit";
+    public static final String IDEMPOTENCY_DATABASE_HIT = "database_hit";
+    public static final String IDEMPOTENCY_MISS = "miss";
+    public static final String IDEMPOTENCY_KEY_REUSED = "key_reused";
+
+    static final String STAGE_TIMER = "parking.operation.stage";
+    static final String REJECTION_COUNTER = "parking.rejections";
+    static final String PLATE_CORRECTION_COUNTER = "parking.plate.corrections";
+    static final String IDEMPOTENCY_COUNTER = "parking.idempotency.requests";
+
+    private static final ThreadLocal<OperationContext> CURRENT_OPERATION = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ParkingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Time one stage of an operation
+     */
+    public <T> T time(String operation, String stage, Supplier<T> action) {
+        ParkingJfrEvents.StageEvent stageEvent = stageEvent(stage);
+        if (stageEvent != null) {
+            stageEvent.begin();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return action.get();
+        } finally {
+            long durationNanos = sample.stop(timer(operation, stage));
+            OperationContext context = CURRENT_OPERATION.get();
+            if (context != null) {
+                context.event.addStageDuration(stage, durationNanos);
+            }
+            if (stageEvent != null) {
+                stageEvent.end();
+                if (stageEvent.shouldCommit()) {
+                    stageEvent.operation = operation;
+                    stageEvent.spotIdentifier = context != null ? context.spotIdentifier : null;
+                    stageEvent.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Start an operation in the current transaction: times its commit and, while JFR is recording,
+     * emits a check-in/check-out event when the transaction completes
+     */
+    public void beginOperation(String operation, String spotIdentifier, String licensePlate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        ParkingJfrEvents.OperationEvent event = CHECK_IN.equals(operation)
+                ? new ParkingJfrEvents.CheckInEvent()
+                : new ParkingJfrEvents.CheckOutEvent();
+        OperationContext context = null;
+        if (event.isEnabled()) {
+            event.begin();
+            context = new OperationContext(event, operation, spotIdentifier, licensePlate);
+            CURRENT_OPERATION.set(context);
+        }
+        OperationContext recorded = context;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long startNanos;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                startNanos = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                long commitNanos = startNanos != 0 ? System.nanoTime() - startNanos : 0;
+                if (status == STATUS_COMMITTED && startNanos != 0) {
+                    timer(operation, STAGE_COMMIT).record(commitNanos, TimeUnit.NANOSECONDS);
+                }
+                if (recorded != null) {
+                    recorded.complete(status, commitNanos);
+                    if (CURRENT_OPERATION.get() == recorded) {
+                        CURRENT_OPERATION.remove();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Fill in the spot or license plate of the current operation once it is known
+     */
+    public void identify(String spotIdentifier, String licensePlate) {
+        OperationContext context = CURRENT_OPERATION.get();
+        if (context != null) {
+            if (context.spotIdentifier == null) {
+                context.spotIdentifier = spotIdentifier;
+            }
+            if (context.licensePlate == null) {
+                context.licensePlate = licensePlate;
+            }
+        }
+    }
+
+    public void recordRejection(String operation, String reason) {
+        OperationContext context = CURRENT_OPERATION.get();
+        if (context != null) {
+            context.rejectionReason = reason;
+        }
+        counters.computeIfAbsent(operation + ':' + reason, key -> Counter.builder(REJECTION_COUNTER)
+                        .description("Rejected parking operations by reason")
+                        .tag("operation", operation)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    public void recordPlateCorrection(String operation, String matchType) {
+        counters.computeIfAbsent(operation + ":correction:" + matchType, key -> Counter.builder(PLATE_CORRECTION_COUNTER)
+                        .description("License plates not found as given and resolved to a parked car")
+                        .tag("operation", operation)
+                        .tag("match_type", matchType)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    public void recordIdempotency(String operation, String outcome) {
+        counters.computeIfAbsent(operation + ":idempotency:" + outcome, key -> Counter.builder(IDEMPOTENCY_COUNTER)
+                        .description("Parking operations sent with an Idempotency-Key, by replay outcome")
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Timer timer(String operation, String stage) {
+        return timers.computeIfAbsent(operation + ':' + stage, key -> Timer.builder(STAGE_TIMER)
+                .description("Duration of each stage of a parking operation")
+                .tag("operation", operation)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static ParkingJfrEvents.StageEvent stageEvent(String stage) {
+        ParkingJfrEvents.StageEvent event = switch (stage) {
+            case STAGE_SPOT_LOOKUP -> new ParkingJfrEvents.SpotLookupEvent();
+            case STAGE_BILLING -> new ParkingJfrEvents.FeeCalculationEvent();
+            case STAGE_MAPPING -> new ParkingJfrEvents.MappingEvent();
+            default -> null;
+        };
+        return event != null && event.isEnabled() ? event : null;
+    }
+
+    private static final class OperationContext {
+        private final ParkingJfrEvents.OperationEvent event;
+        private final String operation;
+        private String spotIdentifier;
+        private String licensePlate;
+        private String rejectionReason;
+
+        private OperationContext(ParkingJfrEvents.OperationEvent event, String operation,
+                                 String spotIdentifier, String licensePlate) {
+            this.event = event;
+            this.operation = operation;
+            this.spotIdentifier = spotIdentifier;
+            this.licensePlate = licensePlate;
+        }
+
+        private void complete(int status, long commitNanos) {
+            event.addStageDuration(STAGE_COMMIT, commitNanos);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.spotIdentifier = spotIdentifier;
+                event.plateHash = ParkingJfrEvents.hashLicensePlate(licensePlate);
+                event.rejectionReason = rejectionReason;
+                event.outcome = switch (status) {
+                    case TransactionSynchronization.STATUS_COMMITTED -> "committed";
+                    case TransactionSynchronization.STATUS_ROLLED_BACK -> "rolled_back";
+                    default -> "unknown";
+                };
+                event.commit();
+            }
+        }
+    }
+}
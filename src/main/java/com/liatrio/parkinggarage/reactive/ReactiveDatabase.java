@@ -0,0 +1,53 @@
+package com.liatrio.parkinggarage.reactive;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * The R2DBC connection pool of the reactive stack, with its client and transactions.
+ *
+ * Neither the pool nor its transaction manager are beans: Boot does not configure the JDBC
+ * DataSource when a ConnectionFactory bean exists, and a second transaction manager would leave
+ * {@code @Transactional} without a default. The pool's r2dbc.pool.* metrics are tagged name=reactive.
+ */
+public class ReactiveDatabase {
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveDatabase(String url, String username, String password, int poolSize, MeterRegistry meterRegistry) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .initialSize(poolSize)
+                .maxSize(poolSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+        new ConnectionPoolMetrics(connectionPool, "reactive", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public DatabaseClient databaseClient() {
+        return databaseClient;
+    }
+
+    public TransactionalOperator transactionalOperator() {
+        return transactionalOperator;
+    }
+
+    public void dispose() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,263 @@
+package com.liatrio.parkinggarage.reactive;
+
+import com.liatrio.parkinggarage.dto.ParkingSpotDto;
+import com.liatrio.parkinggarage.entity.Bay;
+import com.liatrio.parkinggarage.entity.Floor;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.ReservationStatus;
+import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.service.ReservationIndex.Booking;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * The check-in, check-out and availability queries of the reactive stack, in SQL over R2DBC.
+ *
+ * Hibernate's tenant filter does not apply here, so every query of garage data names its garage.
+ * Cars are shared by all garages, as they are for the JPA repositories.
+ */
+public class ReactiveParkingRepository {
+
+    private static final String SPOT_COLUMNS = """
+            s.id, s.garage_id, s.spot_identifier, s.spot_number, s.active, s.version,
+            st.id AS spot_type_id, st.name AS spot_type_name,
+            b.id AS bay_id, b.bay_identifier, b.active AS bay_active,
+            f.id AS floor_id, f.floor_number, f.active AS floor_active
+            """;
+
+    private static final String SPOT_JOINS = """
+            JOIN spot_types st ON st.id = s.spot_type_id
+            JOIN bays b ON b.id = s.bay_id
+            JOIN floors f ON f.id = b.floor_id
+            """;
+
+    private static final String SESSION_COLUMNS = """
+            t.id AS transaction_id, t.car_id, c.license_plate, t.check_in_time, t.notes
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveParkingRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Spot> findSpot(long garageId, String spotIdentifier) {
+        return databaseClient.sql("SELECT " + SPOT_COLUMNS + "FROM parking_spots s\n" + SPOT_JOINS
+                        + "WHERE s.garage_id = :garageId AND s.spot_identifier = :spotIdentifier")
+                .bind("garageId", garageId)
+                .bind("spotIdentifier", spotIdentifier)
+                .map(ReactiveParkingRepository::spot)
+                .one();
+    }
+
+    /**
+     * Active spots in active bays and floors with no open session, in the order of the servlet listing;
+     * a null floor is any floor
+     */
+    public Flux<ParkingSpotDto> findAvailableSpots(long garageId, Long floorId) {
+        String sql = "SELECT " + SPOT_COLUMNS + "FROM parking_spots s\n" + SPOT_JOINS + """
+                WHERE s.garage_id = :garageId
+                AND s.active = TRUE AND b.active = TRUE AND f.active = TRUE
+                AND NOT EXISTS (SELECT 1 FROM parking_transactions o
+                                WHERE o.parking_spot_id = s.id AND o.check_out_time IS NULL)
+                """ + (floorId != null ? "AND f.id = :floorId\n" : "")
+                + "ORDER BY f.floor_number, b.bay_identifier, s.spot_number";
+        GenericExecuteSpec spec = databaseClient.sql(sql).bind("garageId", garageId);
+        if (floorId != null) {
+            spec = spec.bind("floorId", floorId);
+        }
+        return spec.map(row -> spot(row).toAvailableSpotDto()).all();
+    }
+
+    public Mono<Session> findOpenSessionBySpot(long garageId, long spotId) {
+        return databaseClient.sql("SELECT " + SESSION_COLUMNS + """
+                        FROM parking_transactions t
+                        JOIN cars c ON c.id = t.car_id
+                        WHERE t.garage_id = :garageId AND t.parking_spot_id = :spotId AND t.check_out_time IS NULL
+                        """)
+                .bind("garageId", garageId)
+                .bind("spotId", spotId)
+                .map(ReactiveParkingRepository::session)
+                .first();
+    }
+
+    /**
+     * The open session of a car in this garage, with the spot it is parked at
+     */
+    public Mono<ParkedCar> findOpenSessionByLicensePlate(long garageId, String licensePlate) {
+        return databaseClient.sql("SELECT " + SPOT_COLUMNS + ", " + SESSION_COLUMNS + """
+                        FROM parking_transactions t
+                        JOIN cars c ON c.id = t.car_id
+                        JOIN parking_spots s ON s.id = t.parking_spot_id
+                        """ + SPOT_JOINS
+                        + "WHERE t.garage_id = :garageId AND c.license_plate = :licensePlate AND t.check_out_time IS NULL")
+                .bind("garageId", garageId)
+                .bind("licensePlate", licensePlate)
+                .map(row -> new ParkedCar(spot(row), session(row)))
+                .first();
+    }
+
+    /**
+     * A car by plate, with the spot it is parked at in any garage (null when it is not)
+     */
+    public Mono<Car> findCar(String licensePlate) {
+        return databaseClient.sql("""
+                        SELECT c.id, s.spot_identifier AS parked_at
+                        FROM cars c
+                        LEFT JOIN parking_transactions t ON t.car_id = c.id AND t.check_out_time IS NULL
+                        LEFT JOIN parking_spots s ON s.id = t.parking_spot_id
+                        WHERE c.license_plate = :licensePlate
+                        """)
+                .bind("licensePlate", licensePlate)
+                .map(row -> new Car(row.get("id", Long.class), row.get("parked_at", String.class)))
+                .first();
+    }
+
+    public Mono<Long> insertCar(String licensePlate, String make, String model, String color) {
+        GenericExecuteSpec spec = databaseClient.sql(
+                        "INSERT INTO cars (license_plate, make, model, color) VALUES (:licensePlate, :make, :model, :color)")
+                .bind("licensePlate", licensePlate);
+        spec = bindNullable(spec, "make", make);
+        spec = bindNullable(spec, "model", model);
+        spec = bindNullable(spec, "color", color);
+        return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    /**
+     * Increment the spot's version if it is still the one read, so a concurrent check-in, reservation
+     * or deactivation of the spot makes one of them fail; false when the spot has changed
+     */
+    public Mono<Boolean> lockSpot(long spotId, long version) {
+        return databaseClient.sql("UPDATE parking_spots SET version = version + 1 WHERE id = :id AND version = :version")
+                .bind("id", spotId)
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows == 1);
+    }
+
+    public Mono<Long> insertTransaction(long garageId, long carId, long spotId, LocalDateTime checkInTime, String notes) {
+        GenericExecuteSpec spec = databaseClient.sql("""
+                        INSERT INTO parking_transactions (garage_id, car_id, parking_spot_id, check_in_time, notes)
+                        VALUES (:garageId, :carId, :spotId, :checkInTime, :notes)
+                        """)
+                .bind("garageId", garageId)
+                .bind("carId", carId)
+                .bind("spotId", spotId)
+                .bind("checkInTime", checkInTime);
+        return bindNullable(spec, "notes", notes)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    /**
+     * Close a session unless a concurrent check-out closed it first; false in that case
+     */
+    public Mono<Boolean> completeSession(long transactionId, LocalDateTime checkOutTime, Double parkingFee, String notes) {
+        GenericExecuteSpec spec = databaseClient.sql("""
+                        UPDATE parking_transactions SET check_out_time = :checkOutTime, parking_fee = :parkingFee, notes = :notes
+                        WHERE id = :id AND check_out_time IS NULL
+                        """)
+                .bind("id", transactionId)
+                .bind("checkOutTime", checkOutTime)
+                .bind("parkingFee", parkingFee);
+        return bindNullable(spec, "notes", notes)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows == 1);
+    }
+
+    /**
+     * Booked reservations on the spot holding it at {@code time}: running, or starting by {@code latestStart}
+     */
+    public Flux<Booking> findHoldingReservations(long spotId, LocalDateTime time, LocalDateTime latestStart) {
+        return databaseClient.sql("""
+                        SELECT id, license_plate, start_time, end_time FROM reservations
+                        WHERE parking_spot_id = :spotId AND status = :status
+                        AND start_time <= :latestStart AND end_time > :time
+                        """)
+                .bind("spotId", spotId)
+                .bind("status", ReservationStatus.BOOKED.name())
+                .bind("latestStart", latestStart)
+                .bind("time", time)
+                .map(row -> new Booking(row.get("id", Long.class), row.get("license_plate", String.class),
+                        row.get("start_time", LocalDateTime.class), row.get("end_time", LocalDateTime.class)))
+                .all();
+    }
+
+    public Mono<Void> markReservationFulfilled(long reservationId) {
+        return databaseClient.sql("UPDATE reservations SET status = :status WHERE id = :id")
+                .bind("status", ReservationStatus.FULFILLED.name())
+                .bind("id", reservationId)
+                .then();
+    }
+
+    private static GenericExecuteSpec bindNullable(GenericExecuteSpec spec, String name, String value) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, String.class);
+    }
+
+    private static Spot spot(Readable row) {
+        return new Spot(row.get("id", Long.class), row.get("garage_id", Long.class),
+                row.get("spot_identifier", String.class), row.get("spot_number", String.class),
+                row.get("active", Boolean.class), row.get("version", Long.class),
+                row.get("spot_type_id", Long.class), row.get("spot_type_name", String.class),
+                row.get("bay_id", Long.class), row.get("bay_identifier", String.class), row.get("bay_active", Boolean.class),
+                row.get("floor_id", Long.class), row.get("floor_number", Integer.class), row.get("floor_active", Boolean.class));
+    }
+
+    private static Session session(Readable row) {
+        return new Session(row.get("transaction_id", Long.class), row.get("car_id", Long.class),
+                row.get("license_plate", String.class), row.get("check_in_time", LocalDateTime.class),
+                row.get("notes", String.class));
+    }
+
+    public record Spot(long id, long garageId, String spotIdentifier, String spotNumber, boolean active, long version,
+                       long spotTypeId, String spotTypeName, long bayId, String bayIdentifier, boolean bayActive,
+                       long floorId, int floorNumber, boolean floorActive) {
+
+        /**
+         * A detached entity carrying what the in-memory indexes read (ids and active flags), with no
+         * transactions loaded, so it maps as vacant
+         */
+        public ParkingSpot toParkingSpot() {
+            Floor floor = Floor.builder().id(floorId).garageId(garageId).floorNumber(floorNumber).active(floorActive).build();
+            Bay bay = Bay.builder().id(bayId).garageId(garageId).bayIdentifier(bayIdentifier).floor(floor)
+                    .active(bayActive).build();
+            SpotType spotType = SpotType.builder().id(spotTypeId).name(spotTypeName).build();
+            return ParkingSpot.builder().id(id).garageId(garageId).spotIdentifier(spotIdentifier).spotNumber(spotNumber)
+                    .spotType(spotType).bay(bay).active(active).version(version).build();
+        }
+
+        ParkingSpotDto toAvailableSpotDto() {
+            return ParkingSpotDto.builder()
+                    .id(id)
+                    .spotIdentifier(spotIdentifier)
+                    .spotNumber(spotNumber)
+                    .spotTypeId(spotTypeId)
+                    .spotTypeName(spotTypeName)
+                    .bayId(bayId)
+                    .bayIdentifier(bayIdentifier)
+                    .floorNumber(floorNumber)
+                    .active(active)
+                    .occupied(false)
+                    .build();
+        }
+    }
+
+    public record Session(long transactionId, long carId, String licensePlate, LocalDateTime checkInTime, String notes) {
+    }
+
+    public record ParkedCar(Spot spot, Session session) {
+    }
+
+    public record Car(long id, String parkedAt) {
+    }
+}
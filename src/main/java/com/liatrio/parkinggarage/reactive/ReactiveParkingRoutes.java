@@ -0,0 +1,198 @@
+package com.liatrio.parkinggarage.reactive;
+
+import com.liatrio.parkinggarage.dto.CheckInRequest;
+import com.liatrio.parkinggarage.dto.CheckOutRequest;
+import com.liatrio.parkinggarage.dto.ParkingSpotDto;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.exception.ErrorResponse;
+import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import com.liatrio.parkinggarage.tenancy.GarageFilter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.liatrio.parkinggarage.service.IdempotencyService.IDEMPOTENCY_KEY_HEADER;
+
+/**
+ * The reactive API: the servlet API's check-in, check-out and available spot endpoints, on the same
+ * paths, with the same request and response bodies and errors.
+ *
+ * Requests pick their garage with the X-Garage header as they do on the servlet port. Idempotency
+ * keys are refused rather than ignored, since replays are only recorded by the servlet API.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveParkingRoutes {
+
+    static final String GARAGE_ATTRIBUTE = "garageId";
+
+    private final ReactiveParkingService parkingService;
+    private final GarageDirectory garageDirectory;
+    private final Validator validator;
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .POST("/api/parking/check-in", this::checkIn)
+                .POST("/api/parking/check-out", this::checkOut)
+                .POST("/api/parking/check-out/license-plate/{licensePlate}", this::checkOutByLicensePlate)
+                .GET("/api/parking-spots/available", this::getAvailableSpots)
+                .GET("/api/parking-spots/available/floor/{floorId}", this::getAvailableSpotsByFloor)
+                .onError(Throwable.class, this::error)
+                .filter(this::withGarage)
+                .build();
+    }
+
+    private Mono<ServerResponse> checkIn(ServerRequest request) {
+        return body(request, CheckInRequest.class)
+                .flatMap(checkIn -> parkingService.checkIn(garageId(request), checkIn))
+                .flatMap(transaction -> json(HttpStatus.CREATED, transaction));
+    }
+
+    private Mono<ServerResponse> checkOut(ServerRequest request) {
+        return body(request, CheckOutRequest.class)
+                .flatMap(checkOut -> parkingService.checkOut(garageId(request), checkOut))
+                .flatMap(transaction -> json(HttpStatus.OK, transaction));
+    }
+
+    private Mono<ServerResponse> checkOutByLicensePlate(ServerRequest request) {
+        return parkingService.checkOutByLicensePlate(garageId(request), request.pathVariable("licensePlate"))
+                .flatMap(transaction -> json(HttpStatus.OK, transaction));
+    }
+
+    private Mono<ServerResponse> getAvailableSpots(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(parkingService.getAvailableSpots(garageId(request), null), ParkingSpotDto.class);
+    }
+
+    private Mono<ServerResponse> getAvailableSpotsByFloor(ServerRequest request) {
+        String floorId = request.pathVariable("floorId");
+        long id;
+        try {
+            id = Long.parseLong(floorId);
+        } catch (NumberFormatException e) {
+            return Mono.error(new ServerWebInputException("Invalid floor id '" + floorId + "'"));
+        }
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(parkingService.getAvailableSpots(garageId(request), id), ParkingSpotDto.class);
+    }
+
+    /**
+     * Resolve the garage of the X-Garage header, looking it up off the event loop when this instance
+     * has not seen it yet
+     */
+    private Mono<ServerResponse> withGarage(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        if (request.headers().firstHeader(IDEMPOTENCY_KEY_HEADER) != null) {
+            return error(request, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " is only supported by the servlet API", null);
+        }
+        String code = request.headers().firstHeader(GarageFilter.GARAGE_HEADER);
+        if (code == null || code.isBlank()) {
+            request.attributes().put(GARAGE_ATTRIBUTE, garageDirectory.defaultGarageId());
+            return next.handle(request);
+        }
+        Optional<Long> known = garageDirectory.lookup(code);
+        Mono<Long> garageId = known.isPresent()
+                ? Mono.just(known.get())
+                : Mono.fromCallable(() -> garageDirectory.resolve(code))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(Mono::justOrEmpty);
+        return garageId
+                .flatMap(id -> {
+                    request.attributes().put(GARAGE_ATTRIBUTE, id);
+                    return next.handle(request);
+                })
+                .switchIfEmpty(Mono.defer(() -> error(request, HttpStatus.NOT_FOUND,
+                        String.format("Garage not found with code: '%s'", code), null)));
+    }
+
+    private static long garageId(ServerRequest request) {
+        return (Long) request.attributes().get(GARAGE_ATTRIBUTE);
+    }
+
+    private <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new InvalidRequestException(List.of("body: is required"))))
+                .map(body -> {
+                    Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    if (!violations.isEmpty()) {
+                        throw new InvalidRequestException(violations.stream()
+                                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                                .toList());
+                    }
+                    return body;
+                });
+    }
+
+    private static Mono<ServerResponse> json(HttpStatus status, Object body) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+    }
+
+    private Mono<ServerResponse> error(Throwable error, ServerRequest request) {
+        if (error instanceof ResourceNotFoundException) {
+            return error(request, HttpStatus.NOT_FOUND, error.getMessage(), null);
+        }
+        if (error instanceof OptimisticLockingFailureException || error instanceof DataIntegrityViolationException) {
+            return error(request, HttpStatus.CONFLICT, "The resource was modified concurrently, please retry", null);
+        }
+        if (error instanceof BusinessLogicException) {
+            return error(request, HttpStatus.BAD_REQUEST, error.getMessage(), null);
+        }
+        if (error instanceof InvalidRequestException invalid) {
+            return error(request, HttpStatus.BAD_REQUEST, "Validation failed", invalid.details);
+        }
+        if (error instanceof ResponseStatusException status) {
+            return error(request, status.getStatusCode(), status.getReason(), null);
+        }
+        log.error("Reactive {} {} failed", request.method(), request.path(), error);
+        return error(request, HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred", null);
+    }
+
+    private static Mono<ServerResponse> error(ServerRequest request, HttpStatusCode status, String message,
+                                              List<String> details) {
+        HttpStatus resolved = HttpStatus.resolve(status.value());
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(resolved != null ? resolved.getReasonPhrase() : null)
+                .message(message)
+                .path(request.path())
+                .details(details)
+                .build();
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(errorResponse);
+    }
+
+    private static final class InvalidRequestException extends RuntimeException {
+
+        private final List<String> details;
+
+        private InvalidRequestException(List<String> details) {
+            super("Validation failed", null, false, false);
+            this.details = details;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.liatrio.parkinggarage.reactive;
+
+import com.liatrio.parkinggarage.cache.ResponseCache;
+import com.liatrio.parkinggarage.dto.CheckInRequest;
+import com.liatrio.parkinggarage.dto.CheckOutRequest;
+import com.liatrio.parkinggarage.dto.ParkingSpotDto;
+import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.ParkingTransaction;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
+import com.liatrio.parkinggarage.reactive.ReactiveParkingRepository.ParkedCar;
+import com.liatrio.parkinggarage.reactive.ReactiveParkingRepository.Session;
+import com.liatrio.parkinggarage.reactive.ReactiveParkingRepository.Spot;
+import com.liatrio.parkinggarage.service.BillingService;
+import com.liatrio.parkinggarage.service.CheckOutPipeline;
+import com.liatrio.parkinggarage.service.DwellTimeHistograms;
+import com.liatrio.parkinggarage.service.LicensePlateIndex;
+import com.liatrio.parkinggarage.service.OccupancyTimeSeries;
+import com.liatrio.parkinggarage.service.ReservationIndex.Booking;
+import com.liatrio.parkinggarage.service.ReservationService;
+import com.liatrio.parkinggarage.service.SpotWaiters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Check-in, check-out and availability without blocking a thread on the database: the same rules
+ * and responses as {@link com.liatrio.parkinggarage.service.ParkingTransactionService}, over
+ * {@link ReactiveParkingRepository} in an R2DBC transaction.
+ *
+ * The in-memory indexes (occupancy, dwell times, reservations, plates, cached responses, waiting
+ * requests) and the check-out listeners are told once the transaction commits, as the JPA path does.
+ * Unlike that path, check-out by plate does not fall back to misread plates, and a check-in takes
+ * the spot's version so concurrent check-ins of one spot fail with a conflict.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveParkingService {
+
+    private final ReactiveParkingRepository repository;
+    private final TransactionalOperator transactionalOperator;
+    private final BillingService billingService;
+    private final ReservationService reservationService;
+    private final OccupancyTimeSeries occupancyTimeSeries;
+    private final DwellTimeHistograms dwellTimeHistograms;
+    private final LicensePlateIndex licensePlateIndex;
+    private final ResponseCache responseCache;
+    private final SpotWaiters spotWaiters;
+    private final CheckOutPipeline checkOutPipeline;
+
+    public Mono<ParkingTransactionDto> checkIn(long garageId, CheckInRequest request) {
+        String licensePlate = request.getLicensePlate();
+        LocalDateTime checkInTime = LocalDateTime.now();
+        Mono<CheckedIn> checkIn = findSpot(garageId, request.getSpotIdentifier())
+                .flatMap(spot -> {
+                    if (!spot.active()) {
+                        return Mono.error(new BusinessLogicException(
+                                "Parking spot " + spot.spotIdentifier() + " is not active"));
+                    }
+                    return repository.findOpenSessionBySpot(garageId, spot.id()).hasElement()
+                            .flatMap(occupied -> occupied
+                                    ? Mono.error(new BusinessLogicException(
+                                            "Parking spot " + spot.spotIdentifier() + " is already occupied"))
+                                    : claim(garageId, spot, request, checkInTime));
+                });
+
+        return transactionalOperator.transactional(checkIn)
+                .map(checkedIn -> {
+                    Spot spot = checkedIn.spot();
+                    ParkingSpot parkingSpot = spot.toParkingSpot();
+                    checkedIn.booking().ifPresent(booking ->
+                            reservationService.recordFulfilled(spot.id(), booking, licensePlate));
+                    if (checkedIn.newCar()) {
+                        licensePlateIndex.recordSaved(null, licensePlate);
+                    }
+                    occupancyTimeSeries.recordCheckIn(parkingSpot, checkInTime);
+                    reservationService.recordCheckIn(parkingSpot, checkInTime);
+                    responseCache.occupancyChanged(garageId);
+                    log.info("Car {} checked in at spot {} with transaction id: {}",
+                            licensePlate, spot.spotIdentifier(), checkedIn.transaction().getId());
+                    return checkedIn.transaction();
+                });
+    }
+
+    public Mono<ParkingTransactionDto> checkOut(long garageId, CheckOutRequest request) {
+        Mono<CheckedOut> checkOut = findSpot(garageId, request.getSpotIdentifier())
+                .flatMap(spot -> repository.findOpenSessionBySpot(garageId, spot.id())
+                        .switchIfEmpty(Mono.error(() -> new BusinessLogicException(
+                                "No active parking session found for spot " + spot.spotIdentifier())))
+                        .flatMap(session -> complete(spot, session, request.getNotes())));
+        return transactionalOperator.transactional(checkOut).map(this::checkedOut);
+    }
+
+    public Mono<ParkingTransactionDto> checkOutByLicensePlate(long garageId, String licensePlate) {
+        Mono<CheckedOut> checkOut = repository.findOpenSessionByLicensePlate(garageId, licensePlate)
+                .switchIfEmpty(repository.findCar(licensePlate)
+                        .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Car", "licensePlate", licensePlate)))
+                        .then(Mono.<ParkedCar>error(() ->
+                                new BusinessLogicException("Car " + licensePlate + " is not currently parked"))))
+                .flatMap(parked -> complete(parked.spot(), parked.session(), null));
+        return transactionalOperator.transactional(checkOut).map(this::checkedOut);
+    }
+
+    /**
+     * Available spots of the garage, or of one of its floors when floorId is given
+     */
+    public Flux<ParkingSpotDto> getAvailableSpots(long garageId, Long floorId) {
+        return repository.findAvailableSpots(garageId, floorId);
+    }
+
+    private Mono<Spot> findSpot(long garageId, String spotIdentifier) {
+        return repository.findSpot(garageId, spotIdentifier)
+                .switchIfEmpty(Mono.error(() ->
+                        new ResourceNotFoundException("ParkingSpot", "spotIdentifier", spotIdentifier)));
+    }
+
+    /**
+     * Take a free spot for the car: refused when a reservation holds it for another car, and the car
+     * must not be parked elsewhere in any garage
+     */
+    private Mono<CheckedIn> claim(long garageId, Spot spot, CheckInRequest request, LocalDateTime checkInTime) {
+        String licensePlate = request.getLicensePlate();
+        return repository.findCar(licensePlate)
+                .flatMap(car -> car.parkedAt() != null
+                        ? Mono.<CarId>error(new BusinessLogicException(
+                                String.format("Car %s is already parked at spot %s", licensePlate, car.parkedAt())))
+                        : Mono.just(new CarId(car.id(), false)))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Creating new car with license plate: {}", licensePlate);
+                    return repository.insertCar(licensePlate, request.getMake(), request.getModel(), request.getColor())
+                            .map(id -> new CarId(id, true));
+                }))
+                .flatMap(car -> repository.lockSpot(spot.id(), spot.version())
+                        .flatMap(locked -> locked
+                                ? claimReservation(spot, licensePlate, checkInTime)
+                                : Mono.error(new OptimisticLockingFailureException(
+                                        "Parking spot " + spot.spotIdentifier() + " was modified concurrently")))
+                        .flatMap(booking -> booking
+                                .map(claimed -> repository.markReservationFulfilled(claimed.reservationId()))
+                                .orElse(Mono.empty())
+                                .then(repository.insertTransaction(garageId, car.id(), spot.id(), checkInTime,
+                                        request.getNotes()))
+                                .map(transactionId -> new CheckedIn(spot, booking, car.created(),
+                                        toTransactionDto(transactionId, car.id(), licensePlate, spot, checkInTime, null,
+                                                null, request.getNotes())))));
+    }
+
+    /**
+     * The reservation of this car that the check-in fulfils, if one holds the spot; an error when one
+     * holds it for another car. Reads the database once the spot's version is taken, as
+     * {@link ReservationService#claimForCheckIn} does, so a reservation committing meanwhile fails one
+     * of the two rather than being missed.
+     */
+    private Mono<Optional<Booking>> claimReservation(Spot spot, String licensePlate, LocalDateTime checkInTime) {
+        return repository.findHoldingReservations(spot.id(), checkInTime,
+                        checkInTime.plus(reservationService.arrivalWindow()))
+                .collectList()
+                .flatMap(holding -> {
+                    if (holding.isEmpty()) {
+                        return Mono.just(Optional.<Booking>empty());
+                    }
+                    Optional<Booking> own = holding.stream()
+                            .filter(booking -> booking.licensePlate().equals(licensePlate))
+                            .findFirst();
+                    return own.isPresent()
+                            ? Mono.just(own)
+                            : Mono.error(new BusinessLogicException("Parking spot " + spot.spotIdentifier() + " is reserved"));
+                });
+    }
+
+    private Mono<CheckedOut> complete(Spot spot, Session session, String notes) {
+        LocalDateTime checkOutTime = LocalDateTime.now();
+        Double parkingFee = billingService.calculateParkingFee(session.checkInTime(), checkOutTime);
+        String combinedNotes = session.notes();
+        if (notes != null && !notes.isEmpty()) {
+            combinedNotes = combinedNotes != null ? combinedNotes + " | " + notes : notes;
+        }
+        ParkingTransactionDto checkedOut = toTransactionDto(session.transactionId(), session.carId(),
+                session.licensePlate(), spot, session.checkInTime(), checkOutTime, parkingFee, combinedNotes);
+        return repository.completeSession(session.transactionId(), checkOutTime, parkingFee, combinedNotes)
+                .flatMap(completed -> completed
+                        ? Mono.just(new CheckedOut(spot, session, checkedOut))
+                        : Mono.error(new OptimisticLockingFailureException(
+                                "Parking session " + session.transactionId() + " was checked out concurrently")));
+    }
+
+    private ParkingTransactionDto checkedOut(CheckedOut checkedOut) {
+        Spot spot = checkedOut.spot();
+        ParkingTransactionDto transaction = checkedOut.transaction();
+        ParkingSpot parkingSpot = spot.toParkingSpot();
+        occupancyTimeSeries.recordCheckOut(parkingSpot, transaction.getCheckOutTime());
+        dwellTimeHistograms.recordCheckOut(parkingSpot, transaction.getCheckInTime(), transaction.getCheckOutTime());
+        reservationService.recordCheckOut(parkingSpot);
+        responseCache.occupancyChanged(spot.garageId());
+        spotWaiters.spotFreed(parkingSpot);
+        log.info("Car {} checked out from spot {} with transaction id: {} - Fee: ${}",
+                checkedOut.session().licensePlate(), spot.spotIdentifier(), transaction.getId(),
+                transaction.getParkingFee());
+        checkOutPipeline.publish(spot.garageId(), transaction);
+        return transaction;
+    }
+
+    private static ParkingTransactionDto toTransactionDto(long transactionId, long carId, String licensePlate, Spot spot,
+                                                          LocalDateTime checkInTime, LocalDateTime checkOutTime,
+                                                          Double parkingFee, String notes) {
+        return ParkingTransactionDto.builder()
+                .id(transactionId)
+                .carId(carId)
+                .licensePlate(licensePlate)
+                .parkingSpotId(spot.id())
+                .spotIdentifier(spot.spotIdentifier())
+                .floorNumber(spot.floorNumber())
+                .bayIdentifier(spot.bayIdentifier())
+                .spotNumber(spot.spotNumber())
+                .checkInTime(checkInTime)
+                .checkOutTime(checkOutTime)
+                .parkingFee(parkingFee)
+                .durationInHours(ParkingTransaction.durationInHours(checkInTime, checkOutTime))
+                .notes(notes)
+                .active(checkOutTime == null)
+                .build();
+    }
+
+    private record CarId(long id, boolean created) {
+    }
+
+    private record CheckedIn(Spot spot, Optional<Booking> booking, boolean newCar, ParkingTransactionDto transaction) {
+    }
+
+    private record CheckedOut(Spot spot, Session session, ParkingTransactionDto transaction) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.liatrio.parkinggarage.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+
+/**
+ * A Reactor Netty server for the reactive API, on its own port next to the servlet container.
+ * Started last and stopped first with the application context.
+ */
+@Slf4j
+public class ReactiveServer implements SmartLifecycle {
+
+    private final WebServer webServer;
+    private volatile boolean running;
+
+    public ReactiveServer(HttpHandler httpHandler, int port) {
+        this.webServer = new NettyReactiveWebServerFactory(port).getWebServer(httpHandler);
+    }
+
+    @Override
+    public void start() {
+        webServer.start();
+        running = true;
+        log.info("Reactive API listening on port {}", webServer.getPort());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        webServer.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The bound port, once started (useful with port 0)
+     */
+    public int getPort() {
+        return webServer.getPort();
+    }
+}
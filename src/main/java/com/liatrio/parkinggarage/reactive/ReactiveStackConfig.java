@@ -0,0 +1,76 @@
+package com.liatrio.parkinggarage.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.cache.ResponseCache;
+import com.liatrio.parkinggarage.service.BillingService;
+import com.liatrio.parkinggarage.service.CheckOutPipeline;
+import com.liatrio.parkinggarage.service.DwellTimeHistograms;
+import com.liatrio.parkinggarage.service.LicensePlateIndex;
+import com.liatrio.parkinggarage.service.OccupancyTimeSeries;
+import com.liatrio.parkinggarage.service.ReservationService;
+import com.liatrio.parkinggarage.service.SpotWaiters;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+/**
+ * The reactive stack: check-in, check-out and availability served by WebFlux on Reactor Netty over
+ * R2DBC, on parking.reactive.port next to the servlet API. Off unless parking.reactive.enabled is set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "parking.reactive.enabled", havingValue = "true")
+public class ReactiveStackConfig {
+
+    /**
+     * A pool of its own, sized like the JDBC one by default
+     */
+    @Bean(destroyMethod = "dispose")
+    public ReactiveDatabase reactiveDatabase(
+            MeterRegistry meterRegistry,
+            @Value("${parking.reactive.r2dbc-url:r2dbc:postgresql://localhost:5432/parking_garage}") String url,
+            @Value("${parking.reactive.username:${spring.datasource.username:}}") String username,
+            @Value("${parking.reactive.password:${spring.datasource.password:}}") String password,
+            @Value("${parking.reactive.pool-size:10}") int poolSize) {
+        return new ReactiveDatabase(url, username, password, poolSize, meterRegistry);
+    }
+
+    @Bean
+    public ReactiveParkingService reactiveParkingService(ReactiveDatabase reactiveDatabase,
+                                                         BillingService billingService,
+                                                         ReservationService reservationService,
+                                                         OccupancyTimeSeries occupancyTimeSeries,
+                                                         DwellTimeHistograms dwellTimeHistograms,
+                                                         LicensePlateIndex licensePlateIndex,
+                                                         ResponseCache responseCache,
+                                                         SpotWaiters spotWaiters,
+                                                         CheckOutPipeline checkOutPipeline) {
+        return new ReactiveParkingService(new ReactiveParkingRepository(reactiveDatabase.databaseClient()),
+                reactiveDatabase.transactionalOperator(), billingService, reservationService, occupancyTimeSeries,
+                dwellTimeHistograms, licensePlateIndex, responseCache, spotWaiters, checkOutPipeline);
+    }
+
+    @Bean
+    public ReactiveServer reactiveServer(ReactiveParkingService reactiveParkingService,
+                                         GarageDirectory garageDirectory,
+                                         Validator validator,
+                                         ObjectMapper objectMapper,
+                                         @Value("${parking.reactive.port:8081}") int port) {
+        // The servlet API's JSON mapper, so both stacks write dates and numbers the same way
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        ReactiveParkingRoutes routes = new ReactiveParkingRoutes(reactiveParkingService, garageDirectory, validator);
+        return new ReactiveServer(RouterFunctions.toHttpHandler(routes.routes(), strategies), port);
+    }
+}
@@ -2,7 +2,9 @@ package com.liatrio.parkinggarage.repository;
 
 import com.liatrio.parkinggarage.entity.Bay;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,6 +13,12 @@ import java.util.Optional;
 @Repository
 public interface BayRepository extends JpaRepository<Bay, Long> {
     
+    /**
+     * Find by id in the current garage; lookups by id bypass the garage filter otherwise
+     */
+    @Query("SELECT b FROM Bay b WHERE b.id = :id")
+    Optional<Bay> findById(@Param("id") Long id);
+    
     List<Bay> findByFloorId(Long floorId);
     
     List<Bay> findByActiveTrue();
@@ -19,4 +27,8 @@ public interface BayRepository extends JpaRepository<Bay, Long> {
     
     @Query("SELECT b FROM Bay b WHERE b.floor.id = :floorId AND b.active = true")
     List<Bay> findActiveByFloorId(Long floorId);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Bay b SET b.active = false WHERE b.active = true AND b.floor.id = :floorId")
+    int deactivateByFloorId(@Param("floorId") Long floorId);
 }
@@ -1,12 +1,17 @@
 package com.liatrio.parkinggarage.repository;
 
 import com.liatrio.parkinggarage.entity.Car;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface CarRepository extends JpaRepository<Car, Long> {
@@ -24,4 +29,11 @@ public interface CarRepository extends JpaRepository<Car, Long> {
         WHERE t.checkOutTime IS NULL
     """)
     List<Car> findCurrentlyParkedCars();
+
+    /**
+     * Every license plate, streamed to build the plate index without loading cars
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT c.licensePlate FROM Car c")
+    Stream<String> streamAllLicensePlates();
 }
@@ -0,0 +1,16 @@
+package com.liatrio.parkinggarage.repository;
+
+import com.liatrio.parkinggarage.entity.CheckOutDeadLetter;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CheckOutDeadLetterRepository extends JpaRepository<CheckOutDeadLetter, Long> {
+
+    List<CheckOutDeadLetter> findAllByOrderByIdAsc(Limit limit);
+
+    List<CheckOutDeadLetter> findByListenerOrderByIdAsc(String listener, Limit limit);
+}
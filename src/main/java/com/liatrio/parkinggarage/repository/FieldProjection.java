@@ -0,0 +1,115 @@
+package com.liatrio.parkinggarage.repository;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The select clause of a tuple query for a sparse fieldset. Every DTO field is declared with the
+ * expression behind it, but only the requested ones are selected, so the joins made inside those
+ * expressions (see {@link #lazily}) happen only when a requested field needs them.
+ */
+final class FieldProjection {
+
+    private final Set<String> fields;
+    private final List<Selection<?>> selections = new ArrayList<>();
+    private final Map<String, Function<Tuple, Object>> values = new HashMap<>();
+
+    FieldProjection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    boolean wants(String... candidates) {
+        for (String candidate : candidates) {
+            if (fields.contains(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A field read straight from one selected expression
+     */
+    void column(String field, Supplier<? extends Expression<?>> expression) {
+        if (wants(field)) {
+            int index = select(expression);
+            values.put(field, tuple -> tuple.get(index));
+        }
+    }
+
+    /**
+     * A field the listing already determines, such as {@code occupied} for available spots
+     */
+    void constant(String field, Object value) {
+        if (wants(field)) {
+            values.put(field, tuple -> value);
+        }
+    }
+
+    /**
+     * A field computed from selected values
+     */
+    void derived(String field, Function<Tuple, Object> value) {
+        if (wants(field)) {
+            values.put(field, value);
+        }
+    }
+
+    /**
+     * Add an expression to the select clause and return its position in the tuple
+     */
+    int select(Supplier<? extends Expression<?>> expression) {
+        selections.add(expression.get());
+        return selections.size() - 1;
+    }
+
+    /**
+     * Apply the select clause; {@code fallback} is selected when every requested field is a constant
+     */
+    CriteriaQuery<Tuple> applyTo(CriteriaQuery<Tuple> query, Expression<?> fallback) {
+        if (selections.isEmpty()) {
+            selections.add(fallback);
+        }
+        return query.multiselect(selections);
+    }
+
+    List<Map<String, Object>> toRows(List<Tuple> tuples) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, values.get(field).apply(tuple));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * A join (or subquery) made the first time it is asked for
+     */
+    static <T> Supplier<T> lazily(Supplier<T> supplier) {
+        return new Supplier<>() {
+            private T value;
+
+            @Override
+            public T get() {
+                if (value == null) {
+                    value = supplier.get();
+                }
+                return value;
+            }
+        };
+    }
+}
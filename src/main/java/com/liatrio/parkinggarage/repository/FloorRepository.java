@@ -2,6 +2,8 @@ package com.liatrio.parkinggarage.repository;
 
 import com.liatrio.parkinggarage.entity.Floor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +12,12 @@ import java.util.Optional;
 @Repository
 public interface FloorRepository extends JpaRepository<Floor, Long> {
     
+    /**
+     * Find by id in the current garage; lookups by id bypass the garage filter otherwise
+     */
+    @Query("SELECT f FROM Floor f WHERE f.id = :id")
+    Optional<Floor> findById(@Param("id") Long id);
+    
     Optional<Floor> findByFloorNumber(Integer floorNumber);
     
     List<Floor> findByActiveTrue();
@@ -0,0 +1,15 @@
+package com.liatrio.parkinggarage.repository;
+
+import com.liatrio.parkinggarage.entity.Garage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface GarageRepository extends JpaRepository<Garage, Long> {
+    
+    Optional<Garage> findByCode(String code);
+    
+    boolean existsByCode(String code);
+}
@@ -0,0 +1,29 @@
+package com.liatrio.parkinggarage.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parking spot lists reduced to some of the {@code ParkingSpotDto} fields, selecting only the
+ * columns and joins those fields need
+ */
+public interface ParkingSpotFieldsRepository {
+
+    enum Listing {
+        /** Every spot, by id */
+        ALL,
+        /** Like {@link ParkingSpotRepository#findAvailableSpots} and {@link ParkingSpotRepository#findAvailableSpotsByFloorId} */
+        AVAILABLE,
+        /** Like {@link ParkingSpotRepository#findOccupiedSpots} */
+        OCCUPIED
+    }
+
+    /**
+     * The requested fields of the listed spots, in the listing's order
+     *
+     * @param floorId only the spots of this floor, or null for every floor
+     * @param fields  {@code ParkingSpotDto} property names
+     */
+    List<Map<String, Object>> findSpotFields(Listing listing, Long floorId, Set<String> fields);
+}
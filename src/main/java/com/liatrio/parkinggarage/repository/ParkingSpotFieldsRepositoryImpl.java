@@ -0,0 +1,112 @@
+package com.liatrio.parkinggarage.repository;
+
+import com.liatrio.parkinggarage.entity.Bay;
+import com.liatrio.parkinggarage.entity.Floor;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.ParkingTransaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static com.liatrio.parkinggarage.repository.FieldProjection.lazily;
+
+/**
+ * Criteria tuple queries behind {@link ParkingSpotFieldsRepository}. Bay and floor are joined only
+ * for the fields, filters or ordering that need them, and the active transaction is looked up with a
+ * subquery instead of loading every spot's transactions.
+ */
+public class ParkingSpotFieldsRepositoryImpl implements ParkingSpotFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findSpotFields(Listing listing, Long floorId, Set<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ParkingSpot> spot = query.from(ParkingSpot.class);
+        Supplier<Join<ParkingSpot, Bay>> bay = lazily(() -> spot.join("bay"));
+        Supplier<Join<Bay, Floor>> floor = lazily(() -> bay.get().join("floor"));
+
+        FieldProjection projection = new FieldProjection(fields);
+        projection.column("id", () -> spot.get("id"));
+        projection.column("spotIdentifier", () -> spot.get("spotIdentifier"));
+        projection.column("spotNumber", () -> spot.get("spotNumber"));
+        projection.column("spotTypeId", () -> spot.get("spotType").get("id"));
+        projection.column("spotTypeName", () -> spot.join("spotType").get("name"));
+        projection.column("bayId", () -> spot.get("bay").get("id"));
+        projection.column("bayIdentifier", () -> bay.get().get("bayIdentifier"));
+        projection.column("floorNumber", () -> floor.get().get("floorNumber"));
+        projection.column("active", () -> spot.get("active"));
+        switch (listing) {
+            case AVAILABLE -> {
+                projection.constant("occupied", false);
+                projection.constant("currentTransactionId", null);
+            }
+            case OCCUPIED -> {
+                projection.constant("occupied", true);
+                projection.column("currentTransactionId", () -> activeTransaction(cb, query, spot, true));
+            }
+            case ALL -> {
+                if (projection.wants("occupied", "currentTransactionId")) {
+                    int transactionId = projection.select(() -> activeTransaction(cb, query, spot, true));
+                    projection.derived("occupied", tuple -> tuple.get(transactionId) != null);
+                    projection.derived("currentTransactionId", tuple -> tuple.get(transactionId));
+                }
+            }
+        }
+
+        List<Predicate> where = new ArrayList<>();
+        if (floorId != null) {
+            where.add(cb.equal(floor.get().get("id"), floorId));
+        }
+        switch (listing) {
+            case ALL -> query.orderBy(cb.asc(spot.get("id")));
+            case AVAILABLE -> {
+                where.add(cb.isTrue(spot.get("active")));
+                where.add(cb.isTrue(bay.get().get("active")));
+                where.add(cb.isTrue(floor.get().get("active")));
+                where.add(cb.not(cb.exists(activeTransaction(cb, query, spot, false))));
+                query.orderBy(floorId != null
+                        ? List.of(cb.asc(bay.get().get("bayIdentifier")), cb.asc(spot.get("spotNumber")))
+                        : List.of(cb.asc(floor.get().get("floorNumber")), cb.asc(bay.get().get("bayIdentifier")),
+                                cb.asc(spot.get("spotNumber"))));
+            }
+            case OCCUPIED -> {
+                where.add(cb.isTrue(spot.get("active")));
+                where.add(cb.exists(activeTransaction(cb, query, spot, false)));
+                query.orderBy(cb.asc(floor.get().get("floorNumber")), cb.asc(bay.get().get("bayIdentifier")),
+                        cb.asc(spot.get("spotNumber")));
+            }
+        }
+        query.where(where.toArray(new Predicate[0]));
+
+        List<Tuple> tuples = entityManager.createQuery(projection.applyTo(query, spot.get("id"))).getResultList();
+        return projection.toRows(tuples);
+    }
+
+    /**
+     * The spot's active transaction; {@code scalar} wraps its id in max() for use as a select expression
+     */
+    private static Subquery<Long> activeTransaction(CriteriaBuilder cb, CriteriaQuery<?> query,
+                                                    Root<ParkingSpot> spot, boolean scalar) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<ParkingTransaction> transaction = subquery.from(ParkingTransaction.class);
+        Path<Long> id = transaction.get("id");
+        return subquery.select(scalar ? cb.max(id) : id)
+                .where(cb.equal(transaction.get("parkingSpot"), spot), cb.isNull(transaction.get("checkOutTime")));
+    }
+}
@@ -1,7 +1,11 @@
 package com.liatrio.parkinggarage.repository;
 
 import com.liatrio.parkinggarage.entity.ParkingSpot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,13 +14,30 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long> {
+public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>, ParkingSpotFieldsRepository {
     
     @Query("SELECT ps FROM ParkingSpot ps LEFT JOIN FETCH ps.transactions WHERE ps.id = :id")
     Optional<ParkingSpot> findById(@Param("id") Long id);
     
     @Query("SELECT ps FROM ParkingSpot ps LEFT JOIN FETCH ps.transactions WHERE ps.spotIdentifier = :spotIdentifier")
     Optional<ParkingSpot> findBySpotIdentifier(@Param("spotIdentifier") String spotIdentifier);
+
+    /**
+     * Load a spot with its transactions and increment its version on commit like
+     * {@link #findByIdForReservation}, so a check-in cannot commit alongside a reservation or
+     * deactivation of the same spot
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT ps FROM ParkingSpot ps LEFT JOIN FETCH ps.transactions WHERE ps.spotIdentifier = :spotIdentifier")
+    Optional<ParkingSpot> findBySpotIdentifierForCheckIn(@Param("spotIdentifier") String spotIdentifier);
+
+    /**
+     * Load a spot without its transactions and increment its version on commit,
+     * so two transactions reserving the same spot cannot both commit
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT ps FROM ParkingSpot ps WHERE ps.id = :id")
+    Optional<ParkingSpot> findByIdForReservation(@Param("id") Long id);
     
     List<ParkingSpot> findByBayId(Long bayId);
     
@@ -25,17 +46,21 @@ public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>
     List<ParkingSpot> findBySpotTypeId(Long spotTypeId);
     
     /**
-     * Find available spots (active spots with no active transactions)
+     * Find available spots (active spots in active bays and floors, with no active transactions)
      */
     @Query("""
         SELECT ps FROM ParkingSpot ps 
+        JOIN ps.bay b 
+        JOIN b.floor f 
         WHERE ps.active = true 
+        AND b.active = true 
+        AND f.active = true 
         AND NOT EXISTS (
             SELECT 1 FROM ParkingTransaction pt 
             WHERE pt.parkingSpot.id = ps.id 
             AND pt.checkOutTime IS NULL
         )
-        ORDER BY ps.bay.floor.floorNumber, ps.bay.bayIdentifier, ps.spotNumber
+        ORDER BY f.floorNumber, b.bayIdentifier, ps.spotNumber
     """)
     List<ParkingSpot> findAvailableSpots();
     
@@ -55,18 +80,71 @@ public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>
     List<ParkingSpot> findOccupiedSpots();
     
     /**
-     * Find available spots by floor
+     * Find available spots by floor (nothing when the floor is inactive)
      */
     @Query("""
         SELECT ps FROM ParkingSpot ps 
-        WHERE ps.bay.floor.id = :floorId 
+        JOIN ps.bay b 
+        JOIN b.floor f 
+        WHERE f.id = :floorId 
         AND ps.active = true 
+        AND b.active = true 
+        AND f.active = true 
         AND NOT EXISTS (
             SELECT 1 FROM ParkingTransaction pt 
             WHERE pt.parkingSpot.id = ps.id 
             AND pt.checkOutTime IS NULL
         )
-        ORDER BY ps.bay.bayIdentifier, ps.spotNumber
+        ORDER BY b.bayIdentifier, ps.spotNumber
     """)
     List<ParkingSpot> findAvailableSpotsByFloorId(Long floorId);
+    
+    /**
+     * Find available spots of a spot type and/or floor (either may be null for any), in the same
+     * order as {@link #findAvailableSpots}
+     */
+    @Query("""
+        SELECT ps FROM ParkingSpot ps 
+        JOIN ps.bay b 
+        JOIN b.floor f 
+        WHERE ps.active = true 
+        AND b.active = true 
+        AND f.active = true 
+        AND (:spotTypeId IS NULL OR ps.spotType.id = :spotTypeId) 
+        AND (:floorId IS NULL OR f.id = :floorId) 
+        AND NOT EXISTS (
+            SELECT 1 FROM ParkingTransaction pt 
+            WHERE pt.parkingSpot.id = ps.id 
+            AND pt.checkOutTime IS NULL
+        )
+        ORDER BY f.floorNumber, b.bayIdentifier, ps.spotNumber
+    """)
+    List<ParkingSpot> findAvailableSpots(@Param("spotTypeId") Long spotTypeId, @Param("floorId") Long floorId,
+                                         Limit limit);
+    
+    /**
+     * Deactivate every active spot on the floor in one statement, bumping versions so concurrent
+     * check-ins and reservations of those spots, which load them with {@link #findBySpotIdentifierForCheckIn}
+     * and {@link #findByIdForReservation}, fail on commit
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE ParkingSpot ps SET ps.active = false, ps.version = ps.version + 1 
+        WHERE ps.active = true 
+        AND ps.bay.id IN (SELECT b.id FROM Bay b WHERE b.floor.id = :floorId)
+    """)
+    int deactivateByFloorId(@Param("floorId") Long floorId);
+    
+    /**
+     * Deactivate every active spot in the bay in one statement, bumping versions like {@link #deactivateByFloorId}
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ParkingSpot ps SET ps.active = false, ps.version = ps.version + 1 WHERE ps.active = true AND ps.bay.id = :bayId")
+    int deactivateByBayId(@Param("bayId") Long bayId);
+    
+    @Query("SELECT ps.id FROM ParkingSpot ps WHERE ps.bay.id IN (SELECT b.id FROM Bay b WHERE b.floor.id = :floorId)")
+    List<Long> findIdsByFloorId(@Param("floorId") Long floorId);
+    
+    @Query("SELECT ps.id FROM ParkingSpot ps WHERE ps.bay.id = :bayId")
+    List<Long> findIdsByBayId(@Param("bayId") Long bayId);
 }
@@ -0,0 +1,29 @@
+package com.liatrio.parkinggarage.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parking transaction lists reduced to some of the {@code ParkingTransactionDto} fields, selecting
+ * only the columns and joins those fields need
+ */
+public interface ParkingTransactionFieldsRepository {
+
+    enum Listing {
+        /** Every transaction, by id */
+        ALL,
+        /** Like {@link ParkingTransactionRepository#findActiveTransactions} */
+        ACTIVE,
+        /** Like {@link ParkingTransactionRepository#findCompletedTransactions} */
+        COMPLETED
+    }
+
+    /**
+     * The requested fields of the listed transactions, in the listing's order
+     *
+     * @param carId  only the transactions of this car, or null for every car
+     * @param fields {@code ParkingTransactionDto} property names
+     */
+    List<Map<String, Object>> findTransactionFields(Listing listing, Long carId, Set<String> fields);
+}
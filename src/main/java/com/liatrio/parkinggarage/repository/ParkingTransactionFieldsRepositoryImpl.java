@@ -0,0 +1,83 @@
+package com.liatrio.parkinggarage.repository;
+
+import com.liatrio.parkinggarage.entity.Bay;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.ParkingTransaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static com.liatrio.parkinggarage.repository.FieldProjection.lazily;
+
+/**
+ * Criteria tuple queries behind {@link ParkingTransactionFieldsRepository}. Car, spot, bay and floor
+ * are joined only for the fields that need them; {@code durationInHours} and {@code active} are
+ * computed from the check-in and check-out times.
+ */
+public class ParkingTransactionFieldsRepositoryImpl implements ParkingTransactionFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findTransactionFields(Listing listing, Long carId, Set<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ParkingTransaction> transaction = query.from(ParkingTransaction.class);
+        Supplier<Join<ParkingTransaction, ParkingSpot>> spot = lazily(() -> transaction.join("parkingSpot"));
+        Supplier<Join<ParkingSpot, Bay>> bay = lazily(() -> spot.get().join("bay"));
+
+        FieldProjection projection = new FieldProjection(fields);
+        projection.column("id", () -> transaction.get("id"));
+        projection.column("carId", () -> transaction.get("car").get("id"));
+        projection.column("licensePlate", () -> transaction.join("car").get("licensePlate"));
+        projection.column("parkingSpotId", () -> transaction.get("parkingSpot").get("id"));
+        projection.column("spotIdentifier", () -> spot.get().get("spotIdentifier"));
+        projection.column("floorNumber", () -> bay.get().join("floor").get("floorNumber"));
+        projection.column("bayIdentifier", () -> bay.get().get("bayIdentifier"));
+        projection.column("spotNumber", () -> spot.get().get("spotNumber"));
+        projection.column("checkInTime", () -> transaction.get("checkInTime"));
+        projection.column("checkOutTime", () -> transaction.get("checkOutTime"));
+        projection.column("parkingFee", () -> transaction.get("parkingFee"));
+        projection.column("notes", () -> transaction.get("notes"));
+        if (projection.wants("durationInHours", "active")) {
+            int checkInTime = projection.select(() -> transaction.get("checkInTime"));
+            int checkOutTime = projection.select(() -> transaction.get("checkOutTime"));
+            projection.derived("durationInHours", tuple -> ParkingTransaction.durationInHours(
+                    tuple.get(checkInTime, LocalDateTime.class), tuple.get(checkOutTime, LocalDateTime.class)));
+            projection.derived("active", tuple -> tuple.get(checkOutTime) == null);
+        }
+
+        List<Predicate> where = new ArrayList<>();
+        if (carId != null) {
+            where.add(cb.equal(transaction.get("car").get("id"), carId));
+        }
+        switch (listing) {
+            case ALL -> query.orderBy(cb.asc(transaction.get("id")));
+            case ACTIVE -> {
+                where.add(cb.isNull(transaction.get("checkOutTime")));
+                query.orderBy(cb.desc(transaction.get("checkInTime")));
+            }
+            case COMPLETED -> {
+                where.add(cb.isNotNull(transaction.get("checkOutTime")));
+                query.orderBy(cb.desc(transaction.get("checkOutTime")));
+            }
+        }
+        query.where(where.toArray(new Predicate[0]));
+
+        List<Tuple> tuples = entityManager.createQuery(projection.applyTo(query, transaction.get("id"))).getResultList();
+        return projection.toRows(tuples);
+    }
+}
@@ -3,13 +3,22 @@ package com.liatrio.parkinggarage.repository;
 import com.liatrio.parkinggarage.entity.ParkingTransaction;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ParkingTransactionRepository extends JpaRepository<ParkingTransaction, Long> {
+public interface ParkingTransactionRepository extends JpaRepository<ParkingTransaction, Long>, ParkingTransactionFieldsRepository {
+    
+    /**
+     * Find by id in the current garage; lookups by id bypass the garage filter otherwise
+     */
+    @Query("SELECT pt FROM ParkingTransaction pt WHERE pt.id = :id")
+    Optional<ParkingTransaction> findById(@Param("id") Long id);
     
     List<ParkingTransaction> findByCarId(Long carId);
     
@@ -25,15 +34,67 @@ public interface ParkingTransactionRepository extends JpaRepository<ParkingTrans
      */
     Optional<ParkingTransaction> findByCarIdAndCheckOutTimeIsNull(Long carId);
     
+    /**
+     * Identifier of the spot the car is parked at in any garage; native, so not filtered to the
+     * current garage
+     */
+    @Query(value = """
+        SELECT ps.spot_identifier FROM parking_transactions pt
+        JOIN parking_spots ps ON ps.id = pt.parking_spot_id
+        WHERE pt.car_id = :carId AND pt.check_out_time IS NULL
+        LIMIT 1
+    """, nativeQuery = true)
+    Optional<String> findParkedSpotIdentifierInAnyGarage(@Param("carId") Long carId);
+    
     /**
      * Find all active (ongoing) transactions
      */
     @Query("SELECT pt FROM ParkingTransaction pt WHERE pt.checkOutTime IS NULL ORDER BY pt.checkInTime DESC")
     List<ParkingTransaction> findActiveTransactions();
     
+    /**
+     * Active transactions of the cars with any of the given plates, with their cars
+     */
+    @Query("""
+        SELECT pt FROM ParkingTransaction pt JOIN FETCH pt.car c
+        WHERE c.licensePlate IN :licensePlates AND pt.checkOutTime IS NULL
+    """)
+    List<ParkingTransaction> findActiveByLicensePlates(@Param("licensePlates") Collection<String> licensePlates);
+    
     /**
      * Find all completed transactions
      */
     @Query("SELECT pt FROM ParkingTransaction pt WHERE pt.checkOutTime IS NOT NULL ORDER BY pt.checkOutTime DESC")
     List<ParkingTransaction> findCompletedTransactions();
+    
+    /**
+     * Sessions that overlap the window starting at {@code since}, with the garage, floor and spot type
+     * of their spot
+     */
+    @Query("""
+        SELECT pt.checkInTime AS checkInTime, pt.checkOutTime AS checkOutTime, pt.garageId AS garageId,
+               ps.bay.floor.id AS floorId, ps.spotType.id AS spotTypeId
+        FROM ParkingTransaction pt JOIN pt.parkingSpot ps
+        WHERE pt.checkOutTime IS NULL OR pt.checkOutTime >= :since
+    """)
+    List<OccupancyInterval> findOccupancyIntervalsSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * Sessions checked out at or after {@code since}, with the garage, floor and spot type of their spot
+     */
+    @Query("""
+        SELECT pt.checkInTime AS checkInTime, pt.checkOutTime AS checkOutTime, pt.garageId AS garageId,
+               ps.bay.floor.id AS floorId, ps.spotType.id AS spotTypeId
+        FROM ParkingTransaction pt JOIN pt.parkingSpot ps
+        WHERE pt.checkOutTime >= :since
+    """)
+    List<OccupancyInterval> findCompletedIntervalsSince(@Param("since") LocalDateTime since);
+    
+    interface OccupancyInterval {
+        LocalDateTime getCheckInTime();
+        LocalDateTime getCheckOutTime();
+        Long getGarageId();
+        Long getFloorId();
+        Long getSpotTypeId();
+    }
 }
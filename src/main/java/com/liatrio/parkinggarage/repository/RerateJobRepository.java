@@ -0,0 +1,22 @@
+package com.liatrio.parkinggarage.repository;
+
+import com.liatrio.parkinggarage.entity.RerateJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RerateJobRepository extends JpaRepository<RerateJob, Long> {
+    
+    /**
+     * Find by id in the current garage; lookups by id bypass the garage filter otherwise
+     */
+    @Query("SELECT j FROM RerateJob j WHERE j.id = :id")
+    Optional<RerateJob> findById(@Param("id") Long id);
+    
+    List<RerateJob> findAllByOrderByCreatedAtDesc();
+}
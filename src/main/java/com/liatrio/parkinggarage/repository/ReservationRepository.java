@@ -0,0 +1,59 @@
+package com.liatrio.parkinggarage.repository;
+
+import com.liatrio.parkinggarage.entity.Reservation;
+import com.liatrio.parkinggarage.entity.ReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    
+    /**
+     * Find by id in the current garage; lookups by id bypass the garage filter otherwise
+     */
+    @Query("SELECT r FROM Reservation r WHERE r.id = :id")
+    Optional<Reservation> findById(@Param("id") Long id);
+    
+    List<Reservation> findByLicensePlateOrderByStartTime(String licensePlate);
+    
+    List<Reservation> findByStatusAndEndTimeAfter(ReservationStatus status, LocalDateTime time);
+    
+    /**
+     * Check for a booked reservation on the spot overlapping [start, end)
+     */
+    @Query("""
+        SELECT COUNT(r) > 0 FROM Reservation r 
+        WHERE r.parkingSpot.id = :spotId 
+        AND r.status = com.liatrio.parkinggarage.entity.ReservationStatus.BOOKED 
+        AND r.startTime < :end 
+        AND r.endTime > :start
+    """)
+    boolean existsOverlapping(@Param("spotId") Long spotId,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end);
+    
+    /**
+     * Booked reservations on the spot holding it at {@code time}: running, or starting by {@code latestStart}
+     */
+    @Query("""
+        SELECT r FROM Reservation r
+        WHERE r.parkingSpot.id = :spotId
+        AND r.status = com.liatrio.parkinggarage.entity.ReservationStatus.BOOKED
+        AND r.startTime <= :latestStart
+        AND r.endTime > :time
+    """)
+    List<Reservation> findHoldingAt(@Param("spotId") Long spotId,
+                                    @Param("time") LocalDateTime time,
+                                    @Param("latestStart") LocalDateTime latestStart);
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :status WHERE r.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") ReservationStatus status);
+}
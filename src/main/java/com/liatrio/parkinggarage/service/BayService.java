@@ -1,5 +1,6 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.BayDto;
 import com.liatrio.parkinggarage.entity.Bay;
 import com.liatrio.parkinggarage.entity.Floor;
@@ -8,6 +9,7 @@ import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
 import com.liatrio.parkinggarage.repository.BayRepository;
 import com.liatrio.parkinggarage.repository.FloorRepository;
+import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -23,6 +25,9 @@ public class BayService {
 
     private final BayRepository bayRepository;
     private final FloorRepository floorRepository;
+    private final ParkingSpotRepository parkingSpotRepository;
+    private final ReservationService reservationService;
+    private final ResponseCache responseCache;
     private final EntityMapper entityMapper;
 
     @Transactional(readOnly = true)
@@ -63,11 +68,13 @@ public class BayService {
         Bay bay = Bay.builder()
                 .bayIdentifier(bayDto.getBayIdentifier())
                 .name(bayDto.getName())
+                .garageId(floor.getGarageId())
                 .floor(floor)
                 .active(true)
                 .build();
         
         Bay savedBay = bayRepository.save(bay);
+        responseCache.topologyChanged();
         log.info("Created bay with id: {}", savedBay.getId());
         
         return entityMapper.toBayDto(savedBay);
@@ -89,6 +96,7 @@ public class BayService {
             throw new ResourceAlreadyExistsException("Bay", "bayIdentifier", bayDto.getBayIdentifier());
         }
         
+        boolean deactivated = bay.getActive() && Boolean.FALSE.equals(bayDto.getActive());
         bay.setBayIdentifier(bayDto.getBayIdentifier());
         bay.setName(bayDto.getName());
         bay.setFloor(floor);
@@ -97,6 +105,10 @@ public class BayService {
         }
         
         Bay updatedBay = bayRepository.save(bay);
+        responseCache.topologyChanged();
+        if (deactivated) {
+            deactivateSpots(id);
+        }
         log.info("Updated bay with id: {}", updatedBay.getId());
         
         return entityMapper.toBayDto(updatedBay);
@@ -111,7 +123,18 @@ public class BayService {
         
         bay.setActive(false);
         bayRepository.save(bay);
+        deactivateSpots(id);
+        responseCache.topologyChanged();
         
         log.info("Soft deleted bay with id: {}", id);
     }
+
+    /**
+     * Deactivate the bay's spots with one update, instead of loading every spot
+     */
+    private void deactivateSpots(Long bayId) {
+        int spots = parkingSpotRepository.deactivateByBayId(bayId);
+        reservationService.deactivateSpots(parkingSpotRepository.findIdsByBayId(bayId));
+        log.info("Deactivated {} spots of bay {}", spots, bayId);
+    }
 }
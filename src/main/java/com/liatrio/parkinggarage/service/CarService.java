@@ -1,7 +1,9 @@
 package com.liatrio.parkinggarage.service;
 
 import com.liatrio.parkinggarage.dto.CarDto;
+import com.liatrio.parkinggarage.dto.PlateMatchDto;
 import com.liatrio.parkinggarage.entity.Car;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
 import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
 import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
@@ -19,8 +21,11 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CarService {
 
+    private static final int MAX_PLATE_MATCHES = 100;
+
     private final CarRepository carRepository;
     private final EntityMapper entityMapper;
+    private final LicensePlateIndex licensePlateIndex;
 
     @Transactional(readOnly = true)
     public List<CarDto> getAllCars() {
@@ -54,6 +59,21 @@ public class CarService {
         return entityMapper.toCarDto(car);
     }
 
+    /**
+     * Plates that may be the given (possibly misread or partial) plate, best matches first
+     */
+    public List<PlateMatchDto> searchLicensePlates(String query, int limit) {
+        if (limit < 1 || limit > MAX_PLATE_MATCHES) {
+            throw new BusinessLogicException("limit must be between 1 and " + MAX_PLATE_MATCHES);
+        }
+        return licensePlateIndex.search(query, limit).stream()
+                .map(match -> PlateMatchDto.builder()
+                        .licensePlate(match.licensePlate())
+                        .matchType(match.matchType().name())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public CarDto createCar(CarDto carDto) {
         log.debug("Creating car: {}", carDto);
@@ -70,6 +90,7 @@ public class CarService {
                 .build();
         
         Car savedCar = carRepository.save(car);
+        licensePlateIndex.recordSaved(null, savedCar.getLicensePlate());
         log.info("Created car with id: {}", savedCar.getId());
         
         return entityMapper.toCarDto(savedCar);
@@ -88,12 +109,14 @@ public class CarService {
             throw new ResourceAlreadyExistsException("Car", "licensePlate", carDto.getLicensePlate());
         }
         
+        String previousPlate = car.getLicensePlate();
         car.setLicensePlate(carDto.getLicensePlate());
         car.setMake(carDto.getMake());
         car.setModel(carDto.getModel());
         car.setColor(carDto.getColor());
         
         Car updatedCar = carRepository.save(car);
+        licensePlateIndex.recordSaved(previousPlate, updatedCar.getLicensePlate());
         log.info("Updated car with id: {}", updatedCar.getId());
         
         return entityMapper.toCarDto(updatedCar);
@@ -107,6 +130,7 @@ public class CarService {
                 .orElseThrow(() -> new ResourceNotFoundException("Car", "id", id));
         
         carRepository.delete(car);
+        licensePlateIndex.recordDeleted(car.getLicensePlate());
         
         log.info("Deleted car with id: {}", id);
     }
@@ -0,0 +1,24 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.CheckOutEvent;
+
+import java.util.List;
+
+/**
+ * A side effect of completed check-outs, such as a receipt, loyalty points or an accounting entry.
+ * Beans implementing it are run by {@link CheckOutPipeline} once the check-out has committed, on a
+ * thread of their own, so they add no latency to the gate.
+ *
+ * Events arrive in batches, in the order their check-outs committed. A batch that throws is retried
+ * and then kept as dead letters to be replayed, so an event may be seen more than once: listeners
+ * should be idempotent on the transaction id. Listeners run outside any garage.
+ */
+public interface CheckOutListener {
+
+    /**
+     * Unique and stable name; dead letters are kept and replayed under it
+     */
+    String name();
+
+    void onCheckOuts(List<CheckOutEvent> events) throws Exception;
+}
@@ -0,0 +1,332 @@
+package com.liatrio.parkinggarage.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.CheckOutDeadLetterDto;
+import com.liatrio.parkinggarage.dto.CheckOutEvent;
+import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
+import com.liatrio.parkinggarage.entity.CheckOutDeadLetter;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.repository.CheckOutDeadLetterRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.liatrio.parkinggarage.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Runs the {@link CheckOutListener}s on completed check-outs, after the check-out has committed and
+ * off the request thread. The gate's response depends only on the committed check-out: a slow or
+ * failing listener never delays or fails it.
+ *
+ * Each listener has its own bounded queue and thread, so one listener falling behind does not hold
+ * up the others. The thread takes whatever has queued up, up to the batch size, and hands it to the
+ * listener in one call. A batch that throws is retried with doubling backoff; once the attempts are
+ * used up its events are stored as dead letters, which can be listed and replayed to the listener.
+ * Events still queued at shutdown are stored as dead letters too, as is an event that finds its
+ * listener's queue full, since that listener is already a queue's worth behind. Only an event whose
+ * dead letter cannot be stored is dropped.
+ *
+ * parking.checkout_pipeline.events{listener,outcome} - delivered, retried, dead_lettered, dropped or replayed
+ * parking.checkout_pipeline.queued{listener} - events waiting for the listener
+ */
+@Service
+@Slf4j
+public class CheckOutPipeline {
+
+    public static final String DELIVERED = "delivered";
+    public static final String RETRIED = "retried";
+    public static final String DEAD_LETTERED = "dead_lettered";
+    public static final String DROPPED = "dropped";
+    public static final String REPLAYED = "replayed";
+
+    static final String EVENT_COUNTER = "parking.checkout_pipeline.events";
+    static final String QUEUED_GAUGE = "parking.checkout_pipeline.queued";
+    static final int MAX_DEAD_LETTERS = 1000;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+    private static final Duration SHUTDOWN_WAIT = Duration.ofSeconds(5);
+
+    private final CheckOutDeadLetterRepository deadLetterRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    /** Dead letters of a full queue are stored after the check-out's commit, so in a new transaction */
+    private final TransactionTemplate deadLetterTransaction;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+    private volatile boolean accepting = true;
+
+    public CheckOutPipeline(List<CheckOutListener> listeners,
+                            CheckOutDeadLetterRepository deadLetterRepository,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${parking.checkout-pipeline.enabled:true}") boolean enabled,
+                            @Value("${parking.checkout-pipeline.queue-capacity:10000}") int queueCapacity,
+                            @Value("${parking.checkout-pipeline.batch-size:100}") int batchSize,
+                            @Value("${parking.checkout-pipeline.max-attempts:5}") int maxAttempts,
+                            @Value("${parking.checkout-pipeline.retry-backoff:500ms}") Duration retryBackoff) {
+        this.deadLetterRepository = deadLetterRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.deadLetterTransaction = new TransactionTemplate(transactionManager);
+        this.deadLetterTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        if (!enabled) {
+            log.info("Check-out pipeline disabled, {} listeners will not run", listeners.size());
+            return;
+        }
+        for (CheckOutListener listener : listeners) {
+            if (lanes.containsKey(listener.name())) {
+                throw new IllegalStateException("Two check-out listeners are named " + listener.name());
+            }
+            lanes.put(listener.name(), new Lane(listener, queueCapacity));
+        }
+        lanes.values().forEach(lane -> lane.thread.start());
+    }
+
+    /**
+     * Queue a check-out for the listeners once the current transaction commits (straight away
+     * outside a transaction). Does nothing when there are no listeners.
+     */
+    public void publish(Long garageId, ParkingTransactionDto transaction) {
+        if (lanes.isEmpty()) {
+            return;
+        }
+        CheckOutEvent event = CheckOutEvent.builder().garageId(garageId).transaction(transaction).build();
+        afterCommit(() -> lanes.values().forEach(lane -> lane.offer(event)));
+    }
+
+    /**
+     * The current garage's dead letters, oldest first, of one listener or of all when null
+     */
+    @Transactional(readOnly = true)
+    public List<CheckOutDeadLetterDto> getDeadLetters(String listener, int limit) {
+        return findDeadLetters(listener, limit).stream()
+                .map(this::toDeadLetterDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Queue the current garage's oldest dead letters for their listeners again, of one listener or of
+     * all when null, and delete them. Those whose listener's queue is full are kept; returns how many
+     * were queued.
+     */
+    @Transactional
+    public int replayDeadLetters(String listener, int limit) {
+        List<CheckOutDeadLetter> replayed = new ArrayList<>();
+        for (CheckOutDeadLetter deadLetter : findDeadLetters(listener, limit)) {
+            Lane lane = lanes.get(deadLetter.getListener());
+            // Kept for a listener that has since been removed or disabled
+            if (lane != null && lane.replay(fromJson(deadLetter.getEvent()))) {
+                replayed.add(deadLetter);
+            }
+        }
+        // A replayed event may be delivered before this commits, and again by a later replay should
+        // the delete fail; listeners are idempotent
+        deadLetterRepository.deleteAllInBatch(replayed);
+        log.info("Replayed {} check-out dead letters", replayed.size());
+        return replayed.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        accepting = false;
+        lanes.values().forEach(lane -> lane.thread.interrupt());
+        for (Lane lane : lanes.values()) {
+            try {
+                lane.thread.join(SHUTDOWN_WAIT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<CheckOutEvent> queued = new ArrayList<>();
+            lane.queue.drainTo(queued);
+            if (!queued.isEmpty()) {
+                lane.deadLetter(queued, 0, "Not delivered before shutdown");
+            }
+        }
+    }
+
+    private List<CheckOutDeadLetter> findDeadLetters(String listener, int limit) {
+        if (limit < 1 || limit > MAX_DEAD_LETTERS) {
+            throw new BusinessLogicException("limit must be between 1 and " + MAX_DEAD_LETTERS);
+        }
+        if (listener == null) {
+            return deadLetterRepository.findAllByOrderByIdAsc(Limit.of(limit));
+        }
+        return deadLetterRepository.findByListenerOrderByIdAsc(listener, Limit.of(limit));
+    }
+
+    private CheckOutDeadLetterDto toDeadLetterDto(CheckOutDeadLetter deadLetter) {
+        return CheckOutDeadLetterDto.builder()
+                .id(deadLetter.getId())
+                .listener(deadLetter.getListener())
+                .transactionId(deadLetter.getTransactionId())
+                .attempts(deadLetter.getAttempts())
+                .error(deadLetter.getError())
+                .createdAt(deadLetter.getCreatedAt())
+                .event(fromJson(deadLetter.getEvent()))
+                .build();
+    }
+
+    private String toJson(CheckOutEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize check-out event", e);
+        }
+    }
+
+    private CheckOutEvent fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, CheckOutEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored check-out event", e);
+        }
+    }
+
+    /**
+     * One listener's queue and the thread that delivers it
+     */
+    private final class Lane implements Runnable {
+
+        private final CheckOutListener listener;
+        private final BlockingQueue<CheckOutEvent> queue;
+        private final Thread thread;
+
+        Lane(CheckOutListener listener, int queueCapacity) {
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "check-out-" + listener.name());
+            this.thread.setDaemon(true);
+            Gauge.builder(QUEUED_GAUGE, queue, BlockingQueue::size)
+                    .description("Check-out events waiting for the listener")
+                    .tag("listener", listener.name())
+                    .register(meterRegistry);
+        }
+
+        void offer(CheckOutEvent event) {
+            if (!accepting) {
+                deadLetter(List.of(event), 0, "Not delivered before shutdown");
+            } else if (!queue.offer(event)) {
+                log.warn("Check-out listener {} is {} events behind, storing transaction {} as a dead letter",
+                        listener.name(), queue.size(), event.getTransaction().getId());
+                deadLetter(List.of(event), 0, "Queue full");
+            }
+        }
+
+        boolean replay(CheckOutEvent event) {
+            if (accepting && queue.offer(event)) {
+                count(REPLAYED, 1);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            List<CheckOutEvent> batch = new ArrayList<>(batchSize);
+            try {
+                while (true) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, batchSize - 1);
+                    deliver(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                // Shutting down; what is still queued is stored as dead letters
+            }
+        }
+
+        private void deliver(List<CheckOutEvent> batch) throws InterruptedException {
+            List<CheckOutEvent> events = Collections.unmodifiableList(batch);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    listener.onCheckOuts(events);
+                    count(DELIVERED, batch.size());
+                    return;
+                } catch (InterruptedException e) {
+                    deadLetter(batch, attempt, "Not delivered before shutdown");
+                    throw e;
+                } catch (Exception e) {
+                    if (attempt >= maxAttempts) {
+                        log.error("Check-out listener {} failed on {} events {} times, storing them as dead letters",
+                                listener.name(), batch.size(), attempt, e);
+                        deadLetter(batch, attempt, e.toString());
+                        return;
+                    }
+                    count(RETRIED, batch.size());
+                    log.warn("Check-out listener {} failed on {} events (attempt {} of {}): {}",
+                            listener.name(), batch.size(), attempt, maxAttempts, e.toString());
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(backoff(attempt).toMillis());
+                    } catch (InterruptedException interrupted) {
+                        deadLetter(batch, attempt, e.toString());
+                        throw interrupted;
+                    }
+                }
+            }
+        }
+
+        private Duration backoff(int attempt) {
+            Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempt - 1, 20));
+            return backoff.compareTo(MAX_BACKOFF) < 0 ? backoff : MAX_BACKOFF;
+        }
+
+        /**
+         * Store the events for a later replay; runs outside any garage, so each row keeps its
+         * event's garage
+         */
+        private void deadLetter(List<CheckOutEvent> events, int attempts, String error) {
+            LocalDateTime now = LocalDateTime.now();
+            String reason = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            try {
+                deadLetterTransaction.executeWithoutResult(status -> deadLetterRepository.saveAll(events.stream()
+                        .map(event -> CheckOutDeadLetter.builder()
+                                .garageId(event.getGarageId())
+                                .listener(listener.name())
+                                .transactionId(event.getTransaction().getId())
+                                .event(toJson(event))
+                                .attempts(attempts)
+                                .error(reason)
+                                .createdAt(now)
+                                .build())
+                        .toList()));
+                count(DEAD_LETTERED, events.size());
+            } catch (RuntimeException e) {
+                count(DROPPED, events.size());
+                log.error("Could not store dead letters of check-out listener {}, dropping transactions {}",
+                        listener.name(), events.stream().map(event -> event.getTransaction().getId()).toList(), e);
+            }
+        }
+
+        private void count(String outcome, int events) {
+            meterRegistry.counter(EVENT_COUNTER, "listener", listener.name(), "outcome", outcome).increment(events);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.DwellTimeDto;
+import com.liatrio.parkinggarage.entity.Floor;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.repository.FloorRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository.OccupancyInterval;
+import com.liatrio.parkinggarage.repository.SpotTypeRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.IntCountsHistogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.liatrio.parkinggarage.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Dwell-time distribution of completed sessions per (floor, spot type) pair and check-out hour, kept
+ * in memory.
+ *
+ * Each garage has its own series and lock. Each (series, hour) bucket is an HdrHistogram of dwell minutes with two significant digits, so its
+ * size is fixed by the trackable range rather than by traffic. Buckets sit in a ring of one slot per
+ * hour of the retention window and are allocated on the first check-out of their hour; a slot is
+ * cleared and reused when the window moves past it. Percentiles over any window, floor, spot type or
+ * hour of day are answered by merging the matching buckets. Check-outs are recorded after their
+ * transaction commits; on startup the buckets are rebuilt from the sessions checked out in the window.
+ */
+@Service
+@Slf4j
+public class DwellTimeHistograms {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final List<Double> DEFAULT_PERCENTILES = List.of(50.0, 75.0, 90.0, 95.0, 99.0);
+
+    private final ParkingTransactionRepository transactionRepository;
+    private final FloorRepository floorRepository;
+    private final SpotTypeRepository spotTypeRepository;
+    private final GarageDirectory garageDirectory;
+
+    private final int slots;
+    private final int maxSeries;
+    private final long maxDwellMinutes;
+
+    private final Map<Long, GarageHistograms> garages = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * Dimensions a result can be split by, named as in the groupBy parameter
+     */
+    private enum Dimension {
+        FLOOR, SPOT_TYPE;
+
+        static Dimension of(String parameter) {
+            return switch (parameter.trim().toLowerCase()) {
+                case "floor" -> FLOOR;
+                case "spottype" -> SPOT_TYPE;
+                default -> throw new BusinessLogicException("Unknown dwell time dimension: " + parameter
+                        + " (expected floor or spotType)");
+            };
+        }
+    }
+
+    private record GroupKey(Integer floorNumber, String spotTypeName) {
+    }
+
+    public DwellTimeHistograms(ParkingTransactionRepository transactionRepository,
+                               FloorRepository floorRepository,
+                               SpotTypeRepository spotTypeRepository,
+                               GarageDirectory garageDirectory,
+                               @Value("${parking.dwell.retention-hours:168}") int retentionHours,
+                               @Value("${parking.dwell.max-series:256}") int maxSeries,
+                               @Value("${parking.dwell.max-dwell-hours:168}") int maxDwellHours) {
+        this.transactionRepository = transactionRepository;
+        this.floorRepository = floorRepository;
+        this.spotTypeRepository = spotTypeRepository;
+        this.garageDirectory = garageDirectory;
+        this.slots = retentionHours;
+        this.maxSeries = maxSeries;
+        this.maxDwellMinutes = maxDwellHours * 60L;
+    }
+
+    /**
+     * Count a completed session once the surrounding transaction commits
+     */
+    public void recordCheckOut(ParkingSpot parkingSpot, LocalDateTime checkInTime, LocalDateTime checkOutTime) {
+        // Ids only: the floor and spot type proxies are not initialized
+        long garageId = parkingSpot.getGarageId();
+        long floorId = parkingSpot.getBay().getFloor().getId();
+        long spotTypeId = parkingSpot.getSpotType().getId();
+        long hour = toHour(checkOutTime);
+        long minutes = dwellMinutes(checkInTime, checkOutTime);
+        afterCommit(() -> applyLive(garageId, floorId, spotTypeId, hour, minutes));
+    }
+
+    /**
+     * Rebuild the buckets from the sessions checked out during the retention window
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startNanos = System.nanoTime();
+        long nowHour = toHour(LocalDateTime.now(clock));
+        long windowStart = nowHour - slots + 1;
+        List<OccupancyInterval> sessions = transactionRepository.findCompletedIntervalsSince(toTime(windowStart));
+
+        ready = false;
+        garages.clear();
+        for (OccupancyInterval session : sessions) {
+            GarageHistograms garage = garages.computeIfAbsent(session.getGarageId(), id -> {
+                GarageHistograms created = new GarageHistograms(id);
+                created.currentHour = windowStart - 1;
+                created.advanceTo(nowHour);
+                return created;
+            });
+            synchronized (garage) {
+                int series = garage.seriesFor(session.getFloorId(), session.getSpotTypeId());
+                if (series >= 0) {
+                    garage.apply(series, toHour(session.getCheckOutTime()),
+                            dwellMinutes(session.getCheckInTime(), session.getCheckOutTime()));
+                }
+            }
+        }
+        ready = true;
+        int seriesCount = 0;
+        for (GarageHistograms garage : garages.values()) {
+            synchronized (garage) {
+                seriesCount += garage.seriesCount;
+            }
+        }
+        log.info("Rebuilt dwell time histograms from {} sessions ({} series in {} garages) in {} ms",
+                sessions.size(), seriesCount, garages.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Dwell-time percentiles of the sessions checked out between the hour of {@code from} and the
+     * hour of {@code to}, optionally filtered by floor, spot type and check-out hour of day, merged
+     * per the given dimensions (all matching sessions together when there are none)
+     */
+    public List<DwellTimeDto> getDwellTimes(LocalDateTime from, LocalDateTime to, Integer floorNumber,
+                                            String spotTypeName, Integer hourOfDay, List<String> groupBy,
+                                            List<Double> percentiles) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now(clock);
+        LocalDateTime start = from != null ? from : end.minusHours(slots);
+        if (start.isAfter(end)) {
+            throw new BusinessLogicException("from must not be after to");
+        }
+        if (hourOfDay != null && (hourOfDay < 0 || hourOfDay > 23)) {
+            throw new BusinessLogicException("hourOfDay must be between 0 and 23");
+        }
+        List<Double> requested = percentiles == null || percentiles.isEmpty() ? DEFAULT_PERCENTILES : percentiles;
+        for (Double percentile : requested) {
+            if (percentile == null || percentile <= 0 || percentile > 100) {
+                throw new BusinessLogicException("Percentiles must be greater than 0 and at most 100");
+            }
+        }
+        boolean byFloor = false;
+        boolean bySpotType = false;
+        for (String parameter : groupBy) {
+            if (!parameter.isBlank()) {
+                Dimension dimension = Dimension.of(parameter);
+                byFloor |= dimension == Dimension.FLOOR;
+                bySpotType |= dimension == Dimension.SPOT_TYPE;
+            }
+        }
+
+        GarageHistograms garage = garages.get(garageDirectory.currentGarageId());
+        if (garage == null) {
+            return new ArrayList<>();
+        }
+        Map<Long, Floor> floors = floorRepository.findAll().stream()
+                .collect(Collectors.toMap(Floor::getId, Function.identity()));
+        Map<Long, SpotType> spotTypes = spotTypeRepository.findAll().stream()
+                .collect(Collectors.toMap(SpotType::getId, Function.identity()));
+
+        Map<GroupKey, Histogram> merged = new HashMap<>();
+        synchronized (garage) {
+            garage.advanceTo(toHour(LocalDateTime.now(clock)));
+            long firstHour = Math.max(toHour(start), garage.currentHour - slots + 1);
+            long lastHour = Math.min(toHour(end), garage.currentHour);
+            for (int series = 0; series < garage.seriesCount; series++) {
+                Floor floor = floors.get(garage.seriesFloorId[series]);
+                SpotType spotType = spotTypes.get(garage.seriesSpotTypeId[series]);
+                if (floor == null || spotType == null
+                        || (floorNumber != null && !floorNumber.equals(floor.getFloorNumber()))
+                        || (spotTypeName != null && !spotTypeName.equalsIgnoreCase(spotType.getName()))) {
+                    continue;
+                }
+                GroupKey key = new GroupKey(byFloor ? floor.getFloorNumber() : null,
+                        bySpotType ? spotType.getName() : null);
+                for (long hour = firstHour; hour <= lastHour; hour++) {
+                    int slot = slot(hour);
+                    IntCountsHistogram histogram = garage.histograms[series * slots + slot];
+                    if (histogram == null || garage.slotHour[slot] != hour || histogram.getTotalCount() == 0
+                            || (hourOfDay != null && toTime(hour).getHour() != hourOfDay)) {
+                        continue;
+                    }
+                    merged.computeIfAbsent(key, k -> newHistogram()).add(histogram);
+                }
+            }
+        }
+
+        return merged.entrySet().stream()
+                .map(entry -> toDto(entry.getKey(), entry.getValue(), requested))
+                .sorted(Comparator.comparing(DwellTimeDto::getFloorNumber, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(DwellTimeDto::getSpotTypeName, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+    }
+
+    private DwellTimeDto toDto(GroupKey key, Histogram histogram, List<Double> percentiles) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Double percentile : percentiles) {
+            String name = percentile == Math.floor(percentile)
+                    ? String.valueOf(percentile.longValue()) : String.valueOf(percentile);
+            values.put("p" + name, histogram.getValueAtPercentile(percentile));
+        }
+        return DwellTimeDto.builder()
+                .floorNumber(key.floorNumber())
+                .spotTypeName(key.spotTypeName())
+                .sessions(histogram.getTotalCount())
+                .meanMinutes(Math.round(histogram.getMean() * 10) / 10.0)
+                .maxMinutes(histogram.getMaxValue())
+                .percentiles(values)
+                .build();
+    }
+
+    private void applyLive(long garageId, long floorId, long spotTypeId, long hour, long minutes) {
+        if (!ready) {
+            return;
+        }
+        GarageHistograms garage = garages.computeIfAbsent(garageId, GarageHistograms::new);
+        synchronized (garage) {
+            int series = garage.seriesFor(floorId, spotTypeId);
+            if (series >= 0) {
+                garage.apply(series, hour, minutes);
+            }
+        }
+    }
+
+    private Histogram newHistogram() {
+        return new Histogram(maxDwellMinutes, SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Dwell in whole minutes, clamped to the trackable range
+     */
+    private long dwellMinutes(LocalDateTime checkInTime, LocalDateTime checkOutTime) {
+        long minutes = Duration.between(checkInTime, checkOutTime).toMinutes();
+        return Math.max(0, Math.min(minutes, maxDwellMinutes));
+    }
+
+    private int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) slots);
+    }
+
+    private static long seriesKey(long floorId, long spotTypeId) {
+        return (floorId << 32) ^ spotTypeId;
+    }
+
+    private long toHour(LocalDateTime time) {
+        return Math.floorDiv(time.atZone(clock.getZone()).toEpochSecond(), 3600);
+    }
+
+    private LocalDateTime toTime(long hour) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(hour * 3600), clock.getZone());
+    }
+
+    /**
+     * One garage's buckets; guarded by its own monitor
+     */
+    private final class GarageHistograms {
+        private final long garageId;
+        /** Dwell minutes per bucket, indexed series * slots + slot; null until the first check-out */
+        private final IntCountsHistogram[] histograms = new IntCountsHistogram[maxSeries * slots];
+        /** Epoch hour currently held by each slot, or -1 if it was never written */
+        private final long[] slotHour = new long[slots];
+        private final long[] seriesFloorId = new long[maxSeries];
+        private final long[] seriesSpotTypeId = new long[maxSeries];
+        private final Map<Long, Integer> seriesIndex = new HashMap<>();
+
+        private int seriesCount;
+        private long currentHour = -1;
+        private boolean seriesLimitLogged;
+
+        private GarageHistograms(long garageId) {
+            this.garageId = garageId;
+            Arrays.fill(slotHour, -1);
+        }
+
+        private void apply(int series, long hour, long minutes) {
+            advanceTo(hour);
+            if (hour <= currentHour - slots) {
+                return;
+            }
+            int index = series * slots + slot(hour);
+            if (histograms[index] == null) {
+                histograms[index] = new IntCountsHistogram(maxDwellMinutes, SIGNIFICANT_DIGITS);
+            }
+            histograms[index].recordValue(minutes);
+        }
+
+        /**
+         * Move the window up to {@code hour}, clearing the slots it reuses
+         */
+        private void advanceTo(long hour) {
+            if (hour <= currentHour) {
+                return;
+            }
+            long first = Math.max(currentHour + 1, hour - slots + 1);
+            for (long h = first; h <= hour; h++) {
+                int slot = slot(h);
+                slotHour[slot] = h;
+                for (int series = 0; series < seriesCount; series++) {
+                    IntCountsHistogram histogram = histograms[series * slots + slot];
+                    if (histogram != null) {
+                        histogram.reset();
+                    }
+                }
+            }
+            currentHour = hour;
+        }
+
+        private int seriesFor(long floorId, long spotTypeId) {
+            Integer existing = seriesIndex.get(seriesKey(floorId, spotTypeId));
+            if (existing != null) {
+                return existing;
+            }
+            if (seriesCount == maxSeries) {
+                if (!seriesLimitLogged) {
+                    log.warn("Dwell time series limit of {} reached in garage {}, new floor/spot type pairs "
+                            + "are not tracked", maxSeries, garageId);
+                    seriesLimitLogged = true;
+                }
+                return -1;
+            }
+            int series = seriesCount++;
+            seriesFloorId[series] = floorId;
+            seriesSpotTypeId[series] = spotTypeId;
+            seriesIndex.put(seriesKey(floorId, spotTypeId), series);
+            return series;
+        }
+    }
+}
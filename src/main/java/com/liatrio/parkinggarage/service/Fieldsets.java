@@ -0,0 +1,44 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code fields} parameter of list endpoints: a comma-separated subset of the properties of the
+ * endpoint's DTO, returned in the order the DTO declares them
+ */
+final class Fieldsets {
+
+    private Fieldsets() {
+    }
+
+    static Set<String> parse(String fields, Class<?> dto) {
+        List<String> properties = Arrays.stream(dto.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .map(Field::getName)
+                .toList();
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+        if (requested.isEmpty()) {
+            throw new BusinessLogicException("fields must name at least one of: " + String.join(", ", properties));
+        }
+        for (String field : requested) {
+            if (!properties.contains(field)) {
+                throw new BusinessLogicException("Unknown field '" + field + "', expected any of: "
+                        + String.join(", ", properties));
+            }
+        }
+        return properties.stream()
+                .filter(requested::contains)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -1,11 +1,15 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.FloorDto;
 import com.liatrio.parkinggarage.entity.Floor;
 import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
 import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
+import com.liatrio.parkinggarage.repository.BayRepository;
 import com.liatrio.parkinggarage.repository.FloorRepository;
+import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,7 +24,13 @@ import java.util.stream.Collectors;
 public class FloorService {
 
     private final FloorRepository floorRepository;
+    private final BayRepository bayRepository;
+    private final ParkingSpotRepository parkingSpotRepository;
+    private final ReservationService reservationService;
+    private final ResponseCache responseCache;
+    private final OccupancyTimeSeries occupancyTimeSeries;
     private final EntityMapper entityMapper;
+    private final GarageDirectory garageDirectory;
 
     @Transactional(readOnly = true)
     public List<FloorDto> getAllFloors() {
@@ -55,12 +65,15 @@ public class FloorService {
         }
         
         Floor floor = Floor.builder()
+                .garageId(garageDirectory.currentGarageId())
                 .floorNumber(floorDto.getFloorNumber())
                 .name(floorDto.getName())
                 .active(true)
                 .build();
         
         Floor savedFloor = floorRepository.save(floor);
+        responseCache.topologyChanged();
+        occupancyTimeSeries.topologyChanged();
         log.info("Created floor with id: {}", savedFloor.getId());
         
         return entityMapper.toFloorDto(savedFloor);
@@ -79,6 +92,7 @@ public class FloorService {
             throw new ResourceAlreadyExistsException("Floor", "floorNumber", floorDto.getFloorNumber());
         }
         
+        boolean deactivated = floor.getActive() && Boolean.FALSE.equals(floorDto.getActive());
         floor.setFloorNumber(floorDto.getFloorNumber());
         floor.setName(floorDto.getName());
         if (floorDto.getActive() != null) {
@@ -86,6 +100,11 @@ public class FloorService {
         }
         
         Floor updatedFloor = floorRepository.save(floor);
+        responseCache.topologyChanged();
+        occupancyTimeSeries.topologyChanged();
+        if (deactivated) {
+            deactivateBaysAndSpots(id);
+        }
         log.info("Updated floor with id: {}", updatedFloor.getId());
         
         return entityMapper.toFloorDto(updatedFloor);
@@ -100,7 +119,19 @@ public class FloorService {
         
         floor.setActive(false);
         floorRepository.save(floor);
+        deactivateBaysAndSpots(id);
+        responseCache.topologyChanged();
         
         log.info("Soft deleted floor with id: {}", id);
     }
+
+    /**
+     * Deactivate the floor's bays and spots with one update each, instead of loading every spot
+     */
+    private void deactivateBaysAndSpots(Long floorId) {
+        int bays = bayRepository.deactivateByFloorId(floorId);
+        int spots = parkingSpotRepository.deactivateByFloorId(floorId);
+        reservationService.deactivateSpots(parkingSpotRepository.findIdsByFloorId(floorId));
+        log.info("Deactivated {} bays and {} spots of floor {}", bays, spots, floorId);
+    }
 }
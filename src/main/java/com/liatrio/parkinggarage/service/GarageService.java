@@ -0,0 +1,71 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.GarageDto;
+import com.liatrio.parkinggarage.entity.Garage;
+import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
+import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
+import com.liatrio.parkinggarage.repository.GarageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Garages are not tenant data themselves: every request sees all of them, whatever its X-Garage header.
+ * A new garage is routable as soon as it commits; the directory looks unknown codes up once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GarageService {
+
+    private final GarageRepository garageRepository;
+
+    @Transactional(readOnly = true)
+    public List<GarageDto> getAllGarages() {
+        log.debug("Fetching all garages");
+        return garageRepository.findAll().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public GarageDto getGarageByCode(String code) {
+        log.debug("Fetching garage with code: {}", code);
+        Garage garage = garageRepository.findByCode(code)
+                .orElseThrow(() -> new ResourceNotFoundException("Garage", "code", code));
+        return toDto(garage);
+    }
+
+    @Transactional
+    public GarageDto createGarage(GarageDto garageDto) {
+        log.debug("Creating garage: {}", garageDto);
+
+        if (garageRepository.existsByCode(garageDto.getCode())) {
+            throw new ResourceAlreadyExistsException("Garage", "code", garageDto.getCode());
+        }
+
+        Garage garage = Garage.builder()
+                .code(garageDto.getCode())
+                .name(garageDto.getName())
+                .active(true)
+                .build();
+
+        Garage savedGarage = garageRepository.save(garage);
+        log.info("Created garage {} with id: {}", savedGarage.getCode(), savedGarage.getId());
+
+        return toDto(savedGarage);
+    }
+
+    private GarageDto toDto(Garage garage) {
+        return GarageDto.builder()
+                .id(garage.getId())
+                .code(garage.getCode())
+                .name(garage.getName())
+                .active(garage.getActive())
+                .build();
+    }
+}
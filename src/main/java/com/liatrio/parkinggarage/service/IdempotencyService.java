@@ -0,0 +1,222 @@
+package com.liatrio.parkinggarage.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
+import com.liatrio.parkinggarage.entity.IdempotencyRecord;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.metrics.ParkingMetrics;
+import com.liatrio.parkinggarage.repository.IdempotencyRecordRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.liatrio.parkinggarage.metrics.ParkingMetrics.*;
+
+/**
+ * Replays the response of a parking operation to retries that send the same Idempotency-Key.
+ *
+ * Responses are kept in a bounded LRU cache whose entries expire after the TTL, backed by the
+ * idempotency_records table for retries that reach another instance or outlive their cache entry.
+ * The record is saved in the operation's own transaction, so an operation commits together with its
+ * record or not at all, and a replay runs no part of the operation. Keys are scoped to the garage
+ * and operation; reusing a key for a different request is rejected.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final GarageDirectory garageDirectory;
+    private final ParkingMetrics parkingMetrics;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Map<CacheKey, StoredResponse> cache;
+
+    /**
+     * The response to send, and whether it was replayed from an earlier request
+     */
+    public record Outcome(ParkingTransactionDto response, boolean replayed) {
+    }
+
+    private record CacheKey(Long garageId, String operation, String idempotencyKey) {
+    }
+
+    private record StoredResponse(String requestHash, ParkingTransactionDto response, LocalDateTime expiresAt) {
+    }
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              GarageDirectory garageDirectory,
+                              ParkingMetrics parkingMetrics,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${parking.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${parking.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.garageDirectory = garageDirectory;
+        this.parkingMetrics = parkingMetrics;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Run the operation once per key: the first request runs it and stores its response, later
+     * requests with the same key and body get the stored response
+     */
+    public Outcome execute(String operation, String idempotencyKey, Object request,
+                           Supplier<ParkingTransactionDto> action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessLogicException(
+                    IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        CacheKey cacheKey = new CacheKey(garageDirectory.currentGarageId(), operation, idempotencyKey);
+
+        Optional<ParkingTransactionDto> cached = fromCache(cacheKey, requestHash);
+        if (cached.isPresent()) {
+            parkingMetrics.recordIdempotency(operation, IDEMPOTENCY_CACHE_HIT);
+            return new Outcome(cached.get(), true);
+        }
+        Optional<ParkingTransactionDto> stored = fromDatabase(cacheKey, requestHash);
+        if (stored.isPresent()) {
+            parkingMetrics.recordIdempotency(operation, IDEMPOTENCY_DATABASE_HIT);
+            return new Outcome(stored.get(), true);
+        }
+
+        parkingMetrics.recordIdempotency(operation, IDEMPOTENCY_MISS);
+        ParkingTransactionDto response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                ParkingTransactionDto result = action.get();
+                idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                        .garageId(cacheKey.garageId())
+                        .operation(operation)
+                        .idempotencyKey(idempotencyKey)
+                        .requestHash(requestHash)
+                        .response(toJson(result))
+                        .createdAt(LocalDateTime.now())
+                        .build());
+                return result;
+            });
+        } catch (RuntimeException e) {
+            // A concurrent request with the same key may have committed first
+            Optional<ParkingTransactionDto> winner = fromDatabase(cacheKey, requestHash);
+            if (winner.isEmpty()) {
+                throw e;
+            }
+            log.debug("Replaying concurrent {} with key {}", operation, idempotencyKey);
+            parkingMetrics.recordIdempotency(operation, IDEMPOTENCY_DATABASE_HIT);
+            return new Outcome(winner.get(), true);
+        }
+        cache.put(cacheKey, new StoredResponse(requestHash, response, LocalDateTime.now().plus(ttl)));
+        return new Outcome(response, false);
+    }
+
+    /**
+     * Delete expired records of every garage
+     */
+    @Scheduled(initialDelayString = "${parking.idempotency.purge-interval:PT10M}",
+            fixedDelayString = "${parking.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} expired idempotency records", deleted);
+        }
+    }
+
+    private Optional<ParkingTransactionDto> fromCache(CacheKey cacheKey, String requestHash) {
+        StoredResponse stored = cache.get(cacheKey);
+        if (stored == null) {
+            return Optional.empty();
+        }
+        if (stored.expiresAt().isBefore(LocalDateTime.now())) {
+            cache.remove(cacheKey, stored);
+            return Optional.empty();
+        }
+        checkSameRequest(cacheKey, stored.requestHash(), requestHash);
+        return Optional.of(stored.response());
+    }
+
+    private Optional<ParkingTransactionDto> fromDatabase(CacheKey cacheKey, String requestHash) {
+        Optional<IdempotencyRecord> found = idempotencyRecordRepository
+                .findByOperationAndIdempotencyKey(cacheKey.operation(), cacheKey.idempotencyKey());
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        IdempotencyRecord record = found.get();
+        LocalDateTime expiresAt = record.getCreatedAt().plus(ttl);
+        if (expiresAt.isBefore(LocalDateTime.now())) {
+            // Frees the key for this request
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.delete(record));
+            return Optional.empty();
+        }
+        checkSameRequest(cacheKey, record.getRequestHash(), requestHash);
+        ParkingTransactionDto response = fromJson(record.getResponse());
+        cache.put(cacheKey, new StoredResponse(record.getRequestHash(), response, expiresAt));
+        return Optional.of(response);
+    }
+
+    private void checkSameRequest(CacheKey cacheKey, String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            parkingMetrics.recordIdempotency(cacheKey.operation(), IDEMPOTENCY_KEY_REUSED);
+            throw new BusinessLogicException(IDEMPOTENCY_KEY_HEADER + " " + cacheKey.idempotencyKey()
+                    + " was already used for a different request");
+        }
+    }
+
+    String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private ParkingTransactionDto fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, ParkingTransactionDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored idempotent response", e);
+        }
+    }
+}
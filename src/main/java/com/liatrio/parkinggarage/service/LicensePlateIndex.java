@@ -0,0 +1,312 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.repository.CarRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.liatrio.parkinggarage.service.TransactionCallbacks.afterCommit;
+
+/**
+ * In-memory license plate index for misread plates.
+ *
+ * Plates are folded to a key that ignores case, separators and characters gate cameras confuse
+ * (O/Q/D as 0, I/L as 1, Z as 2, S as 5, G as 6, B as 8), so a confusable misread is a single hash
+ * lookup. Plates one edit (substitution, insertion, deletion or adjacent swap) away from the folded
+ * query are found by generating the query's edit neighbours, a few hundred hash lookups that do not
+ * depend on the number of plates. Prefix completion walks a sorted map of keys.
+ *
+ * Built from the cars table on startup and updated after car saves commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LicensePlateIndex {
+
+    private static final char[] FOLD = new char[128];
+    private static final char[] KEY_ALPHABET = "0123456789ACEFHJKMNPRTUVWXY".toCharArray();
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            FOLD[c] = c;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            FOLD[c] = c;
+            FOLD[Character.toLowerCase(c)] = c;
+        }
+        foldTo('0', 'O', 'Q', 'D');
+        foldTo('1', 'I', 'L');
+        foldTo('2', 'Z');
+        foldTo('5', 'S');
+        foldTo('6', 'G');
+        foldTo('8', 'B');
+    }
+
+    private final CarRepository carRepository;
+
+    /**
+     * Folded key to the plates that fold to it: a String for one plate, a String[] for several
+     */
+    private volatile Map<String, Object> platesByKey = new ConcurrentHashMap<>();
+    private volatile NavigableMap<String, Boolean> sortedKeys = new ConcurrentSkipListMap<>();
+    private final AtomicLong size = new AtomicLong();
+
+    public enum MatchType {
+        /** Same plate, ignoring case and separators */
+        EXACT,
+        /** Differs only in confusable characters */
+        CONFUSABLE,
+        /** One character substituted, inserted, deleted or swapped */
+        ONE_EDIT,
+        /** Starts with the query */
+        PREFIX
+    }
+
+    public record Match(String licensePlate, MatchType matchType) {
+    }
+
+    /**
+     * Load every plate from the cars table
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long startNanos = System.nanoTime();
+        Map<String, Object> plates = new ConcurrentHashMap<>();
+        // Sorted keys are collected in a TreeMap and copied in linear time, which is several times
+        // faster than inserting millions of keys into the skip list one by one
+        TreeMap<String, Boolean> keys = new TreeMap<>();
+        long count;
+        try (Stream<String> licensePlates = carRepository.streamAllLicensePlates()) {
+            count = licensePlates.filter(plate -> add(plates, keys, plate)).count();
+        }
+        platesByKey = plates;
+        sortedKeys = new ConcurrentSkipListMap<>(keys);
+        size.set(count);
+        log.info("Built license plate index with {} plates in {} ms",
+                size.get(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Index a created or renamed car's plate once the surrounding transaction commits
+     */
+    public void recordSaved(String previousPlate, String licensePlate) {
+        afterCommit(() -> {
+            if (previousPlate != null && !previousPlate.equals(licensePlate)) {
+                remove(previousPlate);
+            }
+            add(licensePlate);
+        });
+    }
+
+    /**
+     * Drop a deleted car's plate once the surrounding transaction commits
+     */
+    public void recordDeleted(String licensePlate) {
+        afterCommit(() -> remove(licensePlate));
+    }
+
+    /**
+     * Indexed plates that may be the given plate, best matches first: exact, confusable, one edit,
+     * then prefix completions (shortest first)
+     */
+    public List<Match> search(String query, int limit) {
+        String normalized = normalize(query);
+        String key = fold(normalized);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<String, MatchType> matches = new LinkedHashMap<>();
+
+        List<String> sameKey = new ArrayList<>();
+        collect(key, sameKey);
+        sameKey.sort(Comparator.naturalOrder());
+        sameKey.stream().filter(plate -> normalize(plate).equals(normalized))
+                .forEach(plate -> matches.put(plate, MatchType.EXACT));
+        sameKey.forEach(plate -> matches.putIfAbsent(plate, MatchType.CONFUSABLE));
+
+        List<String> oneEdit = new ArrayList<>();
+        forEachNeighbour(key, neighbour -> collect(neighbour, oneEdit));
+        oneEdit.sort(Comparator.naturalOrder());
+        oneEdit.forEach(plate -> matches.putIfAbsent(plate, MatchType.ONE_EDIT));
+
+        if (matches.size() < limit) {
+            List<String> prefixed = new ArrayList<>();
+            for (String candidate : sortedKeys.tailMap(key, false).keySet()) {
+                if (!candidate.startsWith(key) || prefixed.size() >= limit) {
+                    break;
+                }
+                collect(candidate, prefixed);
+            }
+            prefixed.sort(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+            prefixed.forEach(plate -> matches.putIfAbsent(plate, MatchType.PREFIX));
+        }
+
+        List<Match> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (Map.Entry<String, MatchType> entry : matches.entrySet()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(new Match(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    void add(String licensePlate) {
+        if (add(platesByKey, sortedKeys, licensePlate)) {
+            size.incrementAndGet();
+        }
+    }
+
+    private static boolean add(Map<String, Object> platesByKey, Map<String, Boolean> sortedKeys,
+                               String licensePlate) {
+        String key = fold(normalize(licensePlate));
+        if (key.isEmpty()) {
+            return false;
+        }
+        boolean[] added = new boolean[1];
+        platesByKey.compute(key, (k, existing) -> {
+            if (existing == null) {
+                added[0] = true;
+                sortedKeys.put(key, Boolean.TRUE);
+                return licensePlate;
+            }
+            String[] plates = existing instanceof String single ? new String[]{single} : (String[]) existing;
+            if (Arrays.asList(plates).contains(licensePlate)) {
+                return existing;
+            }
+            added[0] = true;
+            String[] grown = Arrays.copyOf(plates, plates.length + 1);
+            grown[plates.length] = licensePlate;
+            return grown;
+        });
+        return added[0];
+    }
+
+    void remove(String licensePlate) {
+        String key = fold(normalize(licensePlate));
+        boolean[] removed = new boolean[1];
+        platesByKey.computeIfPresent(key, (k, existing) -> {
+            if (existing instanceof String single) {
+                removed[0] = single.equals(licensePlate);
+                if (removed[0]) {
+                    sortedKeys.remove(key);
+                    return null;
+                }
+                return existing;
+            }
+            String[] plates = (String[]) existing;
+            String[] kept = Arrays.stream(plates).filter(plate -> !plate.equals(licensePlate)).toArray(String[]::new);
+            removed[0] = kept.length < plates.length;
+            return kept.length == 1 ? kept[0] : kept;
+        });
+        if (removed[0]) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Upper case, letters and digits only
+     */
+    static String normalize(String plate) {
+        if (plate == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if (c < 128 && FOLD[c] != 0) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Normalized plate with confusable characters mapped to one representative
+     */
+    static String fold(String normalized) {
+        char[] folded = new char[normalized.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = FOLD[normalized.charAt(i)];
+        }
+        return new String(folded);
+    }
+
+    private void collect(String key, List<String> into) {
+        Object plates = platesByKey.get(key);
+        if (plates instanceof String single) {
+            into.add(single);
+        } else if (plates != null) {
+            into.addAll(Arrays.asList((String[]) plates));
+        }
+    }
+
+    private static void forEachNeighbour(String key, Consumer<String> action) {
+        char[] chars = key.toCharArray();
+        int length = chars.length;
+        char[] buffer = new char[length + 1];
+        for (int i = 0; i < length; i++) {
+            // Deletion
+            System.arraycopy(chars, 0, buffer, 0, i);
+            System.arraycopy(chars, i + 1, buffer, i, length - i - 1);
+            if (length > 1) {
+                action.accept(new String(buffer, 0, length - 1));
+            }
+            // Substitution
+            System.arraycopy(chars, 0, buffer, 0, length);
+            for (char c : KEY_ALPHABET) {
+                if (c != chars[i]) {
+                    buffer[i] = c;
+                    action.accept(new String(buffer, 0, length));
+                }
+            }
+            // Adjacent swap
+            if (i + 1 < length && chars[i] != chars[i + 1]) {
+                System.arraycopy(chars, 0, buffer, 0, length);
+                buffer[i] = chars[i + 1];
+                buffer[i + 1] = chars[i];
+                action.accept(new String(buffer, 0, length));
+            }
+        }
+        // Insertion
+        for (int i = 0; i <= length; i++) {
+            System.arraycopy(chars, 0, buffer, 0, i);
+            System.arraycopy(chars, i, buffer, i + 1, length - i);
+            for (char c : KEY_ALPHABET) {
+                buffer[i] = c;
+                action.accept(new String(buffer, 0, length + 1));
+            }
+        }
+    }
+
+    private static void foldTo(char representative, char... confusables) {
+        for (char c : confusables) {
+            FOLD[c] = representative;
+            FOLD[Character.toLowerCase(c)] = representative;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.OccupancyPointDto;
+import com.liatrio.parkinggarage.dto.OccupancySeriesDto;
+import com.liatrio.parkinggarage.entity.Floor;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.repository.FloorRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository.OccupancyInterval;
+import com.liatrio.parkinggarage.repository.SpotTypeRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.liatrio.parkinggarage.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Per-minute occupancy of each (floor, spot type) pair over a fixed retention window, kept in memory.
+ *
+ * Each garage has its own series and lock. A series is a ring buffer of one slot per minute inside
+ * int arrays preallocated on the garage's first session, so the footprint is fixed at
+ * 2 x max-series x retention-minutes ints per garage regardless of traffic. Check-ins and check-outs
+ * update the current minute after their transaction commits; minutes without activity carry the last
+ * value forward. On startup the buffers are rebuilt by replaying the sessions that overlap the window.
+ *
+ * Floor numbers and spot type names are read once per garage and kept until floors or spot types
+ * change, so a query is answered from memory.
+ */
+@Service
+@Slf4j
+public class OccupancyTimeSeries {
+
+    private final ParkingTransactionRepository transactionRepository;
+    private final FloorRepository floorRepository;
+    private final SpotTypeRepository spotTypeRepository;
+    private final GarageDirectory garageDirectory;
+
+    private final int slots;
+    private final int maxSeries;
+
+    private final Map<Long, GarageSeries> garages = new ConcurrentHashMap<>();
+    private final Map<Long, Labels> labelsByGarage = new ConcurrentHashMap<>();
+    private long labelsGeneration;
+
+    private volatile boolean ready;
+
+    Clock clock = Clock.systemDefaultZone();
+
+    public OccupancyTimeSeries(ParkingTransactionRepository transactionRepository,
+                               FloorRepository floorRepository,
+                               SpotTypeRepository spotTypeRepository,
+                               GarageDirectory garageDirectory,
+                               @Value("${parking.occupancy.retention-minutes:1440}") int retentionMinutes,
+                               @Value("${parking.occupancy.max-series:256}") int maxSeries) {
+        this.transactionRepository = transactionRepository;
+        this.floorRepository = floorRepository;
+        this.spotTypeRepository = spotTypeRepository;
+        this.garageDirectory = garageDirectory;
+        this.slots = retentionMinutes;
+        this.maxSeries = maxSeries;
+    }
+
+    /**
+     * Count a check-in once the surrounding transaction commits
+     */
+    public void recordCheckIn(ParkingSpot parkingSpot, LocalDateTime checkInTime) {
+        record(parkingSpot, checkInTime, 1);
+    }
+
+    /**
+     * Count a check-out once the surrounding transaction commits
+     */
+    public void recordCheckOut(ParkingSpot parkingSpot, LocalDateTime checkOutTime) {
+        record(parkingSpot, checkOutTime, -1);
+    }
+
+    /**
+     * Read floor numbers and spot type names again once the current transaction commits
+     */
+    public void topologyChanged() {
+        afterCommit(() -> {
+            synchronized (labelsByGarage) {
+                labelsGeneration++;
+                labelsByGarage.clear();
+            }
+        });
+    }
+
+    /**
+     * Rebuild the buffers from the sessions that overlap the retention window
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startNanos = System.nanoTime();
+        long nowMinute = toMinute(LocalDateTime.now(clock));
+        long windowStart = nowMinute - slots + 1;
+        LocalDateTime windowStartTime = toTime(windowStart);
+        List<OccupancyInterval> intervals = transactionRepository.findOccupancyIntervalsSince(windowStartTime);
+
+        ready = false;
+        garages.clear();
+        Map<GarageSeries, List<ReplayEvent>> eventsByGarage = new HashMap<>();
+        for (OccupancyInterval interval : intervals) {
+            GarageSeries garage = garages.computeIfAbsent(interval.getGarageId(), GarageSeries::new);
+            List<ReplayEvent> events = eventsByGarage.computeIfAbsent(garage, g -> new ArrayList<>());
+            synchronized (garage) {
+                int series = garage.seriesFor(interval.getFloorId(), interval.getSpotTypeId());
+                if (series < 0) {
+                    continue;
+                }
+                if (interval.getCheckInTime().isBefore(windowStartTime)) {
+                    garage.current[series]++;
+                } else {
+                    events.add(new ReplayEvent(interval.getCheckInTime(), series, 1));
+                }
+                if (interval.getCheckOutTime() != null) {
+                    events.add(new ReplayEvent(interval.getCheckOutTime(), series, -1));
+                }
+            }
+        }
+        int seriesCount = 0;
+        for (GarageSeries garage : garages.values()) {
+            List<ReplayEvent> events = eventsByGarage.getOrDefault(garage, List.of());
+            events.sort(Comparator.comparing(ReplayEvent::time).thenComparingInt(ReplayEvent::delta));
+            synchronized (garage) {
+                garage.currentMinute = windowStart - 1;
+                for (ReplayEvent event : events) {
+                    garage.apply(event.series(), event.delta(), toMinute(event.time()));
+                }
+                garage.advanceTo(nowMinute);
+                seriesCount += garage.seriesCount;
+            }
+        }
+        ready = true;
+        log.info("Rebuilt occupancy time series from {} sessions ({} series in {} garages) in {} ms",
+                intervals.size(), seriesCount, garages.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Occupancy per floor and spot type between {@code from} and {@code to}, optionally filtered,
+     * in buckets of {@code stepMinutes} (occupancy at the end of the bucket and the peak within it)
+     */
+    public List<OccupancySeriesDto> getOccupancy(LocalDateTime from, LocalDateTime to,
+                                                 Integer floorNumber, String spotTypeName, int stepMinutes) {
+        if (stepMinutes < 1) {
+            throw new BusinessLogicException("step must be at least 1 minute");
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now(clock);
+        LocalDateTime start = from != null ? from : end.minusMinutes(slots);
+        if (start.isAfter(end)) {
+            throw new BusinessLogicException("from must not be after to");
+        }
+
+        Long garageId = garageDirectory.currentGarageId();
+        GarageSeries garage = garages.get(garageId);
+        if (garage == null) {
+            return new ArrayList<>();
+        }
+        Labels labels = labels(garageId);
+
+        List<OccupancySeriesDto> result = new ArrayList<>();
+        synchronized (garage) {
+            garage.advanceTo(toMinute(LocalDateTime.now(clock)));
+            long firstMinute = Math.max(toMinute(start), garage.currentMinute - slots + 1);
+            long lastMinute = Math.min(toMinute(end), garage.currentMinute);
+            for (int series = 0; series < garage.seriesCount; series++) {
+                Integer seriesFloorNumber = labels.floorNumbers().get(garage.seriesFloorId[series]);
+                String seriesSpotTypeName = labels.spotTypeNames().get(garage.seriesSpotTypeId[series]);
+                if (seriesFloorNumber == null || seriesSpotTypeName == null
+                        || (floorNumber != null && !floorNumber.equals(seriesFloorNumber))
+                        || (spotTypeName != null && !spotTypeName.equalsIgnoreCase(seriesSpotTypeName))) {
+                    continue;
+                }
+                result.add(OccupancySeriesDto.builder()
+                        .floorId(garage.seriesFloorId[series])
+                        .floorNumber(seriesFloorNumber)
+                        .spotTypeId(garage.seriesSpotTypeId[series])
+                        .spotTypeName(seriesSpotTypeName)
+                        .stepMinutes(stepMinutes)
+                        .points(garage.points(series, firstMinute, lastMinute, stepMinutes))
+                        .build());
+            }
+        }
+        result.sort(Comparator.comparing(OccupancySeriesDto::getFloorNumber)
+                .thenComparing(OccupancySeriesDto::getSpotTypeName));
+        return result;
+    }
+
+    /**
+     * The garage's floor numbers and spot type names, read when they are not cached; a read that
+     * overlaps a topology change is used but not kept
+     */
+    private Labels labels(Long garageId) {
+        Labels labels = labelsByGarage.get(garageId);
+        if (labels != null) {
+            return labels;
+        }
+        long generation;
+        synchronized (labelsByGarage) {
+            generation = labelsGeneration;
+        }
+        Labels loaded = new Labels(
+                floorRepository.findAll().stream().collect(Collectors.toMap(Floor::getId, Floor::getFloorNumber)),
+                spotTypeRepository.findAll().stream().collect(Collectors.toMap(SpotType::getId, SpotType::getName)));
+        synchronized (labelsByGarage) {
+            if (generation == labelsGeneration) {
+                labelsByGarage.put(garageId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private void record(ParkingSpot parkingSpot, LocalDateTime time, int delta) {
+        // Ids only: the floor and spot type proxies are not initialized
+        long garageId = parkingSpot.getGarageId();
+        long floorId = parkingSpot.getBay().getFloor().getId();
+        long spotTypeId = parkingSpot.getSpotType().getId();
+        long minute = toMinute(time);
+        afterCommit(() -> applyLive(garageId, floorId, spotTypeId, delta, minute));
+    }
+
+    private void applyLive(long garageId, long floorId, long spotTypeId, int delta, long minute) {
+        if (!ready) {
+            return;
+        }
+        GarageSeries garage = garages.computeIfAbsent(garageId, GarageSeries::new);
+        synchronized (garage) {
+            int series = garage.seriesFor(floorId, spotTypeId);
+            if (series >= 0) {
+                garage.apply(series, delta, minute);
+            }
+        }
+    }
+
+    private int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) slots);
+    }
+
+    private static long seriesKey(long floorId, long spotTypeId) {
+        return (floorId << 32) ^ spotTypeId;
+    }
+
+    private long toMinute(LocalDateTime time) {
+        return Math.floorDiv(time.atZone(clock.getZone()).toEpochSecond(), 60);
+    }
+
+    private LocalDateTime toTime(long minute) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(minute * 60), clock.getZone());
+    }
+
+    /**
+     * One garage's series; guarded by its own monitor
+     */
+    private final class GarageSeries {
+        private final long garageId;
+        /** Occupied spots at the end of each minute, indexed series * slots + slot */
+        private final int[] occupied = new int[maxSeries * slots];
+        /** Highest occupancy reached during each minute, same layout */
+        private final int[] peak = new int[maxSeries * slots];
+        /** Epoch minute currently held by each slot, or -1 if it was never written */
+        private final long[] slotMinute = new long[slots];
+        /** Occupancy right now, per series */
+        private final int[] current = new int[maxSeries];
+        private final long[] seriesFloorId = new long[maxSeries];
+        private final long[] seriesSpotTypeId = new long[maxSeries];
+        private final Map<Long, Integer> seriesIndex = new HashMap<>();
+
+        private int seriesCount;
+        private long currentMinute = -1;
+        private boolean seriesLimitLogged;
+
+        private GarageSeries(long garageId) {
+            this.garageId = garageId;
+            Arrays.fill(slotMinute, -1);
+        }
+
+        private void apply(int series, int delta, long minute) {
+            advanceTo(minute);
+            current[series] = Math.max(0, current[series] + delta);
+            int index = series * slots + slot(currentMinute);
+            occupied[index] = current[series];
+            peak[index] = Math.max(peak[index], current[series]);
+        }
+
+        /**
+         * Close the minutes up to {@code minute}, carrying the current occupancy forward
+         */
+        private void advanceTo(long minute) {
+            if (minute <= currentMinute) {
+                return;
+            }
+            long first = Math.max(currentMinute + 1, minute - slots + 1);
+            for (long m = first; m <= minute; m++) {
+                int slot = slot(m);
+                slotMinute[slot] = m;
+                for (int series = 0; series < seriesCount; series++) {
+                    occupied[series * slots + slot] = current[series];
+                    peak[series * slots + slot] = current[series];
+                }
+            }
+            currentMinute = minute;
+        }
+
+        private List<OccupancyPointDto> points(int series, long firstMinute, long lastMinute, int stepMinutes) {
+            List<OccupancyPointDto> points = new ArrayList<>();
+            for (long bucketStart = firstMinute; bucketStart <= lastMinute; bucketStart += stepMinutes) {
+                long bucketEnd = Math.min(bucketStart + stepMinutes - 1, lastMinute);
+                int bucketPeak = -1;
+                int bucketOccupied = 0;
+                for (long m = bucketStart; m <= bucketEnd; m++) {
+                    int slot = slot(m);
+                    if (slotMinute[slot] != m) {
+                        continue;
+                    }
+                    bucketOccupied = occupied[series * slots + slot];
+                    bucketPeak = Math.max(bucketPeak, peak[series * slots + slot]);
+                }
+                if (bucketPeak >= 0) {
+                    points.add(OccupancyPointDto.builder()
+                            .time(toTime(bucketStart))
+                            .occupied(bucketOccupied)
+                            .peak(bucketPeak)
+                            .build());
+                }
+            }
+            return points;
+        }
+
+        private int seriesFor(long floorId, long spotTypeId) {
+            Integer existing = seriesIndex.get(seriesKey(floorId, spotTypeId));
+            if (existing != null) {
+                return existing;
+            }
+            if (seriesCount == maxSeries) {
+                if (!seriesLimitLogged) {
+                    log.warn("Occupancy time series limit of {} reached in garage {}, new floor/spot type pairs "
+                            + "are not tracked", maxSeries, garageId);
+                    seriesLimitLogged = true;
+                }
+                return -1;
+            }
+            int series = seriesCount++;
+            seriesFloorId[series] = floorId;
+            seriesSpotTypeId[series] = spotTypeId;
+            seriesIndex.put(seriesKey(floorId, spotTypeId), series);
+            return series;
+        }
+    }
+
+    private record ReplayEvent(LocalDateTime time, int series, int delta) {
+    }
+
+    private record Labels(Map<Long, Integer> floorNumbers, Map<Long, String> spotTypeNames) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.ParkingSpotDto;
 import com.liatrio.parkinggarage.entity.Bay;
 import com.liatrio.parkinggarage.entity.ParkingSpot;
@@ -8,14 +9,18 @@ import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
 import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
 import com.liatrio.parkinggarage.repository.BayRepository;
+import com.liatrio.parkinggarage.repository.ParkingSpotFieldsRepository;
 import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
 import com.liatrio.parkinggarage.repository.SpotTypeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +32,8 @@ public class ParkingSpotService {
     private final BayRepository bayRepository;
     private final SpotTypeRepository spotTypeRepository;
     private final EntityMapper entityMapper;
+    private final ReservationService reservationService;
+    private final ResponseCache responseCache;
 
     @Transactional(readOnly = true)
     public List<ParkingSpotDto> getAllParkingSpots() {
@@ -60,6 +67,27 @@ public class ParkingSpotService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The first available spot of a spot type and/or floor (either may be null for any)
+     */
+    @Transactional(readOnly = true)
+    public Optional<ParkingSpotDto> findFirstAvailableSpot(Long spotTypeId, Long floorId) {
+        return parkingSpotRepository.findAvailableSpots(spotTypeId, floorId, Limit.of(1)).stream()
+                .findFirst()
+                .map(entityMapper::toParkingSpotDto);
+    }
+
+    /**
+     * The requested fields of the listed spots, read without loading the spots (the {@code fields}
+     * parameter of the list endpoints)
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getParkingSpotFields(ParkingSpotFieldsRepository.Listing listing, Long floorId,
+                                                         String fields) {
+        log.debug("Fetching fields {} of {} parking spots", fields, listing);
+        return parkingSpotRepository.findSpotFields(listing, floorId, Fieldsets.parse(fields, ParkingSpotDto.class));
+    }
+
     @Transactional(readOnly = true)
     public ParkingSpotDto getParkingSpotById(Long id) {
         log.debug("Fetching parking spot with id: {}", id);
@@ -91,6 +119,7 @@ public class ParkingSpotService {
         }
         
         ParkingSpot spot = ParkingSpot.builder()
+                .garageId(bay.getGarageId())
                 .spotIdentifier(spotDto.getSpotIdentifier())
                 .spotNumber(spotDto.getSpotNumber())
                 .spotType(spotType)
@@ -99,6 +128,8 @@ public class ParkingSpotService {
                 .build();
         
         ParkingSpot savedSpot = parkingSpotRepository.save(spot);
+        reservationService.registerSpot(savedSpot);
+        responseCache.topologyChanged();
         log.info("Created parking spot with id: {}", savedSpot.getId());
         
         return entityMapper.toParkingSpotDto(savedSpot);
@@ -132,6 +163,8 @@ public class ParkingSpotService {
         }
         
         ParkingSpot updatedSpot = parkingSpotRepository.save(spot);
+        reservationService.registerSpot(updatedSpot);
+        responseCache.topologyChanged();
         log.info("Updated parking spot with id: {}", updatedSpot.getId());
         
         return entityMapper.toParkingSpotDto(updatedSpot);
@@ -146,6 +179,8 @@ public class ParkingSpotService {
         
         spot.setActive(false);
         parkingSpotRepository.save(spot);
+        reservationService.registerSpot(spot);
+        responseCache.topologyChanged();
         
         log.info("Soft deleted parking spot with id: {}", id);
     }
@@ -1,5 +1,6 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.CheckInRequest;
 import com.liatrio.parkinggarage.dto.CheckOutRequest;
 import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
@@ -9,28 +10,55 @@ import com.liatrio.parkinggarage.entity.ParkingTransaction;
 import com.liatrio.parkinggarage.exception.BusinessLogicException;
 import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
+import com.liatrio.parkinggarage.metrics.ParkingMetrics;
 import com.liatrio.parkinggarage.repository.CarRepository;
 import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionFieldsRepository;
 import com.liatrio.parkinggarage.repository.ParkingTransactionRepository;
+import com.liatrio.parkinggarage.service.LicensePlateIndex.Match;
+import com.liatrio.parkinggarage.service.LicensePlateIndex.MatchType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static com.liatrio.parkinggarage.metrics.ParkingMetrics.*;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ParkingTransactionService {
 
+    private static final int MISREAD_PLATE_CANDIDATES = 20;
+
     private final ParkingTransactionRepository transactionRepository;
     private final ParkingSpotRepository parkingSpotRepository;
     private final CarRepository carRepository;
     private final BillingService billingService;
     private final EntityMapper entityMapper;
+    private final ParkingMetrics parkingMetrics;
+    private final OccupancyTimeSeries occupancyTimeSeries;
+    private final DwellTimeHistograms dwellTimeHistograms;
+    private final ReservationService reservationService;
+    private final LicensePlateIndex licensePlateIndex;
+    private final ResponseCache responseCache;
+    private final SpotWaiters spotWaiters;
+    private final CheckOutPipeline checkOutPipeline;
+
+    /**
+     * When a plate is not parked at check-out by plate, fall back to the one parked car whose plate
+     * differs only by confusable characters or a single edit. Off by default: a wrong guess checks out
+     * and bills another car
+     */
+    @Value("${parking.plates.misread-check-out:false}")
+    private boolean misreadPlateCheckOut = false;
 
     @Transactional(readOnly = true)
     public List<ParkingTransactionDto> getAllTransactions() {
@@ -72,6 +100,18 @@ public class ParkingTransactionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The requested fields of the listed transactions, read without loading the transactions (the
+     * {@code fields} parameter of the list endpoints)
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getTransactionFields(ParkingTransactionFieldsRepository.Listing listing, Long carId,
+                                                          String fields) {
+        log.debug("Fetching fields {} of {} transactions", fields, listing);
+        return transactionRepository.findTransactionFields(listing, carId,
+                Fieldsets.parse(fields, ParkingTransactionDto.class));
+    }
+
     /**
      * Check in a car to a parking spot
      */
@@ -79,22 +119,37 @@ public class ParkingTransactionService {
     public ParkingTransactionDto checkIn(CheckInRequest request) {
         log.debug("Processing check-in for license plate: {} at spot: {}", 
                 request.getLicensePlate(), request.getSpotIdentifier());
+        parkingMetrics.beginOperation(CHECK_IN, request.getSpotIdentifier(), request.getLicensePlate());
         
         // Validate parking spot
-        ParkingSpot parkingSpot = parkingSpotRepository.findBySpotIdentifier(request.getSpotIdentifier())
-                .orElseThrow(() -> new ResourceNotFoundException("ParkingSpot", "spotIdentifier", request.getSpotIdentifier()));
+        ParkingSpot parkingSpot = parkingMetrics.time(CHECK_IN, STAGE_SPOT_LOOKUP,
+                        () -> parkingSpotRepository.findBySpotIdentifierForCheckIn(request.getSpotIdentifier()))
+                .orElseThrow(() -> {
+                    parkingMetrics.recordRejection(CHECK_IN, REASON_SPOT_NOT_FOUND);
+                    return new ResourceNotFoundException("ParkingSpot", "spotIdentifier", request.getSpotIdentifier());
+                });
         
         if (!parkingSpot.getActive()) {
+            parkingMetrics.recordRejection(CHECK_IN, REASON_SPOT_INACTIVE);
             throw new BusinessLogicException("Parking spot " + request.getSpotIdentifier() + " is not active");
         }
         
         // Check if spot is already occupied
         if (parkingSpot.isOccupied()) {
+            parkingMetrics.recordRejection(CHECK_IN, REASON_SPOT_OCCUPIED);
             throw new BusinessLogicException("Parking spot " + request.getSpotIdentifier() + " is already occupied");
         }
         
-        // Get or create car
-        Car car = carRepository.findByLicensePlate(request.getLicensePlate())
+        // Check that the spot is not held by a reservation for another car
+        LocalDateTime checkInTime = LocalDateTime.now();
+        if (!reservationService.claimForCheckIn(parkingSpot, request.getLicensePlate(), checkInTime)) {
+            parkingMetrics.recordRejection(CHECK_IN, REASON_SPOT_RESERVED);
+            throw new BusinessLogicException("Parking spot " + request.getSpotIdentifier() + " is reserved");
+        }
+        
+        // Get or create car; an existing car must not be parked in this or any other garage
+        Car car = parkingMetrics.time(CHECK_IN, STAGE_CAR_LOOKUP, () -> carRepository.findByLicensePlate(request.getLicensePlate())
+                .map(this::requireNotParked)
                 .orElseGet(() -> {
                     log.info("Creating new car with license plate: {}", request.getLicensePlate());
                     Car newCar = Car.builder()
@@ -103,37 +158,33 @@ public class ParkingTransactionService {
                             .model(request.getModel())
                             .color(request.getColor())
                             .build();
+                    licensePlateIndex.recordSaved(null, newCar.getLicensePlate());
                     return carRepository.save(newCar);
-                });
-        
-        // Check if car is already parked elsewhere
-        if (car.isCurrentlyParked()) {
-            ParkingTransaction currentTransaction = car.getCurrentTransaction();
-            throw new BusinessLogicException(
-                    String.format("Car %s is already parked at spot %s", 
-                            request.getLicensePlate(),
-                            currentTransaction.getParkingSpot().getSpotIdentifier())
-            );
-        }
+                }));
         
         // Create parking transaction
         ParkingTransaction transaction = ParkingTransaction.builder()
+                .garageId(parkingSpot.getGarageId())
                 .car(car)
                 .parkingSpot(parkingSpot)
-                .checkInTime(LocalDateTime.now())
+                .checkInTime(checkInTime)
                 .notes(request.getNotes())
                 .build();
         
-        ParkingTransaction savedTransaction = transactionRepository.save(transaction);
+        ParkingTransaction savedTransaction = parkingMetrics.time(CHECK_IN, STAGE_SAVE,
+                () -> transactionRepository.save(transaction));
         
         // Update bidirectional relationships
         parkingSpot.getTransactions().add(savedTransaction);
         car.getTransactions().add(savedTransaction);
+        occupancyTimeSeries.recordCheckIn(parkingSpot, savedTransaction.getCheckInTime());
+        reservationService.recordCheckIn(parkingSpot, savedTransaction.getCheckInTime());
+        responseCache.occupancyChanged(parkingSpot.getGarageId());
         
         log.info("Car {} checked in at spot {} with transaction id: {}", 
                 request.getLicensePlate(), request.getSpotIdentifier(), savedTransaction.getId());
         
-        return entityMapper.toTransactionDto(savedTransaction);
+        return parkingMetrics.time(CHECK_IN, STAGE_MAPPING, () -> entityMapper.toTransactionDto(savedTransaction));
     }
 
     /**
@@ -142,24 +193,34 @@ public class ParkingTransactionService {
     @Transactional
     public ParkingTransactionDto checkOut(CheckOutRequest request) {
         log.debug("Processing check-out for spot: {}", request.getSpotIdentifier());
+        parkingMetrics.beginOperation(CHECK_OUT, request.getSpotIdentifier(), null);
         
         // Validate parking spot
-        ParkingSpot parkingSpot = parkingSpotRepository.findBySpotIdentifier(request.getSpotIdentifier())
-                .orElseThrow(() -> new ResourceNotFoundException("ParkingSpot", "spotIdentifier", request.getSpotIdentifier()));
+        ParkingSpot parkingSpot = parkingMetrics.time(CHECK_OUT, STAGE_SPOT_LOOKUP,
+                        () -> parkingSpotRepository.findBySpotIdentifier(request.getSpotIdentifier()))
+                .orElseThrow(() -> {
+                    parkingMetrics.recordRejection(CHECK_OUT, REASON_SPOT_NOT_FOUND);
+                    return new ResourceNotFoundException("ParkingSpot", "spotIdentifier", request.getSpotIdentifier());
+                });
         
         // Get active transaction for this spot
-        ParkingTransaction transaction = transactionRepository
-                .findByParkingSpotIdAndCheckOutTimeIsNull(parkingSpot.getId())
-                .orElseThrow(() -> new BusinessLogicException(
-                        "No active parking session found for spot " + request.getSpotIdentifier()
-                ));
+        ParkingTransaction transaction = parkingMetrics.time(CHECK_OUT, STAGE_SESSION_LOOKUP,
+                        () -> transactionRepository.findByParkingSpotIdAndCheckOutTimeIsNull(parkingSpot.getId()))
+                .orElseThrow(() -> {
+                    parkingMetrics.recordRejection(CHECK_OUT, REASON_NO_ACTIVE_SESSION);
+                    return new BusinessLogicException(
+                            "No active parking session found for spot " + request.getSpotIdentifier()
+                    );
+                });
+        parkingMetrics.identify(null, transaction.getCar().getLicensePlate());
         
         // Complete the transaction
         LocalDateTime checkOutTime = LocalDateTime.now();
         transaction.setCheckOutTime(checkOutTime);
         
         // Calculate parking fee
-        Double parkingFee = billingService.calculateParkingFee(transaction.getCheckInTime(), checkOutTime);
+        Double parkingFee = parkingMetrics.time(CHECK_OUT, STAGE_BILLING,
+                () -> billingService.calculateParkingFee(transaction.getCheckInTime(), checkOutTime));
         transaction.setParkingFee(parkingFee);
         
         if (request.getNotes() != null && !request.getNotes().isEmpty()) {
@@ -167,12 +228,21 @@ public class ParkingTransactionService {
             transaction.setNotes(existingNotes != null ? existingNotes + " | " + request.getNotes() : request.getNotes());
         }
         
-        ParkingTransaction completedTransaction = transactionRepository.save(transaction);
+        ParkingTransaction completedTransaction = parkingMetrics.time(CHECK_OUT, STAGE_SAVE,
+                () -> transactionRepository.save(transaction));
+        occupancyTimeSeries.recordCheckOut(parkingSpot, checkOutTime);
+        dwellTimeHistograms.recordCheckOut(parkingSpot, transaction.getCheckInTime(), checkOutTime);
+        reservationService.recordCheckOut(parkingSpot);
+        responseCache.occupancyChanged(parkingSpot.getGarageId());
+        spotWaiters.spotFreed(parkingSpot);
         log.info("Car {} checked out from spot {} with transaction id: {} - Fee: ${}", 
                 transaction.getCar().getLicensePlate(), request.getSpotIdentifier(), 
                 completedTransaction.getId(), parkingFee);
         
-        return entityMapper.toTransactionDto(completedTransaction);
+        ParkingTransactionDto checkedOut = parkingMetrics.time(CHECK_OUT, STAGE_MAPPING,
+                () -> entityMapper.toTransactionDto(completedTransaction));
+        checkOutPipeline.publish(parkingSpot.getGarageId(), checkedOut);
+        return checkedOut;
     }
 
     /**
@@ -181,31 +251,104 @@ public class ParkingTransactionService {
     @Transactional
     public ParkingTransactionDto checkOutByLicensePlate(String licensePlate) {
         log.debug("Processing check-out for license plate: {}", licensePlate);
+        parkingMetrics.beginOperation(CHECK_OUT_BY_PLATE, null, licensePlate);
         
         // Find car
-        Car car = carRepository.findByLicensePlate(licensePlate)
-                .orElseThrow(() -> new ResourceNotFoundException("Car", "licensePlate", licensePlate));
+        Optional<Car> car = parkingMetrics.time(CHECK_OUT_BY_PLATE, STAGE_CAR_LOOKUP,
+                () -> carRepository.findByLicensePlate(licensePlate));
         
-        // Get active transaction for this car
-        ParkingTransaction transaction = transactionRepository
-                .findByCarIdAndCheckOutTimeIsNull(car.getId())
-                .orElseThrow(() -> new BusinessLogicException(
-                        "Car " + licensePlate + " is not currently parked"
-                ));
+        // Get active transaction for this car, or for the parked car whose plate was misread: a car
+        // without a session may itself come from a misread plate at check-in
+        Optional<ParkingTransaction> session = car.flatMap(found -> parkingMetrics.time(CHECK_OUT_BY_PLATE,
+                STAGE_SESSION_LOOKUP, () -> transactionRepository.findByCarIdAndCheckOutTimeIsNull(found.getId())));
+        if (session.isEmpty()) {
+            session = parkingMetrics.time(CHECK_OUT_BY_PLATE, STAGE_CAR_LOOKUP,
+                    () -> findSessionWithMisreadPlate(licensePlate));
+        }
+        ParkingTransaction transaction = session.orElseThrow(() -> {
+            if (car.isEmpty()) {
+                parkingMetrics.recordRejection(CHECK_OUT_BY_PLATE, REASON_CAR_NOT_FOUND);
+                return new ResourceNotFoundException("Car", "licensePlate", licensePlate);
+            }
+            parkingMetrics.recordRejection(CHECK_OUT_BY_PLATE, REASON_NO_ACTIVE_SESSION);
+            return new BusinessLogicException("Car " + licensePlate + " is not currently parked");
+        });
+        parkingMetrics.identify(transaction.getParkingSpot().getSpotIdentifier(), null);
         
         // Complete the transaction
         LocalDateTime checkOutTime = LocalDateTime.now();
         transaction.setCheckOutTime(checkOutTime);
         
         // Calculate parking fee
-        Double parkingFee = billingService.calculateParkingFee(transaction.getCheckInTime(), checkOutTime);
+        Double parkingFee = parkingMetrics.time(CHECK_OUT_BY_PLATE, STAGE_BILLING,
+                () -> billingService.calculateParkingFee(transaction.getCheckInTime(), checkOutTime));
         transaction.setParkingFee(parkingFee);
         
-        ParkingTransaction completedTransaction = transactionRepository.save(transaction);
+        ParkingTransaction completedTransaction = parkingMetrics.time(CHECK_OUT_BY_PLATE, STAGE_SAVE,
+                () -> transactionRepository.save(transaction));
+        occupancyTimeSeries.recordCheckOut(transaction.getParkingSpot(), checkOutTime);
+        dwellTimeHistograms.recordCheckOut(transaction.getParkingSpot(), transaction.getCheckInTime(), checkOutTime);
+        reservationService.recordCheckOut(transaction.getParkingSpot());
+        responseCache.occupancyChanged(transaction.getParkingSpot().getGarageId());
+        spotWaiters.spotFreed(transaction.getParkingSpot());
         log.info("Car {} checked out from spot {} with transaction id: {} - Fee: ${}", 
                 licensePlate, transaction.getParkingSpot().getSpotIdentifier(), 
                 completedTransaction.getId(), parkingFee);
         
-        return entityMapper.toTransactionDto(completedTransaction);
+        ParkingTransactionDto checkedOut = parkingMetrics.time(CHECK_OUT_BY_PLATE, STAGE_MAPPING,
+                () -> entityMapper.toTransactionDto(completedTransaction));
+        checkOutPipeline.publish(transaction.getParkingSpot().getGarageId(), checkedOut);
+        return checkedOut;
+    }
+
+    /**
+     * The car, unless it is already parked: its transactions only include the current garage's, so
+     * the open session is looked up in every garage
+     */
+    private Car requireNotParked(Car car) {
+        transactionRepository.findParkedSpotIdentifierInAnyGarage(car.getId()).ifPresent(spotIdentifier -> {
+            parkingMetrics.recordRejection(CHECK_IN, REASON_ALREADY_PARKED);
+            throw new BusinessLogicException(
+                    String.format("Car %s is already parked at spot %s", car.getLicensePlate(), spotIdentifier));
+        });
+        return car;
+    }
+
+    /**
+     * The session of the one parked car whose plate may have been misread as {@code licensePlate};
+     * fails when several parked cars match rather than guessing
+     */
+    private Optional<ParkingTransaction> findSessionWithMisreadPlate(String licensePlate) {
+        if (!misreadPlateCheckOut) {
+            return Optional.empty();
+        }
+        List<Match> candidates = licensePlateIndex.search(licensePlate, MISREAD_PLATE_CANDIDATES).stream()
+                .filter(match -> match.matchType() != MatchType.PREFIX)
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        List<ParkingTransaction> parked = transactionRepository.findActiveByLicensePlates(
+                candidates.stream().map(Match::licensePlate).collect(Collectors.toList()));
+        if (parked.isEmpty()) {
+            return Optional.empty();
+        }
+        if (parked.size() > 1) {
+            parkingMetrics.recordRejection(CHECK_OUT_BY_PLATE, REASON_AMBIGUOUS_PLATE);
+            throw new BusinessLogicException(String.format("License plate %s matches several parked cars: %s",
+                    licensePlate, parked.stream().map(t -> t.getCar().getLicensePlate()).sorted()
+                            .collect(Collectors.joining(", "))));
+        }
+        ParkingTransaction session = parked.get(0);
+        Car car = session.getCar();
+        MatchType matchType = candidates.stream()
+                .filter(match -> match.licensePlate().equals(car.getLicensePlate()))
+                .map(Match::matchType)
+                .findFirst()
+                .orElse(MatchType.ONE_EDIT);
+        parkingMetrics.recordPlateCorrection(CHECK_OUT_BY_PLATE, matchType.name().toLowerCase());
+        log.warn("License plate {} not parked, checking out parked car {} ({} match)",
+                licensePlate, car.getLicensePlate(), matchType);
+        return Optional.of(session);
     }
 }
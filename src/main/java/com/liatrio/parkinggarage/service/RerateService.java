@@ -0,0 +1,243 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.RerateJobDto;
+import com.liatrio.parkinggarage.dto.RerateRequest;
+import com.liatrio.parkinggarage.entity.RerateJob;
+import com.liatrio.parkinggarage.entity.RerateJobStatus;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
+import com.liatrio.parkinggarage.mapper.EntityMapper;
+import com.liatrio.parkinggarage.repository.RerateJobRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes the parking fee of completed transactions with the current billing configuration, for
+ * when a tariff mistake is found after the fact.
+ *
+ * A job walks the transactions checked out in its range in (check-out time, id) order, one chunk at a
+ * time: each chunk is read with a keyset query that seeks straight to the job's cursor on the
+ * (garage_id, check_out_time, id) index, so every chunk costs the same however far the job is, rated on a fork-join pool, and the changed fees are written back with
+ * one batched JDBC update in a short transaction that also records the job's progress. Only completed
+ * transactions are touched and every chunk commits on its own, so check-ins and check-outs never wait
+ * on a job. A job that fails or is cut short by a restart resumes after the last committed chunk.
+ */
+@Service
+@Slf4j
+public class RerateService {
+
+    private static final String SELECT_CHUNK = """
+            SELECT id, check_in_time, check_out_time, parking_fee FROM parking_transactions
+            WHERE garage_id = ? AND check_out_time < ?
+            AND (check_out_time > ? OR (check_out_time = ? AND id > ?))
+            ORDER BY check_out_time, id
+            LIMIT ?
+            """;
+
+    private static final String UPDATE_FEE = "UPDATE parking_transactions SET parking_fee = ? WHERE id = ?";
+
+    private static final String UPDATE_PROGRESS = """
+            UPDATE rerate_jobs SET last_check_out_time = ?, last_transaction_id = ?, processed = processed + ?, changed = changed + ?, updated_at = ?
+            WHERE id = ?
+            """;
+
+    private static final String UPDATE_STATUS = """
+            UPDATE rerate_jobs SET status = ?, error = ?, completed_at = ?, updated_at = ?
+            WHERE id = ?
+            """;
+
+    private final RerateJobRepository rerateJobRepository;
+    private final BillingService billingService;
+    private final EntityMapper entityMapper;
+    private final GarageDirectory garageDirectory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final ForkJoinPool ratingPool;
+    private final ExecutorService jobExecutor;
+    /** Jobs running in this instance */
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+
+    private record Completed(long id, LocalDateTime checkInTime, LocalDateTime checkOutTime, Double parkingFee) {
+    }
+
+    public RerateService(RerateJobRepository rerateJobRepository,
+                         BillingService billingService,
+                         EntityMapper entityMapper,
+                         GarageDirectory garageDirectory,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${parking.billing.rerate.chunk-size:5000}") int chunkSize,
+                         @Value("${parking.billing.rerate.parallelism:4}") int parallelism) {
+        this.rerateJobRepository = rerateJobRepository;
+        this.billingService = billingService;
+        this.entityMapper = entityMapper;
+        this.garageDirectory = garageDirectory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.ratingPool = new ForkJoinPool(parallelism);
+        this.jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rerate");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start rerating the transactions checked out during [checkOutFrom, checkOutTo); jobs run one at
+     * a time in the background
+     */
+    public RerateJobDto startRerate(RerateRequest request) {
+        if (!request.getCheckOutFrom().isBefore(request.getCheckOutTo())) {
+            throw new BusinessLogicException("Check-out from must be before check-out to");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        RerateJob job = rerateJobRepository.save(RerateJob.builder()
+                .garageId(garageDirectory.currentGarageId())
+                .checkOutFrom(request.getCheckOutFrom())
+                .checkOutTo(request.getCheckOutTo())
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        log.info("Starting rerate job {} for check-outs from {} to {}", job.getId(),
+                job.getCheckOutFrom(), job.getCheckOutTo());
+        submit(job);
+        return entityMapper.toRerateJobDto(job);
+    }
+
+    /**
+     * Resume a failed or interrupted job after its last committed chunk
+     */
+    public RerateJobDto resumeRerate(Long id) {
+        RerateJob job = findJob(id);
+        if (job.getStatus() == RerateJobStatus.COMPLETED) {
+            throw new BusinessLogicException("Rerate job " + id + " is already completed");
+        }
+        if (runningJobs.contains(id)) {
+            throw new BusinessLogicException("Rerate job " + id + " is already running");
+        }
+        job.setStatus(RerateJobStatus.RUNNING);
+        job.setError(null);
+        job.setUpdatedAt(LocalDateTime.now());
+        job = rerateJobRepository.save(job);
+        log.info("Resuming rerate job {} after transaction {}", id, job.getLastTransactionId());
+        submit(job);
+        return entityMapper.toRerateJobDto(job);
+    }
+
+    public RerateJobDto getRerateJob(Long id) {
+        return entityMapper.toRerateJobDto(findJob(id));
+    }
+
+    public List<RerateJobDto> getRerateJobs() {
+        return rerateJobRepository.findAllByOrderByCreatedAtDesc().stream()
+                .map(entityMapper::toRerateJobDto)
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        ratingPool.shutdownNow();
+    }
+
+    private RerateJob findJob(Long id) {
+        return rerateJobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Rerate job not found with id: " + id));
+    }
+
+    private void submit(RerateJob job) {
+        runningJobs.add(job.getId());
+        jobExecutor.execute(() -> {
+            try {
+                run(job);
+            } finally {
+                runningJobs.remove(job.getId());
+            }
+        });
+    }
+
+    private void run(RerateJob job) {
+        long started = System.nanoTime();
+        // Before the first chunk the cursor sits just below the range: ids are positive, so
+        // (checkOutFrom, 0) precedes every transaction checked out at or after checkOutFrom
+        LocalDateTime cursorTime = job.getLastCheckOutTime() != null ? job.getLastCheckOutTime() : job.getCheckOutFrom();
+        long cursor = job.getLastTransactionId();
+        long processed = 0;
+        long changed = 0;
+        try {
+            while (true) {
+                List<Completed> chunk = jdbcTemplate.query(SELECT_CHUNK, (rs, rowNum) -> new Completed(
+                                rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(), rs.getTimestamp(3).toLocalDateTime(),
+                                rs.getObject(4, Double.class)),
+                        job.getGarageId(), Timestamp.valueOf(job.getCheckOutTo()), Timestamp.valueOf(cursorTime),
+                        Timestamp.valueOf(cursorTime), cursor, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                List<Object[]> updates = ratingPool.submit(() -> chunk.parallelStream()
+                        .map(RerateService.this::rate)
+                        .filter(Objects::nonNull)
+                        .toList()).get();
+                Completed last = chunk.get(chunk.size() - 1);
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!updates.isEmpty()) {
+                        jdbcTemplate.batchUpdate(UPDATE_FEE, updates);
+                    }
+                    jdbcTemplate.update(UPDATE_PROGRESS, Timestamp.valueOf(last.checkOutTime()), last.id(),
+                            chunk.size(), updates.size(), Timestamp.valueOf(LocalDateTime.now()), job.getId());
+                });
+                cursorTime = last.checkOutTime();
+                cursor = last.id();
+                processed += chunk.size();
+                changed += updates.size();
+                log.debug("Rerate job {}: {} transactions rated, {} fees changed, up to transaction {}",
+                        job.getId(), processed, changed, cursor);
+            }
+            finish(job, RerateJobStatus.COMPLETED, null);
+            log.info("Rerate job {} completed: {} transactions rated, {} fees changed in {} ms",
+                    job.getId(), processed, changed, (System.nanoTime() - started) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Rerate job {} interrupted after transaction {}", job.getId(), cursor);
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Rerate job {} failed after transaction {}", job.getId(), cursor, cause);
+            finish(job, RerateJobStatus.FAILED, String.valueOf(cause.getMessage()));
+        }
+    }
+
+    /**
+     * The fee update of the transaction, or null if its fee is unchanged
+     */
+    private Object[] rate(Completed transaction) {
+        Double fee = billingService.calculateParkingFee(transaction.checkInTime(), transaction.checkOutTime());
+        return Objects.equals(fee, transaction.parkingFee()) ? null : new Object[]{fee, transaction.id()};
+    }
+
+    private void finish(RerateJob job, RerateJobStatus status, String error) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(UPDATE_STATUS, status.name(),
+                error != null && error.length() > 1000 ? error.substring(0, 1000) : error,
+                status == RerateJobStatus.COMPLETED ? now : null, now, job.getId());
+    }
+}
@@ -0,0 +1,278 @@
+package com.liatrio.parkinggarage.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory availability index over booked reservations and open sessions.
+ *
+ * Each spot keeps its reservations in a TreeMap keyed by start time. Reservations on one spot never
+ * overlap, so their ends are ordered like their starts and the only booking that can overlap [a, b)
+ * is the one with the greatest start before b: overlap and "booking at time t" checks are a single
+ * O(log n) lookup. Open sessions have no end, so they block windows that start before a hold time
+ * chosen by the caller. Spots are grouped by garage and spot type for type-wide queries, which are a
+ * linear scan over the type's spots (one lookup each) that returns early once enough free spots, or a
+ * window starting right away, are found; spot identifiers are only unique within a garage.
+ *
+ * The database stays authoritative: bookings are re-checked under a spot lock before they are saved,
+ * and the index is updated after the transaction commits.
+ */
+@Component
+public class ReservationIndex {
+
+    private final Map<Long, SpotSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<SpotKey, Long> spotIdsByIdentifier = new ConcurrentHashMap<>();
+    private final Map<TypeKey, Set<Long>> spotIdsByType = new ConcurrentHashMap<>();
+
+    public record Booking(long reservationId, String licensePlate, LocalDateTime start, LocalDateTime end) {
+    }
+
+    public record Window(long spotId, String spotIdentifier, LocalDateTime start, LocalDateTime end) {
+    }
+
+    /**
+     * Add or update a spot; inactive spots are never offered by type-wide queries
+     */
+    public void registerSpot(long spotId, long garageId, String spotIdentifier, long spotTypeId, boolean active) {
+        SpotSchedule schedule = schedules.computeIfAbsent(spotId, SpotSchedule::new);
+        synchronized (schedule) {
+            SpotKey spotKey = new SpotKey(garageId, spotIdentifier);
+            TypeKey typeKey = new TypeKey(garageId, spotTypeId);
+            if (schedule.spotKey != null && !schedule.spotKey.equals(spotKey)) {
+                spotIdsByIdentifier.remove(schedule.spotKey, spotId);
+            }
+            if (schedule.typeKey != null && !schedule.typeKey.equals(typeKey)) {
+                removeFromType(schedule.typeKey, spotId);
+            }
+            schedule.spotKey = spotKey;
+            schedule.typeKey = typeKey;
+            schedule.active = active;
+            spotIdsByIdentifier.put(spotKey, spotId);
+            if (active) {
+                spotIdsByType.computeIfAbsent(typeKey, type -> new ConcurrentSkipListSet<>()).add(spotId);
+            } else {
+                removeFromType(typeKey, spotId);
+            }
+        }
+    }
+
+    /**
+     * Mark spots of a deactivated floor or bay inactive, keeping their identifiers and bookings
+     */
+    public void deactivateSpots(Collection<Long> spotIds) {
+        for (long spotId : spotIds) {
+            SpotSchedule schedule = schedules.get(spotId);
+            if (schedule == null) {
+                continue;
+            }
+            synchronized (schedule) {
+                schedule.active = false;
+                if (schedule.typeKey != null) {
+                    removeFromType(schedule.typeKey, spotId);
+                }
+            }
+        }
+    }
+
+    public Optional<Long> spotIdFor(long garageId, String spotIdentifier) {
+        return Optional.ofNullable(spotIdsByIdentifier.get(new SpotKey(garageId, spotIdentifier)));
+    }
+
+    public void addBooking(long spotId, Booking booking) {
+        SpotSchedule schedule = schedules.computeIfAbsent(spotId, SpotSchedule::new);
+        synchronized (schedule) {
+            schedule.bookings.put(booking.start(), booking);
+        }
+    }
+
+    public void removeBooking(long spotId, long reservationId, LocalDateTime start) {
+        SpotSchedule schedule = schedules.get(spotId);
+        if (schedule == null) {
+            return;
+        }
+        synchronized (schedule) {
+            Booking booking = schedule.bookings.get(start);
+            if (booking != null && booking.reservationId() == reservationId) {
+                schedule.bookings.remove(start);
+            }
+        }
+    }
+
+    public void markOccupied(long spotId, LocalDateTime since) {
+        SpotSchedule schedule = schedules.computeIfAbsent(spotId, SpotSchedule::new);
+        synchronized (schedule) {
+            schedule.occupiedSince = since;
+        }
+    }
+
+    public void markVacant(long spotId) {
+        SpotSchedule schedule = schedules.get(spotId);
+        if (schedule != null) {
+            synchronized (schedule) {
+                schedule.occupiedSince = null;
+            }
+        }
+    }
+
+    /**
+     * Whether the spot has no booking overlapping [start, end) and no open session blocking it
+     */
+    public boolean isFree(long spotId, LocalDateTime start, LocalDateTime end, LocalDateTime openSessionHoldUntil) {
+        SpotSchedule schedule = schedules.get(spotId);
+        if (schedule == null) {
+            return true;
+        }
+        synchronized (schedule) {
+            return schedule.isFree(start, end, openSessionHoldUntil);
+        }
+    }
+
+    /**
+     * Up to {@code limit} active spots of the type in the garage that are free during [start, end),
+     * scanning the type's spots in id order
+     */
+    public List<Long> findFreeSpots(long garageId, long spotTypeId, LocalDateTime start, LocalDateTime end,
+                                    LocalDateTime openSessionHoldUntil, int limit) {
+        List<Long> free = new ArrayList<>(limit);
+        for (Long spotId : spotIdsByType.getOrDefault(new TypeKey(garageId, spotTypeId), Set.of())) {
+            if (isFree(spotId, start, end, openSessionHoldUntil)) {
+                free.add(spotId);
+                if (free.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Earliest window of the given length on the spot that starts at or after {@code notBefore};
+     * a spot the index has not seen has nothing booked
+     */
+    public Window earliestFreeWindow(long spotId, LocalDateTime notBefore, Duration length,
+                                     LocalDateTime openSessionHoldUntil) {
+        SpotSchedule schedule = schedules.get(spotId);
+        if (schedule == null) {
+            return new Window(spotId, null, notBefore, notBefore.plus(length));
+        }
+        synchronized (schedule) {
+            LocalDateTime start = schedule.earliestStart(notBefore, length, openSessionHoldUntil);
+            return new Window(spotId, schedule.spotIdentifier(), start, start.plus(length));
+        }
+    }
+
+    /**
+     * Earliest window of the given length on any active spot of the type in the garage, if it has any;
+     * scans every spot of the type unless one is free at {@code notBefore}
+     */
+    public Optional<Window> earliestFreeWindowForType(long garageId, long spotTypeId, LocalDateTime notBefore,
+                                                      Duration length, LocalDateTime openSessionHoldUntil) {
+        Window best = null;
+        for (Long spotId : spotIdsByType.getOrDefault(new TypeKey(garageId, spotTypeId), Set.of())) {
+            Window window = earliestFreeWindow(spotId, notBefore, length, openSessionHoldUntil);
+            if (best == null || window.start().isBefore(best.start())) {
+                best = window;
+                if (!best.start().isAfter(notBefore)) {
+                    break;
+                }
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * The booking holding the spot at {@code time}; a booking starts holding the spot
+     * {@code arrivalWindow} before its start time
+     */
+    public Optional<Booking> bookingAt(long spotId, LocalDateTime time, Duration arrivalWindow) {
+        SpotSchedule schedule = schedules.get(spotId);
+        if (schedule == null) {
+            return Optional.empty();
+        }
+        synchronized (schedule) {
+            Map.Entry<LocalDateTime, Booking> entry = schedule.bookings.floorEntry(time.plus(arrivalWindow));
+            return entry != null && entry.getValue().end().isAfter(time)
+                    ? Optional.of(entry.getValue())
+                    : Optional.empty();
+        }
+    }
+
+    public String spotIdentifier(long spotId) {
+        SpotSchedule schedule = schedules.get(spotId);
+        return schedule != null ? schedule.spotIdentifier() : null;
+    }
+
+    public void clear() {
+        schedules.clear();
+        spotIdsByIdentifier.clear();
+        spotIdsByType.clear();
+    }
+
+    private void removeFromType(TypeKey typeKey, long spotId) {
+        Set<Long> spots = spotIdsByType.get(typeKey);
+        if (spots != null) {
+            spots.remove(spotId);
+        }
+    }
+
+    private record SpotKey(long garageId, String spotIdentifier) {
+    }
+
+    private record TypeKey(long garageId, long spotTypeId) {
+    }
+
+    private static final class SpotSchedule {
+        private final long spotId;
+        private final TreeMap<LocalDateTime, Booking> bookings = new TreeMap<>();
+        private SpotKey spotKey;
+        private TypeKey typeKey;
+        private boolean active;
+        private LocalDateTime occupiedSince;
+
+        private SpotSchedule(long spotId) {
+            this.spotId = spotId;
+        }
+
+        private String spotIdentifier() {
+            return spotKey != null ? spotKey.spotIdentifier() : null;
+        }
+
+        private boolean isFree(LocalDateTime start, LocalDateTime end, LocalDateTime openSessionHoldUntil) {
+            if (occupiedSince != null && start.isBefore(openSessionHoldUntil)) {
+                return false;
+            }
+            Map.Entry<LocalDateTime, Booking> last = bookings.lowerEntry(end);
+            return last == null || !last.getValue().end().isAfter(start);
+        }
+
+        private LocalDateTime earliestStart(LocalDateTime notBefore, Duration length,
+                                            LocalDateTime openSessionHoldUntil) {
+            LocalDateTime candidate = notBefore;
+            if (occupiedSince != null && candidate.isBefore(openSessionHoldUntil)) {
+                candidate = openSessionHoldUntil;
+            }
+            Map.Entry<LocalDateTime, Booking> containing = bookings.floorEntry(candidate);
+            if (containing != null && containing.getValue().end().isAfter(candidate)) {
+                candidate = containing.getValue().end();
+            }
+            for (Booking booking : bookings.tailMap(candidate, true).values()) {
+                if (!booking.start().isBefore(candidate.plus(length))) {
+                    break;
+                }
+                candidate = booking.end();
+            }
+            return candidate;
+        }
+    }
+}
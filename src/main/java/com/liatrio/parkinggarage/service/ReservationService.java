@@ -0,0 +1,345 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.ReservationDto;
+import com.liatrio.parkinggarage.dto.ReservationRequest;
+import com.liatrio.parkinggarage.dto.SpotAvailabilityDto;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.ParkingTransaction;
+import com.liatrio.parkinggarage.entity.Reservation;
+import com.liatrio.parkinggarage.entity.ReservationStatus;
+import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
+import com.liatrio.parkinggarage.mapper.EntityMapper;
+import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository;
+import com.liatrio.parkinggarage.repository.ReservationRepository;
+import com.liatrio.parkinggarage.repository.SpotTypeRepository;
+import com.liatrio.parkinggarage.service.ReservationIndex.Booking;
+import com.liatrio.parkinggarage.service.ReservationIndex.Window;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static com.liatrio.parkinggarage.service.TransactionCallbacks.afterCommit;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationService {
+
+    private static final int CANDIDATE_SPOTS = 5;
+
+    private final ReservationRepository reservationRepository;
+    private final ParkingSpotRepository parkingSpotRepository;
+    private final ParkingTransactionRepository transactionRepository;
+    private final SpotTypeRepository spotTypeRepository;
+    private final ReservationIndex reservationIndex;
+    private final EntityMapper entityMapper;
+    private final GarageDirectory garageDirectory;
+
+    /**
+     * How long before its start time a reservation holds the spot (and its holder may check in)
+     */
+    @Value("${parking.reservations.arrival-window-minutes:15}")
+    private long arrivalWindowMinutes = 15;
+
+    /**
+     * Occupied spots cannot be reserved for windows starting within this many hours
+     */
+    @Value("${parking.reservations.open-session-hold-hours:4}")
+    private long openSessionHoldHours = 4;
+
+    /**
+     * Load spots, booked reservations and open sessions into the availability index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        long startNanos = System.nanoTime();
+        reservationIndex.clear();
+        List<ParkingSpot> spots = parkingSpotRepository.findAll();
+        spots.forEach(spot -> indexSpot(spot).run());
+        List<Reservation> reservations = reservationRepository
+                .findByStatusAndEndTimeAfter(ReservationStatus.BOOKED, LocalDateTime.now());
+        reservations.forEach(reservation ->
+                reservationIndex.addBooking(reservation.getParkingSpot().getId(), toBooking(reservation)));
+        for (ParkingTransaction transaction : transactionRepository.findActiveTransactions()) {
+            reservationIndex.markOccupied(transaction.getParkingSpot().getId(), transaction.getCheckInTime());
+        }
+        log.info("Built reservation index with {} spots and {} reservations in {} ms",
+                spots.size(), reservations.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    @Transactional(readOnly = true)
+    public ReservationDto getReservationById(Long id) {
+        log.debug("Fetching reservation with id: {}", id);
+        return entityMapper.toReservationDto(findReservation(id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReservationDto> getReservationsByLicensePlate(String licensePlate) {
+        log.debug("Fetching reservations for license plate: {}", licensePlate);
+        return reservationRepository.findByLicensePlateOrderByStartTime(licensePlate).stream()
+                .map(entityMapper::toReservationDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reserve a specific spot, or any free spot of the requested type
+     */
+    @Transactional
+    public ReservationDto createReservation(ReservationRequest request) {
+        log.debug("Creating reservation for {} from {} to {}", request.getLicensePlate(),
+                request.getStartTime(), request.getEndTime());
+        validateWindow(request.getStartTime(), request.getEndTime());
+        long garageId = garageDirectory.currentGarageId();
+
+        List<Long> candidates;
+        if (request.getSpotIdentifier() != null) {
+            Long spotId = reservationIndex.spotIdFor(garageId, request.getSpotIdentifier())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "ParkingSpot", "spotIdentifier", request.getSpotIdentifier()));
+            candidates = List.of(spotId);
+        } else if (request.getSpotType() != null) {
+            SpotType spotType = findSpotType(request.getSpotType());
+            candidates = reservationIndex.findFreeSpots(garageId, spotType.getId(), request.getStartTime(),
+                    request.getEndTime(), openSessionHoldUntil(), CANDIDATE_SPOTS);
+        } else {
+            throw new BusinessLogicException("Either spotIdentifier or spotType is required");
+        }
+
+        for (Long spotId : candidates) {
+            Optional<Reservation> reservation = tryReserve(spotId, request);
+            if (reservation.isPresent()) {
+                log.info("Reserved spot {} for {} from {} to {} with reservation id: {}",
+                        reservation.get().getParkingSpot().getSpotIdentifier(), request.getLicensePlate(),
+                        request.getStartTime(), request.getEndTime(), reservation.get().getId());
+                return entityMapper.toReservationDto(reservation.get());
+            }
+        }
+        throw new BusinessLogicException(request.getSpotIdentifier() != null
+                ? "Parking spot " + request.getSpotIdentifier() + " is not available for the requested window"
+                : "No " + request.getSpotType() + " spot is available for the requested window");
+    }
+
+    @Transactional
+    public ReservationDto cancelReservation(Long id) {
+        log.debug("Cancelling reservation with id: {}", id);
+        Reservation reservation = findReservation(id);
+        if (reservation.getStatus() != ReservationStatus.BOOKED) {
+            throw new BusinessLogicException("Reservation " + id + " is already " + reservation.getStatus());
+        }
+        reservation.setStatus(ReservationStatus.CANCELLED);
+        Reservation saved = reservationRepository.save(reservation);
+        long spotId = reservation.getParkingSpot().getId();
+        afterCommit(() -> reservationIndex.removeBooking(spotId, saved.getId(), saved.getStartTime()));
+        log.info("Cancelled reservation {}", id);
+        return entityMapper.toReservationDto(saved);
+    }
+
+    /**
+     * Whether any active spot of the type is free during [start, end)
+     */
+    public SpotAvailabilityDto checkAvailability(String spotTypeName, LocalDateTime start, LocalDateTime end) {
+        validateWindow(start, end);
+        SpotType spotType = findSpotType(spotTypeName);
+        List<Long> free = reservationIndex.findFreeSpots(garageDirectory.currentGarageId(), spotType.getId(),
+                start, end, openSessionHoldUntil(), 1);
+        return SpotAvailabilityDto.builder()
+                .available(!free.isEmpty())
+                .spotIdentifier(free.isEmpty() ? null : reservationIndex.spotIdentifier(free.get(0)))
+                .spotTypeName(spotType.getName())
+                .startTime(start)
+                .endTime(end)
+                .build();
+    }
+
+    /**
+     * Earliest free window of the given length on a spot, or on any spot of a type
+     */
+    public SpotAvailabilityDto findEarliestWindow(String spotIdentifier, String spotTypeName,
+                                                  LocalDateTime notBefore, long durationMinutes) {
+        if (durationMinutes <= 0) {
+            throw new BusinessLogicException("Duration must be positive");
+        }
+        LocalDateTime from = notBefore != null && notBefore.isAfter(LocalDateTime.now())
+                ? notBefore
+                : LocalDateTime.now();
+        Duration length = Duration.ofMinutes(durationMinutes);
+        long garageId = garageDirectory.currentGarageId();
+
+        Window window;
+        String typeName = spotTypeName;
+        if (spotIdentifier != null) {
+            Long spotId = reservationIndex.spotIdFor(garageId, spotIdentifier)
+                    .orElseThrow(() -> new ResourceNotFoundException("ParkingSpot", "spotIdentifier", spotIdentifier));
+            window = reservationIndex.earliestFreeWindow(spotId, from, length, openSessionHoldUntil());
+        } else if (spotTypeName != null) {
+            SpotType spotType = findSpotType(spotTypeName);
+            typeName = spotType.getName();
+            window = reservationIndex.earliestFreeWindowForType(garageId, spotType.getId(), from, length,
+                            openSessionHoldUntil())
+                    .orElseThrow(() -> new BusinessLogicException("No active " + spotTypeName + " spots"));
+        } else {
+            throw new BusinessLogicException("Either spotIdentifier or spotType is required");
+        }
+        return SpotAvailabilityDto.builder()
+                .available(true)
+                .spotIdentifier(window.spotIdentifier())
+                .spotTypeName(typeName)
+                .startTime(window.start())
+                .endTime(window.end())
+                .build();
+    }
+
+    /**
+     * Called by check-in with the spot loaded under its version lock: returns false if the spot is held
+     * by a reservation for another car. A reservation for this car is marked fulfilled.
+     *
+     * Reads the database rather than the index, which only sees reservations once they commit; the
+     * version lock makes a reservation committing meanwhile fail the check-in instead.
+     */
+    public boolean claimForCheckIn(ParkingSpot parkingSpot, String licensePlate, LocalDateTime checkInTime) {
+        List<Reservation> holding = reservationRepository.findHoldingAt(parkingSpot.getId(), checkInTime,
+                checkInTime.plusMinutes(arrivalWindowMinutes));
+        if (holding.isEmpty()) {
+            return true;
+        }
+        Optional<Reservation> own = holding.stream()
+                .filter(reservation -> reservation.getLicensePlate().equals(licensePlate))
+                .findFirst();
+        if (own.isEmpty()) {
+            return false;
+        }
+        reservationRepository.updateStatus(own.get().getId(), ReservationStatus.FULFILLED);
+        recordFulfilled(parkingSpot.getId(), toBooking(own.get()), licensePlate);
+        return true;
+    }
+
+    /**
+     * How long before its start a reservation holds its spot, for check-ins that read the holding
+     * reservations themselves
+     */
+    public Duration arrivalWindow() {
+        return Duration.ofMinutes(arrivalWindowMinutes);
+    }
+
+    /**
+     * Stop holding the spot for a reservation once the check-in that fulfilled it commits
+     */
+    public void recordFulfilled(long spotId, Booking booking, String licensePlate) {
+        afterCommit(() -> reservationIndex.removeBooking(spotId, booking.reservationId(), booking.start()));
+        log.info("Reservation {} fulfilled by check-in of {}", booking.reservationId(), licensePlate);
+    }
+
+    public void recordCheckIn(ParkingSpot parkingSpot, LocalDateTime checkInTime) {
+        long spotId = parkingSpot.getId();
+        afterCommit(() -> reservationIndex.markOccupied(spotId, checkInTime));
+    }
+
+    public void recordCheckOut(ParkingSpot parkingSpot) {
+        long spotId = parkingSpot.getId();
+        afterCommit(() -> reservationIndex.markVacant(spotId));
+    }
+
+    /**
+     * Keep the index in step with created, updated and deactivated spots
+     */
+    public void registerSpot(ParkingSpot parkingSpot) {
+        afterCommit(indexSpot(parkingSpot));
+    }
+
+    /**
+     * Index spots created in bulk, with one commit callback for all of them
+     */
+    public void registerSpots(List<ParkingSpot> parkingSpots) {
+        List<Runnable> updates = parkingSpots.stream().map(this::indexSpot).toList();
+        afterCommit(() -> updates.forEach(Runnable::run));
+    }
+
+    /**
+     * Stop offering the spots of a deactivated floor or bay once the deactivation commits
+     */
+    public void deactivateSpots(List<Long> spotIds) {
+        afterCommit(() -> reservationIndex.deactivateSpots(spotIds));
+    }
+
+    private Optional<Reservation> tryReserve(Long spotId, ReservationRequest request) {
+        if (!reservationIndex.isFree(spotId, request.getStartTime(), request.getEndTime(), openSessionHoldUntil())) {
+            return Optional.empty();
+        }
+        // Bumps the spot version on commit, so concurrent bookings of the same spot cannot both commit
+        ParkingSpot spot = parkingSpotRepository.findByIdForReservation(spotId)
+                .orElseThrow(() -> new ResourceNotFoundException("ParkingSpot", "id", spotId));
+        if (!spot.getActive()) {
+            return Optional.empty();
+        }
+        if (reservationRepository.existsOverlapping(spotId, request.getStartTime(), request.getEndTime())) {
+            return Optional.empty();
+        }
+
+        Reservation saved = reservationRepository.save(Reservation.builder()
+                .garageId(spot.getGarageId())
+                .parkingSpot(spot)
+                .licensePlate(request.getLicensePlate())
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime())
+                .status(ReservationStatus.BOOKED)
+                .createdAt(LocalDateTime.now())
+                .build());
+        Booking booking = toBooking(saved);
+        afterCommit(() -> reservationIndex.addBooking(spotId, booking));
+        return Optional.of(saved);
+    }
+
+    private void validateWindow(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            throw new BusinessLogicException("Start and end time are required");
+        }
+        if (!end.isAfter(start)) {
+            throw new BusinessLogicException("End time must be after start time");
+        }
+    }
+
+    private SpotType findSpotType(String name) {
+        return spotTypeRepository.findByName(name)
+                .orElseThrow(() -> new ResourceNotFoundException("SpotType", "name", name));
+    }
+
+    private Reservation findReservation(Long id) {
+        return reservationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation", "id", id));
+    }
+
+    private LocalDateTime openSessionHoldUntil() {
+        return LocalDateTime.now().plusHours(openSessionHoldHours);
+    }
+
+    private Runnable indexSpot(ParkingSpot parkingSpot) {
+        long spotId = parkingSpot.getId();
+        String spotIdentifier = parkingSpot.getSpotIdentifier();
+        long garageId = parkingSpot.getGarageId();
+        long spotTypeId = parkingSpot.getSpotType().getId();
+        boolean active = Boolean.TRUE.equals(parkingSpot.getActive());
+        return () -> reservationIndex.registerSpot(spotId, garageId, spotIdentifier, spotTypeId, active);
+    }
+
+    private static Booking toBooking(Reservation reservation) {
+        return new Booking(reservation.getId(), reservation.getLicensePlate(),
+                reservation.getStartTime(), reservation.getEndTime());
+    }
+}
@@ -1,5 +1,6 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.SpotTypeDto;
 import com.liatrio.parkinggarage.entity.SpotType;
 import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
@@ -19,6 +20,8 @@ import java.util.stream.Collectors;
 public class SpotTypeService {
 
     private final SpotTypeRepository spotTypeRepository;
+    private final ResponseCache responseCache;
+    private final OccupancyTimeSeries occupancyTimeSeries;
 
     @Transactional(readOnly = true)
     public List<SpotTypeDto> getAllSpotTypes() {
@@ -67,6 +70,8 @@ public class SpotTypeService {
                 .build();
         
         SpotType savedSpotType = spotTypeRepository.save(spotType);
+        responseCache.topologyChanged();
+        occupancyTimeSeries.topologyChanged();
         log.info("Created spot type with id: {}", savedSpotType.getId());
         
         return toDto(savedSpotType);
@@ -92,6 +97,8 @@ public class SpotTypeService {
         }
         
         SpotType updatedSpotType = spotTypeRepository.save(spotType);
+        responseCache.topologyChanged();
+        occupancyTimeSeries.topologyChanged();
         log.info("Updated spot type with id: {}", updatedSpotType.getId());
         
         return toDto(updatedSpotType);
@@ -106,6 +113,7 @@ public class SpotTypeService {
         
         spotType.setActive(false);
         spotTypeRepository.save(spotType);
+        responseCache.topologyChanged();
         
         log.info("Soft deleted spot type with id: {}", id);
     }
@@ -0,0 +1,211 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.ParkingSpotDto;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.mapper.EntityMapper;
+import com.liatrio.parkinggarage.tenancy.GarageContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.liatrio.parkinggarage.service.TransactionCallbacks.afterCommit;
+
+/**
+ * Requests waiting for a spot to free up (GET /api/parking-spots/next-available). Each is held as a
+ * {@link DeferredResult}, so a waiting request holds no servlet thread, database connection or
+ * admission slot: only its entry here and its idle socket.
+ *
+ * A waiter asks for a spot type, a floor, both or neither. When a check-out commits, the spot it
+ * freed goes to the longest-waiting request it matches. Only one request is woken per freed spot, so
+ * the waiters of a full garage do not all rush the same space; the others keep waiting. A request
+ * that times out is answered 204 No Content and should ask again.
+ *
+ * parking.spot_waiters.waiting - requests currently waiting
+ * parking.spot_waiters.requests{outcome} - immediate, notified, timeout or rejected
+ */
+@Component
+@Slf4j
+public class SpotWaiters {
+
+    public static final String IMMEDIATE = "immediate";
+    public static final String NOTIFIED = "notified";
+    public static final String TIMEOUT = "timeout";
+    public static final String REJECTED = "rejected";
+
+    static final String WAITING_GAUGE = "parking.spot_waiters.waiting";
+    static final String REQUEST_COUNTER = "parking.spot_waiters.requests";
+
+    /**
+     * What a waiter asked for; a null spot type or floor matches any
+     */
+    record Key(Long garageId, Long spotTypeId, Long floorId) {
+    }
+
+    private record Waiter(long sequence, Key key, DeferredResult<ResponseEntity<ParkingSpotDto>> result) {
+    }
+
+    private final ParkingSpotService parkingSpotService;
+    private final EntityMapper entityMapper;
+    private final Duration defaultTimeout;
+    private final Duration maxTimeout;
+    private final int maxWaiters;
+    private final Map<String, Counter> requests = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final Map<Key, LinkedHashSet<Waiter>> waiting = new HashMap<>();
+    private long nextSequence;
+    private int size;
+
+    public SpotWaiters(ParkingSpotService parkingSpotService,
+                       EntityMapper entityMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${parking.spot-wait.default-timeout:30s}") Duration defaultTimeout,
+                       @Value("${parking.spot-wait.max-timeout:120s}") Duration maxTimeout,
+                       @Value("${parking.spot-wait.max-waiters:10000}") int maxWaiters) {
+        this.parkingSpotService = parkingSpotService;
+        this.entityMapper = entityMapper;
+        this.defaultTimeout = defaultTimeout;
+        this.maxTimeout = maxTimeout;
+        this.maxWaiters = maxWaiters;
+        Gauge.builder(WAITING_GAUGE, this, SpotWaiters::size)
+                .description("Requests waiting for a spot to free up")
+                .register(meterRegistry);
+        for (String outcome : new String[]{IMMEDIATE, NOTIFIED, TIMEOUT, REJECTED}) {
+            requests.put(outcome, Counter.builder(REQUEST_COUNTER)
+                    .description("Requests for the next available spot by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * An available spot of the current garage: straight away if there is one, otherwise the next one
+     * freed by a check-out, or 204 No Content after the timeout (the default when null)
+     */
+    public DeferredResult<ResponseEntity<ParkingSpotDto>> await(Long spotTypeId, Long floorId, Duration timeout) {
+        Duration wait = timeout != null ? timeout : defaultTimeout;
+        if (wait.isNegative() || wait.isZero()) {
+            throw new BusinessLogicException("timeout must be positive");
+        }
+        if (wait.compareTo(maxTimeout) > 0) {
+            wait = maxTimeout;
+        }
+        Key key = new Key(GarageContext.current(), spotTypeId, floorId);
+        DeferredResult<ResponseEntity<ParkingSpotDto>> result = new DeferredResult<>(wait.toMillis(), () -> {
+            requests.get(TIMEOUT).increment();
+            return ResponseEntity.noContent().build();
+        });
+
+        Waiter waiter;
+        synchronized (this) {
+            if (size >= maxWaiters) {
+                requests.get(REJECTED).increment();
+                result.setResult(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+                return result;
+            }
+            waiter = new Waiter(nextSequence++, key, result);
+            waiting.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(waiter);
+            size++;
+        }
+        result.onCompletion(() -> remove(waiter));
+
+        // Registered before looking, so a spot freed in between is either found here or handed over
+        parkingSpotService.findFirstAvailableSpot(spotTypeId, floorId).ifPresent(spot -> {
+            if (result.setResult(ResponseEntity.ok(spot))) {
+                requests.get(IMMEDIATE).increment();
+                remove(waiter);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Hand a spot freed by a check-out to the longest-waiting request it matches, once the check-out
+     * commits (straight away outside a transaction). Does no work when nobody is waiting for it.
+     */
+    public void spotFreed(ParkingSpot spot) {
+        Long garageId = spot.getGarageId();
+        Long spotTypeId = spot.getSpotType().getId();
+        Long floorId = spot.getBay().getFloor().getId();
+        List<Key> keys = List.of(new Key(garageId, spotTypeId, floorId), new Key(garageId, spotTypeId, null),
+                new Key(garageId, null, floorId), new Key(garageId, null, null));
+        if (!hasWaiters(keys) || !spot.getActive() || !spot.getBay().getActive() || !spot.getBay().getFloor().getActive()) {
+            return;
+        }
+        // Mapped now, while the spot's associations can still be loaded
+        ParkingSpotDto freed = entityMapper.toParkingSpotDto(spot);
+        afterCommit(() -> handOver(keys, freed));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void handOver(List<Key> keys, ParkingSpotDto spot) {
+        Waiter waiter;
+        while ((waiter = pollOldest(keys)) != null) {
+            // Skips waiters that timed out or disconnected but are not removed yet
+            if (waiter.result().setResult(ResponseEntity.ok(spot))) {
+                requests.get(NOTIFIED).increment();
+                log.debug("Spot {} handed to a request waiting for {}", spot.getSpotIdentifier(), waiter.key());
+                return;
+            }
+        }
+    }
+
+    private synchronized boolean hasWaiters(List<Key> keys) {
+        for (Key key : keys) {
+            if (waiting.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove and return the longest-waiting request for any of the keys
+     */
+    private synchronized Waiter pollOldest(List<Key> keys) {
+        Waiter oldest = null;
+        for (Key key : keys) {
+            LinkedHashSet<Waiter> waiters = waiting.get(key);
+            if (waiters != null) {
+                Waiter first = waiters.iterator().next();
+                if (oldest == null || first.sequence() < oldest.sequence()) {
+                    oldest = first;
+                }
+            }
+        }
+        if (oldest != null) {
+            remove(oldest);
+        }
+        return oldest;
+    }
+
+    private synchronized void remove(Waiter waiter) {
+        LinkedHashSet<Waiter> waiters = waiting.get(waiter.key());
+        if (waiters != null && waiters.remove(waiter)) {
+            size--;
+            if (waiters.isEmpty()) {
+                waiting.remove(waiter.key());
+            }
+        }
+    }
+}
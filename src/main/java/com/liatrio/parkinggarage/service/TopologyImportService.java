@@ -0,0 +1,293 @@
+package com.liatrio.parkinggarage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.cache.ResponseCache;
+import com.liatrio.parkinggarage.dto.TopologyImportResult;
+import com.liatrio.parkinggarage.dto.TopologyRow;
+import com.liatrio.parkinggarage.entity.Bay;
+import com.liatrio.parkinggarage.entity.Floor;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.repository.BayRepository;
+import com.liatrio.parkinggarage.repository.FloorRepository;
+import com.liatrio.parkinggarage.repository.SpotTypeRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Bulk import of floors, bays and spots from a CSV or JSON stream.
+ *
+ * Each row is one spot together with its floor and bay; missing floors and bays are created, existing
+ * ones reused. Spot types, floors, bays and the taken spot identifiers and bay spot numbers are
+ * loaded once per import, so rows are checked in memory, and each batch of rows is written with one
+ * batched JDBC insert: the statement count grows with the number of batches and new bays rather than
+ * rows. The whole import runs in one transaction. Rows that cannot
+ * be imported are skipped and reported with their row number; the others are imported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TopologyImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_SPOT = """
+            INSERT INTO parking_spots (garage_id, spot_identifier, spot_number, spot_type_id, bay_id, active, version)
+            VALUES (?, ?, ?, ?, ?, true, 0)
+            """;
+
+    private final FloorRepository floorRepository;
+    private final BayRepository bayRepository;
+    private final SpotTypeRepository spotTypeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReservationService reservationService;
+    private final ResponseCache responseCache;
+    private final OccupancyTimeSeries occupancyTimeSeries;
+    private final GarageDirectory garageDirectory;
+    private final ObjectMapper objectMapper;
+
+    @Value("${parking.topology.import-batch-size:1000}")
+    private int batchSize;
+
+    private record BayKey(Long floorId, String bayIdentifier) {
+    }
+
+    private record Candidate(TopologyRowReader.ReadRow row, Bay bay, SpotType spotType) {
+    }
+
+    @Transactional
+    public TopologyImportResult importCsv(InputStream inputStream) {
+        return importRows(TopologyRowReader.csv(inputStream));
+    }
+
+    @Transactional
+    public TopologyImportResult importJson(InputStream inputStream) {
+        return importRows(TopologyRowReader.json(inputStream, objectMapper));
+    }
+
+    private TopologyImportResult importRows(TopologyRowReader reader) {
+        long started = System.nanoTime();
+        Import state = new Import(garageDirectory.currentGarageId());
+        spotTypeRepository.findAll().forEach(spotType -> state.spotTypes.put(spotType.getName(), spotType));
+        floorRepository.findAll().forEach(floor -> state.floors.put(floor.getFloorNumber(), floor));
+        bayRepository.findAll().forEach(bay ->
+                state.bays.put(new BayKey(bay.getFloor().getId(), bay.getBayIdentifier()), bay));
+        jdbcTemplate.query("SELECT spot_identifier, bay_id, spot_number FROM parking_spots WHERE garage_id = ?", rs -> {
+            state.spotIdentifiers.add(rs.getString(1));
+            state.baySpotNumbers.add(rs.getLong(2) + ":" + rs.getString(3));
+        }, state.garageId);
+
+        List<TopologyRowReader.ReadRow> batch = new ArrayList<>(batchSize);
+        for (TopologyRowReader.ReadRow row = reader.next(); row != null; row = reader.next()) {
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                importBatch(state, batch);
+                batch.clear();
+            }
+        }
+        importBatch(state, batch);
+        responseCache.topologyChanged();
+        occupancyTimeSeries.topologyChanged();
+
+        log.info("Imported topology: {} rows, {} floors, {} bays and {} spots created, {} rows rejected in {} ms",
+                state.rows, state.floorsCreated, state.baysCreated, state.spotsCreated, state.errorCount,
+                (System.nanoTime() - started) / 1_000_000);
+        return TopologyImportResult.builder()
+                .rows(state.rows)
+                .floorsCreated(state.floorsCreated)
+                .baysCreated(state.baysCreated)
+                .spotsCreated(state.spotsCreated)
+                .errorCount(state.errorCount)
+                .errors(state.errors)
+                .build();
+    }
+
+    private void importBatch(Import state, List<TopologyRowReader.ReadRow> batch) {
+        insertBatch(state, batch);
+        // Rows are rejected in two passes, so a batch's errors are put back in file order
+        state.batchErrors.sort(Comparator.comparingInt(TopologyImportResult.RowError::getRow));
+        for (TopologyImportResult.RowError error : state.batchErrors) {
+            state.errorCount++;
+            if (state.errors.size() < MAX_REPORTED_ERRORS) {
+                state.errors.add(error);
+            }
+        }
+        state.batchErrors.clear();
+    }
+
+    private void insertBatch(Import state, List<TopologyRowReader.ReadRow> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(batch.size());
+        for (TopologyRowReader.ReadRow row : batch) {
+            state.rows++;
+            if (row.error() != null) {
+                reject(state, row, row.error());
+                continue;
+            }
+            TopologyRow topologyRow = row.topologyRow();
+            String missing = missingField(topologyRow);
+            if (missing != null) {
+                reject(state, row, missing + " is required");
+                continue;
+            }
+            SpotType spotType = state.spotTypes.get(topologyRow.getSpotType());
+            if (spotType == null || !spotType.getActive()) {
+                reject(state, row, "Spot type not found or inactive: " + topologyRow.getSpotType());
+                continue;
+            }
+            Floor floor = floor(state, topologyRow);
+            if (!floor.getActive()) {
+                reject(state, row, "Floor " + floor.getFloorNumber() + " is inactive");
+                continue;
+            }
+            Bay bay = bay(state, floor, topologyRow);
+            if (!bay.getActive()) {
+                reject(state, row, "Bay " + bay.getBayIdentifier() + " on floor " + floor.getFloorNumber() + " is inactive");
+                continue;
+            }
+            candidates.add(new Candidate(row, bay, spotType));
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> inserts = new ArrayList<>(candidates.size());
+        Map<String, SpotType> inserted = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            TopologyRow topologyRow = candidate.row().topologyRow();
+            String spotIdentifier = topologyRow.getSpotIdentifier();
+            if (!state.spotIdentifiers.add(spotIdentifier)) {
+                reject(state, candidate.row(), "Spot identifier already exists: " + spotIdentifier);
+                continue;
+            }
+            if (!state.baySpotNumbers.add(candidate.bay().getId() + ":" + topologyRow.getSpotNumber())) {
+                reject(state, candidate.row(), "Spot number " + topologyRow.getSpotNumber()
+                        + " already exists in bay " + candidate.bay().getBayIdentifier());
+                continue;
+            }
+            inserts.add(new Object[]{state.garageId, spotIdentifier, topologyRow.getSpotNumber(),
+                    candidate.spotType().getId(), candidate.bay().getId()});
+            inserted.put(spotIdentifier, candidate.spotType());
+        }
+        if (inserts.isEmpty()) {
+            return;
+        }
+        long maxSpotId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM parking_spots", Long.class);
+        jdbcTemplate.batchUpdate(INSERT_SPOT, inserts);
+        state.spotsCreated += inserts.size();
+
+        // Batched inserts do not return generated keys, so the new ids are read back for the reservation index
+        List<ParkingSpot> spots = new ArrayList<>(inserts.size());
+        jdbcTemplate.query("SELECT id, spot_identifier FROM parking_spots WHERE garage_id = ? AND id > ?", rs -> {
+            SpotType spotType = inserted.get(rs.getString(2));
+            if (spotType != null) {
+                spots.add(ParkingSpot.builder()
+                        .id(rs.getLong(1))
+                        .garageId(state.garageId)
+                        .spotIdentifier(rs.getString(2))
+                        .spotType(spotType)
+                        .active(true)
+                        .build());
+            }
+        }, state.garageId, maxSpotId);
+        reservationService.registerSpots(spots);
+    }
+
+    private Floor floor(Import state, TopologyRow topologyRow) {
+        return state.floors.computeIfAbsent(topologyRow.getFloorNumber(), floorNumber -> {
+            state.floorsCreated++;
+            return floorRepository.save(Floor.builder()
+                    .garageId(state.garageId)
+                    .floorNumber(floorNumber)
+                    .name(topologyRow.getFloorName() != null ? topologyRow.getFloorName() : "Floor " + floorNumber)
+                    .active(true)
+                    .build());
+        });
+    }
+
+    private Bay bay(Import state, Floor floor, TopologyRow topologyRow) {
+        String bayIdentifier = topologyRow.getBayIdentifier();
+        return state.bays.computeIfAbsent(new BayKey(floor.getId(), bayIdentifier), key -> {
+            state.baysCreated++;
+            return bayRepository.save(Bay.builder()
+                    .garageId(floor.getGarageId())
+                    .bayIdentifier(bayIdentifier)
+                    .name(topologyRow.getBayName() != null ? topologyRow.getBayName() : "Bay " + bayIdentifier)
+                    .floor(floor)
+                    .active(true)
+                    .build());
+        });
+    }
+
+    private static String missingField(TopologyRow topologyRow) {
+        if (topologyRow.getFloorNumber() == null) {
+            return "Floor number";
+        }
+        if (isBlank(topologyRow.getBayIdentifier())) {
+            return "Bay identifier";
+        }
+        if (isBlank(topologyRow.getSpotIdentifier())) {
+            return "Spot identifier";
+        }
+        if (isBlank(topologyRow.getSpotNumber())) {
+            return "Spot number";
+        }
+        if (isBlank(topologyRow.getSpotType())) {
+            return "Spot type";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static void reject(Import state, TopologyRowReader.ReadRow row, String message) {
+        state.batchErrors.add(TopologyImportResult.RowError.builder()
+                .row(row.row())
+                .spotIdentifier(row.topologyRow() != null ? row.topologyRow().getSpotIdentifier() : null)
+                .message(message)
+                .build());
+    }
+
+    /**
+     * Lookups and counters of one import
+     */
+    private static final class Import {
+        private final Long garageId;
+        private final Map<String, SpotType> spotTypes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final Map<Integer, Floor> floors = new HashMap<>();
+        private final Map<BayKey, Bay> bays = new HashMap<>();
+        /** Taken spot identifiers, and bay id:spot number pairs, including the spots imported so far */
+        private final Set<String> spotIdentifiers = new HashSet<>();
+        private final Set<String> baySpotNumbers = new HashSet<>();
+        private final List<TopologyImportResult.RowError> errors = new ArrayList<>();
+        private final List<TopologyImportResult.RowError> batchErrors = new ArrayList<>();
+        private int rows;
+        private int floorsCreated;
+        private int baysCreated;
+        private int spotsCreated;
+        private int errorCount;
+
+        private Import(Long garageId) {
+            this.garageId = garageId;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.liatrio.parkinggarage.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.TopologyRow;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads topology rows one at a time from a CSV or JSON stream, so an import never holds the whole
+ * file in memory. A row that cannot be read is returned with an error instead of ending the import;
+ * a file that is not CSV with the expected header, or not a JSON array, is rejected.
+ */
+abstract class TopologyRowReader {
+
+    /**
+     * A row read from the file, or why it could not be read
+     */
+    record ReadRow(int row, TopologyRow topologyRow, String error) {
+    }
+
+    /**
+     * The next row, or null at the end of the file
+     */
+    abstract ReadRow next();
+
+    static TopologyRowReader csv(InputStream inputStream) {
+        return new CsvReader(inputStream);
+    }
+
+    static TopologyRowReader json(InputStream inputStream, ObjectMapper objectMapper) {
+        return new JsonReader(inputStream, objectMapper);
+    }
+
+    /**
+     * Comma-separated values with a header row naming the columns (floor_number or floorNumber, ...).
+     * Fields may be quoted with double quotes, doubling quotes inside; unknown columns are ignored.
+     */
+    private static final class CsvReader extends TopologyRowReader {
+
+        private static final String[] REQUIRED = {"floornumber", "bayidentifier", "spotidentifier", "spotnumber", "spottype"};
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private int line = 1;
+
+        private CsvReader(InputStream inputStream) {
+            this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            String header = readLine();
+            if (header == null) {
+                throw new BusinessLogicException("CSV import is empty, expected a header row");
+            }
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1);
+            }
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).replaceAll("[^A-Za-z0-9]", "").toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : REQUIRED) {
+                if (!columns.containsKey(required)) {
+                    throw new BusinessLogicException("CSV header must name the columns "
+                            + "floor_number, bay_identifier, spot_identifier, spot_number and spot_type");
+                }
+            }
+        }
+
+        @Override
+        ReadRow next() {
+            String text;
+            do {
+                text = readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+
+            List<String> fields;
+            try {
+                fields = split(text);
+            } catch (IllegalArgumentException e) {
+                return new ReadRow(line, null, e.getMessage());
+            }
+            TopologyRow topologyRow = TopologyRow.builder()
+                    .floorName(field(fields, "floorname"))
+                    .bayIdentifier(field(fields, "bayidentifier"))
+                    .bayName(field(fields, "bayname"))
+                    .spotIdentifier(field(fields, "spotidentifier"))
+                    .spotNumber(field(fields, "spotnumber"))
+                    .spotType(field(fields, "spottype"))
+                    .build();
+            String floorNumber = field(fields, "floornumber");
+            if (floorNumber != null) {
+                try {
+                    topologyRow.setFloorNumber(Integer.parseInt(floorNumber));
+                } catch (NumberFormatException e) {
+                    return new ReadRow(line, topologyRow, "Floor number is not a number: " + floorNumber);
+                }
+            }
+            return new ReadRow(line, topologyRow, null);
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private String readLine() {
+            try {
+                return reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * A JSON array of row objects; each element is bound on its own, so a bad element only fails its row
+     */
+    private static final class JsonReader extends TopologyRowReader {
+
+        private final JsonParser parser;
+        private final ObjectMapper objectMapper;
+        private int element;
+
+        private JsonReader(InputStream inputStream, ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            try {
+                this.parser = objectMapper.getFactory().createParser(inputStream);
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new BusinessLogicException("JSON import must be an array of rows");
+                }
+            } catch (JsonProcessingException e) {
+                throw new BusinessLogicException("JSON import is not valid JSON: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        ReadRow next() {
+            try {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    return null;
+                }
+                element++;
+                JsonNode node = objectMapper.readTree(parser);
+                if (!node.isObject()) {
+                    return new ReadRow(element, null, "Row is not a JSON object");
+                }
+                try {
+                    return new ReadRow(element, objectMapper.treeToValue(node, TopologyRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ReadRow(element, null, "Row cannot be read: " + e.getOriginalMessage());
+                }
+            } catch (JsonProcessingException e) {
+                throw new BusinessLogicException("JSON import is not valid JSON after row " + element
+                        + ": " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
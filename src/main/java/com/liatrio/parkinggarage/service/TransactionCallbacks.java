@@ -0,0 +1,32 @@
+package com.liatrio.parkinggarage.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Work on in-memory state that must only see committed changes: the indexes, time series, caches
+ * and queues that mirror the database.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Run {@code action} once the current transaction commits, straight away outside a transaction,
+     * and never if it rolls back. The action runs on the committing thread with the transaction's
+     * resources still bound, so database work in it needs a new transaction.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.UsageReportDto;
+import com.liatrio.parkinggarage.dto.UsageReportRowDto;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the usage cube: completed sessions summed per garage, check-in date and hour, bay and
+ * spot type, so reports never scan parking_transactions.
+ *
+ * Each garage has a watermark on check-out time. An aggregation run adds the sessions checked out
+ * between the watermark and {@code aggregation-lag} ago to their cells and moves the watermark, in one
+ * transaction that holds the watermark row locked, so every session is added exactly once even with
+ * several instances. Sessions written behind the watermark afterwards (imported history, rerated fees)
+ * are only picked up by {@link #rebuild}.
+ *
+ * Reports group the garage's cells in the requested date range by any of hour of day, weekday, floor,
+ * bay and spot type. Spot counts and names come from a per-garage snapshot of the topology that each
+ * aggregation run refreshes, so a report reads nothing but usage_cube.
+ */
+@Service
+@Slf4j
+public class UsageCubeService {
+
+    static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String SELECT_WATERMARK_FOR_UPDATE =
+            "SELECT check_out_time FROM usage_cube_watermarks WHERE garage_id = ? FOR UPDATE";
+
+    private static final String INSERT_WATERMARK =
+            "INSERT INTO usage_cube_watermarks (garage_id, check_out_time, updated_at) VALUES (?, ?, ?)";
+
+    private static final String UPDATE_WATERMARK =
+            "UPDATE usage_cube_watermarks SET check_out_time = ?, updated_at = ? WHERE garage_id = ?";
+
+    private static final String SELECT_COMPLETED = """
+            SELECT t.check_in_time, t.check_out_time, t.parking_fee, b.floor_id, s.bay_id, s.spot_type_id
+            FROM parking_transactions t
+            JOIN parking_spots s ON s.id = t.parking_spot_id
+            JOIN bays b ON b.id = s.bay_id
+            WHERE t.garage_id = ? AND t.check_out_time >= ? AND t.check_out_time < ?
+            """;
+
+    private static final String ADD_TO_CELL = """
+            UPDATE usage_cube SET sessions = sessions + ?, dwell_minutes = dwell_minutes + ?, revenue = revenue + ?
+            WHERE garage_id = ? AND check_in_date = ? AND hour_of_day = ? AND bay_id = ? AND spot_type_id = ?
+            """;
+
+    private static final String INSERT_CELL = """
+            INSERT INTO usage_cube (garage_id, check_in_date, hour_of_day, weekday, floor_id, bay_id, spot_type_id,
+                                    sessions, dwell_minutes, revenue)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String SELECT_SPOT_GROUPS = """
+            SELECT b.floor_id, f.floor_number, s.bay_id, b.bay_identifier, s.spot_type_id, st.name,
+                   SUM(CASE WHEN s.active = true THEN 1 ELSE 0 END)
+            FROM parking_spots s
+            JOIN bays b ON b.id = s.bay_id
+            JOIN floors f ON f.id = b.floor_id
+            JOIN spot_types st ON st.id = s.spot_type_id
+            WHERE s.garage_id = ?
+            GROUP BY b.floor_id, f.floor_number, s.bay_id, b.bay_identifier, s.spot_type_id, st.name
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GarageDirectory garageDirectory;
+    private final Duration lag;
+    /** Spots per bay and spot type of each garage, as of its last aggregation run */
+    private final Map<Long, List<SpotGroup>> spotGroups = new ConcurrentHashMap<>();
+
+    private record CellKey(LocalDate checkInDate, int hourOfDay, long floorId, long bayId, long spotTypeId) {
+    }
+
+    private static final class Measures {
+        private long sessions;
+        private long dwellMinutes;
+        private double revenue;
+    }
+
+    /**
+     * Spots of one spot type in one bay; inactive spots are kept for their names but not counted
+     */
+    private record SpotGroup(long floorId, int floorNumber, long bayId, String bayIdentifier,
+                             long spotTypeId, String spotType, long activeSpots) {
+    }
+
+    /**
+     * Report dimensions, named as in the groupBy parameter
+     */
+    private enum Dimension {
+        HOUR_OF_DAY("hourOfDay", "hour_of_day"),
+        WEEKDAY("weekday", "weekday"),
+        FLOOR("floor", "floor_id"),
+        BAY("bay", "bay_id"),
+        SPOT_TYPE("spotType", "spot_type_id");
+
+        private final String parameter;
+        private final String column;
+
+        Dimension(String parameter, String column) {
+            this.parameter = parameter;
+            this.column = column;
+        }
+
+        static Dimension of(String parameter) {
+            return Arrays.stream(values())
+                    .filter(dimension -> dimension.parameter.equalsIgnoreCase(parameter.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new BusinessLogicException("Unknown report dimension: " + parameter
+                            + " (expected hourOfDay, weekday, floor, bay or spotType)"));
+        }
+    }
+
+    public UsageCubeService(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            GarageDirectory garageDirectory,
+                            @Value("${parking.reports.aggregation-lag:1m}") Duration lag) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.garageDirectory = garageDirectory;
+        this.lag = lag;
+    }
+
+    /**
+     * Add the newly completed sessions of every garage
+     */
+    @Scheduled(initialDelayString = "${parking.reports.aggregation-interval:PT1M}",
+            fixedDelayString = "${parking.reports.aggregation-interval:PT1M}")
+    public void aggregateAll() {
+        for (Long garageId : jdbcTemplate.queryForList("SELECT id FROM garages", Long.class)) {
+            try {
+                aggregate(garageId);
+            } catch (RuntimeException e) {
+                log.error("Usage cube aggregation failed for garage {}", garageId, e);
+            }
+        }
+    }
+
+    /**
+     * Add the garage's sessions checked out since its watermark
+     *
+     * @return Number of sessions added
+     */
+    public int aggregate(Long garageId) {
+        int added = transactionTemplate.execute(status -> {
+            LocalDateTime watermark = lockWatermark(garageId).orElse(null);
+            if (watermark == null) {
+                jdbcTemplate.update(INSERT_WATERMARK, garageId, Timestamp.valueOf(START), Timestamp.valueOf(LocalDateTime.now()));
+                watermark = START;
+            }
+            return addSessions(garageId, watermark);
+        });
+        spotGroups.put(garageId, loadSpotGroups(garageId));
+        return added;
+    }
+
+    /**
+     * Empty the garage's cube and aggregate all its completed sessions again; reports keep seeing the
+     * old cube until the rebuild commits
+     *
+     * @return Number of sessions added
+     */
+    public int rebuild(Long garageId) {
+        int added = transactionTemplate.execute(status -> {
+            if (lockWatermark(garageId).isEmpty()) {
+                jdbcTemplate.update(INSERT_WATERMARK, garageId, Timestamp.valueOf(START), Timestamp.valueOf(LocalDateTime.now()));
+            }
+            int deleted = jdbcTemplate.update("DELETE FROM usage_cube WHERE garage_id = ?", garageId);
+            log.info("Rebuilding usage cube of garage {}, {} cells removed", garageId, deleted);
+            return addSessions(garageId, START);
+        });
+        spotGroups.put(garageId, loadSpotGroups(garageId));
+        return added;
+    }
+
+    /**
+     * Rebuild the current garage's cube
+     */
+    public int rebuild() {
+        return rebuild(garageDirectory.currentGarageId());
+    }
+
+    /**
+     * Usage of the current garage by sessions that checked in during [from, to), grouped by the given
+     * dimensions and optionally limited to one floor and spot type
+     */
+    public UsageReportDto getUsage(LocalDate from, LocalDate to, List<String> groupBy,
+                                   Integer floorNumber, String spotType) {
+        if (!from.isBefore(to)) {
+            throw new BusinessLogicException("From must be before to");
+        }
+        Set<Dimension> dimensions = EnumSet.noneOf(Dimension.class);
+        for (String parameter : groupBy) {
+            if (!parameter.isBlank()) {
+                dimensions.add(Dimension.of(parameter));
+            }
+        }
+        Long garageId = garageDirectory.currentGarageId();
+        List<SpotGroup> groups = spotGroups.computeIfAbsent(garageId, this::loadSpotGroups).stream()
+                .filter(group -> floorNumber == null || group.floorNumber() == floorNumber)
+                .filter(group -> spotType == null || group.spotType().equalsIgnoreCase(spotType))
+                .toList();
+        UsageReportDto.UsageReportDtoBuilder report = UsageReportDto.builder()
+                .from(from)
+                .to(to)
+                .groupBy(dimensions.stream().map(dimension -> dimension.parameter).toList())
+                .aggregatedUntil(watermark(garageId).orElse(null));
+        if (groups.isEmpty()) {
+            return report.rows(List.of()).build();
+        }
+
+        // Every bay lies on one floor, so grouping by bay also groups by floor
+        boolean byFloor = dimensions.contains(Dimension.FLOOR) || dimensions.contains(Dimension.BAY);
+        boolean byBay = dimensions.contains(Dimension.BAY);
+        boolean bySpotType = dimensions.contains(Dimension.SPOT_TYPE);
+        List<String> columns = new ArrayList<>();
+        dimensions.stream().filter(dimension -> dimension != Dimension.FLOOR && dimension != Dimension.BAY)
+                .forEach(dimension -> columns.add(dimension.column));
+        if (byFloor) {
+            columns.add(Dimension.FLOOR.column);
+        }
+        if (byBay) {
+            columns.add(Dimension.BAY.column);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        columns.forEach(column -> sql.append(column).append(", "));
+        sql.append("SUM(sessions), SUM(dwell_minutes), SUM(revenue) FROM usage_cube")
+                .append(" WHERE garage_id = ? AND check_in_date >= ? AND check_in_date < ?");
+        List<Object> args = new ArrayList<>(List.of(garageId, Date.valueOf(from), Date.valueOf(to)));
+        if (floorNumber != null) {
+            sql.append(" AND floor_id = ?");
+            args.add(groups.get(0).floorId());
+        }
+        if (spotType != null) {
+            sql.append(" AND spot_type_id = ?");
+            args.add(groups.get(0).spotTypeId());
+        }
+        if (!columns.isEmpty()) {
+            String grouping = String.join(", ", columns);
+            sql.append(" GROUP BY ").append(grouping).append(" ORDER BY ").append(grouping);
+        }
+
+        Map<Long, SpotGroup> floors = new HashMap<>();
+        Map<Long, SpotGroup> bays = new HashMap<>();
+        Map<Long, SpotGroup> spotTypes = new HashMap<>();
+        Map<List<Long>, Long> spots = new HashMap<>();
+        for (SpotGroup group : groups) {
+            floors.putIfAbsent(group.floorId(), group);
+            bays.putIfAbsent(group.bayId(), group);
+            spotTypes.putIfAbsent(group.spotTypeId(), group);
+            spots.merge(spotKey(byFloor ? group.floorId() : null, byBay ? group.bayId() : null,
+                    bySpotType ? group.spotTypeId() : null), group.activeSpots(), Long::sum);
+        }
+        long days = ChronoUnit.DAYS.between(from, to);
+        long[] weekdays = new long[8];
+        for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+            weekdays[date.getDayOfWeek().getValue()]++;
+        }
+
+        List<UsageReportRowDto> rows = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            int column = 1;
+            UsageReportRowDto.UsageReportRowDtoBuilder row = UsageReportRowDto.builder();
+            long rowDays = days;
+            Long spotTypeId = null;
+            for (Dimension dimension : dimensions) {
+                if (dimension == Dimension.HOUR_OF_DAY) {
+                    row.hourOfDay(rs.getInt(column++));
+                } else if (dimension == Dimension.WEEKDAY) {
+                    int weekday = rs.getInt(column++);
+                    row.weekday(DayOfWeek.of(weekday));
+                    rowDays = weekdays[weekday];
+                } else if (dimension == Dimension.SPOT_TYPE) {
+                    spotTypeId = rs.getLong(column++);
+                    SpotGroup group = spotTypes.get(spotTypeId);
+                    row.spotType(group == null ? null : group.spotType());
+                }
+            }
+            Long floorId = byFloor ? rs.getLong(column++) : null;
+            Long bayId = byBay ? rs.getLong(column++) : null;
+            if (floorId != null && floors.containsKey(floorId)) {
+                row.floorNumber(floors.get(floorId).floorNumber());
+            }
+            if (bayId != null && bays.containsKey(bayId)) {
+                row.bayIdentifier(bays.get(bayId).bayIdentifier());
+            }
+            long sessions = rs.getLong(column++);
+            long dwellMinutes = rs.getLong(column++);
+            double revenue = rs.getDouble(column);
+            long activeSpots = spots.getOrDefault(spotKey(floorId, bayId, spotTypeId), 0L);
+            return row.sessions(sessions)
+                    .averageDwellMinutes(sessions == 0 ? null : round(dwellMinutes / (double) sessions))
+                    .turnoverPerSpot(activeSpots == 0 || rowDays == 0 ? null
+                            : round(sessions / (double) (activeSpots * rowDays)))
+                    .revenue(round(revenue))
+                    .build();
+        }, args.toArray());
+        return report.rows(rows).build();
+    }
+
+    /**
+     * Sessions of the garage checked out before this time are in the cube
+     */
+    public Optional<LocalDateTime> watermark(Long garageId) {
+        return jdbcTemplate.query("SELECT check_out_time FROM usage_cube_watermarks WHERE garage_id = ?",
+                (rs, rowNum) -> rs.getTimestamp(1).toLocalDateTime(), garageId).stream().findFirst();
+    }
+
+    private List<SpotGroup> loadSpotGroups(Long garageId) {
+        return jdbcTemplate.query(SELECT_SPOT_GROUPS, (rs, rowNum) -> new SpotGroup(rs.getLong(1), rs.getInt(2),
+                rs.getLong(3), rs.getString(4), rs.getLong(5), rs.getString(6), rs.getLong(7)), garageId);
+    }
+
+    private static List<Long> spotKey(Long floorId, Long bayId, Long spotTypeId) {
+        return Arrays.asList(floorId, bayId, spotTypeId);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private Optional<LocalDateTime> lockWatermark(Long garageId) {
+        return jdbcTemplate.query(SELECT_WATERMARK_FOR_UPDATE,
+                (rs, rowNum) -> rs.getTimestamp(1).toLocalDateTime(), garageId).stream().findFirst();
+    }
+
+    private int addSessions(Long garageId, LocalDateTime from) {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime upTo = now.minus(lag);
+        if (!from.isBefore(upTo)) {
+            return 0;
+        }
+
+        Map<CellKey, Measures> cells = new HashMap<>();
+        int[] sessions = {0};
+        jdbcTemplate.query(SELECT_COMPLETED, rs -> {
+            LocalDateTime checkInTime = rs.getTimestamp(1).toLocalDateTime();
+            LocalDateTime checkOutTime = rs.getTimestamp(2).toLocalDateTime();
+            Measures measures = cells.computeIfAbsent(new CellKey(checkInTime.toLocalDate(), checkInTime.getHour(),
+                    rs.getLong(4), rs.getLong(5), rs.getLong(6)), key -> new Measures());
+            measures.sessions++;
+            measures.dwellMinutes += Duration.between(checkInTime, checkOutTime).toMinutes();
+            measures.revenue += rs.getDouble(3);
+            sessions[0]++;
+        }, garageId, Timestamp.valueOf(from), Timestamp.valueOf(upTo));
+
+        List<CellKey> keys = new ArrayList<>(cells.keySet());
+        List<Object[]> additions = new ArrayList<>(keys.size());
+        for (CellKey key : keys) {
+            Measures measures = cells.get(key);
+            additions.add(new Object[]{measures.sessions, measures.dwellMinutes, measures.revenue, garageId,
+                    Date.valueOf(key.checkInDate()), key.hourOfDay(), key.bayId(), key.spotTypeId()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(ADD_TO_CELL, additions);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (updated[i] == 0) {
+                CellKey key = keys.get(i);
+                Measures measures = cells.get(key);
+                inserts.add(new Object[]{garageId, Date.valueOf(key.checkInDate()), key.hourOfDay(),
+                        key.checkInDate().getDayOfWeek().getValue(), key.floorId(), key.bayId(), key.spotTypeId(),
+                        measures.sessions, measures.dwellMinutes, measures.revenue});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_CELL, inserts);
+        jdbcTemplate.update(UPDATE_WATERMARK, Timestamp.valueOf(upTo), Timestamp.valueOf(now), garageId);
+
+        if (sessions[0] > 0) {
+            log.info("Added {} sessions of garage {} checked out from {} to {} to the usage cube ({} cells, {} new) in {} ms",
+                    sessions[0], garageId, from, upTo, keys.size(), inserts.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+        return sessions[0];
+    }
+}
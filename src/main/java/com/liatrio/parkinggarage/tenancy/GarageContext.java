@@ -0,0 +1,59 @@
+package com.liatrio.parkinggarage.tenancy;
+
+import java.util.function.Supplier;
+
+/**
+ * The garage the current thread works for.
+ *
+ * Set for each API request by {@link GarageFilter}. Code running outside a request (startup index
+ * rebuilds, seeding) has no garage and sees every garage's rows; it stamps the garage on new rows
+ * itself or uses {@link #runAs}.
+ */
+public final class GarageContext {
+
+    private static final ThreadLocal<Long> CURRENT_GARAGE = new ThreadLocal<>();
+
+    private GarageContext() {
+    }
+
+    /**
+     * The current garage id, or null outside a garage
+     */
+    public static Long current() {
+        return CURRENT_GARAGE.get();
+    }
+
+    /**
+     * Run {@code action} for the given garage; sessions opened inside it are scoped to the garage
+     */
+    public static void runAs(Long garageId, Runnable action) {
+        Long previous = current();
+        set(garageId);
+        try {
+            action.run();
+        } finally {
+            set(previous);
+        }
+    }
+
+    /**
+     * Call {@code action} for the given garage and return its result
+     */
+    public static <T> T callAs(Long garageId, Supplier<T> action) {
+        Long previous = current();
+        set(garageId);
+        try {
+            return action.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    static void set(Long garageId) {
+        if (garageId != null) {
+            CURRENT_GARAGE.set(garageId);
+        } else {
+            CURRENT_GARAGE.remove();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.liatrio.parkinggarage.tenancy;
+
+import com.liatrio.parkinggarage.entity.Garage;
+import com.liatrio.parkinggarage.repository.GarageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Garage codes to ids, so routing a request to its garage costs no query.
+ *
+ * Creates the default garage on startup if it does not exist; requests without an X-Garage header
+ * and startup data (seeding, synthetic data) belong to it.
+ */
+@Component
+@Slf4j
+public class GarageDirectory {
+
+    private final GarageRepository garageRepository;
+    private final String defaultCode;
+    private final String defaultName;
+    private final Map<String, Long> garageIdsByCode = new ConcurrentHashMap<>();
+    private volatile Long defaultGarageId;
+
+    public GarageDirectory(GarageRepository garageRepository,
+                           @Value("${parking.garages.default-code:MAIN}") String defaultCode,
+                           @Value("${parking.garages.default-name:Main Garage}") String defaultName) {
+        this.garageRepository = garageRepository;
+        this.defaultCode = defaultCode.toUpperCase(Locale.ROOT);
+        this.defaultName = defaultName;
+    }
+
+    /**
+     * Load every garage, creating the default garage first if needed
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    @Transactional
+    public void load() {
+        Garage defaultGarage = garageRepository.findByCode(defaultCode)
+                .orElseGet(() -> {
+                    log.info("Creating default garage {}", defaultCode);
+                    return garageRepository.save(Garage.builder().code(defaultCode).name(defaultName).build());
+                });
+        defaultGarageId = defaultGarage.getId();
+        garageRepository.findAll().forEach(this::register);
+        log.info("Loaded {} garages, default garage is {}", garageIdsByCode.size(), defaultCode);
+    }
+
+    public void register(Garage garage) {
+        garageIdsByCode.put(garage.getCode(), garage.getId());
+    }
+
+    /**
+     * The id of the garage with the given code, looked up once if it was created by another instance
+     */
+    public Optional<Long> resolve(String code) {
+        Optional<Long> garageId = lookup(code);
+        if (garageId.isPresent()) {
+            return garageId;
+        }
+        String normalized = code.trim().toUpperCase(Locale.ROOT);
+        Optional<Garage> garage = garageRepository.findByCode(normalized);
+        garage.ifPresent(this::register);
+        return garage.map(Garage::getId);
+    }
+
+    /**
+     * The id of the garage with the given code if this instance already knows it, without a query
+     */
+    public Optional<Long> lookup(String code) {
+        return Optional.ofNullable(garageIdsByCode.get(code.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    public Long defaultGarageId() {
+        return defaultGarageId;
+    }
+
+    /**
+     * The garage of the current request, or the default garage outside a request
+     */
+    public Long currentGarageId() {
+        Long garageId = GarageContext.current();
+        return garageId != null ? garageId : defaultGarageId;
+    }
+}
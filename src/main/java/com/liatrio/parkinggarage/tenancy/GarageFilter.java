@@ -0,0 +1,79 @@
+package com.liatrio.parkinggarage.tenancy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.exception.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Routes each API request to the garage named in its X-Garage header (the default garage when
+ * absent). Runs before the request's persistence session is opened, so the session is scoped to
+ * that garage.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class GarageFilter extends OncePerRequestFilter {
+
+    public static final String GARAGE_HEADER = "X-Garage";
+
+    private final GarageDirectory garageDirectory;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String code = request.getHeader(GARAGE_HEADER);
+        Long garageId;
+        if (code == null || code.isBlank()) {
+            garageId = garageDirectory.defaultGarageId();
+        } else {
+            Optional<Long> resolved = garageDirectory.resolve(code);
+            if (resolved.isEmpty()) {
+                writeNotFound(request, response, code);
+                return;
+            }
+            garageId = resolved.get();
+        }
+
+        Long previous = GarageContext.current();
+        GarageContext.set(garageId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            GarageContext.set(previous);
+        }
+    }
+
+    private void writeNotFound(HttpServletRequest request, HttpServletResponse response, String code)
+            throws IOException {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.NOT_FOUND.value())
+                .error(HttpStatus.NOT_FOUND.getReasonPhrase())
+                .message(String.format("Garage not found with code: '%s'", code))
+                .path(request.getRequestURI())
+                .build();
+        response.setStatus(HttpStatus.NOT_FOUND.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,31 @@
+package com.liatrio.parkinggarage.tenancy;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Resolves the Hibernate tenant of a new session to the current garage.
+ *
+ * Entities with a {@code @TenantId garageId} are then filtered to that garage in every query and
+ * stamped with it on insert. Sessions opened outside a garage use the root tenant, which is not
+ * filtered and may insert rows for any garage.
+ */
+public class GarageTenantResolver implements CurrentTenantIdentifierResolver<Long> {
+
+    static final Long ROOT = 0L;
+
+    @Override
+    public Long resolveCurrentTenantIdentifier() {
+        Long garageId = GarageContext.current();
+        return garageId != null ? garageId : ROOT;
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(Long tenantId) {
+        return ROOT.equals(tenantId);
+    }
+}
@@ -0,0 +1,16 @@
+package com.liatrio.parkinggarage.tenancy;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TenancyConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer garageTenancy() {
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER,
+                new GarageTenantResolver());
+    }
+}
@@ -0,0 +1,79 @@
+package com.liatrio.parkinggarage.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionFilterTest {
+
+    private AdmissionLimiter admissionLimiter;
+    private AdmissionFilter admissionFilter;
+
+    @BeforeEach
+    void setUp() {
+        admissionLimiter = new AdmissionLimiter(new SimpleMeterRegistry(), 2, 0.5, 0.5, 0, Duration.ZERO);
+        admissionFilter = new AdmissionFilter(admissionLimiter,
+                new ObjectMapper().registerModule(new JavaTimeModule()), 2);
+    }
+
+    @Test
+    void doFilter_WhenAdmitted_ShouldPassThroughAndReleaseSlot() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        admissionFilter.doFilter(new MockHttpServletRequest("POST", "/api/parking/check-in"), response, chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals(0, admissionLimiter.inFlight());
+    }
+
+    @Test
+    void doFilter_WhenSaturated_ShouldReturnTooManyRequestsWithRetryAfter() throws Exception {
+        // Arrange
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.QUERY));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        admissionFilter.doFilter(new MockHttpServletRequest("PUT", "/api/floors/1"), response, chain);
+
+        // Assert
+        assertNull(chain.getRequest());
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(response.getContentAsString().contains("\"status\":429"));
+        assertEquals(1, admissionLimiter.inFlight());
+    }
+
+    @Test
+    void doFilter_WhenQueriesSaturated_ShouldStillAdmitCheckOut() throws Exception {
+        // Arrange
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.QUERY));
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+
+        // Act
+        admissionFilter.doFilter(new MockHttpServletRequest("GET", "/api/parking-spots/available"),
+                rejected, new MockFilterChain());
+        admissionFilter.doFilter(new MockHttpServletRequest("POST", "/api/parking/check-out/license-plate/ABC-123"),
+                admitted, new MockFilterChain());
+
+        // Assert
+        assertEquals(429, rejected.getStatus());
+        assertEquals(200, admitted.getStatus());
+    }
+}
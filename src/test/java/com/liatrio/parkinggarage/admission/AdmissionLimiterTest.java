@@ -0,0 +1,94 @@
+package com.liatrio.parkinggarage.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionLimiter admissionLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admissionLimiter = new AdmissionLimiter(meterRegistry, 4, 0.75, 0.5, 1, Duration.ZERO);
+    }
+
+    @Test
+    void tryAcquire_WhenSaturating_ShouldShedAdminThenQueriesBeforeGateTraffic() throws Exception {
+        // Arrange
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.ADMIN));
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.QUERY));
+
+        // Act & Assert
+        assertFalse(admissionLimiter.tryAcquire(TrafficClass.ADMIN));
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.QUERY));
+        assertFalse(admissionLimiter.tryAcquire(TrafficClass.QUERY));
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.GATE));
+        assertFalse(admissionLimiter.tryAcquire(TrafficClass.GATE));
+
+        assertEquals(4, admissionLimiter.inFlight());
+        assertEquals(1.0, meterRegistry.get(AdmissionLimiter.REJECTION_COUNTER).tag("class", "admin").counter().count());
+        assertEquals(1.0, meterRegistry.get(AdmissionLimiter.REJECTION_COUNTER).tag("class", "query").counter().count());
+        assertEquals(1.0, meterRegistry.get(AdmissionLimiter.REJECTION_COUNTER).tag("class", "gate").counter().count());
+        assertEquals(4.0, meterRegistry.get(AdmissionLimiter.IN_FLIGHT_GAUGE).gauge().value());
+    }
+
+    @Test
+    void release_ShouldFreeSlotForNextRequest() throws Exception {
+        // Arrange
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.ADMIN));
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.ADMIN));
+        assertFalse(admissionLimiter.tryAcquire(TrafficClass.ADMIN));
+
+        // Act
+        admissionLimiter.release();
+
+        // Assert
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.ADMIN));
+    }
+
+    @Test
+    void tryAcquire_WhenSlotFreedWhileWaiting_ShouldAdmitQueuedRequest() throws Exception {
+        // Arrange
+        admissionLimiter = new AdmissionLimiter(meterRegistry, 1, 0.75, 0.5, 1, Duration.ofSeconds(10));
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.GATE));
+
+        // Act
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return admissionLimiter.tryAcquire(TrafficClass.GATE);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (admissionLimiter.queued(TrafficClass.GATE) == 0) {
+            Thread.onSpinWait();
+        }
+        assertFalse(admissionLimiter.tryAcquire(TrafficClass.GATE), "Queue of one is already full");
+        admissionLimiter.release();
+
+        // Assert
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0, admissionLimiter.queued(TrafficClass.GATE));
+        assertEquals(1, admissionLimiter.inFlight());
+    }
+
+    @Test
+    void tryAcquire_WhenNoSlotFreedInTime_ShouldReject() throws Exception {
+        // Arrange
+        admissionLimiter = new AdmissionLimiter(meterRegistry, 1, 0.75, 0.5, 1, Duration.ofMillis(20));
+        assertTrue(admissionLimiter.tryAcquire(TrafficClass.GATE));
+
+        // Act & Assert
+        assertFalse(admissionLimiter.tryAcquire(TrafficClass.GATE));
+        assertEquals(0, admissionLimiter.queued(TrafficClass.GATE));
+    }
+}
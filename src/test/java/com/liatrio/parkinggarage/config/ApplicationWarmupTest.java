@@ -0,0 +1,137 @@
+package com.liatrio.parkinggarage.config;
+
+import com.liatrio.parkinggarage.dto.CheckInRequest;
+import com.liatrio.parkinggarage.dto.CheckOutRequest;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.repository.CarRepository;
+import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
+import com.liatrio.parkinggarage.service.BillingService;
+import com.liatrio.parkinggarage.service.ParkingTransactionService;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationWarmupTest {
+
+    @Mock
+    private ParkingTransactionService parkingTransactionService;
+
+    @Mock
+    private BillingService billingService;
+
+    @Mock
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private GarageDirectory garageDirectory;
+
+    private ApplicationWarmup applicationWarmup;
+
+    @BeforeEach
+    void setUp() {
+        applicationWarmup = new ApplicationWarmup(parkingTransactionService, billingService,
+                parkingSpotRepository, carRepository, transactionManager, garageDirectory);
+        ReflectionTestUtils.setField(applicationWarmup, "iterations", 4);
+    }
+
+    @Test
+    void health_BeforeWarmUp_ShouldBeOutOfService() {
+        // Act & Assert
+        assertEquals(Status.OUT_OF_SERVICE, applicationWarmup.health().getStatus());
+        assertFalse(applicationWarmup.isComplete());
+    }
+
+    @Test
+    void warmUp_WhenSpotsAvailable_ShouldRunDryRunSessionsAndRollBack() {
+        // Arrange
+        ParkingSpot spot = ParkingSpot.builder().id(1L).spotIdentifier("F1-A-01").build();
+        when(parkingSpotRepository.findAvailableSpots()).thenReturn(List.of(spot));
+        when(carRepository.findAll(any(Pageable.class))).thenReturn(Page.empty());
+        List<SimpleTransactionStatus> statuses = new ArrayList<>();
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            SimpleTransactionStatus status = new SimpleTransactionStatus();
+            statuses.add(status);
+            return status;
+        });
+
+        // Act
+        applicationWarmup.warmUp();
+
+        // Assert
+        verify(parkingSpotRepository).findBySpotIdentifier("F1-A-01");
+        verify(billingService, times(4)).calculateParkingFee(any(), any());
+        verify(parkingTransactionService, times(4)).checkIn(any(CheckInRequest.class));
+        verify(parkingTransactionService, times(2)).checkOut(any(CheckOutRequest.class));
+        verify(parkingTransactionService).checkOutByLicensePlate("WARMUP-1");
+        verify(parkingTransactionService).checkOutByLicensePlate("WARMUP-3");
+        assertEquals(4, statuses.size());
+        assertTrue(statuses.stream().allMatch(TransactionStatus::isRollbackOnly));
+        assertTrue(applicationWarmup.isComplete());
+        assertEquals(Status.UP, applicationWarmup.health().getStatus());
+    }
+
+    @Test
+    void warmUp_WhenNoSpotsAvailable_ShouldSkipDryRunSessions() {
+        // Arrange
+        when(parkingSpotRepository.findAvailableSpots()).thenReturn(List.of());
+        when(carRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        // Act
+        applicationWarmup.warmUp();
+
+        // Assert
+        verify(parkingTransactionService, never()).checkIn(any());
+        assertTrue(applicationWarmup.isComplete());
+    }
+
+    @Test
+    void warmUp_WhenLookupFails_ShouldStillComplete() {
+        // Arrange
+        when(parkingSpotRepository.findAvailableSpots()).thenThrow(new IllegalStateException("db down"));
+
+        // Act
+        applicationWarmup.warmUp();
+
+        // Assert
+        assertTrue(applicationWarmup.isComplete());
+        assertEquals(Status.UP, applicationWarmup.health().getStatus());
+    }
+
+    @Test
+    void warmUp_WhenDisabled_ShouldCompleteImmediately() {
+        // Arrange
+        ReflectionTestUtils.setField(applicationWarmup, "enabled", false);
+
+        // Act
+        applicationWarmup.warmUp();
+
+        // Assert
+        verifyNoInteractions(parkingSpotRepository, carRepository, parkingTransactionService);
+        assertTrue(applicationWarmup.isComplete());
+    }
+}
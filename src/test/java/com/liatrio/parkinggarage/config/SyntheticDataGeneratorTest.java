@@ -0,0 +1,157 @@
+package com.liatrio.parkinggarage.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticDataGeneratorTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void generateSessions_ShouldNotOverlapAndStayWithinWindow() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(7);
+        LocalDateTime from = now.minusDays(30);
+
+        // Act
+        List<SyntheticDataGenerator.Session> sessions = SyntheticDataGenerator.generateSessions(random, from, now, 3.0);
+
+        // Assert
+        assertFalse(sessions.isEmpty());
+        LocalDateTime previousCheckOut = from;
+        for (int i = 0; i < sessions.size(); i++) {
+            SyntheticDataGenerator.Session session = sessions.get(i);
+            assertFalse(session.checkInTime().isBefore(previousCheckOut));
+            assertTrue(session.checkInTime().isBefore(now));
+            if (session.checkOutTime() == null) {
+                assertEquals(sessions.size() - 1, i, "Only the last session may still be open");
+            } else {
+                assertTrue(session.checkOutTime().isAfter(session.checkInTime()));
+                assertTrue(session.checkOutTime().isBefore(now));
+                previousCheckOut = session.checkOutTime();
+            }
+        }
+    }
+
+    @Test
+    void generateSessions_ShouldApproximateDailyTurnover() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(11);
+        int spots = 200;
+        int days = 30;
+
+        // Act
+        long total = 0;
+        for (int s = 0; s < spots; s++) {
+            total += SyntheticDataGenerator.generateSessions(random, now.minusDays(days), now, 3.0).size();
+        }
+
+        // Assert
+        double turnover = (double) total / spots / days;
+        assertTrue(turnover > 2.4 && turnover < 3.6, "Unexpected turnover: " + turnover);
+    }
+
+    @Test
+    void generateSessions_ShouldBeReproducibleForSameSeed() {
+        // Act
+        List<SyntheticDataGenerator.Session> first = SyntheticDataGenerator.generateSessions(
+                new SplittableRandom(3), now.minusDays(5), now, 2.0);
+        List<SyntheticDataGenerator.Session> second = SyntheticDataGenerator.generateSessions(
+                new SplittableRandom(3), now.minusDays(5), now, 2.0);
+
+        // Assert
+        assertEquals(first, second);
+    }
+
+    @Test
+    void assignCars_ShouldNeverParkACarTwiceAtOnce() {
+        // Arrange: the sessions of 50 spots, for 80 cars
+        SplittableRandom random = new SplittableRandom(13);
+        List<SyntheticDataGenerator.Session> sessions = new ArrayList<>();
+        for (int s = 0; s < 50; s++) {
+            sessions.addAll(SyntheticDataGenerator.generateSessions(random, now.minusDays(10), now, 3.0));
+        }
+        long[] carIds = LongStream.rangeClosed(1, 80).toArray();
+
+        // Act
+        long[] assigned = SyntheticDataGenerator.assignCars(sessions, carIds);
+
+        // Assert
+        Map<Long, List<SyntheticDataGenerator.Session>> byCar = new HashMap<>();
+        for (int i = 0; i < sessions.size(); i++) {
+            assertTrue(assigned[i] > 0, "Every session should get a car");
+            byCar.computeIfAbsent(assigned[i], car -> new ArrayList<>()).add(sessions.get(i));
+        }
+        for (List<SyntheticDataGenerator.Session> carSessions : byCar.values()) {
+            carSessions.sort(Comparator.comparing(SyntheticDataGenerator.Session::checkInTime));
+            for (int i = 1; i < carSessions.size(); i++) {
+                LocalDateTime previousCheckOut = carSessions.get(i - 1).checkOutTime();
+                assertNotNull(previousCheckOut, "Only a car's last session may still be open");
+                assertFalse(carSessions.get(i).checkInTime().isBefore(previousCheckOut));
+            }
+        }
+    }
+
+    @Test
+    void assignCars_WhenEveryCarIsParked_ShouldLeaveTheSessionWithoutACar() {
+        // Arrange
+        List<SyntheticDataGenerator.Session> sessions = List.of(
+                new SyntheticDataGenerator.Session(now.minusHours(5), now.minusHours(1)),
+                new SyntheticDataGenerator.Session(now.minusHours(4), null),
+                new SyntheticDataGenerator.Session(now.minusMinutes(30), null));
+
+        // Act
+        long[] assigned = SyntheticDataGenerator.assignCars(sessions, new long[]{7});
+
+        // Assert: the car is back at 1 h ago, so it can take the last session but not the second
+        assertArrayEquals(new long[]{7, -1, 7}, assigned);
+    }
+
+    @Test
+    void sampleDwellMinutes_ShouldHaveRealisticMedian() {
+        // Arrange
+        SplittableRandom random = new SplittableRandom(5);
+        double[] samples = new double[10_000];
+
+        // Act
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = SyntheticDataGenerator.sampleDwellMinutes(random);
+        }
+
+        // Assert
+        Arrays.sort(samples);
+        double median = samples[samples.length / 2];
+        assertTrue(median > 60 && median < 240, "Unexpected median dwell: " + median);
+    }
+
+    @Test
+    void bayIdentifier_ShouldUseSpreadsheetStyleLetters() {
+        // Act & Assert
+        assertEquals("A", SyntheticDataGenerator.bayIdentifier(0));
+        assertEquals("Z", SyntheticDataGenerator.bayIdentifier(25));
+        assertEquals("AA", SyntheticDataGenerator.bayIdentifier(26));
+        assertEquals("AZ", SyntheticDataGenerator.bayIdentifier(51));
+        assertEquals("BA", SyntheticDataGenerator.bayIdentifier(52));
+    }
+
+    @Test
+    void licensePlate_ShouldMatchLicensePlateFormat() {
+        // Act
+        String plate = SyntheticDataGenerator.licensePlate(123_456_789L);
+
+        // Assert
+        assertTrue(plate.matches("^[A-Z0-9-]+$"));
+        assertTrue(plate.startsWith(SyntheticDataGenerator.PLATE_PREFIX));
+    }
+}
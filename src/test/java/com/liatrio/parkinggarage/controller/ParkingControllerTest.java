@@ -4,8 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.liatrio.parkinggarage.dto.CheckInRequest;
 import com.liatrio.parkinggarage.dto.CheckOutRequest;
 import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
+import com.liatrio.parkinggarage.dto.RerateJobDto;
+import com.liatrio.parkinggarage.dto.RerateRequest;
 import com.liatrio.parkinggarage.service.BillingService;
+import com.liatrio.parkinggarage.service.CheckOutPipeline;
+import com.liatrio.parkinggarage.service.IdempotencyService;
 import com.liatrio.parkinggarage.service.ParkingTransactionService;
+import com.liatrio.parkinggarage.service.RerateService;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +24,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,6 +45,18 @@ class ParkingControllerTest {
     @MockBean
     private BillingService billingService;
 
+    @MockBean
+    private GarageDirectory garageDirectory;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private RerateService rerateService;
+
+    @MockBean
+    private CheckOutPipeline checkOutPipeline;
+
     private CheckInRequest checkInRequest;
     private CheckOutRequest checkOutRequest;
     private ParkingTransactionDto transactionDto;
@@ -85,6 +105,23 @@ class ParkingControllerTest {
                 .andExpect(jsonPath("$.spotIdentifier").value("F1-A-01"));
     }
 
+    @Test
+    void checkIn_WhenReplayed_ShouldReturnStoredResponseWithReplayHeader() throws Exception {
+        // Arrange
+        when(idempotencyService.execute(eq("check_in"), eq("gate-7-0001"), any(CheckInRequest.class), any()))
+                .thenReturn(new IdempotencyService.Outcome(transactionDto, true));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/parking/check-in")
+                        .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "gate-7-0001")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(checkInRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value(1));
+        verifyNoInteractions(parkingTransactionService);
+    }
+
     @Test
     void checkIn_WhenInvalidRequest_ShouldReturn400() throws Exception {
         // Arrange
@@ -142,4 +179,34 @@ class ParkingControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.licensePlate").value("ABC-123"));
     }
+
+    @Test
+    void startRerate_WhenValidRequest_ShouldReturn202() throws Exception {
+        // Arrange
+        RerateRequest request = RerateRequest.builder()
+                .checkOutFrom(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .checkOutTo(LocalDateTime.of(2024, 4, 1, 0, 0))
+                .build();
+        when(rerateService.startRerate(any(RerateRequest.class)))
+                .thenReturn(RerateJobDto.builder().id(7L).status("RUNNING").processed(0L).build());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/parking/billing/rerate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void startRerate_WhenRangeMissing_ShouldReturn400() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/parking/billing/rerate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(rerateService);
+    }
 }
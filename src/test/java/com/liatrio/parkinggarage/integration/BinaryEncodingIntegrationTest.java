@@ -0,0 +1,128 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.liatrio.parkinggarage.dto.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * CBOR and Smile request and response bodies selected by Content-Type and Accept
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class BinaryEncodingIntegrationTest {
+
+    private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final SmileMapper smileMapper = new SmileMapper();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FloorDto floor = create("/api/floors", FloorDto.builder().floorNumber(8401).name("Cbor Floor").build(), FloorDto.class);
+        BayDto bay = create("/api/bays", BayDto.builder().bayIdentifier("C").name("Cbor Bay").floorId(floor.getId()).build(),
+                BayDto.class);
+        SpotTypeDto spotType = create("/api/spot-types", SpotTypeDto.builder().name("CBOR").description("Cbor spot").build(),
+                SpotTypeDto.class);
+        create("/api/parking-spots", ParkingSpotDto.builder()
+                .spotIdentifier("CBOR-C-01").spotNumber("01").spotTypeId(spotType.getId()).bayId(bay.getId()).build(),
+                ParkingSpotDto.class);
+    }
+
+    @Test
+    void checkInAndCheckOut_WithCbor_ShouldReadAndWriteCbor() throws Exception {
+        // Act: check in with a CBOR body
+        byte[] checkIn = mockMvc.perform(post("/api/parking/check-in")
+                        .contentType(APPLICATION_CBOR)
+                        .accept(APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(Map.of("licensePlate", "CBOR-1", "spotIdentifier", "CBOR-C-01"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] checkOut = mockMvc.perform(post("/api/parking/check-out")
+                        .contentType(APPLICATION_CBOR)
+                        .accept(APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(Map.of("spotIdentifier", "CBOR-C-01"))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert: dates are arrays of numbers, not ISO strings
+        JsonNode checkedIn = cborMapper.readTree(checkIn);
+        assertEquals("CBOR-1", checkedIn.get("licensePlate").asText());
+        assertTrue(checkedIn.get("active").asBoolean());
+        assertTrue(checkedIn.get("checkInTime").isArray());
+        JsonNode checkedOut = cborMapper.readTree(checkOut);
+        assertFalse(checkedOut.get("active").asBoolean());
+        assertTrue(checkedOut.get("checkOutTime").isArray());
+        assertEquals(checkedIn.get("id").asLong(), checkedOut.get("id").asLong());
+    }
+
+    @Test
+    void getSpot_ShouldNegotiateByAcceptHeader() throws Exception {
+        // Act
+        byte[] cbor = mockMvc.perform(get("/api/parking-spots/identifier/CBOR-C-01").accept(APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        String json = mockMvc.perform(get("/api/parking-spots/identifier/CBOR-C-01"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+
+        byte[] smile = mockMvc.perform(get("/api/parking-spots/identifier/CBOR-C-01").accept(APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert: same content, fewer bytes
+        assertEquals(objectMapper.readTree(json), cborMapper.readTree(cbor));
+        assertEquals(objectMapper.readTree(json), smileMapper.readTree(smile));
+        assertTrue(cbor.length < json.getBytes().length);
+        assertTrue(smile.length < json.getBytes().length);
+    }
+
+    @Test
+    void errors_ShouldBeEncodedAsRequested() throws Exception {
+        byte[] error = mockMvc.perform(get("/api/parking-spots/identifier/NOPE").accept(APPLICATION_CBOR))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(404, cborMapper.readTree(error).get("status").asInt());
+    }
+
+    private <T> T create(String path, Object body, Class<T> type) throws Exception {
+        String response = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, type);
+    }
+}
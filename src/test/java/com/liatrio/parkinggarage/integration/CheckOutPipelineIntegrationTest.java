@@ -0,0 +1,193 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.*;
+import com.liatrio.parkinggarage.service.CheckOutListener;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Check-outs handed to a check-out listener after they commit, and replayed from the dead letters
+ * when the listener fails.
+ *
+ * Events are only published once the check-out commits, so requests run outside a test transaction
+ * and the data is removed after each test.
+ */
+@SpringBootTest(properties = {
+        "parking.checkout-pipeline.max-attempts=2",
+        "parking.checkout-pipeline.retry-backoff=10ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CheckOutPipelineIntegrationTest {
+
+    private static final int FLOOR_NUMBER = 8901;
+    private static final String SPOT = "PIPE-A-01";
+    private static final String PLATE = "PIPE-1";
+
+    @TestConfiguration
+    static class Listeners {
+
+        @Bean
+        RecordingListener receipts() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements CheckOutListener {
+
+        private final BlockingQueue<CheckOutEvent> events = new LinkedBlockingQueue<>();
+        private volatile boolean failing;
+
+        @Override
+        public String name() {
+            return "receipts";
+        }
+
+        @Override
+        public void onCheckOuts(List<CheckOutEvent> batch) {
+            if (failing) {
+                throw new IllegalStateException("Receipt printer offline");
+            }
+            events.addAll(batch);
+        }
+
+        CheckOutEvent nextEvent() throws InterruptedException {
+            CheckOutEvent event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "No check-out event within 5 s");
+            return event;
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GarageDirectory garageDirectory;
+
+    @Autowired
+    private RecordingListener receipts;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        receipts.events.clear();
+        receipts.failing = false;
+        Long spotTypeId = create("/api/spot-types", SpotTypeDto.builder().name("PIPE").build(), SpotTypeDto.class).getId();
+        Long floorId = create("/api/floors", FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Pipeline Floor").build(),
+                FloorDto.class).getId();
+        Long bayId = create("/api/bays", BayDto.builder().bayIdentifier("A").name("Pipeline Bay").floorId(floorId).build(),
+                BayDto.class).getId();
+        create("/api/parking-spots", ParkingSpotDto.builder()
+                .spotIdentifier(SPOT).spotNumber("01").spotTypeId(spotTypeId).bayId(bayId).build(), ParkingSpotDto.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM check_out_dead_letters WHERE listener = 'receipts'");
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", SPOT);
+        jdbcTemplate.update("DELETE FROM cars WHERE license_plate = ?", PLATE);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE spot_identifier = ?", SPOT);
+        jdbcTemplate.update("DELETE FROM bays WHERE floor_id IN (SELECT id FROM floors WHERE floor_number = ?)",
+                FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM floors WHERE floor_number = ?", FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE name = 'PIPE'");
+    }
+
+    @Test
+    void checkOut_ShouldReachTheListenerOnceCommitted() throws Exception {
+        // Act
+        ParkingTransactionDto checkedOut = checkInAndOut();
+
+        // Assert
+        CheckOutEvent event = receipts.nextEvent();
+        assertEquals(garageDirectory.defaultGarageId(), event.getGarageId());
+        assertEquals(checkedOut, event.getTransaction());
+        assertNotNull(event.getTransaction().getParkingFee());
+    }
+
+    @Test
+    void failingListener_ShouldLeaveDeadLettersThatCanBeReplayed() throws Exception {
+        // Arrange
+        receipts.failing = true;
+        ParkingTransactionDto checkedOut = checkInAndOut();
+        List<CheckOutDeadLetterDto> deadLetters = awaitDeadLetters();
+        assertEquals(1, deadLetters.size());
+        assertEquals(checkedOut.getId(), deadLetters.get(0).getTransactionId());
+        assertEquals(2, deadLetters.get(0).getAttempts());
+        assertTrue(deadLetters.get(0).getError().contains("Receipt printer offline"));
+        assertEquals(checkedOut, deadLetters.get(0).getEvent().getTransaction());
+        receipts.failing = false;
+
+        // Act
+        mockMvc.perform(post("/api/parking/dead-letters/replay").param("listener", "receipts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replayed").value(1));
+
+        // Assert
+        assertEquals(checkedOut.getId(), receipts.nextEvent().getTransaction().getId());
+        assertTrue(deadLetters().isEmpty());
+    }
+
+    private ParkingTransactionDto checkInAndOut() throws Exception {
+        create("/api/parking/check-in", CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build(),
+                ParkingTransactionDto.class);
+        String response = mockMvc.perform(post("/api/parking/check-out/license-plate/" + PLATE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, ParkingTransactionDto.class);
+    }
+
+    private List<CheckOutDeadLetterDto> awaitDeadLetters() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<CheckOutDeadLetterDto> deadLetters;
+        while ((deadLetters = deadLetters()).isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "No dead letters within 5 s");
+            Thread.sleep(20);
+        }
+        return deadLetters;
+    }
+
+    private List<CheckOutDeadLetterDto> deadLetters() throws Exception {
+        String body = mockMvc.perform(get("/api/parking/dead-letters").param("listener", "receipts"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, new TypeReference<>() {});
+    }
+
+    private <T> T create(String path, Object body, Class<T> type) throws Exception {
+        String response = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, type);
+    }
+}
@@ -0,0 +1,109 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.liatrio.parkinggarage.dto.*;
+import com.liatrio.parkinggarage.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * A floor deactivated while a check-in on one of its spots is in flight: the bulk deactivation bumps
+ * the spot's version, so the check-in that loaded the spot before it cannot commit.
+ *
+ * Both requests commit for real, so the test data is created and removed outside a test transaction.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class FloorDeactivationIntegrationTest {
+
+    private static final int FLOOR_NUMBER = 8902;
+    private static final String SPOT = "DEACT-A-01";
+    private static final String PLATE = "DEACT-1";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private ReservationRepository reservationRepository;
+
+    private Long floorId;
+
+    @BeforeEach
+    void setUp() {
+        SpotTypeDto spotType = create("/api/spot-types", SpotTypeDto.builder().name("DEACT").build(), SpotTypeDto.class);
+        floorId = create("/api/floors", FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Deactivation Floor").build(),
+                FloorDto.class).getId();
+        BayDto bay = create("/api/bays", BayDto.builder().bayIdentifier("A").name("Deactivation Bay").floorId(floorId)
+                .build(), BayDto.class);
+        create("/api/parking-spots", ParkingSpotDto.builder()
+                .spotIdentifier(SPOT).spotNumber("01").spotTypeId(spotType.getId()).bayId(bay.getId()).build(),
+                ParkingSpotDto.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", SPOT);
+        jdbcTemplate.update("DELETE FROM cars WHERE license_plate = ?", PLATE);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE spot_identifier = ?", SPOT);
+        jdbcTemplate.update("DELETE FROM bays WHERE floor_id = ?", floorId);
+        jdbcTemplate.update("DELETE FROM floors WHERE id = ?", floorId);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE name = 'DEACT'");
+    }
+
+    @Test
+    void checkIn_WhenFloorDeactivatedMeanwhile_ShouldConflict() throws Exception {
+        // Arrange: hold the check-in after it has loaded the spot until the floor is deactivated; the
+        // spy otherwise delegates to the repository
+        CountDownLatch spotLoaded = new CountDownLatch(1);
+        CountDownLatch floorDeactivated = new CountDownLatch(1);
+        Answer<?> repository = mockingDetails(reservationRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            spotLoaded.countDown();
+            assertTrue(floorDeactivated.await(10, TimeUnit.SECONDS));
+            return repository.answer(invocation);
+        }).when(reservationRepository).findHoldingAt(any(), any(), any());
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> checkIn = CompletableFuture.supplyAsync(() ->
+                restTemplate.postForEntity("/api/parking/check-in",
+                        CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build(), String.class));
+        assertTrue(spotLoaded.await(10, TimeUnit.SECONDS));
+        restTemplate.delete("/api/floors/" + floorId);
+        floorDeactivated.countDown();
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, checkIn.join().getStatusCode());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM parking_transactions WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", Integer.class, SPOT));
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT active FROM parking_spots WHERE spot_identifier = ?", Boolean.class, SPOT));
+    }
+
+    private <T> T create(String path, Object body, Class<T> type) {
+        ResponseEntity<T> response = restTemplate.postForEntity(path, body, type);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+}
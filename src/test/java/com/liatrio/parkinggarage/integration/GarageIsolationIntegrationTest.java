@@ -0,0 +1,142 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.*;
+import com.liatrio.parkinggarage.tenancy.GarageFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Two garages with the same floor number and spot identifier, routed by the X-Garage header.
+ *
+ * Requests run (and commit) outside a test transaction, so each request's session is scoped to
+ * its garage as in production. Garages cannot be deleted, so they are created once and reused;
+ * everything else is removed after each test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GarageIsolationIntegrationTest {
+
+    private static final String NORTH = "ISO-NORTH";
+    private static final String SOUTH = "ISO-SOUTH";
+    private static final int FLOOR_NUMBER = 7001;
+    private static final String SPOT = "ISO-A-01";
+    private static final String PLATE = "ISO-123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long spotTypeId;
+    private Long northFloorId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        createGarage(NORTH);
+        createGarage(SOUTH);
+        spotTypeId = objectMapper.readValue(postJson("/api/spot-types", null,
+                SpotTypeDto.builder().name("ISO-REGULAR").build()), SpotTypeDto.class).getId();
+        northFloorId = createSpot(NORTH);
+        createSpot(SOUTH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        String garageIds = "(SELECT id FROM garages WHERE code IN ('" + NORTH + "', '" + SOUTH + "'))";
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE garage_id IN " + garageIds);
+        jdbcTemplate.update("DELETE FROM cars WHERE license_plate = ?", PLATE);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE garage_id IN " + garageIds);
+        jdbcTemplate.update("DELETE FROM bays WHERE garage_id IN " + garageIds);
+        jdbcTemplate.update("DELETE FROM floors WHERE garage_id IN " + garageIds);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE id = ?", spotTypeId);
+    }
+
+    @Test
+    void garages_ShouldOnlySeeTheirOwnData() throws Exception {
+        // Act
+        postJson("/api/parking/check-in", NORTH,
+                CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build());
+
+        // Assert
+        mockMvc.perform(get("/api/parking-spots/identifier/" + SPOT).header(GarageFilter.GARAGE_HEADER, NORTH))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.occupied").value(true));
+        mockMvc.perform(get("/api/parking-spots/identifier/" + SPOT).header(GarageFilter.GARAGE_HEADER, SOUTH))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.occupied").value(false));
+        mockMvc.perform(get("/api/parking/transactions/active").header(GarageFilter.GARAGE_HEADER, SOUTH))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/floors/" + northFloorId).header(GarageFilter.GARAGE_HEADER, NORTH))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/floors/" + northFloorId).header(GarageFilter.GARAGE_HEADER, SOUTH))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void carParkedInOneGarage_ShouldNotCheckInToAnother() throws Exception {
+        // Arrange
+        postJson("/api/parking/check-in", NORTH,
+                CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/parking/check-in")
+                        .header(GarageFilter.GARAGE_HEADER, SOUTH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Car " + PLATE + " is already parked at spot " + SPOT));
+    }
+
+    @Test
+    void unknownGarage_ShouldReturnNotFound() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/floors").header(GarageFilter.GARAGE_HEADER, "ISO-NOWHERE"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Garage not found with code: 'ISO-NOWHERE'"));
+    }
+
+    private void createGarage(String code) throws Exception {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM garages WHERE code = ?", Integer.class, code);
+        if (existing == 0) {
+            postJson("/api/garages", null, GarageDto.builder().code(code).name(code).build());
+        }
+    }
+
+    private Long createSpot(String garage) throws Exception {
+        Long floorId = objectMapper.readValue(postJson("/api/floors", garage,
+                FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Isolation Floor").build()), FloorDto.class).getId();
+        Long bayId = objectMapper.readValue(postJson("/api/bays", garage,
+                BayDto.builder().bayIdentifier("A").name("Isolation Bay").floorId(floorId).build()), BayDto.class).getId();
+        postJson("/api/parking-spots", garage, ParkingSpotDto.builder()
+                .spotIdentifier(SPOT).spotNumber("01").spotTypeId(spotTypeId).bayId(bayId).build());
+        return floorId;
+    }
+
+    private String postJson(String url, String garage, Object body) throws Exception {
+        var request = post(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body));
+        if (garage != null) {
+            request.header(GarageFilter.GARAGE_HEADER, garage);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
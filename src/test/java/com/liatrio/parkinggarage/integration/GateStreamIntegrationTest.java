@@ -0,0 +1,208 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.liatrio.parkinggarage.dto.*;
+import com.liatrio.parkinggarage.gate.GateStreamHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Check-in and check-out commands pipelined over the gate stream WebSocket.
+ *
+ * Commands run on the server's WebSocket threads and commit there, so the test data is created
+ * and removed outside a test transaction.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class GateStreamIntegrationTest {
+
+    private static final int FLOOR_NUMBER = 8601;
+    private static final String SPOT = "GATE-A-01";
+    private static final String PLATE = "GATE-1";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final BlockingQueue<JsonNode> acks = new LinkedBlockingQueue<>();
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SpotTypeDto spotType = create("/api/spot-types", SpotTypeDto.builder().name("GATE").build(), SpotTypeDto.class);
+        FloorDto floor = create("/api/floors", FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Gate Floor").build(),
+                FloorDto.class);
+        BayDto bay = create("/api/bays", BayDto.builder().bayIdentifier("A").name("Gate Bay").floorId(floor.getId()).build(),
+                BayDto.class);
+        create("/api/parking-spots", ParkingSpotDto.builder()
+                .spotIdentifier(SPOT).spotNumber("01").spotTypeId(spotType.getId()).bayId(bay.getId()).build(),
+                ParkingSpotDto.class);
+
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.setSecWebSocketProtocol(GateStreamHandler.SUB_PROTOCOL);
+        session = new StandardWebSocketClient().execute(new AbstractWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+                acks.add(objectMapper.readTree(message.getPayload()));
+            }
+
+            @Override
+            protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+                byte[] payload = new byte[message.getPayloadLength()];
+                message.getPayload().get(payload);
+                acks.add(cborMapper.readTree(payload));
+            }
+        }, headers, URI.create("ws://localhost:" + port + GateStreamHandler.PATH)).get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        session.close();
+        jdbcTemplate.update("DELETE FROM idempotency_records WHERE idempotency_key LIKE 'gate-%'");
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", SPOT);
+        jdbcTemplate.update("DELETE FROM cars WHERE license_plate = ?", PLATE);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE spot_identifier = ?", SPOT);
+        jdbcTemplate.update("DELETE FROM bays WHERE floor_id IN (SELECT id FROM floors WHERE floor_number = ?)",
+                FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM floors WHERE floor_number = ?", FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE name = 'GATE'");
+    }
+
+    @Test
+    void pipelinedCommands_ShouldBeAcknowledgedInOrder() throws Exception {
+        // Act: send everything before reading any ack
+        assertEquals(GateStreamHandler.SUB_PROTOCOL, session.getAcceptedProtocol());
+        sendJson(checkIn(1L, null));
+        sendJson(checkIn(2L, null));
+        sendJson(GateCommand.builder().id(3L).type(GateCommand.Type.CHECK_OUT)
+                .checkOut(CheckOutRequest.builder().spotIdentifier(SPOT).build()).build());
+        sendJson(GateCommand.builder().id(4L).type(GateCommand.Type.CHECK_OUT_BY_PLATE).licensePlate(PLATE).build());
+
+        // Assert
+        JsonNode checkedIn = nextAck();
+        assertEquals(1, checkedIn.get("id").asLong());
+        assertEquals(HttpStatus.CREATED.value(), checkedIn.get("status").asInt());
+        assertEquals(PLATE, checkedIn.get("transaction").get("licensePlate").asText());
+
+        JsonNode occupied = nextAck();
+        assertEquals(2, occupied.get("id").asLong());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), occupied.get("status").asInt());
+        assertNotNull(occupied.get("error").get("message"));
+
+        JsonNode checkedOut = nextAck();
+        assertEquals(3, checkedOut.get("id").asLong());
+        assertEquals(HttpStatus.OK.value(), checkedOut.get("status").asInt());
+        assertEquals(checkedIn.get("transaction").get("id").asLong(), checkedOut.get("transaction").get("id").asLong());
+        assertFalse(checkedOut.get("transaction").get("active").asBoolean());
+
+        JsonNode notParked = nextAck();
+        assertEquals(4, notParked.get("id").asLong());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), notParked.get("status").asInt());
+    }
+
+    @Test
+    void invalidCommands_ShouldBeRejectedWithoutClosingTheStream() throws Exception {
+        // Act
+        session.sendMessage(new TextMessage("{not json"));
+        sendJson(GateCommand.builder().id(6L).type(GateCommand.Type.CHECK_IN)
+                .checkIn(CheckInRequest.builder().licensePlate("lower case").build()).build());
+        sendJson(checkIn(7L, null));
+
+        // Assert
+        JsonNode malformed = nextAck();
+        assertFalse(malformed.has("id"));
+        assertEquals(400, malformed.get("status").asInt());
+        JsonNode invalid = nextAck();
+        assertEquals(6, invalid.get("id").asLong());
+        assertEquals(400, invalid.get("status").asInt());
+        assertEquals(2, invalid.get("error").get("details").size());
+        assertEquals(201, nextAck().get("status").asInt());
+        assertTrue(session.isOpen());
+    }
+
+    @Test
+    void repeatedIdempotencyKey_ShouldReplayTheFirstAck() throws Exception {
+        // Act
+        sendJson(checkIn(1L, "gate-key-1"));
+        sendJson(checkIn(2L, "gate-key-1"));
+
+        // Assert
+        JsonNode first = nextAck();
+        JsonNode replay = nextAck();
+        assertFalse(first.get("replayed").asBoolean());
+        assertTrue(replay.get("replayed").asBoolean());
+        assertEquals(201, replay.get("status").asInt());
+        assertEquals(first.get("transaction").get("id").asLong(), replay.get("transaction").get("id").asLong());
+    }
+
+    @Test
+    void binaryFrames_ShouldBeReadAndAnsweredAsCbor() throws Exception {
+        // Act
+        session.sendMessage(new BinaryMessage(cborMapper.writeValueAsBytes(checkIn(9L, null))));
+
+        // Assert
+        JsonNode ack = nextAck();
+        assertEquals(9, ack.get("id").asLong());
+        assertEquals(201, ack.get("status").asInt());
+        assertTrue(ack.get("transaction").get("checkInTime").isArray());
+    }
+
+    private GateCommand checkIn(Long id, String idempotencyKey) {
+        return GateCommand.builder()
+                .id(id)
+                .type(GateCommand.Type.CHECK_IN)
+                .idempotencyKey(idempotencyKey)
+                .checkIn(CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build())
+                .build();
+    }
+
+    private void sendJson(GateCommand command) throws Exception {
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(command).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private JsonNode nextAck() throws InterruptedException {
+        JsonNode ack = acks.poll(10, TimeUnit.SECONDS);
+        assertNotNull(ack, "No ack within 10 s");
+        return ack;
+    }
+
+    private <T> T create(String path, Object body, Class<T> type) {
+        var response = restTemplate.postForEntity(path, body, type);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+}
@@ -15,7 +15,10 @@ import org.springframework.transaction.annotation.Transactional;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+/**
+ * Writes here never commit, so they never invalidate the response cache, which is turned off.
+ */
+@SpringBootTest(properties = "parking.response-cache.enabled=false")
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
 @Transactional
@@ -84,4 +87,78 @@ class ParkingIntegrationTest {
         mockMvc.perform(get("/api/parking-spots/identifier/TEST-A-01"))
                 .andExpect(status().isOk()).andExpect(jsonPath("$.occupied").value(false));
     }
+
+    @Test
+    void checkIn_WhenRetriedWithIdempotencyKey_ShouldReplayOriginalResponse() throws Exception {
+        // Create floor, bay, spot type and spot
+        FloorDto floor = objectMapper.readValue(mockMvc.perform(post("/api/floors")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(FloorDto.builder().floorNumber(2).name("Retry Floor").build())))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), FloorDto.class);
+        BayDto bay = objectMapper.readValue(mockMvc.perform(post("/api/bays")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BayDto.builder().bayIdentifier("R").name("Retry Bay").floorId(floor.getId()).build())))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), BayDto.class);
+        SpotTypeDto spotType = objectMapper.readValue(mockMvc.perform(post("/api/spot-types")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(SpotTypeDto.builder().name("RETRY").build())))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), SpotTypeDto.class);
+        mockMvc.perform(post("/api/parking-spots")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ParkingSpotDto.builder()
+                                .spotIdentifier("RETRY-R-01").spotNumber("01").spotTypeId(spotType.getId()).bayId(bay.getId()).build())))
+                .andExpect(status().isCreated());
+
+        // Check in, then retry with the same key
+        String checkIn = objectMapper.writeValueAsString(CheckInRequest.builder()
+                .licensePlate("RETRY-1").spotIdentifier("RETRY-R-01").build());
+        MvcResult first = mockMvc.perform(post("/api/parking/check-in")
+                        .header("Idempotency-Key", "gate-1-0001")
+                        .contentType(MediaType.APPLICATION_JSON).content(checkIn))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false")).andReturn();
+        Long transactionId = objectMapper.readValue(first.getResponse().getContentAsString(), ParkingTransactionDto.class).getId();
+
+        mockMvc.perform(post("/api/parking/check-in")
+                        .header("Idempotency-Key", "gate-1-0001")
+                        .contentType(MediaType.APPLICATION_JSON).content(checkIn))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(transactionId));
+
+        // Without the key the retry is a second check-in and is rejected
+        mockMvc.perform(post("/api/parking/check-in")
+                        .contentType(MediaType.APPLICATION_JSON).content(checkIn))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteFloor_ShouldRemoveItsSpotsFromAvailability() throws Exception {
+        // Create floor, bay, spot type and spot
+        FloorDto floor = objectMapper.readValue(mockMvc.perform(post("/api/floors")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(FloorDto.builder().floorNumber(3).name("Closed Floor").build())))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), FloorDto.class);
+        BayDto bay = objectMapper.readValue(mockMvc.perform(post("/api/bays")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BayDto.builder().bayIdentifier("C").name("Closed Bay").floorId(floor.getId()).build())))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), BayDto.class);
+        SpotTypeDto spotType = objectMapper.readValue(mockMvc.perform(post("/api/spot-types")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(SpotTypeDto.builder().name("CLOSED").build())))
+                .andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), SpotTypeDto.class);
+        mockMvc.perform(post("/api/parking-spots")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ParkingSpotDto.builder()
+                                .spotIdentifier("CLOSED-C-01").spotNumber("01").spotTypeId(spotType.getId()).bayId(bay.getId()).build())))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/parking-spots/available/floor/" + floor.getId()))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(1));
+
+        // Deleting the floor deactivates its bay and spot
+        mockMvc.perform(delete("/api/floors/" + floor.getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/parking-spots/available/floor/" + floor.getId()))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(0));
+    }
 }
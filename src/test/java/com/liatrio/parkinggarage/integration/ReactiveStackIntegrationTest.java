@@ -0,0 +1,263 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.*;
+import com.liatrio.parkinggarage.reactive.ReactiveServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Check-in, check-out and availability over the reactive stack, against the data and in-memory
+ * indexes of the servlet API: spots are set up over the servlet API and R2DBC shares its H2 database.
+ *
+ * R2DBC commits outside any test transaction, so the data is removed after each test.
+ */
+@SpringBootTest(properties = {
+        "parking.reactive.enabled=true",
+        "parking.reactive.port=0",
+        "parking.reactive.r2dbc-url=r2dbc:h2:mem:///testdb",
+        "parking.reactive.pool-size=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReactiveStackIntegrationTest {
+
+    private static final int FLOOR_NUMBER = 9101;
+    private static final String SPOT = "RX-A-01";
+    private static final String PLATE = "RX-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReactiveServer reactiveServer;
+
+    private WebTestClient client;
+    private Long floorId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveServer.getPort()).build();
+        Long spotTypeId = create("/api/spot-types", SpotTypeDto.builder().name("RX").build(), SpotTypeDto.class).getId();
+        floorId = create("/api/floors", FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Reactive Floor").build(),
+                FloorDto.class).getId();
+        Long bayId = create("/api/bays", BayDto.builder().bayIdentifier("A").name("Reactive Bay").floorId(floorId).build(),
+                BayDto.class).getId();
+        create("/api/parking-spots", ParkingSpotDto.builder()
+                .spotIdentifier(SPOT).spotNumber("01").spotTypeId(spotTypeId).bayId(bayId).build(), ParkingSpotDto.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM reservations WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", SPOT);
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", SPOT);
+        jdbcTemplate.update("DELETE FROM cars WHERE license_plate = ?", PLATE);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE spot_identifier = ?", SPOT);
+        jdbcTemplate.update("DELETE FROM bays WHERE floor_id IN (SELECT id FROM floors WHERE floor_number = ?)",
+                FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM floors WHERE floor_number = ?", FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE name = 'RX'");
+    }
+
+    @Test
+    void checkInAndOut_ShouldChangeWhatTheServletApiSees() throws Exception {
+        // Act
+        ParkingTransactionDto checkedIn = client.post().uri("/api/parking/check-in")
+                .bodyValue(CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).notes("gate 3").build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ParkingTransactionDto.class).returnResult().getResponseBody();
+
+        // Assert: the cached availability of the servlet API is dropped too
+        assertEquals(SPOT, checkedIn.getSpotIdentifier());
+        assertEquals(FLOOR_NUMBER, checkedIn.getFloorNumber());
+        assertTrue(checkedIn.getActive());
+        assertTrue(servletAvailableSpots().isEmpty());
+        mockMvc.perform(get("/api/parking/transactions/active"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.licensePlate == '" + PLATE + "')].id").value(checkedIn.getId().intValue()));
+
+        // Act
+        ParkingTransactionDto checkedOut = client.post().uri("/api/parking/check-out")
+                .bodyValue(CheckOutRequest.builder().spotIdentifier(SPOT).notes("paid").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParkingTransactionDto.class).returnResult().getResponseBody();
+
+        // Assert
+        assertEquals(checkedIn.getId(), checkedOut.getId());
+        assertFalse(checkedOut.getActive());
+        assertEquals(0.0, checkedOut.getParkingFee());
+        assertEquals("gate 3 | paid", checkedOut.getNotes());
+        assertEquals(1, servletAvailableSpots().size());
+    }
+
+    @Test
+    void availableSpots_ShouldMatchTheServletApi() throws Exception {
+        // Act
+        List<ParkingSpotDto> reactive = client.get().uri("/api/parking-spots/available/floor/{floorId}", floorId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParkingSpotDto.class).returnResult().getResponseBody();
+
+        // Assert
+        assertEquals(servletAvailableSpots(), reactive);
+        assertTrue(client.get().uri("/api/parking-spots/available")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ParkingSpotDto.class).returnResult().getResponseBody()
+                .stream().anyMatch(spot -> spot.getSpotIdentifier().equals(SPOT)));
+    }
+
+    @Test
+    void checkIn_WhenSpotOccupied_ShouldBeRejected() throws Exception {
+        // Arrange
+        create("/api/parking/check-in", CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build(),
+                ParkingTransactionDto.class);
+
+        // Act & Assert
+        client.post().uri("/api/parking/check-in")
+                .bodyValue(CheckInRequest.builder().licensePlate("RX-2").spotIdentifier(SPOT).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Parking spot " + SPOT + " is already occupied")
+                .jsonPath("$.path").isEqualTo("/api/parking/check-in");
+    }
+
+    @Test
+    void checkIn_WhenReservedForAnotherCar_ShouldBeRejected() {
+        // Arrange: booked through another instance, so this instance's reservation index never saw it
+        insertReservation("RX-OTHER");
+
+        // Act & Assert
+        client.post().uri("/api/parking/check-in")
+                .bodyValue(CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Parking spot " + SPOT + " is reserved");
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM parking_transactions WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", Integer.class, SPOT));
+    }
+
+    @Test
+    void checkIn_WhenReservedForThisCar_ShouldFulfillTheReservation() {
+        // Arrange
+        long reservationId = insertReservation(PLATE);
+
+        // Act
+        client.post().uri("/api/parking/check-in")
+                .bodyValue(CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build())
+                .exchange()
+                .expectStatus().isCreated();
+
+        // Assert
+        assertEquals("FULFILLED", jdbcTemplate.queryForObject("SELECT status FROM reservations WHERE id = ?",
+                String.class, reservationId));
+    }
+
+    @Test
+    void checkOutByLicensePlate_ShouldCloseTheServletApisSession() throws Exception {
+        // Arrange
+        ParkingTransactionDto checkedIn = create("/api/parking/check-in",
+                CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build(), ParkingTransactionDto.class);
+
+        // Act
+        ParkingTransactionDto checkedOut = client.post().uri("/api/parking/check-out/license-plate/{plate}", PLATE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParkingTransactionDto.class).returnResult().getResponseBody();
+
+        // Assert
+        assertEquals(checkedIn.getId(), checkedOut.getId());
+        assertNotNull(checkedOut.getCheckOutTime());
+        client.post().uri("/api/parking/check-out/license-plate/{plate}", PLATE)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Car " + PLATE + " is not currently parked");
+        client.post().uri("/api/parking/check-out/license-plate/{plate}", "RX-UNKNOWN")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void invalidRequests_ShouldGetTheServletApisErrors() {
+        client.post().uri("/api/parking/check-in")
+                .bodyValue(Map.of("licensePlate", "lower case"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Validation failed")
+                .jsonPath("$.details.length()").isEqualTo(2);
+        client.post().uri("/api/parking/check-out")
+                .bodyValue(CheckOutRequest.builder().spotIdentifier("RX-NONE").build())
+                .exchange()
+                .expectStatus().isNotFound();
+        client.get().uri("/api/parking-spots/available")
+                .header("X-Garage", "NOWHERE")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Garage not found with code: 'NOWHERE'");
+        client.post().uri("/api/parking/check-out")
+                .header("Idempotency-Key", "retry-1")
+                .bodyValue(CheckOutRequest.builder().spotIdentifier(SPOT).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * A reservation of the spot starting in five minutes, inside the arrival window
+     */
+    private long insertReservation(String licensePlate) {
+        LocalDateTime start = LocalDateTime.now().plusMinutes(5);
+        jdbcTemplate.update("""
+                INSERT INTO reservations (garage_id, parking_spot_id, license_plate, start_time, end_time, status, created_at)
+                SELECT garage_id, id, ?, ?, ?, 'BOOKED', ? FROM parking_spots WHERE spot_identifier = ?
+                """, licensePlate, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(2)),
+                Timestamp.valueOf(LocalDateTime.now()), SPOT);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM reservations", Long.class);
+    }
+
+    private List<ParkingSpotDto> servletAvailableSpots() throws Exception {
+        String body = mockMvc.perform(get("/api/parking-spots/available/floor/" + floorId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, new TypeReference<>() {});
+    }
+
+    private <T> T create(String path, Object body, Class<T> type) throws Exception {
+        String response = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, type);
+    }
+}
@@ -0,0 +1,215 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.RerateJobDto;
+import com.liatrio.parkinggarage.dto.RerateRequest;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Fee rerating through /api/parking/billing/rerate.
+ *
+ * Jobs run on a background thread and commit chunk by chunk, so the transactions are inserted and
+ * committed outside a test transaction and removed after each test. The test profile rates two
+ * transactions per chunk, so every job spans several chunks.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RerateIntegrationTest {
+
+    private static final int FLOOR_NUMBER = 8201;
+    private static final String PLATE = "RERATE-1";
+    private static final LocalDateTime FROM = LocalDateTime.of(2020, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2020, 4, 1, 0, 0);
+    private static final double WRONG_FEE = 999.0;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GarageDirectory garageDirectory;
+
+    private long garageId;
+    private long spotId;
+    private long carId;
+
+    @BeforeEach
+    void setUp() {
+        garageId = garageDirectory.defaultGarageId();
+        jdbcTemplate.update("INSERT INTO spot_types (name, description, active) VALUES ('RERATE', 'Rerate spot', true)");
+        long spotTypeId = jdbcTemplate.queryForObject("SELECT id FROM spot_types WHERE name = 'RERATE'", Long.class);
+        jdbcTemplate.update("INSERT INTO floors (garage_id, floor_number, name, active) VALUES (?, ?, 'Rerate', true)",
+                garageId, FLOOR_NUMBER);
+        long floorId = jdbcTemplate.queryForObject("SELECT id FROM floors WHERE floor_number = ?", Long.class, FLOOR_NUMBER);
+        jdbcTemplate.update("INSERT INTO bays (garage_id, bay_identifier, name, floor_id, active) VALUES (?, 'R', 'Rerate', ?, true)",
+                garageId, floorId);
+        long bayId = jdbcTemplate.queryForObject("SELECT id FROM bays WHERE floor_id = ?", Long.class, floorId);
+        jdbcTemplate.update("""
+                INSERT INTO parking_spots (garage_id, spot_identifier, spot_number, spot_type_id, bay_id, active, version)
+                VALUES (?, 'RERATE-R-01', '01', ?, ?, true, 0)
+                """, garageId, spotTypeId, bayId);
+        spotId = jdbcTemplate.queryForObject("SELECT id FROM parking_spots WHERE spot_identifier = 'RERATE-R-01'", Long.class);
+        jdbcTemplate.update("INSERT INTO cars (license_plate) VALUES (?)", PLATE);
+        carId = jdbcTemplate.queryForObject("SELECT id FROM cars WHERE license_plate = ?", Long.class, PLATE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM rerate_jobs WHERE check_out_from = ?", Timestamp.valueOf(FROM));
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE car_id = ?", carId);
+        jdbcTemplate.update("DELETE FROM cars WHERE id = ?", carId);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE id = ?", spotId);
+        jdbcTemplate.update("DELETE FROM bays WHERE bay_identifier = 'R' AND name = 'Rerate'");
+        jdbcTemplate.update("DELETE FROM floors WHERE floor_number = ?", FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE name = 'RERATE'");
+    }
+
+    @Test
+    void rerate_ShouldRecomputeFeesOfTransactionsCheckedOutInRange() throws Exception {
+        // Arrange: five mis-rated sessions of 1-5 hours, one rated correctly, one outside the range, one open
+        List<Long> misRated = new ArrayList<>();
+        for (int hours = 1; hours <= 5; hours++) {
+            misRated.add(insertTransaction(FROM.plusDays(hours), hours, WRONG_FEE));
+        }
+        long correct = insertTransaction(FROM.plusDays(10), 2, 10.0);
+        long outside = insertTransaction(TO.plusDays(1), 2, WRONG_FEE);
+        long open = insertTransaction(FROM.plusDays(11), null, null);
+
+        // Act
+        String response = mockMvc.perform(post("/api/parking/billing/rerate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(RerateRequest.builder()
+                                .checkOutFrom(FROM).checkOutTo(TO).build())))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        RerateJobDto job = awaitJob(objectMapper.readValue(response, RerateJobDto.class).getId());
+
+        // Assert
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(6, job.getProcessed());
+        assertEquals(5, job.getChanged());
+        assertEquals(correct, job.getLastTransactionId());
+        for (int hours = 1; hours <= 5; hours++) {
+            assertEquals(hours * 5.0, fee(misRated.get(hours - 1)));
+        }
+        assertEquals(10.0, fee(correct));
+        assertEquals(WRONG_FEE, fee(outside));
+        assertNull(fee(open));
+    }
+
+    @Test
+    void rerate_ShouldWalkTransactionsInCheckOutOrder() throws Exception {
+        // Arrange: sessions recorded out of check-out order, as imported history or late check-outs are
+        List<Long> ids = new ArrayList<>();
+        for (int hours = 5; hours >= 1; hours--) {
+            ids.add(insertTransaction(FROM.plusDays(hours), hours, WRONG_FEE));
+        }
+
+        // Act
+        String response = mockMvc.perform(post("/api/parking/billing/rerate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(RerateRequest.builder()
+                                .checkOutFrom(FROM).checkOutTo(TO).build())))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        RerateJobDto job = awaitJob(objectMapper.readValue(response, RerateJobDto.class).getId());
+
+        // Assert
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(5, job.getProcessed());
+        assertEquals(5, job.getChanged());
+        assertEquals(FROM.plusDays(5), job.getLastCheckOutTime());
+        assertEquals(ids.get(0), job.getLastTransactionId());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals((5 - i) * 5.0, fee(ids.get(i)));
+        }
+    }
+
+    @Test
+    void resume_ShouldContinueAfterLastCommittedTransaction() throws Exception {
+        // Arrange: a job that failed after rating the first two transactions
+        List<Long> ids = new ArrayList<>();
+        for (int hours = 1; hours <= 4; hours++) {
+            ids.add(insertTransaction(FROM.plusDays(hours), hours, WRONG_FEE));
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("""
+                INSERT INTO rerate_jobs (garage_id, check_out_from, check_out_to, status, last_check_out_time,
+                                         last_transaction_id, processed, changed, error, created_at, updated_at)
+                VALUES (?, ?, ?, 'FAILED', ?, ?, 2, 2, 'Connection reset', ?, ?)
+                """, garageId, Timestamp.valueOf(FROM), Timestamp.valueOf(TO), Timestamp.valueOf(FROM.plusDays(2)),
+                ids.get(1), now, now);
+        long jobId = jdbcTemplate.queryForObject("SELECT id FROM rerate_jobs WHERE check_out_from = ?",
+                Long.class, Timestamp.valueOf(FROM));
+
+        // Act
+        mockMvc.perform(post("/api/parking/billing/rerate/" + jobId + "/resume"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.error").doesNotExist());
+        RerateJobDto job = awaitJob(jobId);
+
+        // Assert
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(4, job.getProcessed());
+        assertEquals(WRONG_FEE, fee(ids.get(0)));
+        assertEquals(WRONG_FEE, fee(ids.get(1)));
+        assertEquals(15.0, fee(ids.get(2)));
+        assertEquals(20.0, fee(ids.get(3)));
+        mockMvc.perform(post("/api/parking/billing/rerate/" + jobId + "/resume"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long insertTransaction(LocalDateTime checkOutTime, Integer hours, Double fee) {
+        LocalDateTime checkInTime = hours == null ? checkOutTime : checkOutTime.minusHours(hours);
+        jdbcTemplate.update("""
+                INSERT INTO parking_transactions (garage_id, car_id, parking_spot_id, check_in_time, check_out_time, parking_fee)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, garageId, carId, spotId, Timestamp.valueOf(checkInTime),
+                hours == null ? null : Timestamp.valueOf(checkOutTime), fee);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM parking_transactions", Long.class);
+    }
+
+    private Double fee(long transactionId) {
+        return jdbcTemplate.queryForObject("SELECT parking_fee FROM parking_transactions WHERE id = ?",
+                Double.class, transactionId);
+    }
+
+    private RerateJobDto awaitJob(long jobId) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            RerateJobDto job = objectMapper.readValue(mockMvc.perform(get("/api/parking/billing/rerate/" + jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), RerateJobDto.class);
+            if (!"RUNNING".equals(job.getStatus()) || System.currentTimeMillis() > deadline) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.liatrio.parkinggarage.dto.*;
+import com.liatrio.parkinggarage.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Two bookings of the same window on the same spot, racing past the overlap check before either
+ * commits: the spot's version lock lets exactly one of them commit.
+ *
+ * Bookings commit for real, so the test data is created and removed outside a test transaction.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ReservationConcurrencyIntegrationTest {
+
+    private static final int FLOOR_NUMBER = 8901;
+    private static final String SPOT = "RACE-A-01";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private ReservationRepository reservationRepository;
+
+    @BeforeEach
+    void setUp() {
+        SpotTypeDto spotType = create("/api/spot-types", SpotTypeDto.builder().name("RACE").build(), SpotTypeDto.class);
+        Long floorId = create("/api/floors", FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Race Floor").build(),
+                FloorDto.class).getId();
+        BayDto bay = create("/api/bays", BayDto.builder().bayIdentifier("A").name("Race Bay").floorId(floorId).build(),
+                BayDto.class);
+        create("/api/parking-spots", ParkingSpotDto.builder()
+                .spotIdentifier(SPOT).spotNumber("01").spotTypeId(spotType.getId()).bayId(bay.getId()).build(),
+                ParkingSpotDto.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM reservations WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", SPOT);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE spot_identifier = ?", SPOT);
+        jdbcTemplate.update("DELETE FROM bays WHERE floor_id IN (SELECT id FROM floors WHERE floor_number = ?)",
+                FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM floors WHERE floor_number = ?", FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE name = 'RACE'");
+    }
+
+    @Test
+    void concurrentBookingsOfSameWindow_ShouldLetExactlyOneCommit() {
+        // Arrange: hold both bookings at the overlap check until the other has reached it too; the
+        // spy otherwise delegates to the repository
+        CyclicBarrier bothChecking = new CyclicBarrier(2);
+        Answer<?> repository = mockingDetails(reservationRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            bothChecking.await(10, TimeUnit.SECONDS);
+            return repository.answer(invocation);
+        }).when(reservationRepository).existsOverlapping(any(), any(), any());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() -> book("RACE-1", start));
+        CompletableFuture<ResponseEntity<String>> second = CompletableFuture.supplyAsync(() -> book("RACE-2", start));
+        List<HttpStatus> statuses = List.of(first.join(), second.join()).stream()
+                .map(response -> HttpStatus.valueOf(response.getStatusCode().value()))
+                .toList();
+
+        // Assert
+        assertTrue(statuses.contains(HttpStatus.CREATED), () -> "Statuses: " + statuses);
+        assertTrue(statuses.contains(HttpStatus.CONFLICT), () -> "Statuses: " + statuses);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservations WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", Integer.class, SPOT));
+    }
+
+    private ResponseEntity<String> book(String licensePlate, LocalDateTime start) {
+        return restTemplate.postForEntity("/api/reservations", ReservationRequest.builder()
+                .licensePlate(licensePlate)
+                .spotIdentifier(SPOT)
+                .startTime(start)
+                .endTime(start.plusHours(2))
+                .build(), String.class);
+    }
+
+    private <T> T create(String path, Object body, Class<T> type) {
+        ResponseEntity<T> response = restTemplate.postForEntity(path, body, type);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+}
@@ -0,0 +1,219 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.cache.ResponseCache;
+import com.liatrio.parkinggarage.dto.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Cached responses of the floor, spot type and available spot endpoints.
+ *
+ * The cache is invalidated when writes commit, so requests run (and commit) outside a test
+ * transaction and the data is removed after each test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResponseCacheIntegrationTest {
+
+    private static final int FLOOR_NUMBER = 8501;
+    private static final String SPOT = "CACHE-A-01";
+    private static final String PLATE = "CACHE-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long floorId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Long spotTypeId = create("/api/spot-types", SpotTypeDto.builder().name("CACHE-REGULAR")
+                .description("A regular spot, cached along with every other spot type of the garage").build(),
+                SpotTypeDto.class).getId();
+        create("/api/spot-types", SpotTypeDto.builder().name("CACHE-COMPACT")
+                .description("A compact spot, cached along with every other spot type of the garage").build(),
+                SpotTypeDto.class);
+        floorId = create("/api/floors", FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Cache Floor").build(),
+                FloorDto.class).getId();
+        Long bayId = create("/api/bays", BayDto.builder().bayIdentifier("A").name("Cache Bay").floorId(floorId).build(),
+                BayDto.class).getId();
+        create("/api/parking-spots", ParkingSpotDto.builder()
+                .spotIdentifier(SPOT).spotNumber("01").spotTypeId(spotTypeId).bayId(bayId).build(), ParkingSpotDto.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(responseCache, "clock", Clock.systemDefaultZone());
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", SPOT);
+        jdbcTemplate.update("DELETE FROM cars WHERE license_plate = ?", PLATE);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE spot_identifier = ?", SPOT);
+        jdbcTemplate.update("DELETE FROM bays WHERE floor_id = ?", floorId);
+        jdbcTemplate.update("DELETE FROM floors WHERE id = ?", floorId);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE name LIKE 'CACHE-%'");
+        responseCache.clear();
+    }
+
+    @Test
+    void repeatedRead_ShouldBeServedFromCacheUntilTopologyChanges() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/floors/" + floorId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Cache Floor"));
+        double hits = hits();
+
+        // Act: a change the application does not see is not picked up
+        jdbcTemplate.update("UPDATE floors SET name = 'Behind the cache' WHERE id = ?", floorId);
+        mockMvc.perform(get("/api/floors/" + floorId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andExpect(jsonPath("$.name").value("Cache Floor"));
+
+        // Assert: one made through the API is
+        mockMvc.perform(put("/api/floors/" + floorId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Renamed Floor").build())))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/floors/" + floorId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed Floor"));
+        assertEquals(hits + 1, hits());
+    }
+
+    @Test
+    void availableSpots_ShouldFollowCheckInAndCheckOut() throws Exception {
+        // Arrange
+        String available = "/api/parking-spots/available/floor/" + floorId;
+        mockMvc.perform(get(available)).andExpect(jsonPath("$.length()").value(1));
+
+        // Act & Assert
+        create("/api/parking/check-in", CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build(),
+                ParkingTransactionDto.class);
+        mockMvc.perform(get(available)).andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(post("/api/parking/check-out")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CheckOutRequest.builder().spotIdentifier(SPOT).build())))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(available)).andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void availableSpots_ShouldExpireToPickUpWritesMadeElsewhere() throws Exception {
+        // Arrange: a check-in and a rename the application does not see, as made through another instance
+        String available = "/api/parking-spots/available/floor/" + floorId;
+        mockMvc.perform(get(available)).andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/floors/" + floorId)).andExpect(jsonPath("$.name").value("Cache Floor"));
+        jdbcTemplate.update("UPDATE floors SET name = 'Behind the cache' WHERE id = ?", floorId);
+        jdbcTemplate.update("INSERT INTO cars (license_plate) VALUES (?)", PLATE);
+        jdbcTemplate.update("""
+                INSERT INTO parking_transactions (garage_id, car_id, parking_spot_id, check_in_time)
+                SELECT ps.garage_id, c.id, ps.id, ? FROM parking_spots ps, cars c
+                WHERE ps.spot_identifier = ? AND c.license_plate = ?
+                """, Timestamp.valueOf(LocalDateTime.now()), SPOT, PLATE);
+        mockMvc.perform(get(available)).andExpect(jsonPath("$.length()").value(1));
+
+        // Act
+        ReflectionTestUtils.setField(responseCache, "clock",
+                Clock.offset(Clock.systemDefaultZone(), Duration.ofSeconds(6)));
+
+        // Assert: available spots have expired, floors have not
+        mockMvc.perform(get(available)).andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/floors/" + floorId)).andExpect(jsonPath("$.name").value("Cache Floor"));
+    }
+
+    @Test
+    void cachedResponse_ShouldBeGzippedForClientsThatAcceptIt() throws Exception {
+        // Arrange
+        byte[] json = mockMvc.perform(get("/api/spot-types").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Act
+        MvcResult gzipped = mockMvc.perform(get("/api/spot-types").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn();
+        byte[] identity = mockMvc.perform(get("/api/spot-types").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        byte[] compressed = gzipped.getResponse().getContentAsByteArray();
+        assertTrue(compressed.length < json.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+        assertArrayEquals(json, identity);
+    }
+
+    @Test
+    void responses_ShouldBeCachedPerAcceptHeaderAndOnlyWhenSuccessful() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/floors/" + floorId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        double hits = hits();
+
+        // Act
+        mockMvc.perform(get("/api/floors/" + floorId).accept("application/cbor"))
+                .andExpect(content().contentType("application/cbor"));
+        mockMvc.perform(get("/api/floors/" + floorId).accept("application/cbor"))
+                .andExpect(content().contentType("application/cbor"));
+        mockMvc.perform(get("/api/floors/0")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/floors/0")).andExpect(status().isNotFound());
+
+        // Assert: only the second CBOR request was a hit
+        assertEquals(hits + 1, hits());
+    }
+
+    private double hits() {
+        return meterRegistry.get("parking.response_cache.requests").tag("outcome", ResponseCache.HIT).counter().count();
+    }
+
+    private <T> T create(String path, Object body, Class<T> type) throws Exception {
+        String response = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, type);
+    }
+}
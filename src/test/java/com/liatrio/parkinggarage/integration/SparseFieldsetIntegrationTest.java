@@ -0,0 +1,182 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.*;
+import com.liatrio.parkinggarage.support.CapturedSql;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The fields parameter of the parking spot and transaction lists: the same values as the full DTOs,
+ * read by queries that only join the tables the requested fields come from.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.liatrio.parkinggarage.support.CapturedSql")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class SparseFieldsetIntegrationTest {
+
+    private static final String SPOT_FIELDS = "id,spotIdentifier,spotTypeName,floorNumber,occupied,currentTransactionId";
+    private static final String TRANSACTION_FIELDS = "id,licensePlate,spotIdentifier,floorNumber,checkOutTime,"
+            + "durationInHours,active";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Long floorId;
+    private Long carId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        floorId = create("/api/floors", FloorDto.builder().floorNumber(8701).name("Sparse Floor").build(),
+                FloorDto.class).getId();
+        Long bayId = create("/api/bays", BayDto.builder().bayIdentifier("A").name("Sparse Bay").floorId(floorId).build(),
+                BayDto.class).getId();
+        Long spotTypeId = create("/api/spot-types", SpotTypeDto.builder().name("SPARSE").build(), SpotTypeDto.class).getId();
+        for (int i = 1; i <= 3; i++) {
+            create("/api/parking-spots", ParkingSpotDto.builder().spotIdentifier("SPARSE-A-0" + i).spotNumber("0" + i)
+                    .spotTypeId(spotTypeId).bayId(bayId).build(), ParkingSpotDto.class);
+        }
+        carId = create("/api/parking/check-in", CheckInRequest.builder().licensePlate("SPARSE-1")
+                .spotIdentifier("SPARSE-A-01").build(), ParkingTransactionDto.class).getCarId();
+        create("/api/parking/check-in", CheckInRequest.builder().licensePlate("SPARSE-2")
+                .spotIdentifier("SPARSE-A-02").build(), ParkingTransactionDto.class);
+        mockMvc.perform(post("/api/parking/check-out/license-plate/SPARSE-2")).andExpect(status().isOk());
+
+        // Full lists then read the stored rows too (timestamps lose precision in the database)
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void spotFields_ShouldMatchTheFullSpots() throws Exception {
+        for (String list : List.of("/api/parking-spots", "/api/parking-spots/available", "/api/parking-spots/occupied",
+                "/api/parking-spots/available/floor/" + floorId)) {
+            List<Map<String, Object>> sparse = getList(list + "?fields=" + SPOT_FIELDS);
+
+            assertFalse(sparse.isEmpty(), list);
+            assertEquals(byId(project(getList(list), SPOT_FIELDS)), byId(sparse), list);
+        }
+    }
+
+    @Test
+    void transactionFields_ShouldMatchTheFullTransactions() throws Exception {
+        for (String list : List.of("/api/parking/transactions", "/api/parking/transactions/active",
+                "/api/parking/transactions/completed", "/api/parking/transactions/car/" + carId)) {
+            List<Map<String, Object>> sparse = getList(list + "?fields=" + TRANSACTION_FIELDS);
+
+            assertFalse(sparse.isEmpty(), list);
+            assertEquals(byId(project(getList(list), TRANSACTION_FIELDS)), byId(sparse), list);
+        }
+    }
+
+    @Test
+    void fields_ShouldBeReturnedInDtoOrderAndOnlyThose() throws Exception {
+        mockMvc.perform(get("/api/parking-spots/occupied").param("fields", "occupied, spotIdentifier"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"spotIdentifier\":\"SPARSE-A-01\",\"occupied\":true}]", true));
+    }
+
+    @Test
+    void spotColumns_ShouldBeReadWithoutJoins() throws Exception {
+        assertNoJoin("parking_spots", "/api/parking-spots?fields=id,spotIdentifier,spotTypeId,bayId,occupied");
+        assertJoins("parking_spots", "/api/parking-spots?fields=id,floorNumber", "bays", "floors");
+        assertJoins("parking_spots", "/api/parking-spots?fields=spotTypeName", "spot_types");
+    }
+
+    @Test
+    void transactionColumns_ShouldBeReadWithoutJoins() throws Exception {
+        assertNoJoin("parking_transactions",
+                "/api/parking/transactions/active?fields=id,carId,parkingSpotId,checkInTime,durationInHours");
+        assertJoins("parking_transactions", "/api/parking/transactions?fields=licensePlate", "cars");
+        assertJoins("parking_transactions", "/api/parking/transactions?fields=bayIdentifier", "parking_spots", "bays");
+    }
+
+    @Test
+    void unknownOrEmptyFields_ShouldBeRejected() throws Exception {
+        mockMvc.perform(get("/api/parking-spots").param("fields", "id,garageId"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(startsWith("Unknown field 'garageId'")));
+        mockMvc.perform(get("/api/parking/transactions").param("fields", " , "))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void assertNoJoin(String table, String url) throws Exception {
+        String sql = listQuery(table, url);
+        assertFalse(sql.contains(" join "), sql);
+    }
+
+    private void assertJoins(String table, String url, String... joined) throws Exception {
+        String sql = listQuery(table, url);
+        for (String other : joined) {
+            assertTrue(sql.contains("join " + other + " "), sql);
+        }
+    }
+
+    private String listQuery(String table, String url) throws Exception {
+        CapturedSql.clear();
+        getList(url);
+        List<String> queries = CapturedSql.statements().stream()
+                .map(String::toLowerCase)
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from " + table + " "))
+                .toList();
+        assertEquals(1, queries.size(), queries::toString);
+        return queries.get(0);
+    }
+
+    private List<Map<String, Object>> project(List<Map<String, Object>> rows, String fields) {
+        return rows.stream().map(row -> {
+            Map<String, Object> projected = new LinkedHashMap<>();
+            Arrays.stream(fields.split(",")).forEach(field -> projected.put(field, row.get(field)));
+            return projected;
+        }).toList();
+    }
+
+    private List<Map<String, Object>> getList(String url) throws Exception {
+        String body = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, new TypeReference<>() {});
+    }
+
+    private static List<Map<String, Object>> byId(List<Map<String, Object>> rows) {
+        return rows.stream().sorted(Comparator.comparing(row -> ((Number) row.get("id")).longValue())).toList();
+    }
+
+    private <T> T create(String path, Object body, Class<T> type) throws Exception {
+        String response = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, type);
+    }
+}
@@ -0,0 +1,173 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.liatrio.parkinggarage.dto.*;
+import com.liatrio.parkinggarage.service.SpotWaiters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Requests for the next available spot, answered from a real server's async request handling.
+ *
+ * Check-outs hand spots over after they commit, so the test data is created and removed outside a
+ * test transaction.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class SpotWaitIntegrationTest {
+
+    private static final int FLOOR_NUMBER = 8801;
+    private static final String SPOT = "WAIT-A-01";
+    private static final String PLATE = "WAIT-1";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SpotWaiters spotWaiters;
+
+    private Long floorId;
+
+    @BeforeEach
+    void setUp() {
+        SpotTypeDto spotType = create("/api/spot-types", SpotTypeDto.builder().name("WAIT").build(), SpotTypeDto.class);
+        floorId = create("/api/floors", FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Wait Floor").build(),
+                FloorDto.class).getId();
+        BayDto bay = create("/api/bays", BayDto.builder().bayIdentifier("A").name("Wait Bay").floorId(floorId).build(),
+                BayDto.class);
+        create("/api/parking-spots", ParkingSpotDto.builder()
+                .spotIdentifier(SPOT).spotNumber("01").spotTypeId(spotType.getId()).bayId(bay.getId()).build(),
+                ParkingSpotDto.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE spot_identifier = ?)", SPOT);
+        jdbcTemplate.update("DELETE FROM cars WHERE license_plate = ?", PLATE);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE spot_identifier = ?", SPOT);
+        jdbcTemplate.update("DELETE FROM bays WHERE floor_id IN (SELECT id FROM floors WHERE floor_number = ?)",
+                FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM floors WHERE floor_number = ?", FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE name = 'WAIT'");
+    }
+
+    @Test
+    void freeSpot_ShouldBeReturnedStraightAway() {
+        // Act
+        ResponseEntity<ParkingSpotDto> response = nextAvailable("PT10S");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(SPOT, response.getBody().getSpotIdentifier());
+    }
+
+    @Test
+    void waitingRequest_ShouldGetTheSpotWhenItsCarChecksOut() throws Exception {
+        // Arrange
+        checkIn();
+        CompletableFuture<ResponseEntity<ParkingSpotDto>> waiting =
+                CompletableFuture.supplyAsync(() -> nextAvailable("PT10S"));
+        awaitWaiters(1);
+
+        // Act
+        checkOut();
+
+        // Assert
+        ResponseEntity<ParkingSpotDto> response = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(SPOT, response.getBody().getSpotIdentifier());
+        assertEquals(0, spotWaiters.size());
+    }
+
+    @Test
+    void waitingRequests_ShouldBeWokenOnePerFreedSpot() throws Exception {
+        // Arrange
+        checkIn();
+        CompletableFuture<ResponseEntity<ParkingSpotDto>> first =
+                CompletableFuture.supplyAsync(() -> nextAvailable("PT10S"));
+        awaitWaiters(1);
+        CompletableFuture<ResponseEntity<ParkingSpotDto>> second =
+                CompletableFuture.supplyAsync(() -> nextAvailable("PT2S"));
+        awaitWaiters(2);
+
+        // Act
+        checkOut();
+
+        // Assert: the first in line gets the spot, the second times out
+        assertEquals(HttpStatus.OK, first.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(HttpStatus.NO_CONTENT, second.get(10, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    @Test
+    void waitingRequest_WhenNothingFreesUp_ShouldTimeOutWithNoContent() {
+        // Arrange
+        checkIn();
+
+        // Act
+        ResponseEntity<ParkingSpotDto> response = nextAvailable("PT0.2S");
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(0, spotWaiters.size());
+    }
+
+    @Test
+    void nonPositiveTimeout_ShouldBeRejected() {
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "/api/parking-spots/next-available?timeout=PT0S", String.class);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private ResponseEntity<ParkingSpotDto> nextAvailable(String timeout) {
+        return restTemplate.getForEntity("/api/parking-spots/next-available?floorId={floorId}&timeout={timeout}",
+                ParkingSpotDto.class, floorId, timeout);
+    }
+
+    private void awaitWaiters(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (spotWaiters.size() < count) {
+            assertTrue(System.nanoTime() < deadline, "Requests did not start waiting");
+            Thread.sleep(10);
+        }
+    }
+
+    private void checkIn() {
+        create("/api/parking/check-in", CheckInRequest.builder().licensePlate(PLATE).spotIdentifier(SPOT).build(),
+                ParkingTransactionDto.class);
+        assertTrue(restTemplate.getForObject("/api/parking-spots/available/floor/{floorId}", List.class, floorId)
+                .isEmpty());
+    }
+
+    private void checkOut() {
+        ResponseEntity<ParkingTransactionDto> response = restTemplate.postForEntity(
+                "/api/parking/check-out/license-plate/{plate}", null, ParkingTransactionDto.class, PLATE);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    private <T> T create(String path, Object body, Class<T> type) {
+        ResponseEntity<T> response = restTemplate.postForEntity(path, body, type);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode(), path);
+        return response.getBody();
+    }
+}
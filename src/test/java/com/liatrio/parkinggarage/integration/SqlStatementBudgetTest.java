@@ -0,0 +1,176 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.*;
+import com.liatrio.parkinggarage.support.SqlStatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * SQL statement budgets for the parking and parking spot endpoints.
+ *
+ * Each request runs (and commits) outside a test transaction so flushes are counted.
+ * List endpoints are measured with several rows so an N+1 query pushes them over budget.
+ * Data is created under a dedicated floor/spot type and removed after each test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlStatementBudgetTest {
+
+    private static final int FLOOR_NUMBER = 9001;
+    private static final String SPOT_TYPE = "BUDGET";
+    private static final String SPOT_PREFIX = "BUDGET-A-";
+    private static final String PLATE_PREFIX = "BUDGET-";
+    private static final int SPOTS = 6;
+    private static final int PARKED = 3;
+
+    // ParkingSpotController
+    private static final int CREATE_SPOT_BUDGET = 5;
+    private static final int GET_SPOT_BY_IDENTIFIER_BUDGET = 4;
+    private static final int LIST_SPOTS_BUDGET = 5;
+    private static final int LIST_SPOT_FIELDS_BUDGET = 1;
+
+    // ParkingController
+    // Includes the reservation check and the spot's version bump
+    private static final int CHECK_IN_BUDGET = 8;
+    private static final int CHECK_OUT_BUDGET = 6;
+    private static final int CHECK_OUT_BY_PLATE_BUDGET = 6;
+    private static final int LIST_TRANSACTIONS_BUDGET = 5;
+    private static final int LIST_TRANSACTION_FIELDS_BUDGET = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SqlStatementCounter counter;
+    private Long floorId;
+    private Long bayId;
+    private Long spotTypeId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        counter = new SqlStatementCounter(entityManagerFactory);
+
+        floorId = objectMapper.readValue(postJson("/api/floors",
+                FloorDto.builder().floorNumber(FLOOR_NUMBER).name("Budget Floor").build()), FloorDto.class).getId();
+        bayId = objectMapper.readValue(postJson("/api/bays",
+                BayDto.builder().bayIdentifier("A").name("Budget Bay").floorId(floorId).build()), BayDto.class).getId();
+        spotTypeId = objectMapper.readValue(postJson("/api/spot-types",
+                SpotTypeDto.builder().name(SPOT_TYPE).build()), SpotTypeDto.class).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE parking_spot_id IN "
+                + "(SELECT id FROM parking_spots WHERE bay_id = ?)", bayId);
+        jdbcTemplate.update("DELETE FROM cars WHERE license_plate LIKE ?", PLATE_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE bay_id = ?", bayId);
+        jdbcTemplate.update("DELETE FROM bays WHERE id = ?", bayId);
+        jdbcTemplate.update("DELETE FROM floors WHERE id = ?", floorId);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE id = ?", spotTypeId);
+    }
+
+    @Test
+    void parkingSpotEndpoints_ShouldStayWithinStatementBudget() throws Throwable {
+        for (int i = 1; i <= SPOTS; i++) {
+            ParkingSpotDto spotDto = ParkingSpotDto.builder()
+                    .spotIdentifier(SPOT_PREFIX + i).spotNumber(String.valueOf(i))
+                    .spotTypeId(spotTypeId).bayId(bayId).build();
+            counter.assertWithinBudget("POST /api/parking-spots", CREATE_SPOT_BUDGET, () ->
+                    mockMvc.perform(post("/api/parking-spots")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(spotDto)))
+                            .andExpect(status().isCreated()));
+        }
+        parkCars();
+
+        counter.assertWithinBudget("GET /api/parking-spots/identifier/{id}", GET_SPOT_BY_IDENTIFIER_BUDGET, () ->
+                mockMvc.perform(get("/api/parking-spots/identifier/" + SPOT_PREFIX + 1))
+                        .andExpect(status().isOk()).andExpect(jsonPath("$.occupied").value(true)));
+        counter.assertWithinBudget("GET /api/parking-spots", LIST_SPOTS_BUDGET, () ->
+                mockMvc.perform(get("/api/parking-spots")).andExpect(status().isOk()));
+        counter.assertWithinBudget("GET /api/parking-spots/available", LIST_SPOTS_BUDGET, () ->
+                mockMvc.perform(get("/api/parking-spots/available")).andExpect(status().isOk()));
+        counter.assertWithinBudget("GET /api/parking-spots/occupied", LIST_SPOTS_BUDGET, () ->
+                mockMvc.perform(get("/api/parking-spots/occupied")).andExpect(status().isOk()));
+        counter.assertWithinBudget("GET /api/parking-spots/available/floor/{id}", LIST_SPOTS_BUDGET, () ->
+                mockMvc.perform(get("/api/parking-spots/available/floor/" + floorId)).andExpect(status().isOk()));
+        counter.assertWithinBudget("GET /api/parking-spots?fields=...", LIST_SPOT_FIELDS_BUDGET, () ->
+                mockMvc.perform(get("/api/parking-spots").param("fields", "id,spotTypeName,floorNumber,occupied"))
+                        .andExpect(status().isOk()));
+    }
+
+    @Test
+    void parkingEndpoints_ShouldStayWithinStatementBudget() throws Throwable {
+        for (int i = 1; i <= SPOTS; i++) {
+            postJson("/api/parking-spots", ParkingSpotDto.builder()
+                    .spotIdentifier(SPOT_PREFIX + i).spotNumber(String.valueOf(i))
+                    .spotTypeId(spotTypeId).bayId(bayId).build());
+        }
+        parkCars();
+
+        counter.assertWithinBudget("GET /api/parking/transactions", LIST_TRANSACTIONS_BUDGET, () ->
+                mockMvc.perform(get("/api/parking/transactions")).andExpect(status().isOk()));
+        counter.assertWithinBudget("GET /api/parking/transactions/active", LIST_TRANSACTIONS_BUDGET, () ->
+                mockMvc.perform(get("/api/parking/transactions/active")).andExpect(status().isOk()));
+
+        CheckOutRequest checkOutRequest = CheckOutRequest.builder().spotIdentifier(SPOT_PREFIX + 1).build();
+        counter.assertWithinBudget("POST /api/parking/check-out", CHECK_OUT_BUDGET, () ->
+                mockMvc.perform(post("/api/parking/check-out")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(checkOutRequest)))
+                        .andExpect(status().isOk()));
+        counter.assertWithinBudget("POST /api/parking/check-out/license-plate/{plate}", CHECK_OUT_BY_PLATE_BUDGET, () ->
+                mockMvc.perform(post("/api/parking/check-out/license-plate/" + PLATE_PREFIX + 2))
+                        .andExpect(status().isOk()));
+
+        counter.assertWithinBudget("GET /api/parking/transactions/completed", LIST_TRANSACTIONS_BUDGET, () ->
+                mockMvc.perform(get("/api/parking/transactions/completed")).andExpect(status().isOk()));
+        counter.assertWithinBudget("GET /api/parking/transactions?fields=...", LIST_TRANSACTION_FIELDS_BUDGET, () ->
+                mockMvc.perform(get("/api/parking/transactions").param("fields", "id,licensePlate,floorNumber,active"))
+                        .andExpect(status().isOk()));
+    }
+
+    private void parkCars() throws Throwable {
+        for (int i = 1; i <= PARKED; i++) {
+            CheckInRequest checkInRequest = CheckInRequest.builder()
+                    .licensePlate(PLATE_PREFIX + i).spotIdentifier(SPOT_PREFIX + i).build();
+            counter.assertWithinBudget("POST /api/parking/check-in", CHECK_IN_BUDGET, () ->
+                    mockMvc.perform(post("/api/parking/check-in")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(objectMapper.writeValueAsString(checkInRequest)))
+                            .andExpect(status().isCreated()));
+        }
+    }
+
+    private String postJson(String url, Object body) throws Exception {
+        MvcResult result = mockMvc.perform(post(url)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,193 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.CheckInRequest;
+import com.liatrio.parkinggarage.dto.SpotTypeDto;
+import com.liatrio.parkinggarage.dto.TopologyImportResult;
+import com.liatrio.parkinggarage.dto.TopologyRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Topology imports through /api/topology/import.
+ *
+ * Imports run (and commit) outside a test transaction, like the gates and admin tools that send them,
+ * so imported spots are indexed on commit. Everything is created on dedicated floors and removed
+ * after each test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TopologyImportIntegrationTest {
+
+    private static final int FIRST_FLOOR = 8001;
+    private static final int FLOORS = 3;
+    private static final int BAYS_PER_FLOOR = 4;
+    private static final int SPOTS_PER_BAY = 250;
+    private static final String SPOT_TYPE = "TOPO";
+    private static final String PLATE = "TOPO-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long spotTypeId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        spotTypeId = objectMapper.readValue(mockMvc.perform(post("/api/spot-types")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(SpotTypeDto.builder().name(SPOT_TYPE).build())))
+                        .andExpect(status().isCreated())
+                        .andReturn().getResponse().getContentAsString(), SpotTypeDto.class).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        String floorIds = "(SELECT id FROM floors WHERE floor_number >= " + FIRST_FLOOR + " AND floor_number < "
+                + (FIRST_FLOOR + 100) + ")";
+        String spotIds = "(SELECT s.id FROM parking_spots s JOIN bays b ON b.id = s.bay_id WHERE b.floor_id IN " + floorIds + ")";
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE parking_spot_id IN " + spotIds);
+        jdbcTemplate.update("DELETE FROM cars WHERE license_plate = ?", PLATE);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE id IN " + spotIds);
+        jdbcTemplate.update("DELETE FROM bays WHERE floor_id IN " + floorIds);
+        jdbcTemplate.update("DELETE FROM floors WHERE id IN " + floorIds);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE id = ?", spotTypeId);
+    }
+
+    @Test
+    void importCsv_ShouldCreateTopologyAndReportRejectedRows() throws Exception {
+        // Arrange
+        StringBuilder csv = new StringBuilder("floor_number,floor_name,bay_identifier,bay_name,spot_identifier,spot_number,spot_type\n");
+        for (int f = 0; f < FLOORS; f++) {
+            int floorNumber = FIRST_FLOOR + f;
+            for (int b = 0; b < BAYS_PER_FLOOR; b++) {
+                char bay = (char) ('A' + b);
+                for (int s = 1; s <= SPOTS_PER_BAY; s++) {
+                    csv.append(floorNumber).append(",\"Level ").append(floorNumber).append("\",").append(bay)
+                            .append(",Bay ").append(bay).append(',').append(spotIdentifier(floorNumber, bay, s))
+                            .append(',').append(s).append(',').append(SPOT_TYPE.toLowerCase()).append('\n');
+                }
+            }
+        }
+        int spots = FLOORS * BAYS_PER_FLOOR * SPOTS_PER_BAY;
+        csv.append(FIRST_FLOOR).append(",,A,,TOPO-UNKNOWN,9001,MISSING\n");
+        csv.append(FIRST_FLOOR).append(",,A,,").append(spotIdentifier(FIRST_FLOOR, 'A', 1)).append(",9002,TOPO\n");
+        csv.append(FIRST_FLOOR).append(",,A,,TOPO-NO-NUMBER,,TOPO\n");
+        csv.append("eighty,,A,,TOPO-BAD-FLOOR,1,TOPO\n");
+
+        // Act
+        TopologyImportResult result = importCsv(csv.toString());
+
+        // Assert
+        assertEquals(spots + 4, result.getRows());
+        assertEquals(FLOORS, result.getFloorsCreated());
+        assertEquals(FLOORS * BAYS_PER_FLOOR, result.getBaysCreated());
+        assertEquals(spots, result.getSpotsCreated());
+        assertEquals(4, result.getErrorCount());
+        List<Integer> rejectedLines = result.getErrors().stream().map(TopologyImportResult.RowError::getRow).toList();
+        assertEquals(List.of(spots + 2, spots + 3, spots + 4, spots + 5), rejectedLines);
+        assertEquals("Spot type not found or inactive: MISSING", result.getErrors().get(0).getMessage());
+        assertEquals("Spot identifier already exists: " + spotIdentifier(FIRST_FLOOR, 'A', 1),
+                result.getErrors().get(1).getMessage());
+
+        String identifier = spotIdentifier(FIRST_FLOOR + 2, 'D', SPOTS_PER_BAY);
+        mockMvc.perform(get("/api/parking-spots/identifier/" + identifier))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.floorNumber").value(FIRST_FLOOR + 2))
+                .andExpect(jsonPath("$.spotTypeName").value(SPOT_TYPE));
+        mockMvc.perform(post("/api/parking/check-in")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CheckInRequest.builder()
+                                .licensePlate(PLATE).spotIdentifier(identifier).build())))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void importCsv_WhenImportedAgain_ShouldRejectExistingSpots() throws Exception {
+        // Arrange
+        String csv = "floorNumber,bayIdentifier,spotIdentifier,spotNumber,spotType\n"
+                + FIRST_FLOOR + ",A,TOPO-A-1,1,TOPO\n"
+                + FIRST_FLOOR + ",A,TOPO-A-2,2,TOPO\n";
+        importCsv(csv);
+
+        // Act
+        TopologyImportResult result = importCsv(csv + FIRST_FLOOR + ",A,TOPO-A-3,3,TOPO\n");
+
+        // Assert
+        assertEquals(0, result.getFloorsCreated());
+        assertEquals(0, result.getBaysCreated());
+        assertEquals(1, result.getSpotsCreated());
+        assertEquals(2, result.getErrorCount());
+        mockMvc.perform(get("/api/floors/" + jdbcTemplate.queryForObject(
+                        "SELECT id FROM floors WHERE floor_number = ?", Long.class, FIRST_FLOOR)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Floor " + FIRST_FLOOR));
+    }
+
+    @Test
+    void importJson_ShouldImportRowsAndReportUnreadableElements() throws Exception {
+        // Arrange
+        String json = objectMapper.writeValueAsString(List.of(
+                TopologyRow.builder().floorNumber(FIRST_FLOOR).bayIdentifier("J").spotIdentifier("TOPO-J-1")
+                        .spotNumber("1").spotType(SPOT_TYPE).build(),
+                TopologyRow.builder().floorNumber(FIRST_FLOOR).bayIdentifier("J").spotIdentifier("TOPO-J-2")
+                        .spotNumber("1").spotType(SPOT_TYPE).build()));
+        json = json.substring(0, json.length() - 1) + ",{\"floorNumber\":\"ground\"},42]";
+
+        // Act
+        String response = mockMvc.perform(post("/api/topology/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        TopologyImportResult result = objectMapper.readValue(response, TopologyImportResult.class);
+
+        // Assert
+        assertEquals(4, result.getRows());
+        assertEquals(1, result.getSpotsCreated());
+        assertEquals(List.of(2, 3, 4), result.getErrors().stream().map(TopologyImportResult.RowError::getRow).toList());
+        assertEquals("Spot number 1 already exists in bay J", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void importCsv_WhenHeaderMissesColumns_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/topology/import")
+                        .contentType("text/csv")
+                        .content("floor_number,spot_identifier\n1,X\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private TopologyImportResult importCsv(String csv) throws Exception {
+        String response = mockMvc.perform(post("/api/topology/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, TopologyImportResult.class);
+    }
+
+    private static String spotIdentifier(int floorNumber, char bay, int spot) {
+        return "TOPO-" + floorNumber + "-" + bay + "-" + spot;
+    }
+}
@@ -0,0 +1,213 @@
+package com.liatrio.parkinggarage.integration;
+
+import com.liatrio.parkinggarage.service.UsageCubeService;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Usage cube aggregation and /api/reports/usage.
+ *
+ * Aggregation runs in its own transactions, so the sessions are inserted and committed outside a test
+ * transaction and removed, with the garage's cube and watermark, after each test. The test profile
+ * aggregates without lag and leaves the schedule to the tests.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UsageCubeIntegrationTest {
+
+    private static final int FLOOR_NUMBER = 8301;
+    private static final String PLATE = "CUBE-1";
+    private static final LocalDate DAY = LocalDate.now().minusDays(1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsageCubeService usageCubeService;
+
+    @Autowired
+    private GarageDirectory garageDirectory;
+
+    private long garageId;
+    private long firstSpotId;
+    private long secondSpotId;
+    private long carId;
+
+    @BeforeEach
+    void setUp() {
+        garageId = garageDirectory.defaultGarageId();
+        jdbcTemplate.update("INSERT INTO spot_types (name, description, active) VALUES ('CUBE', 'Cube spot', true)");
+        long spotTypeId = jdbcTemplate.queryForObject("SELECT id FROM spot_types WHERE name = 'CUBE'", Long.class);
+        jdbcTemplate.update("INSERT INTO floors (garage_id, floor_number, name, active) VALUES (?, ?, 'Cube', true)",
+                garageId, FLOOR_NUMBER);
+        long floorId = jdbcTemplate.queryForObject("SELECT id FROM floors WHERE floor_number = ?", Long.class, FLOOR_NUMBER);
+        jdbcTemplate.update("INSERT INTO bays (garage_id, bay_identifier, name, floor_id, active) VALUES (?, 'Q', 'Cube', ?, true)",
+                garageId, floorId);
+        long bayId = jdbcTemplate.queryForObject("SELECT id FROM bays WHERE floor_id = ?", Long.class, floorId);
+        firstSpotId = insertSpot("CUBE-Q-01", spotTypeId, bayId);
+        secondSpotId = insertSpot("CUBE-Q-02", spotTypeId, bayId);
+        jdbcTemplate.update("INSERT INTO cars (license_plate) VALUES (?)", PLATE);
+        carId = jdbcTemplate.queryForObject("SELECT id FROM cars WHERE license_plate = ?", Long.class, PLATE);
+
+        // Two sessions arriving at 8 (2 hours and 1 hour), one at 17 (30 minutes), one still open
+        insertTransaction(firstSpotId, DAY.atTime(8, 10), DAY.atTime(10, 10), 10.0);
+        insertTransaction(secondSpotId, DAY.atTime(8, 30), DAY.atTime(9, 30), 5.0);
+        insertTransaction(firstSpotId, DAY.atTime(17, 0), DAY.atTime(17, 30), 2.0);
+        insertTransaction(secondSpotId, DAY.atTime(18, 0), null, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM usage_cube WHERE garage_id = ?", garageId);
+        jdbcTemplate.update("DELETE FROM usage_cube_watermarks WHERE garage_id = ?", garageId);
+        jdbcTemplate.update("DELETE FROM parking_transactions WHERE car_id = ?", carId);
+        jdbcTemplate.update("DELETE FROM cars WHERE id = ?", carId);
+        jdbcTemplate.update("DELETE FROM parking_spots WHERE id IN (?, ?)", firstSpotId, secondSpotId);
+        jdbcTemplate.update("DELETE FROM bays WHERE bay_identifier = 'Q' AND name = 'Cube'");
+        jdbcTemplate.update("DELETE FROM floors WHERE floor_number = ?", FLOOR_NUMBER);
+        jdbcTemplate.update("DELETE FROM spot_types WHERE name = 'CUBE'");
+    }
+
+    @Test
+    void getUsage_ShouldGroupAggregatedSessionsByHourOfDay() throws Exception {
+        // Arrange
+        usageCubeService.aggregate(garageId);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/reports/usage")
+                        .param("from", DAY.toString())
+                        .param("to", DAY.plusDays(1).toString())
+                        .param("groupBy", "hourOfDay,spotType")
+                        .param("spotType", "CUBE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groupBy[0]").value("hourOfDay"))
+                .andExpect(jsonPath("$.groupBy[1]").value("spotType"))
+                .andExpect(jsonPath("$.aggregatedUntil").exists())
+                .andExpect(jsonPath("$.rows.length()").value(2))
+                .andExpect(jsonPath("$.rows[0].hourOfDay").value(8))
+                .andExpect(jsonPath("$.rows[0].spotType").value("CUBE"))
+                .andExpect(jsonPath("$.rows[0].sessions").value(2))
+                .andExpect(jsonPath("$.rows[0].averageDwellMinutes").value(90.0))
+                .andExpect(jsonPath("$.rows[0].turnoverPerSpot").value(1.0))
+                .andExpect(jsonPath("$.rows[0].revenue").value(15.0))
+                .andExpect(jsonPath("$.rows[1].hourOfDay").value(17))
+                .andExpect(jsonPath("$.rows[1].sessions").value(1))
+                .andExpect(jsonPath("$.rows[1].turnoverPerSpot").value(0.5))
+                .andExpect(jsonPath("$.rows[0].floorNumber").doesNotExist());
+    }
+
+    @Test
+    void getUsage_ShouldGroupByWeekdayAndBay() throws Exception {
+        // Arrange
+        usageCubeService.aggregate(garageId);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/reports/usage")
+                        .param("from", DAY.toString())
+                        .param("to", DAY.plusDays(1).toString())
+                        .param("groupBy", "weekday", "bay")
+                        .param("floorNumber", String.valueOf(FLOOR_NUMBER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows.length()").value(1))
+                .andExpect(jsonPath("$.rows[0].weekday").value(DAY.getDayOfWeek().name()))
+                .andExpect(jsonPath("$.rows[0].floorNumber").value(FLOOR_NUMBER))
+                .andExpect(jsonPath("$.rows[0].bayIdentifier").value("Q"))
+                .andExpect(jsonPath("$.rows[0].sessions").value(3))
+                .andExpect(jsonPath("$.rows[0].averageDwellMinutes").value(70.0))
+                .andExpect(jsonPath("$.rows[0].turnoverPerSpot").value(1.5))
+                .andExpect(jsonPath("$.rows[0].revenue").value(17.0));
+    }
+
+    @Test
+    void aggregate_ShouldOnlyAddSessionsCheckedOutSinceWatermark() throws Exception {
+        // Arrange
+        usageCubeService.aggregate(garageId);
+        Thread.sleep(5);
+        insertTransaction(secondSpotId, DAY.atTime(8, 45), LocalDateTime.now(), 40.0);
+        Thread.sleep(5);
+
+        // Act
+        int added = usageCubeService.aggregate(garageId);
+
+        // Assert
+        assertEquals(1, added);
+        assertEquals(0, usageCubeService.aggregate(garageId));
+        mockMvc.perform(get("/api/reports/usage")
+                        .param("from", DAY.toString())
+                        .param("to", DAY.plusDays(1).toString())
+                        .param("groupBy", "hourOfDay")
+                        .param("spotType", "CUBE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows[0].hourOfDay").value(8))
+                .andExpect(jsonPath("$.rows[0].sessions").value(3))
+                .andExpect(jsonPath("$.rows[0].revenue").value(55.0));
+    }
+
+    @Test
+    void rebuild_ShouldPickUpSessionsWrittenBehindWatermark() throws Exception {
+        // Arrange: a session imported after its check-out time was aggregated
+        usageCubeService.aggregate(garageId);
+        insertTransaction(secondSpotId, DAY.atTime(17, 15), DAY.atTime(17, 45), 2.0);
+        usageCubeService.aggregate(garageId);
+        mockMvc.perform(get("/api/reports/usage")
+                        .param("from", DAY.toString())
+                        .param("to", DAY.plusDays(1).toString())
+                        .param("spotType", "CUBE"))
+                .andExpect(jsonPath("$.rows[0].sessions").value(3));
+
+        // Act
+        mockMvc.perform(post("/api/reports/usage/rebuild"))
+                .andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(get("/api/reports/usage")
+                        .param("from", DAY.toString())
+                        .param("to", DAY.plusDays(1).toString())
+                        .param("spotType", "CUBE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows[0].sessions").value(4))
+                .andExpect(jsonPath("$.rows[0].revenue").value(19.0));
+    }
+
+    @Test
+    void getUsage_ShouldRejectUnknownDimension() throws Exception {
+        mockMvc.perform(get("/api/reports/usage").param("groupBy", "licensePlate"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long insertSpot(String identifier, long spotTypeId, long bayId) {
+        jdbcTemplate.update("""
+                INSERT INTO parking_spots (garage_id, spot_identifier, spot_number, spot_type_id, bay_id, active, version)
+                VALUES (?, ?, ?, ?, ?, true, 0)
+                """, garageId, identifier, identifier.substring(identifier.length() - 2), spotTypeId, bayId);
+        return jdbcTemplate.queryForObject("SELECT id FROM parking_spots WHERE spot_identifier = ?", Long.class, identifier);
+    }
+
+    private void insertTransaction(long spotId, LocalDateTime checkInTime, LocalDateTime checkOutTime, Double fee) {
+        jdbcTemplate.update("""
+                INSERT INTO parking_transactions (garage_id, car_id, parking_spot_id, check_in_time, check_out_time, parking_fee)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, garageId, carId, spotId, Timestamp.valueOf(checkInTime),
+                checkOutTime == null ? null : Timestamp.valueOf(checkOutTime), fee);
+    }
+}
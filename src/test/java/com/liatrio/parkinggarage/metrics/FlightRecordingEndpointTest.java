@@ -0,0 +1,181 @@
+package com.liatrio.parkinggarage.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.liatrio.parkinggarage.metrics.ParkingMetrics.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingEndpointTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecordingEndpoint endpoint;
+    private ParkingMetrics parkingMetrics;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new FlightRecordingEndpoint();
+        ReflectionTestUtils.setField(endpoint, "directory", directory);
+        ReflectionTestUtils.setField(endpoint, "retainedDumps", 1);
+        parkingMetrics = new ParkingMetrics(new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    void stop_AfterCheckOut_ShouldWriteDumpWithParkingEvents() throws Exception {
+        // Arrange
+        assertEquals(WebEndpointResponse.STATUS_OK, endpoint.start(null, 60L, null).getStatus());
+
+        // Act
+        runInTransaction(() -> {
+            parkingMetrics.beginOperation(CHECK_OUT, "F1-A-01", null);
+            parkingMetrics.time(CHECK_OUT, STAGE_SPOT_LOOKUP, () -> "spot");
+            parkingMetrics.identify(null, "ABC123");
+            parkingMetrics.time(CHECK_OUT, STAGE_BILLING, () -> 5.0);
+            parkingMetrics.time(CHECK_OUT, STAGE_MAPPING, () -> "dto");
+        });
+        WebEndpointResponse<Map<String, Object>> response = endpoint.stop();
+
+        // Assert
+        assertEquals(WebEndpointResponse.STATUS_OK, response.getStatus());
+        Path dump = Path.of((String) response.getBody().get("destination"));
+        assertTrue(Files.size(dump) > 0);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.liatrio.parkinggarage."))
+                .toList();
+
+        RecordedEvent checkOut = single(events, "com.liatrio.parkinggarage.CheckOut");
+        assertEquals(CHECK_OUT, checkOut.getString("operation"));
+        assertEquals("F1-A-01", checkOut.getString("spotIdentifier"));
+        assertEquals(ParkingJfrEvents.hashLicensePlate("ABC123"), checkOut.getString("plateHash"));
+        assertEquals("committed", checkOut.getString("outcome"));
+        assertNull(checkOut.getString("rejectionReason"));
+        assertEquals("F1-A-01", single(events, "com.liatrio.parkinggarage.SpotLookup").getString("spotIdentifier"));
+        single(events, "com.liatrio.parkinggarage.FeeCalculation");
+        single(events, "com.liatrio.parkinggarage.Mapping");
+        assertTrue(events.stream().noneMatch(event -> event.toString().contains("ABC123")));
+    }
+
+    @Test
+    void stop_AfterRejectedCheckIn_ShouldRecordRejectionReason() throws Exception {
+        // Arrange
+        endpoint.start(null, null, null);
+
+        // Act
+        runInTransaction(() -> {
+            parkingMetrics.beginOperation(CHECK_IN, "F1-A-01", "ABC123");
+            parkingMetrics.recordRejection(CHECK_IN, REASON_SPOT_OCCUPIED);
+        });
+        Path dump = Path.of((String) endpoint.stop().getBody().get("destination"));
+
+        // Assert
+        RecordedEvent checkIn = single(RecordingFile.readAllEvents(dump), "com.liatrio.parkinggarage.CheckIn");
+        assertEquals(REASON_SPOT_OCCUPIED, checkIn.getString("rejectionReason"));
+    }
+
+    @Test
+    void start_WhenAlreadyRunning_ShouldReturnConflict() {
+        // Arrange
+        endpoint.start(null, null, null);
+
+        // Act & Assert
+        assertEquals(409, endpoint.start(null, null, null).getStatus());
+    }
+
+    @Test
+    void start_WhenUnknownSettings_ShouldReturnBadRequest() {
+        // Act & Assert
+        assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, endpoint.start("unknown", null, null).getStatus());
+    }
+
+    @Test
+    void start_ShouldCapRetentionAtConfiguredLimits() {
+        // Act
+        Map<String, Object> recording = endpoint.start(null, 86_400L, 86_400L).getBody();
+
+        // Assert
+        assertEquals(Duration.ofMinutes(10), recording.get("maxAge"));
+        assertEquals(Duration.ofMinutes(30), recording.get("duration"));
+    }
+
+    @Test
+    void stop_ShouldKeepOnlyRetainedDumps() throws IOException {
+        // Arrange
+        writeOlderDump();
+        endpoint.start(null, null, null);
+
+        // Act
+        String destination = (String) endpoint.stop().getBody().get("destination");
+
+        // Assert
+        assertEquals(List.of(destination), endpoint.status().get("dumps"));
+    }
+
+    @Test
+    void start_ShouldPruneDumpsOfRecordingsThatStoppedOnTheirOwn() throws IOException {
+        // Arrange: dumps left by recordings that reached their duration and were never stopped
+        ReflectionTestUtils.setField(endpoint, "retainedDumps", 2);
+        writeOlderDump();
+        Files.writeString(directory.resolve("parking-garage-20000102-000000-000.jfr"), "");
+
+        // Act
+        String destination = (String) endpoint.start(null, null, null).getBody().get("destination");
+
+        // Assert: the newest one is kept next to the new recording's dump
+        assertEquals(List.of(destination, directory.resolve("parking-garage-20000102-000000-000.jfr").toString()),
+                endpoint.status().get("dumps"));
+    }
+
+    @Test
+    void stop_WhenNeverStarted_ShouldReturnNotFound() {
+        // Act & Assert
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.stop().getStatus());
+    }
+
+    private void writeOlderDump() throws IOException {
+        Files.writeString(directory.resolve("parking-garage-20000101-000000-000.jfr"), "");
+    }
+
+    private static void runInTransaction(Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            body.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
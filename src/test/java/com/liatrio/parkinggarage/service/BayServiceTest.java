@@ -1,5 +1,6 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.BayDto;
 import com.liatrio.parkinggarage.entity.Bay;
 import com.liatrio.parkinggarage.entity.Floor;
@@ -8,6 +9,7 @@ import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
 import com.liatrio.parkinggarage.repository.BayRepository;
 import com.liatrio.parkinggarage.repository.FloorRepository;
+import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -35,6 +37,15 @@ class BayServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private ResponseCache responseCache;
+
     @InjectMocks
     private BayService bayService;
 
@@ -219,6 +230,23 @@ class BayServiceTest {
         assertFalse(bay.getActive());
     }
 
+    @Test
+    void deleteBay_WhenExists_ShouldDeactivateSpotsInBulk() {
+        // Arrange
+        when(bayRepository.findById(1L)).thenReturn(Optional.of(bay));
+        when(bayRepository.save(any(Bay.class))).thenReturn(bay);
+        when(parkingSpotRepository.deactivateByBayId(1L)).thenReturn(2);
+        when(parkingSpotRepository.findIdsByBayId(1L)).thenReturn(List.of(10L, 11L));
+
+        // Act
+        bayService.deleteBay(1L);
+
+        // Assert
+        verify(parkingSpotRepository).deactivateByBayId(1L);
+        verify(reservationService).deactivateSpots(List.of(10L, 11L));
+        verify(parkingSpotRepository, never()).save(any());
+    }
+
     @Test
     void deleteBay_WhenNotExists_ShouldThrowException() {
         // Arrange
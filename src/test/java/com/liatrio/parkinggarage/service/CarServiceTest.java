@@ -1,7 +1,9 @@
 package com.liatrio.parkinggarage.service;
 
 import com.liatrio.parkinggarage.dto.CarDto;
+import com.liatrio.parkinggarage.dto.PlateMatchDto;
 import com.liatrio.parkinggarage.entity.Car;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
 import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
 import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
@@ -30,6 +32,9 @@ class CarServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private LicensePlateIndex licensePlateIndex;
+
     @InjectMocks
     private CarService carService;
 
@@ -157,6 +162,7 @@ class CarServiceTest {
         assertNotNull(result);
         assertEquals("ABC-123", result.getLicensePlate());
         verify(carRepository, times(1)).save(any(Car.class));
+        verify(licensePlateIndex).recordSaved(null, "ABC-123");
     }
 
     @Test
@@ -226,6 +232,7 @@ class CarServiceTest {
 
         // Assert
         verify(carRepository, times(1)).delete(car);
+        verify(licensePlateIndex).recordDeleted("ABC-123");
     }
 
     @Test
@@ -237,4 +244,27 @@ class CarServiceTest {
         assertThrows(ResourceNotFoundException.class, () -> carService.deleteCar(1L));
         verify(carRepository, never()).delete(any(Car.class));
     }
+
+    @Test
+    void searchLicensePlates_ShouldReturnRankedMatches() {
+        // Arrange
+        when(licensePlateIndex.search("ABC-I23", 10)).thenReturn(List.of(
+                new LicensePlateIndex.Match("ABC-123", LicensePlateIndex.MatchType.CONFUSABLE)));
+
+        // Act
+        List<PlateMatchDto> result = carService.searchLicensePlates("ABC-I23", 10);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("ABC-123", result.get(0).getLicensePlate());
+        assertEquals("CONFUSABLE", result.get(0).getMatchType());
+    }
+
+    @Test
+    void searchLicensePlates_WhenLimitInvalid_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () -> carService.searchLicensePlates("ABC", 0));
+        assertThrows(BusinessLogicException.class, () -> carService.searchLicensePlates("ABC", 1000));
+        verifyNoInteractions(licensePlateIndex);
+    }
 }
@@ -0,0 +1,338 @@
+package com.liatrio.parkinggarage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.dto.CheckOutEvent;
+import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
+import com.liatrio.parkinggarage.entity.CheckOutDeadLetter;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.repository.CheckOutDeadLetterRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckOutPipelineTest {
+
+    private static final long GARAGE = 1L;
+
+    @Mock
+    private CheckOutDeadLetterRepository deadLetterRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private CheckOutPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void publish_ShouldDeliverWhatQueuedUpInBatches() throws Exception {
+        // Arrange: the first call holds the listener while more check-outs queue up
+        RecordingListener receipts = new RecordingListener("receipts");
+        receipts.hold = new CountDownLatch(1);
+        pipeline = pipeline(10, 3, 1, receipts);
+        pipeline.publish(GARAGE, transaction(1L));
+        assertEquals(List.of(1L), receipts.nextBatch());
+
+        // Act
+        for (long id = 2; id <= 6; id++) {
+            pipeline.publish(GARAGE, transaction(id));
+        }
+        receipts.hold.countDown();
+
+        // Assert
+        assertEquals(List.of(2L, 3L, 4L), receipts.nextBatch());
+        assertEquals(List.of(5L, 6L), receipts.nextBatch());
+        awaitEvents("receipts", CheckOutPipeline.DELIVERED, 6);
+    }
+
+    @Test
+    void publish_InATransaction_ShouldWaitForTheCommit() throws Exception {
+        // Arrange
+        RecordingListener receipts = new RecordingListener("receipts");
+        pipeline = pipeline(10, 10, 1, receipts);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            pipeline.publish(GARAGE, transaction(1L));
+
+            // Assert
+            assertNull(receipts.batches.poll(100, TimeUnit.MILLISECONDS));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of(1L), receipts.nextBatch());
+    }
+
+    @Test
+    void failingBatch_ShouldBeRetriedAndThenStoredAsDeadLetters() throws Exception {
+        // Arrange
+        RecordingListener accounting = new RecordingListener("accounting");
+        accounting.failures.set(Integer.MAX_VALUE);
+        pipeline = pipeline(10, 10, 3, accounting);
+
+        // Act
+        pipeline.publish(GARAGE, transaction(7L));
+
+        // Assert
+        List<CheckOutDeadLetter> deadLetters = savedDeadLetters();
+        assertEquals(1, deadLetters.size());
+        CheckOutDeadLetter deadLetter = deadLetters.get(0);
+        assertEquals(GARAGE, deadLetter.getGarageId());
+        assertEquals("accounting", deadLetter.getListener());
+        assertEquals(7L, deadLetter.getTransactionId());
+        assertEquals(3, deadLetter.getAttempts());
+        assertTrue(deadLetter.getError().contains("accounting is down"), deadLetter.getError());
+        assertEquals(7L, objectMapper.readValue(deadLetter.getEvent(), CheckOutEvent.class).getTransaction().getId());
+        assertEquals(3, accounting.calls.get());
+        assertEquals(2, events("accounting", CheckOutPipeline.RETRIED));
+        awaitEvents("accounting", CheckOutPipeline.DEAD_LETTERED, 1);
+    }
+
+    @Test
+    void failingBatch_WhenARetrySucceeds_ShouldBeDelivered() throws Exception {
+        // Arrange
+        RecordingListener loyalty = new RecordingListener("loyalty");
+        loyalty.failures.set(2);
+        pipeline = pipeline(10, 10, 3, loyalty);
+
+        // Act
+        pipeline.publish(GARAGE, transaction(1L));
+
+        // Assert
+        assertEquals(List.of(1L), loyalty.nextBatch());
+        awaitEvents("loyalty", CheckOutPipeline.DELIVERED, 1);
+        verifyNoInteractions(deadLetterRepository);
+    }
+
+    @Test
+    void failingListener_ShouldNotHoldUpTheOthers() throws Exception {
+        // Arrange
+        RecordingListener accounting = new RecordingListener("accounting");
+        accounting.failures.set(Integer.MAX_VALUE);
+        RecordingListener receipts = new RecordingListener("receipts");
+        pipeline = new CheckOutPipeline(List.of(accounting, receipts), deadLetterRepository, objectMapper, meterRegistry,
+                transactionManager, true, 10, 10, 5, Duration.ofMinutes(1));
+
+        // Act
+        pipeline.publish(GARAGE, transaction(1L));
+        pipeline.publish(GARAGE, transaction(2L));
+
+        // Assert
+        List<Long> received = new ArrayList<>(receipts.nextBatch());
+        if (received.size() < 2) {
+            received.addAll(receipts.nextBatch());
+        }
+        assertEquals(List.of(1L, 2L), received);
+    }
+
+    @Test
+    void publish_WhenTheQueueIsFull_ShouldStoreTheEventAsADeadLetter() throws Exception {
+        // Arrange
+        RecordingListener receipts = new RecordingListener("receipts");
+        receipts.hold = new CountDownLatch(1);
+        pipeline = pipeline(1, 10, 1, receipts);
+        pipeline.publish(GARAGE, transaction(1L));
+        receipts.nextBatch();
+
+        // Act
+        pipeline.publish(GARAGE, transaction(2L));
+        pipeline.publish(GARAGE, transaction(3L));
+        receipts.hold.countDown();
+
+        // Assert
+        assertEquals(List.of(2L), receipts.nextBatch());
+        List<CheckOutDeadLetter> deadLetters = savedDeadLetters();
+        assertEquals(1, deadLetters.size());
+        assertEquals(3L, deadLetters.get(0).getTransactionId());
+        assertEquals(0, deadLetters.get(0).getAttempts());
+        assertEquals("Queue full", deadLetters.get(0).getError());
+        assertEquals(1, events("receipts", CheckOutPipeline.DEAD_LETTERED));
+    }
+
+    @Test
+    void shutdown_ShouldStoreUndeliveredEventsAsDeadLetters() throws Exception {
+        // Arrange
+        RecordingListener receipts = new RecordingListener("receipts");
+        receipts.hold = new CountDownLatch(1);
+        pipeline = pipeline(10, 10, 1, receipts);
+        pipeline.publish(GARAGE, transaction(1L));
+        receipts.nextBatch();
+        pipeline.publish(GARAGE, transaction(2L));
+        pipeline.publish(GARAGE, transaction(3L));
+
+        // Act
+        pipeline.shutdown();
+        pipeline.publish(GARAGE, transaction(4L));
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CheckOutDeadLetter>> saved = ArgumentCaptor.forClass(List.class);
+        verify(deadLetterRepository, times(3)).saveAll(saved.capture());
+        assertEquals(List.of(1L, 2L, 3L, 4L), saved.getAllValues().stream()
+                .flatMap(List::stream)
+                .map(CheckOutDeadLetter::getTransactionId)
+                .toList());
+        assertEquals(4, events("receipts", CheckOutPipeline.DEAD_LETTERED));
+        pipeline = null;
+    }
+
+    @Test
+    void replayDeadLetters_ShouldQueueThemForTheirListenerAndDeleteThem() throws Exception {
+        // Arrange
+        RecordingListener receipts = new RecordingListener("receipts");
+        pipeline = pipeline(10, 10, 1, receipts);
+        CheckOutDeadLetter forReceipts = deadLetter("receipts", 5L);
+        CheckOutDeadLetter forRemovedListener = deadLetter("newsletter", 6L);
+        when(deadLetterRepository.findAllByOrderByIdAsc(Limit.of(100)))
+                .thenReturn(List.of(forReceipts, forRemovedListener));
+
+        // Act
+        int replayed = pipeline.replayDeadLetters(null, 100);
+
+        // Assert
+        assertEquals(1, replayed);
+        assertEquals(List.of(5L), receipts.nextBatch());
+        verify(deadLetterRepository).deleteAllInBatch(List.of(forReceipts));
+        assertEquals(1, events("receipts", CheckOutPipeline.REPLAYED));
+    }
+
+    @Test
+    void getDeadLetters_WhenLimitIsOutOfRange_ShouldThrowException() {
+        // Arrange
+        pipeline = pipeline(10, 10, 1);
+
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () -> pipeline.getDeadLetters(null, 0));
+        assertThrows(BusinessLogicException.class, () -> pipeline.replayDeadLetters("receipts", 1001));
+    }
+
+    private CheckOutPipeline pipeline(int queueCapacity, int batchSize, int maxAttempts, CheckOutListener... listeners) {
+        return new CheckOutPipeline(List.of(listeners), deadLetterRepository, objectMapper, meterRegistry,
+                transactionManager, true, queueCapacity, batchSize, maxAttempts, Duration.ofMillis(1));
+    }
+
+    private List<CheckOutDeadLetter> savedDeadLetters() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CheckOutDeadLetter>> saved = ArgumentCaptor.forClass(List.class);
+        verify(deadLetterRepository, timeout(5000)).saveAll(saved.capture());
+        return saved.getValue();
+    }
+
+    private CheckOutDeadLetter deadLetter(String listener, Long transactionId) throws Exception {
+        CheckOutEvent event = CheckOutEvent.builder().garageId(GARAGE).transaction(transaction(transactionId)).build();
+        return CheckOutDeadLetter.builder()
+                .id(transactionId)
+                .garageId(GARAGE)
+                .listener(listener)
+                .transactionId(transactionId)
+                .event(objectMapper.writeValueAsString(event))
+                .attempts(5)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Counters are updated after the listener returns, so wait for them
+     */
+    private void awaitEvents(String listener, String outcome, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.find("parking.checkout_pipeline.events")
+                .tag("listener", listener).tag("outcome", outcome).counters().stream()
+                .mapToDouble(counter -> counter.count()).sum() < expected) {
+            assertTrue(System.nanoTime() < deadline, "No " + outcome + " events within 5 s");
+            Thread.sleep(10);
+        }
+        assertEquals(expected, events(listener, outcome));
+    }
+
+    private double events(String listener, String outcome) {
+        return meterRegistry.get("parking.checkout_pipeline.events")
+                .tag("listener", listener).tag("outcome", outcome).counter().count();
+    }
+
+    private static ParkingTransactionDto transaction(Long id) {
+        return ParkingTransactionDto.builder()
+                .id(id)
+                .licensePlate("ABC-" + id)
+                .checkInTime(LocalDateTime.of(2024, 6, 3, 8, 0))
+                .checkOutTime(LocalDateTime.of(2024, 6, 3, 10, 30))
+                .parkingFee(12.5)
+                .active(false)
+                .build();
+    }
+
+    /**
+     * Records the transaction ids of each batch; fails the first calls, or holds them until released
+     */
+    private static class RecordingListener implements CheckOutListener {
+
+        private final String name;
+        private final BlockingQueue<List<Long>> batches = new LinkedBlockingQueue<>();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch hold;
+
+        RecordingListener(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void onCheckOuts(List<CheckOutEvent> events) throws Exception {
+            calls.incrementAndGet();
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException(name + " is down");
+            }
+            batches.add(events.stream().map(event -> event.getTransaction().getId()).toList());
+            if (hold != null) {
+                hold.await();
+            }
+        }
+
+        List<Long> nextBatch() throws InterruptedException {
+            List<Long> batch = batches.poll(5, TimeUnit.SECONDS);
+            assertNotNull(batch, "No batch within 5 s");
+            return batch;
+        }
+    }
+}
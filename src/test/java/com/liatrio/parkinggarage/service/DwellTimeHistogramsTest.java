@@ -0,0 +1,243 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.DwellTimeDto;
+import com.liatrio.parkinggarage.entity.Bay;
+import com.liatrio.parkinggarage.entity.Floor;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.repository.FloorRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository.OccupancyInterval;
+import com.liatrio.parkinggarage.repository.SpotTypeRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DwellTimeHistogramsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 3, 12, 0);
+
+    @Mock
+    private ParkingTransactionRepository transactionRepository;
+
+    @Mock
+    private FloorRepository floorRepository;
+
+    @Mock
+    private SpotTypeRepository spotTypeRepository;
+
+    @Mock
+    private GarageDirectory garageDirectory;
+
+    private DwellTimeHistograms dwellTimeHistograms;
+    private ParkingSpot regularSpot;
+    private ParkingSpot compactSpot;
+
+    @BeforeEach
+    void setUp() {
+        dwellTimeHistograms = new DwellTimeHistograms(transactionRepository, floorRepository, spotTypeRepository,
+                garageDirectory, 24, 2, 48);
+        setClock(NOW);
+
+        Floor floor = Floor.builder().id(1L).floorNumber(1).name("Ground Floor").build();
+        SpotType regular = SpotType.builder().id(10L).name("REGULAR").build();
+        SpotType compact = SpotType.builder().id(11L).name("COMPACT").build();
+        Bay bay = Bay.builder().id(5L).floor(floor).build();
+        regularSpot = ParkingSpot.builder().id(100L).garageId(1L).spotIdentifier("F1-A-01").bay(bay)
+                .spotType(regular).build();
+        compactSpot = ParkingSpot.builder().id(101L).garageId(1L).spotIdentifier("F1-A-02").bay(bay)
+                .spotType(compact).build();
+        lenient().when(floorRepository.findAll()).thenReturn(List.of(floor));
+        lenient().when(spotTypeRepository.findAll()).thenReturn(List.of(regular, compact));
+        lenient().when(garageDirectory.currentGarageId()).thenReturn(1L);
+    }
+
+    @Test
+    void rebuild_ShouldReplaySessionsCheckedOutInTheWindow() {
+        // Arrange: 100 sessions of 1 to 100 minutes, and one checked out before the window
+        List<OccupancyInterval> sessions = new ArrayList<>();
+        for (int minutes = 1; minutes <= 100; minutes++) {
+            LocalDateTime checkOut = NOW.minusHours(2);
+            sessions.add(interval(checkOut.minusMinutes(minutes), checkOut, 10L));
+        }
+        sessions.add(interval(NOW.minusHours(30), NOW.minusHours(29), 10L));
+        when(transactionRepository.findCompletedIntervalsSince(NOW.minusHours(23))).thenReturn(sessions);
+
+        // Act
+        dwellTimeHistograms.rebuild();
+        List<DwellTimeDto> result = dwellTimeHistograms.getDwellTimes(null, null, null, null, null,
+                List.of(), List.of(50.0, 90.0, 99.9));
+
+        // Assert
+        assertEquals(1, result.size());
+        DwellTimeDto all = result.get(0);
+        assertNull(all.getFloorNumber());
+        assertNull(all.getSpotTypeName());
+        assertEquals(100, all.getSessions());
+        assertEquals(50, all.getPercentiles().get("p50"));
+        assertEquals(90, all.getPercentiles().get("p90"));
+        assertEquals(100, all.getPercentiles().get("p99.9"));
+        assertEquals(100, all.getMaxMinutes());
+        assertEquals(50.5, all.getMeanMinutes());
+    }
+
+    @Test
+    void recordCheckOut_ShouldMergeBucketsPerRequestedDimension() {
+        // Arrange
+        rebuildEmpty();
+        dwellTimeHistograms.recordCheckOut(regularSpot, NOW.minusMinutes(60), NOW);
+        setClock(NOW.plusHours(1));
+        dwellTimeHistograms.recordCheckOut(regularSpot, NOW.plusMinutes(30), NOW.plusHours(1));
+        dwellTimeHistograms.recordCheckOut(compactSpot, NOW.plusMinutes(40), NOW.plusHours(1));
+
+        // Act
+        List<DwellTimeDto> bySpotType = dwellTimeHistograms.getDwellTimes(NOW, null, null, null, null,
+                List.of("spotType", "floor"), null);
+        List<DwellTimeDto> merged = dwellTimeHistograms.getDwellTimes(NOW, null, 1, "regular", null,
+                List.of(), List.of(100.0));
+
+        // Assert
+        assertEquals(2, bySpotType.size());
+        assertEquals("COMPACT", bySpotType.get(0).getSpotTypeName());
+        assertEquals(1, bySpotType.get(0).getFloorNumber());
+        assertEquals(1, bySpotType.get(0).getSessions());
+        assertEquals("REGULAR", bySpotType.get(1).getSpotTypeName());
+        assertEquals(2, bySpotType.get(1).getSessions());
+        assertEquals(List.of("p50", "p75", "p90", "p95", "p99"),
+                new ArrayList<>(bySpotType.get(1).getPercentiles().keySet()));
+        assertEquals(1, merged.size());
+        assertEquals(2, merged.get(0).getSessions());
+        assertEquals(60, merged.get(0).getPercentiles().get("p100"));
+    }
+
+    @Test
+    void getDwellTimes_WithHourOfDay_ShouldOnlyMergeThatHour() {
+        // Arrange
+        rebuildEmpty();
+        dwellTimeHistograms.recordCheckOut(regularSpot, NOW.minusMinutes(20), NOW);
+        setClock(NOW.plusHours(1));
+        dwellTimeHistograms.recordCheckOut(regularSpot, NOW.minusMinutes(20), NOW.plusHours(1));
+
+        // Act
+        List<DwellTimeDto> result = dwellTimeHistograms.getDwellTimes(null, null, null, null, 13, List.of(), null);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).getSessions());
+        assertEquals(80, result.get(0).getMaxMinutes());
+    }
+
+    @Test
+    void getDwellTimes_WhenWindowMovesPastBucket_ShouldForgetIt() {
+        // Arrange
+        rebuildEmpty();
+        dwellTimeHistograms.recordCheckOut(regularSpot, NOW.minusMinutes(20), NOW);
+
+        // Act
+        setClock(NOW.plusHours(24));
+        List<DwellTimeDto> result = dwellTimeHistograms.getDwellTimes(null, null, null, null, null, List.of(), null);
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void recordCheckOut_WhenDwellExceedsRange_ShouldClampToMaximum() {
+        // Arrange
+        rebuildEmpty();
+
+        // Act
+        dwellTimeHistograms.recordCheckOut(regularSpot, NOW.minusDays(5), NOW);
+
+        // Assert
+        DwellTimeDto result = dwellTimeHistograms.getDwellTimes(null, null, null, null, null, List.of(), null).get(0);
+        assertTrue(result.getMaxMinutes() >= 48 * 60 && result.getMaxMinutes() < 49 * 60);
+    }
+
+    @Test
+    void recordCheckOut_WhenTransactionRollsBack_ShouldNotCount() {
+        // Arrange
+        rebuildEmpty();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        try {
+            dwellTimeHistograms.recordCheckOut(regularSpot, NOW.minusMinutes(20), NOW);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertTrue(dwellTimeHistograms.getDwellTimes(null, null, null, null, null, List.of(), null).isEmpty());
+    }
+
+    @Test
+    void getDwellTimes_WhenParametersInvalid_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () ->
+                dwellTimeHistograms.getDwellTimes(NOW, NOW.minusHours(1), null, null, null, List.of(), null));
+        assertThrows(BusinessLogicException.class, () ->
+                dwellTimeHistograms.getDwellTimes(null, null, null, null, 24, List.of(), null));
+        assertThrows(BusinessLogicException.class, () ->
+                dwellTimeHistograms.getDwellTimes(null, null, null, null, null, List.of("bay"), null));
+        assertThrows(BusinessLogicException.class, () ->
+                dwellTimeHistograms.getDwellTimes(null, null, null, null, null, List.of(), List.of(0.0)));
+    }
+
+    private void rebuildEmpty() {
+        when(transactionRepository.findCompletedIntervalsSince(any())).thenReturn(List.of());
+        dwellTimeHistograms.rebuild();
+    }
+
+    private void setClock(LocalDateTime now) {
+        dwellTimeHistograms.clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    private static OccupancyInterval interval(LocalDateTime checkIn, LocalDateTime checkOut, Long spotTypeId) {
+        return new OccupancyInterval() {
+            @Override
+            public LocalDateTime getCheckInTime() {
+                return checkIn;
+            }
+
+            @Override
+            public LocalDateTime getCheckOutTime() {
+                return checkOut;
+            }
+
+            @Override
+            public Long getGarageId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getFloorId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getSpotTypeId() {
+                return spotTypeId;
+            }
+        };
+    }
+}
@@ -1,11 +1,15 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.FloorDto;
 import com.liatrio.parkinggarage.entity.Floor;
 import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
 import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
+import com.liatrio.parkinggarage.repository.BayRepository;
 import com.liatrio.parkinggarage.repository.FloorRepository;
+import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,6 +34,24 @@ class FloorServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private GarageDirectory garageDirectory;
+
+    @Mock
+    private BayRepository bayRepository;
+
+    @Mock
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private ResponseCache responseCache;
+
+    @Mock
+    private OccupancyTimeSeries occupancyTimeSeries;
+
     @InjectMocks
     private FloorService floorService;
 
@@ -113,6 +135,7 @@ class FloorServiceTest {
     void createFloor_WhenValidData_ShouldCreateFloor() {
         // Arrange
         when(floorRepository.existsByFloorNumber(1)).thenReturn(false);
+        when(garageDirectory.currentGarageId()).thenReturn(7L);
         when(floorRepository.save(any(Floor.class))).thenReturn(floor);
         when(entityMapper.toFloorDto(floor)).thenReturn(floorDto);
 
@@ -122,7 +145,7 @@ class FloorServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getFloorNumber());
-        verify(floorRepository, times(1)).save(any(Floor.class));
+        verify(floorRepository, times(1)).save(argThat(saved -> Long.valueOf(7L).equals(saved.getGarageId())));
     }
 
     @Test
@@ -195,6 +218,42 @@ class FloorServiceTest {
         assertFalse(floor.getActive());
     }
 
+    @Test
+    void deleteFloor_WhenExists_ShouldDeactivateBaysAndSpotsInBulk() {
+        // Arrange
+        when(floorRepository.findById(1L)).thenReturn(Optional.of(floor));
+        when(floorRepository.save(any(Floor.class))).thenReturn(floor);
+        when(bayRepository.deactivateByFloorId(1L)).thenReturn(2);
+        when(parkingSpotRepository.deactivateByFloorId(1L)).thenReturn(40);
+        when(parkingSpotRepository.findIdsByFloorId(1L)).thenReturn(List.of(10L, 11L));
+
+        // Act
+        floorService.deleteFloor(1L);
+
+        // Assert
+        verify(bayRepository).deactivateByFloorId(1L);
+        verify(parkingSpotRepository).deactivateByFloorId(1L);
+        verify(reservationService).deactivateSpots(List.of(10L, 11L));
+        verify(parkingSpotRepository, never()).save(any());
+        verify(responseCache).topologyChanged();
+    }
+
+    @Test
+    void updateFloor_WhenDeactivated_ShouldDeactivateBaysAndSpots() {
+        // Arrange
+        FloorDto updateDto = FloorDto.builder().floorNumber(1).name("Ground Floor").active(false).build();
+        when(floorRepository.findById(1L)).thenReturn(Optional.of(floor));
+        when(floorRepository.save(any(Floor.class))).thenReturn(floor);
+        when(entityMapper.toFloorDto(any(Floor.class))).thenReturn(floorDto);
+
+        // Act
+        floorService.updateFloor(1L, updateDto);
+
+        // Assert
+        verify(bayRepository).deactivateByFloorId(1L);
+        verify(parkingSpotRepository).deactivateByFloorId(1L);
+    }
+
     @Test
     void deleteFloor_WhenNotExists_ShouldThrowException() {
         // Arrange
@@ -0,0 +1,95 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.GarageDto;
+import com.liatrio.parkinggarage.entity.Garage;
+import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
+import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
+import com.liatrio.parkinggarage.repository.GarageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GarageServiceTest {
+
+    @Mock
+    private GarageRepository garageRepository;
+
+    @InjectMocks
+    private GarageService garageService;
+
+    private Garage garage;
+    private GarageDto garageDto;
+
+    @BeforeEach
+    void setUp() {
+        garage = Garage.builder()
+                .id(2L)
+                .code("NORTH")
+                .name("North Garage")
+                .active(true)
+                .build();
+
+        garageDto = GarageDto.builder()
+                .code("NORTH")
+                .name("North Garage")
+                .build();
+    }
+
+    @Test
+    void getAllGarages_ShouldReturnAllGarages() {
+        // Arrange
+        when(garageRepository.findAll()).thenReturn(List.of(garage));
+
+        // Act
+        List<GarageDto> result = garageService.getAllGarages();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("NORTH", result.get(0).getCode());
+    }
+
+    @Test
+    void getGarageByCode_WhenNotExists_ShouldThrowException() {
+        // Arrange
+        when(garageRepository.findByCode("SOUTH")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> garageService.getGarageByCode("SOUTH"));
+    }
+
+    @Test
+    void createGarage_WhenValidData_ShouldCreateGarage() {
+        // Arrange
+        when(garageRepository.existsByCode("NORTH")).thenReturn(false);
+        when(garageRepository.save(any(Garage.class))).thenReturn(garage);
+
+        // Act
+        GarageDto result = garageService.createGarage(garageDto);
+
+        // Assert
+        assertEquals(2L, result.getId());
+        assertTrue(result.getActive());
+        verify(garageRepository, times(1)).save(any(Garage.class));
+    }
+
+    @Test
+    void createGarage_WhenCodeExists_ShouldThrowException() {
+        // Arrange
+        when(garageRepository.existsByCode("NORTH")).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ResourceAlreadyExistsException.class, () -> garageService.createGarage(garageDto));
+        verify(garageRepository, never()).save(any(Garage.class));
+    }
+}
@@ -0,0 +1,177 @@
+package com.liatrio.parkinggarage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.liatrio.parkinggarage.dto.CheckInRequest;
+import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
+import com.liatrio.parkinggarage.entity.IdempotencyRecord;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.metrics.ParkingMetrics;
+import com.liatrio.parkinggarage.repository.IdempotencyRecordRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "gate-7-0001";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private GarageDirectory garageDirectory;
+
+    @Mock
+    private ParkingMetrics parkingMetrics;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private IdempotencyService idempotencyService;
+    private CheckInRequest request;
+    private ParkingTransactionDto response;
+    private AtomicInteger executions;
+    private Supplier<ParkingTransactionDto> action;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, garageDirectory, parkingMetrics,
+                objectMapper, transactionManager, Duration.ofHours(24), 100);
+        lenient().when(garageDirectory.currentGarageId()).thenReturn(1L);
+
+        request = CheckInRequest.builder().licensePlate("ABC-123").spotIdentifier("F1-A-01").build();
+        response = ParkingTransactionDto.builder()
+                .id(42L)
+                .licensePlate("ABC-123")
+                .spotIdentifier("F1-A-01")
+                .checkInTime(LocalDateTime.now().withNano(0))
+                .active(true)
+                .build();
+        executions = new AtomicInteger();
+        action = () -> {
+            executions.incrementAndGet();
+            return response;
+        };
+    }
+
+    @Test
+    void execute_WhenRetried_ShouldReplayFromCacheWithoutRunningAgain() {
+        // Act
+        IdempotencyService.Outcome first = idempotencyService.execute("check_in", KEY, request, action);
+        IdempotencyService.Outcome retry = idempotencyService.execute("check_in", KEY, request, action);
+
+        // Assert
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(42L, retry.response().getId());
+        assertEquals(1, executions.get());
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(saved.capture());
+        assertEquals(1L, saved.getValue().getGarageId());
+        assertEquals(KEY, saved.getValue().getIdempotencyKey());
+        verify(idempotencyRecordRepository, times(1)).findByOperationAndIdempotencyKey("check_in", KEY);
+        verify(parkingMetrics).recordIdempotency("check_in", ParkingMetrics.IDEMPOTENCY_MISS);
+        verify(parkingMetrics).recordIdempotency("check_in", ParkingMetrics.IDEMPOTENCY_CACHE_HIT);
+    }
+
+    @Test
+    void execute_WhenStoredInDatabase_ShouldReplayStoredResponse() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.findByOperationAndIdempotencyKey("check_in", KEY))
+                .thenReturn(Optional.of(storedRecord(LocalDateTime.now().minusMinutes(5))));
+
+        // Act
+        IdempotencyService.Outcome outcome = idempotencyService.execute("check_in", KEY, request, action);
+
+        // Assert
+        assertTrue(outcome.replayed());
+        assertEquals(response, outcome.response());
+        assertEquals(0, executions.get());
+        verify(parkingMetrics).recordIdempotency("check_in", ParkingMetrics.IDEMPOTENCY_DATABASE_HIT);
+    }
+
+    @Test
+    void execute_WhenKeyReusedForDifferentRequest_ShouldThrowException() {
+        // Arrange
+        idempotencyService.execute("check_in", KEY, request, action);
+        CheckInRequest otherRequest = CheckInRequest.builder().licensePlate("XYZ-789").spotIdentifier("F1-A-01").build();
+
+        // Act & Assert
+        assertThrows(BusinessLogicException.class,
+                () -> idempotencyService.execute("check_in", KEY, otherRequest, action));
+        assertEquals(1, executions.get());
+        verify(parkingMetrics).recordIdempotency("check_in", ParkingMetrics.IDEMPOTENCY_KEY_REUSED);
+    }
+
+    @Test
+    void execute_WhenConcurrentRequestCommittedFirst_ShouldReplayItsResponse() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.findByOperationAndIdempotencyKey("check_in", KEY))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(storedRecord(LocalDateTime.now())));
+        when(idempotencyRecordRepository.save(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act
+        IdempotencyService.Outcome outcome = idempotencyService.execute("check_in", KEY, request, action);
+
+        // Assert
+        assertTrue(outcome.replayed());
+        assertEquals(42L, outcome.response().getId());
+    }
+
+    @Test
+    void execute_WhenStoredRecordExpired_ShouldDeleteItAndRunAgain() throws Exception {
+        // Arrange
+        IdempotencyRecord expired = storedRecord(LocalDateTime.now().minusHours(25));
+        when(idempotencyRecordRepository.findByOperationAndIdempotencyKey("check_in", KEY))
+                .thenReturn(Optional.of(expired));
+
+        // Act
+        IdempotencyService.Outcome outcome = idempotencyService.execute("check_in", KEY, request, action);
+
+        // Assert
+        assertFalse(outcome.replayed());
+        assertEquals(1, executions.get());
+        verify(idempotencyRecordRepository).delete(expired);
+    }
+
+    @Test
+    void execute_WhenKeyTooLong_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BusinessLogicException.class,
+                () -> idempotencyService.execute("check_in", "k".repeat(256), request, action));
+        assertEquals(0, executions.get());
+    }
+
+    private IdempotencyRecord storedRecord(LocalDateTime createdAt) throws Exception {
+        return IdempotencyRecord.builder()
+                .garageId(1L)
+                .operation("check_in")
+                .idempotencyKey(KEY)
+                .requestHash(idempotencyService.hash(request))
+                .response(objectMapper.writeValueAsString(response))
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.repository.CarRepository;
+import com.liatrio.parkinggarage.service.LicensePlateIndex.Match;
+import com.liatrio.parkinggarage.service.LicensePlateIndex.MatchType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LicensePlateIndexTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    private LicensePlateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LicensePlateIndex(carRepository);
+        when(carRepository.streamAllLicensePlates())
+                .thenReturn(Stream.of("ABC-123", "B0S-558", "XYZ-789", "XYZ-7890", "XYZ-78901", "QRS-111"));
+        index.rebuild();
+    }
+
+    @Test
+    void rebuild_ShouldIndexEveryPlate() {
+        // Assert
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    void search_ShouldIgnoreCaseAndSeparators() {
+        // Act
+        List<Match> matches = index.search("abc123", 5);
+
+        // Assert
+        assertEquals(new Match("ABC-123", MatchType.EXACT), matches.get(0));
+    }
+
+    @Test
+    void search_ShouldFoldConfusableCharacters() {
+        // Act
+        List<Match> matches = index.search("8OS-S5B", 5);
+
+        // Assert
+        assertEquals(new Match("B0S-558", MatchType.CONFUSABLE), matches.get(0));
+        assertEquals(MatchType.CONFUSABLE, index.search("0R5-III", 5).get(0).matchType());
+    }
+
+    @Test
+    void search_ShouldFindPlatesOneEditAway() {
+        // Act & Assert
+        assertEquals(List.of(new Match("ABC-123", MatchType.ONE_EDIT)), index.search("ABX-123", 5));
+        assertEquals(List.of(new Match("ABC-123", MatchType.ONE_EDIT)), index.search("AB-123", 5));
+        assertEquals(List.of(new Match("ABC-123", MatchType.ONE_EDIT)), index.search("ABCC-123", 5));
+        assertEquals(List.of(new Match("ABC-123", MatchType.ONE_EDIT)), index.search("BAC-123", 5));
+        assertTrue(index.search("AXX-123", 5).isEmpty());
+    }
+
+    @Test
+    void search_ShouldRankExactBeforeEditsBeforePrefixes() {
+        // Act
+        List<Match> matches = index.search("XYZ-789", 5);
+
+        // Assert
+        assertEquals(List.of(
+                new Match("XYZ-789", MatchType.EXACT),
+                new Match("XYZ-7890", MatchType.ONE_EDIT),
+                new Match("XYZ-78901", MatchType.PREFIX)), matches);
+        assertEquals(1, index.search("XYZ-789", 1).size());
+    }
+
+    @Test
+    void add_ShouldKeepPlatesWithTheSameFoldedKey() {
+        // Act
+        index.add("B05-558");
+        index.add("B05-558");
+        index.remove("B0S-558");
+
+        // Assert
+        assertEquals(6, index.size());
+        assertEquals(List.of(new Match("B05-558", MatchType.EXACT)), index.search("B05-558", 5));
+    }
+
+    @Test
+    void recordSaved_WhenTransactionRollsBack_ShouldNotIndex() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        try {
+            index.recordSaved(null, "NEW-001");
+            index.recordDeleted("ABC-123");
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertTrue(index.search("NEW-001", 5).isEmpty());
+        assertFalse(index.search("ABC-123", 5).isEmpty());
+    }
+
+    @Test
+    void recordSaved_WhenPlateChanges_ShouldReplaceOldPlate() {
+        // Act
+        index.recordSaved("ABC-123", "ABC-999");
+
+        // Assert
+        assertEquals(MatchType.EXACT, index.search("ABC-999", 5).get(0).matchType());
+        assertTrue(index.search("ABC-123", 5).stream().noneMatch(match -> match.licensePlate().equals("ABC-123")));
+    }
+}
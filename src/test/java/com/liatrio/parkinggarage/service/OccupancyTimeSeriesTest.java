@@ -0,0 +1,283 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.OccupancyPointDto;
+import com.liatrio.parkinggarage.dto.OccupancySeriesDto;
+import com.liatrio.parkinggarage.entity.Bay;
+import com.liatrio.parkinggarage.entity.Floor;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.repository.FloorRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository.OccupancyInterval;
+import com.liatrio.parkinggarage.repository.SpotTypeRepository;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyTimeSeriesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 3, 12, 0);
+
+    @Mock
+    private ParkingTransactionRepository transactionRepository;
+
+    @Mock
+    private FloorRepository floorRepository;
+
+    @Mock
+    private SpotTypeRepository spotTypeRepository;
+
+    @Mock
+    private GarageDirectory garageDirectory;
+
+    private OccupancyTimeSeries occupancyTimeSeries;
+    private ParkingSpot regularSpot;
+
+    @BeforeEach
+    void setUp() {
+        occupancyTimeSeries = new OccupancyTimeSeries(transactionRepository, floorRepository, spotTypeRepository,
+                garageDirectory, 60, 2);
+        setClock(NOW);
+
+        Floor floor = Floor.builder().id(1L).floorNumber(1).name("Ground Floor").build();
+        SpotType regular = SpotType.builder().id(10L).name("REGULAR").build();
+        SpotType compact = SpotType.builder().id(11L).name("COMPACT").build();
+        regularSpot = ParkingSpot.builder()
+                .id(100L)
+                .garageId(1L)
+                .spotIdentifier("F1-A-01")
+                .bay(Bay.builder().id(5L).floor(floor).build())
+                .spotType(regular)
+                .build();
+        lenient().when(floorRepository.findAll()).thenReturn(List.of(floor));
+        lenient().when(spotTypeRepository.findAll()).thenReturn(List.of(regular, compact));
+        lenient().when(garageDirectory.currentGarageId()).thenReturn(1L);
+    }
+
+    @Test
+    void rebuild_ShouldReplaySessionsOverlappingTheWindow() {
+        // Arrange
+        when(transactionRepository.findOccupancyIntervalsSince(NOW.minusMinutes(59))).thenReturn(List.of(
+                interval(NOW.minusHours(3), null, 10L),
+                interval(NOW.minusHours(2), NOW.minusMinutes(30), 10L),
+                interval(NOW.minusMinutes(20), NOW.minusMinutes(10), 10L),
+                interval(NOW.minusMinutes(5), null, 11L)));
+
+        // Act
+        occupancyTimeSeries.rebuild();
+        List<OccupancySeriesDto> series = occupancyTimeSeries.getOccupancy(null, null, null, null, 1);
+
+        // Assert
+        assertEquals(2, series.size());
+        OccupancySeriesDto regular = find(series, "REGULAR");
+        assertEquals(60, regular.getPoints().size());
+        assertEquals(2, occupiedAt(regular, NOW.minusMinutes(31)));
+        assertEquals(1, occupiedAt(regular, NOW.minusMinutes(30)));
+        assertEquals(2, occupiedAt(regular, NOW.minusMinutes(15)));
+        assertEquals(1, occupiedAt(regular, NOW));
+        OccupancySeriesDto compact = find(series, "COMPACT");
+        assertEquals(0, occupiedAt(compact, NOW.minusMinutes(6)));
+        assertEquals(1, occupiedAt(compact, NOW.minusMinutes(5)));
+    }
+
+    @Test
+    void recordCheckIn_ShouldCarryOccupancyForwardUntilCheckOut() {
+        // Arrange
+        rebuildEmpty();
+
+        // Act
+        occupancyTimeSeries.recordCheckIn(regularSpot, NOW);
+        setClock(NOW.plusMinutes(10));
+        occupancyTimeSeries.recordCheckOut(regularSpot, NOW.plusMinutes(10));
+        setClock(NOW.plusMinutes(12));
+        OccupancySeriesDto regular = occupancyTimeSeries.getOccupancy(NOW, null, 1, "regular", 1).get(0);
+
+        // Assert
+        assertEquals(13, regular.getPoints().size());
+        assertEquals(1, occupiedAt(regular, NOW));
+        assertEquals(1, occupiedAt(regular, NOW.plusMinutes(9)));
+        assertEquals(0, occupiedAt(regular, NOW.plusMinutes(10)));
+        assertEquals(1, regular.getPoints().get(10).getPeak());
+        assertEquals(0, occupiedAt(regular, NOW.plusMinutes(12)));
+    }
+
+    @Test
+    void recordCheckIn_WhenTransactionRollsBack_ShouldNotCount() {
+        // Arrange
+        rebuildEmpty();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        try {
+            occupancyTimeSeries.recordCheckIn(regularSpot, NOW);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertTrue(occupancyTimeSeries.getOccupancy(null, null, null, null, 1).isEmpty());
+    }
+
+    @Test
+    void getOccupancy_WithStep_ShouldReturnEndOfBucketAndPeak() {
+        // Arrange
+        rebuildEmpty();
+        occupancyTimeSeries.recordCheckIn(regularSpot, NOW);
+        occupancyTimeSeries.recordCheckIn(regularSpot, NOW);
+        setClock(NOW.plusMinutes(3));
+        occupancyTimeSeries.recordCheckOut(regularSpot, NOW.plusMinutes(3));
+        occupancyTimeSeries.recordCheckOut(regularSpot, NOW.plusMinutes(3));
+        setClock(NOW.plusMinutes(9));
+
+        // Act
+        List<OccupancyPointDto> points = occupancyTimeSeries
+                .getOccupancy(NOW, NOW.plusMinutes(9), null, null, 5).get(0).getPoints();
+
+        // Assert
+        assertEquals(2, points.size());
+        assertEquals(NOW, points.get(0).getTime());
+        assertEquals(0, points.get(0).getOccupied());
+        assertEquals(2, points.get(0).getPeak());
+        assertEquals(0, points.get(1).getPeak());
+    }
+
+    @Test
+    void recordCheckIn_WhenSeriesLimitReached_ShouldIgnoreNewSeries() {
+        // Arrange
+        when(transactionRepository.findOccupancyIntervalsSince(any())).thenReturn(List.of(
+                interval(NOW.minusMinutes(5), null, 10L),
+                interval(NOW.minusMinutes(5), null, 11L)));
+        occupancyTimeSeries.rebuild();
+        ParkingSpot otherFloorSpot = ParkingSpot.builder()
+                .garageId(1L)
+                .bay(Bay.builder().floor(Floor.builder().id(2L).build()).build())
+                .spotType(regularSpot.getSpotType())
+                .build();
+
+        // Act
+        occupancyTimeSeries.recordCheckIn(otherFloorSpot, NOW);
+
+        // Assert
+        assertEquals(2, occupancyTimeSeries.getOccupancy(null, null, null, null, 1).size());
+    }
+
+    @Test
+    void recordCheckIn_ShouldOnlyCountTowardsTheSpotsGarage() {
+        // Arrange
+        rebuildEmpty();
+        ParkingSpot otherGarageSpot = ParkingSpot.builder()
+                .garageId(2L)
+                .bay(regularSpot.getBay())
+                .spotType(regularSpot.getSpotType())
+                .build();
+
+        // Act
+        occupancyTimeSeries.recordCheckIn(otherGarageSpot, NOW);
+        occupancyTimeSeries.recordCheckIn(otherGarageSpot, NOW);
+        occupancyTimeSeries.recordCheckIn(regularSpot, NOW);
+        List<OccupancySeriesDto> garageOne = occupancyTimeSeries.getOccupancy(null, null, null, null, 1);
+        when(garageDirectory.currentGarageId()).thenReturn(2L);
+        List<OccupancySeriesDto> garageTwo = occupancyTimeSeries.getOccupancy(null, null, null, null, 1);
+
+        // Assert
+        assertEquals(1, occupiedAt(garageOne.get(0), NOW));
+        assertEquals(2, occupiedAt(garageTwo.get(0), NOW));
+    }
+
+    @Test
+    void getOccupancy_ShouldReadLabelsOnceUntilTopologyChanges() {
+        // Arrange
+        rebuildEmpty();
+        occupancyTimeSeries.recordCheckIn(regularSpot, NOW);
+
+        // Act
+        occupancyTimeSeries.getOccupancy(null, null, null, null, 1);
+        occupancyTimeSeries.getOccupancy(null, null, 1, null, 1);
+        when(floorRepository.findAll()).thenReturn(List.of(
+                Floor.builder().id(1L).floorNumber(0).name("Ground Floor").build()));
+        occupancyTimeSeries.topologyChanged();
+        List<OccupancySeriesDto> renumbered = occupancyTimeSeries.getOccupancy(null, null, null, null, 1);
+
+        // Assert
+        verify(floorRepository, times(2)).findAll();
+        verify(spotTypeRepository, times(2)).findAll();
+        assertEquals(0, renumbered.get(0).getFloorNumber());
+    }
+
+    @Test
+    void getOccupancy_WhenStepInvalid_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () ->
+                occupancyTimeSeries.getOccupancy(null, null, null, null, 0));
+        assertThrows(BusinessLogicException.class, () ->
+                occupancyTimeSeries.getOccupancy(NOW, NOW.minusMinutes(1), null, null, 1));
+    }
+
+    private void rebuildEmpty() {
+        when(transactionRepository.findOccupancyIntervalsSince(any())).thenReturn(List.of());
+        occupancyTimeSeries.rebuild();
+    }
+
+    private void setClock(LocalDateTime now) {
+        occupancyTimeSeries.clock = Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+
+    private static OccupancySeriesDto find(List<OccupancySeriesDto> series, String spotTypeName) {
+        return series.stream().filter(s -> s.getSpotTypeName().equals(spotTypeName)).findFirst().orElseThrow();
+    }
+
+    private static int occupiedAt(OccupancySeriesDto series, LocalDateTime time) {
+        return series.getPoints().stream()
+                .filter(point -> point.getTime().equals(time))
+                .findFirst()
+                .orElseThrow()
+                .getOccupied();
+    }
+
+    private static OccupancyInterval interval(LocalDateTime checkIn, LocalDateTime checkOut, Long spotTypeId) {
+        return new OccupancyInterval() {
+            @Override
+            public LocalDateTime getCheckInTime() {
+                return checkIn;
+            }
+
+            @Override
+            public LocalDateTime getCheckOutTime() {
+                return checkOut;
+            }
+
+            @Override
+            public Long getGarageId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getFloorId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getSpotTypeId() {
+                return spotTypeId;
+            }
+        };
+    }
+}
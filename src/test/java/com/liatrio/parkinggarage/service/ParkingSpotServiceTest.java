@@ -1,14 +1,17 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.ParkingSpotDto;
 import com.liatrio.parkinggarage.entity.Bay;
 import com.liatrio.parkinggarage.entity.Floor;
 import com.liatrio.parkinggarage.entity.ParkingSpot;
 import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
 import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
 import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
 import com.liatrio.parkinggarage.repository.BayRepository;
+import com.liatrio.parkinggarage.repository.ParkingSpotFieldsRepository.Listing;
 import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
 import com.liatrio.parkinggarage.repository.SpotTypeRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,10 +23,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +48,12 @@ class ParkingSpotServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private ResponseCache responseCache;
+
     @InjectMocks
     private ParkingSpotService parkingSpotService;
 
@@ -171,6 +184,7 @@ class ParkingSpotServiceTest {
         assertNotNull(result);
         assertEquals("F1-A-01", result.getSpotIdentifier());
         verify(parkingSpotRepository, times(1)).save(any(ParkingSpot.class));
+        verify(reservationService).registerSpot(parkingSpot);
     }
 
     @Test
@@ -213,6 +227,31 @@ class ParkingSpotServiceTest {
 
         // Assert
         verify(parkingSpotRepository, times(1)).save(parkingSpot);
+        verify(reservationService).registerSpot(parkingSpot);
         assertFalse(parkingSpot.getActive());
     }
+
+    @Test
+    void getParkingSpotFields_ShouldQueryTheRequestedFieldsInDtoOrder() {
+        // Arrange
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1L, "occupied", false));
+        when(parkingSpotRepository.findSpotFields(Listing.AVAILABLE, 1L, Set.of("id", "occupied"))).thenReturn(rows);
+
+        // Act
+        List<Map<String, Object>> result = parkingSpotService.getParkingSpotFields(Listing.AVAILABLE, 1L, "occupied, id");
+
+        // Assert
+        assertEquals(rows, result);
+        verify(parkingSpotRepository).findSpotFields(eq(Listing.AVAILABLE), eq(1L),
+                argThat(fields -> List.copyOf(fields).equals(List.of("id", "occupied"))));
+    }
+
+    @Test
+    void getParkingSpotFields_WhenFieldIsUnknown_ShouldThrowException() {
+        // Act & Assert
+        BusinessLogicException exception = assertThrows(BusinessLogicException.class,
+                () -> parkingSpotService.getParkingSpotFields(Listing.ALL, null, "id,transactions"));
+        assertTrue(exception.getMessage().startsWith("Unknown field 'transactions'"));
+        verify(parkingSpotRepository, never()).findSpotFields(any(), any(), any());
+    }
 }
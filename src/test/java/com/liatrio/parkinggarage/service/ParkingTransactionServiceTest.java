@@ -1,5 +1,6 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.CheckInRequest;
 import com.liatrio.parkinggarage.dto.CheckOutRequest;
 import com.liatrio.parkinggarage.dto.ParkingTransactionDto;
@@ -7,22 +8,28 @@ import com.liatrio.parkinggarage.entity.*;
 import com.liatrio.parkinggarage.exception.BusinessLogicException;
 import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
 import com.liatrio.parkinggarage.mapper.EntityMapper;
+import com.liatrio.parkinggarage.metrics.ParkingMetrics;
 import com.liatrio.parkinggarage.repository.CarRepository;
 import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
 import com.liatrio.parkinggarage.repository.ParkingTransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +50,32 @@ class ParkingTransactionServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private OccupancyTimeSeries occupancyTimeSeries;
+
+    @Mock
+    private DwellTimeHistograms dwellTimeHistograms;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Mock
+    private LicensePlateIndex licensePlateIndex;
+
+    @Mock
+    private ResponseCache responseCache;
+
+    @Mock
+    private SpotWaiters spotWaiters;
+
+    @Mock
+    private CheckOutPipeline checkOutPipeline;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ParkingMetrics parkingMetrics = new ParkingMetrics(meterRegistry);
+
     @InjectMocks
     private ParkingTransactionService parkingTransactionService;
 
@@ -131,7 +164,9 @@ class ParkingTransactionServiceTest {
     @Test
     void checkIn_WhenValidRequest_ShouldCreateTransaction() {
         // Arrange
-        when(parkingSpotRepository.findBySpotIdentifier("F1-A-01")).thenReturn(Optional.of(parkingSpot));
+        when(parkingSpotRepository.findBySpotIdentifierForCheckIn("F1-A-01")).thenReturn(Optional.of(parkingSpot));
+        when(reservationService.claimForCheckIn(eq(parkingSpot), eq("ABC-123"), any(LocalDateTime.class)))
+                .thenReturn(true);
         when(carRepository.findByLicensePlate("ABC-123")).thenReturn(Optional.of(car));
         when(transactionRepository.save(any(ParkingTransaction.class))).thenReturn(transaction);
         when(entityMapper.toTransactionDto(transaction)).thenReturn(transactionDto);
@@ -143,16 +178,62 @@ class ParkingTransactionServiceTest {
         assertNotNull(result);
         assertEquals("ABC-123", result.getLicensePlate());
         verify(transactionRepository, times(1)).save(any(ParkingTransaction.class));
+        verify(occupancyTimeSeries).recordCheckIn(eq(parkingSpot), any(LocalDateTime.class));
+        verify(responseCache).occupancyChanged(parkingSpot.getGarageId());
+        verify(reservationService).recordCheckIn(eq(parkingSpot), any(LocalDateTime.class));
+    }
+
+    @Test
+    void checkIn_WhenSpotReservedForAnotherCar_ShouldThrowExceptionAndCountRejection() {
+        // Arrange
+        when(parkingSpotRepository.findBySpotIdentifierForCheckIn("F1-A-01")).thenReturn(Optional.of(parkingSpot));
+        when(reservationService.claimForCheckIn(eq(parkingSpot), eq("ABC-123"), any(LocalDateTime.class)))
+                .thenReturn(false);
+
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () -> 
+                parkingTransactionService.checkIn(checkInRequest));
+        assertEquals(1.0, rejections("check_in", "spot_reserved"));
+        verify(transactionRepository, never()).save(any(ParkingTransaction.class));
     }
 
     @Test
     void checkIn_WhenSpotNotFound_ShouldThrowException() {
         // Arrange
-        when(parkingSpotRepository.findBySpotIdentifier("F1-A-01")).thenReturn(Optional.empty());
+        when(parkingSpotRepository.findBySpotIdentifierForCheckIn("F1-A-01")).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> 
                 parkingTransactionService.checkIn(checkInRequest));
+        assertEquals(1.0, rejections("check_in", "spot_not_found"));
+    }
+
+    @Test
+    void checkIn_WhenSpotInactive_ShouldThrowExceptionAndCountRejection() {
+        // Arrange
+        parkingSpot.setActive(false);
+        when(parkingSpotRepository.findBySpotIdentifierForCheckIn("F1-A-01")).thenReturn(Optional.of(parkingSpot));
+
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () -> 
+                parkingTransactionService.checkIn(checkInRequest));
+        assertEquals(1.0, rejections("check_in", "spot_inactive"));
+    }
+
+    @Test
+    void checkIn_WhenCarAlreadyParked_ShouldThrowExceptionAndCountRejection() {
+        // Arrange: parked in another garage, so not among the car's transactions
+        when(parkingSpotRepository.findBySpotIdentifierForCheckIn("F1-A-01")).thenReturn(Optional.of(parkingSpot));
+        when(reservationService.claimForCheckIn(eq(parkingSpot), eq("ABC-123"), any(LocalDateTime.class)))
+                .thenReturn(true);
+        when(carRepository.findByLicensePlate("ABC-123")).thenReturn(Optional.of(car));
+        when(transactionRepository.findParkedSpotIdentifierInAnyGarage(1L)).thenReturn(Optional.of("G2-A-02"));
+
+        // Act & Assert
+        BusinessLogicException exception = assertThrows(BusinessLogicException.class, () ->
+                parkingTransactionService.checkIn(checkInRequest));
+        assertEquals("Car ABC-123 is already parked at spot G2-A-02", exception.getMessage());
+        assertEquals(1.0, rejections("check_in", "already_parked"));
     }
 
     @Test
@@ -166,17 +247,20 @@ class ParkingTransactionServiceTest {
                 .build();
         parkingSpot.getTransactions().add(activeTransaction);
         
-        when(parkingSpotRepository.findBySpotIdentifier("F1-A-01")).thenReturn(Optional.of(parkingSpot));
+        when(parkingSpotRepository.findBySpotIdentifierForCheckIn("F1-A-01")).thenReturn(Optional.of(parkingSpot));
 
         // Act & Assert
         assertThrows(BusinessLogicException.class, () -> 
                 parkingTransactionService.checkIn(checkInRequest));
+        assertEquals(1.0, rejections("check_in", "spot_occupied"));
     }
 
     @Test
     void checkIn_WhenCarNotExists_ShouldCreateCarAndTransaction() {
         // Arrange
-        when(parkingSpotRepository.findBySpotIdentifier("F1-A-01")).thenReturn(Optional.of(parkingSpot));
+        when(parkingSpotRepository.findBySpotIdentifierForCheckIn("F1-A-01")).thenReturn(Optional.of(parkingSpot));
+        when(reservationService.claimForCheckIn(eq(parkingSpot), eq("ABC-123"), any(LocalDateTime.class)))
+                .thenReturn(true);
         when(carRepository.findByLicensePlate("ABC-123")).thenReturn(Optional.empty());
         when(carRepository.save(any(Car.class))).thenReturn(car);
         when(transactionRepository.save(any(ParkingTransaction.class))).thenReturn(transaction);
@@ -189,6 +273,7 @@ class ParkingTransactionServiceTest {
         assertNotNull(result);
         verify(carRepository, times(1)).save(any(Car.class));
         verify(transactionRepository, times(1)).save(any(ParkingTransaction.class));
+        verify(licensePlateIndex).recordSaved(null, "ABC-123");
     }
 
     @Test
@@ -211,6 +296,14 @@ class ParkingTransactionServiceTest {
         assertEquals(5.00, transaction.getParkingFee());
         verify(billingService, times(1)).calculateParkingFee(any(LocalDateTime.class), any(LocalDateTime.class));
         verify(transactionRepository, times(1)).save(transaction);
+        verify(occupancyTimeSeries).recordCheckOut(parkingSpot, transaction.getCheckOutTime());
+        verify(dwellTimeHistograms).recordCheckOut(parkingSpot, transaction.getCheckInTime(), transaction.getCheckOutTime());
+        verify(responseCache).occupancyChanged(parkingSpot.getGarageId());
+        verify(checkOutPipeline).publish(parkingSpot.getGarageId(), transactionDto);
+        for (String stage : List.of("spot_lookup", "session_lookup", "billing", "save", "mapping")) {
+            assertEquals(1, meterRegistry.get("parking.operation.stage")
+                    .tag("operation", "check_out").tag("stage", stage).timer().count(), stage);
+        }
     }
 
     @Test
@@ -223,6 +316,8 @@ class ParkingTransactionServiceTest {
         // Act & Assert
         assertThrows(BusinessLogicException.class, () -> 
                 parkingTransactionService.checkOut(checkOutRequest));
+        assertEquals(1.0, rejections("check_out", "no_active_session"));
+        verifyNoInteractions(occupancyTimeSeries, dwellTimeHistograms);
     }
 
     @Test
@@ -257,5 +352,106 @@ class ParkingTransactionServiceTest {
         // Act & Assert
         assertThrows(BusinessLogicException.class, () -> 
                 parkingTransactionService.checkOutByLicensePlate("ABC-123"));
+        assertEquals(1.0, rejections("check_out_by_plate", "no_active_session"));
+    }
+
+    @Test
+    void checkOutByLicensePlate_WhenPlateMisread_ShouldCheckOutTheMatchingParkedCar() {
+        // Arrange
+        ReflectionTestUtils.setField(parkingTransactionService, "misreadPlateCheckOut", true);
+        when(carRepository.findByLicensePlate("A8C-I23")).thenReturn(Optional.empty());
+        when(licensePlateIndex.search(eq("A8C-I23"), anyInt())).thenReturn(List.of(
+                new LicensePlateIndex.Match("ABC-123", LicensePlateIndex.MatchType.CONFUSABLE),
+                new LicensePlateIndex.Match("ABC-1234", LicensePlateIndex.MatchType.PREFIX)));
+        when(transactionRepository.findActiveByLicensePlates(List.of("ABC-123"))).thenReturn(List.of(transaction));
+        when(billingService.calculateParkingFee(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(5.00);
+        when(transactionRepository.save(any(ParkingTransaction.class))).thenReturn(transaction);
+        when(entityMapper.toTransactionDto(transaction)).thenReturn(transactionDto);
+
+        // Act
+        ParkingTransactionDto result = parkingTransactionService.checkOutByLicensePlate("A8C-I23");
+
+        // Assert
+        assertEquals("ABC-123", result.getLicensePlate());
+        assertNotNull(transaction.getCheckOutTime());
+        assertEquals(1.0, meterRegistry.get("parking.plate.corrections")
+                .tag("operation", "check_out_by_plate").tag("match_type", "confusable").counter().count());
+    }
+
+    @Test
+    void checkOutByLicensePlate_WhenMisreadPlateHasCarButNoSession_ShouldCheckOutTheMatchingParkedCar() {
+        // Arrange: an earlier check-in under the misread plate left a car that is not parked
+        ReflectionTestUtils.setField(parkingTransactionService, "misreadPlateCheckOut", true);
+        Car phantom = Car.builder().id(2L).licensePlate("A8C-I23").build();
+        when(carRepository.findByLicensePlate("A8C-I23")).thenReturn(Optional.of(phantom));
+        when(transactionRepository.findByCarIdAndCheckOutTimeIsNull(2L)).thenReturn(Optional.empty());
+        when(licensePlateIndex.search(eq("A8C-I23"), anyInt())).thenReturn(List.of(
+                new LicensePlateIndex.Match("A8C-I23", LicensePlateIndex.MatchType.EXACT),
+                new LicensePlateIndex.Match("ABC-123", LicensePlateIndex.MatchType.CONFUSABLE)));
+        when(transactionRepository.findActiveByLicensePlates(List.of("A8C-I23", "ABC-123")))
+                .thenReturn(List.of(transaction));
+        when(billingService.calculateParkingFee(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(5.00);
+        when(transactionRepository.save(any(ParkingTransaction.class))).thenReturn(transaction);
+        when(entityMapper.toTransactionDto(transaction)).thenReturn(transactionDto);
+
+        // Act
+        ParkingTransactionDto result = parkingTransactionService.checkOutByLicensePlate("A8C-I23");
+
+        // Assert
+        assertEquals("ABC-123", result.getLicensePlate());
+        assertNotNull(transaction.getCheckOutTime());
+    }
+
+    @Test
+    void checkOutByLicensePlate_WhenPlateMisreadAndFallbackDisabled_ShouldThrowNotFound() {
+        // Arrange
+        when(carRepository.findByLicensePlate("A8C-I23")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () ->
+                parkingTransactionService.checkOutByLicensePlate("A8C-I23"));
+        verify(licensePlateIndex, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void checkOutByLicensePlate_WhenMisreadPlateMatchesSeveralParkedCars_ShouldThrowException() {
+        // Arrange
+        ReflectionTestUtils.setField(parkingTransactionService, "misreadPlateCheckOut", true);
+        Car otherCar = Car.builder().id(2L).licensePlate("ABC-128").build();
+        ParkingTransaction otherTransaction = ParkingTransaction.builder().id(2L).car(otherCar).build();
+        when(carRepository.findByLicensePlate("ABC-12X")).thenReturn(Optional.empty());
+        when(licensePlateIndex.search(eq("ABC-12X"), anyInt())).thenReturn(List.of(
+                new LicensePlateIndex.Match("ABC-123", LicensePlateIndex.MatchType.ONE_EDIT),
+                new LicensePlateIndex.Match("ABC-128", LicensePlateIndex.MatchType.ONE_EDIT)));
+        when(transactionRepository.findActiveByLicensePlates(List.of("ABC-123", "ABC-128")))
+                .thenReturn(List.of(transaction, otherTransaction));
+
+        // Act & Assert
+        BusinessLogicException exception = assertThrows(BusinessLogicException.class, () ->
+                parkingTransactionService.checkOutByLicensePlate("ABC-12X"));
+        assertTrue(exception.getMessage().contains("ABC-123, ABC-128"));
+        assertEquals(1.0, rejections("check_out_by_plate", "ambiguous_plate"));
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void checkOutByLicensePlate_WhenNoSimilarPlateParked_ShouldThrowNotFound() {
+        // Arrange
+        ReflectionTestUtils.setField(parkingTransactionService, "misreadPlateCheckOut", true);
+        when(carRepository.findByLicensePlate("ZZZ-999")).thenReturn(Optional.empty());
+        when(licensePlateIndex.search(eq("ZZZ-999"), anyInt())).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () ->
+                parkingTransactionService.checkOutByLicensePlate("ZZZ-999"));
+        assertEquals(1.0, rejections("check_out_by_plate", "car_not_found"));
+        verify(transactionRepository, never()).findActiveByLicensePlates(any());
+    }
+
+    private double rejections(String operation, String reason) {
+        return meterRegistry.get("parking.rejections")
+                .tag("operation", operation).tag("reason", reason).counter().count();
     }
 }
@@ -0,0 +1,164 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.service.ReservationIndex.Booking;
+import com.liatrio.parkinggarage.service.ReservationIndex.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationIndexTest {
+
+    private static final LocalDateTime FRIDAY = LocalDateTime.of(2030, 6, 7, 0, 0);
+    private static final LocalDateTime NOW = FRIDAY.minusDays(3);
+    private static final LocalDateTime HOLD_UNTIL = NOW.plusHours(4);
+    private static final long REGULAR = 1L;
+    private static final long COMPACT = 2L;
+    private static final long GARAGE = 1L;
+    private static final long OTHER_GARAGE = 2L;
+
+    private ReservationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ReservationIndex();
+        index.registerSpot(1L, GARAGE, "F1-A-01", REGULAR, true);
+        index.registerSpot(2L, GARAGE, "F1-A-02", REGULAR, true);
+        index.registerSpot(3L, GARAGE, "F1-A-03", COMPACT, true);
+        index.addBooking(1L, booking(10L, 18, 23));
+        index.addBooking(1L, booking(11L, 8, 12));
+    }
+
+    @Test
+    void isFree_ShouldDetectOverlapWithHalfOpenWindows() {
+        // Act & Assert
+        assertFalse(index.isFree(1L, at(17), at(19), HOLD_UNTIL));
+        assertFalse(index.isFree(1L, at(19), at(20), HOLD_UNTIL));
+        assertFalse(index.isFree(1L, at(7), at(24), HOLD_UNTIL));
+        assertTrue(index.isFree(1L, at(12), at(18), HOLD_UNTIL));
+        assertTrue(index.isFree(1L, at(23), at(24), HOLD_UNTIL));
+        assertTrue(index.isFree(2L, at(18), at(23), HOLD_UNTIL));
+    }
+
+    @Test
+    void isFree_WhenOccupied_ShouldBlockWindowsStartingBeforeHold() {
+        // Arrange
+        index.markOccupied(2L, NOW.minusHours(1));
+
+        // Act & Assert
+        assertFalse(index.isFree(2L, NOW.plusHours(1), NOW.plusHours(2), HOLD_UNTIL));
+        assertTrue(index.isFree(2L, HOLD_UNTIL, HOLD_UNTIL.plusHours(1), HOLD_UNTIL));
+
+        index.markVacant(2L);
+        assertTrue(index.isFree(2L, NOW.plusHours(1), NOW.plusHours(2), HOLD_UNTIL));
+    }
+
+    @Test
+    void findFreeSpots_ShouldReturnOnlyFreeActiveSpotsOfType() {
+        // Act & Assert
+        assertEquals(List.of(2L), index.findFreeSpots(GARAGE, REGULAR, at(18), at(23), HOLD_UNTIL, 5));
+        assertEquals(List.of(1L, 2L), index.findFreeSpots(GARAGE, REGULAR, at(13), at(17), HOLD_UNTIL, 5));
+        assertEquals(List.of(1L), index.findFreeSpots(GARAGE, REGULAR, at(13), at(17), HOLD_UNTIL, 1));
+
+        index.registerSpot(2L, GARAGE, "F1-A-02", REGULAR, false);
+        assertTrue(index.findFreeSpots(GARAGE, REGULAR, at(18), at(23), HOLD_UNTIL, 5).isEmpty());
+    }
+
+    @Test
+    void registerSpot_WhenTypeChanges_ShouldMoveSpotBetweenTypes() {
+        // Act
+        index.registerSpot(2L, GARAGE, "F1-A-02", COMPACT, true);
+
+        // Assert
+        assertTrue(index.findFreeSpots(GARAGE, REGULAR, at(18), at(23), HOLD_UNTIL, 5).isEmpty());
+        assertEquals(List.of(2L, 3L), index.findFreeSpots(GARAGE, COMPACT, at(18), at(23), HOLD_UNTIL, 5));
+    }
+
+    @Test
+    void earliestFreeWindow_ShouldSkipBookingsTooCloseTogether() {
+        // Arrange
+        index.addBooking(1L, booking(12L, 13, 17));
+
+        // Act
+        Window fits = index.earliestFreeWindow(1L, at(9), Duration.ofHours(1), HOLD_UNTIL);
+        Window tooLong = index.earliestFreeWindow(1L, at(9), Duration.ofHours(2), HOLD_UNTIL);
+
+        // Assert
+        assertEquals(at(12), fits.start());
+        assertEquals(at(13), fits.end());
+        assertEquals(at(23), tooLong.start());
+        assertEquals("F1-A-01", tooLong.spotIdentifier());
+    }
+
+    @Test
+    void earliestFreeWindow_WhenOccupied_ShouldStartAfterHold() {
+        // Arrange
+        index.markOccupied(2L, NOW);
+
+        // Act & Assert
+        assertEquals(HOLD_UNTIL, index.earliestFreeWindow(2L, NOW, Duration.ofHours(1), HOLD_UNTIL).start());
+    }
+
+    @Test
+    void earliestFreeWindowForType_ShouldPickEarliestAcrossSpots() {
+        // Arrange
+        index.addBooking(2L, booking(20L, 17, 21));
+
+        // Act
+        Window window = index.earliestFreeWindowForType(GARAGE, REGULAR, at(18), Duration.ofHours(3), HOLD_UNTIL)
+                .orElseThrow();
+
+        // Assert
+        assertEquals(2L, window.spotId());
+        assertEquals(at(21), window.start());
+        assertTrue(index.earliestFreeWindowForType(GARAGE, 99L, at(18), Duration.ofHours(1), HOLD_UNTIL).isEmpty());
+    }
+
+    @Test
+    void bookingAt_ShouldHoldSpotFromArrivalWindowUntilEnd() {
+        // Act & Assert
+        Duration arrivalWindow = Duration.ofMinutes(15);
+        assertTrue(index.bookingAt(1L, at(18).minusMinutes(16), arrivalWindow).isEmpty());
+        assertEquals(10L, index.bookingAt(1L, at(18).minusMinutes(15), arrivalWindow).orElseThrow().reservationId());
+        assertEquals(10L, index.bookingAt(1L, at(22), arrivalWindow).orElseThrow().reservationId());
+        assertTrue(index.bookingAt(1L, at(23), arrivalWindow).isEmpty());
+    }
+
+    @Test
+    void removeBooking_ShouldOnlyRemoveMatchingReservation() {
+        // Act
+        index.removeBooking(1L, 99L, at(18));
+        boolean freeAfterWrongId = index.isFree(1L, at(18), at(19), HOLD_UNTIL);
+        index.removeBooking(1L, 10L, at(18));
+
+        // Assert
+        assertFalse(freeAfterWrongId);
+        assertTrue(index.isFree(1L, at(18), at(19), HOLD_UNTIL));
+        assertEquals(1L, index.spotIdFor(GARAGE, "F1-A-01").orElseThrow());
+    }
+
+    @Test
+    void registerSpot_ShouldPartitionSpotsByGarage() {
+        // Arrange
+        index.registerSpot(4L, OTHER_GARAGE, "F1-A-01", REGULAR, true);
+
+        // Act & Assert
+        assertEquals(1L, index.spotIdFor(GARAGE, "F1-A-01").orElseThrow());
+        assertEquals(4L, index.spotIdFor(OTHER_GARAGE, "F1-A-01").orElseThrow());
+        assertTrue(index.spotIdFor(OTHER_GARAGE, "F1-A-02").isEmpty());
+        assertEquals(List.of(4L), index.findFreeSpots(OTHER_GARAGE, REGULAR, at(18), at(23), HOLD_UNTIL, 5));
+        assertEquals(List.of(2L), index.findFreeSpots(GARAGE, REGULAR, at(18), at(23), HOLD_UNTIL, 5));
+    }
+
+    private static LocalDateTime at(int hour) {
+        return FRIDAY.plusHours(hour);
+    }
+
+    private static Booking booking(long id, int startHour, int endHour) {
+        return new Booking(id, "PLATE-" + id, at(startHour), at(endHour));
+    }
+}
@@ -0,0 +1,246 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.ReservationDto;
+import com.liatrio.parkinggarage.dto.ReservationRequest;
+import com.liatrio.parkinggarage.dto.SpotAvailabilityDto;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.Reservation;
+import com.liatrio.parkinggarage.entity.ReservationStatus;
+import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.exception.ResourceNotFoundException;
+import com.liatrio.parkinggarage.mapper.EntityMapper;
+import com.liatrio.parkinggarage.repository.ParkingSpotRepository;
+import com.liatrio.parkinggarage.repository.ParkingTransactionRepository;
+import com.liatrio.parkinggarage.repository.ReservationRepository;
+import com.liatrio.parkinggarage.repository.SpotTypeRepository;
+import com.liatrio.parkinggarage.service.ReservationIndex.Booking;
+import com.liatrio.parkinggarage.tenancy.GarageDirectory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Mock
+    private ParkingTransactionRepository transactionRepository;
+
+    @Mock
+    private SpotTypeRepository spotTypeRepository;
+
+    @Mock
+    private EntityMapper entityMapper;
+
+    @Mock
+    private GarageDirectory garageDirectory;
+
+    @Spy
+    private ReservationIndex reservationIndex = new ReservationIndex();
+
+    @InjectMocks
+    private ReservationService reservationService;
+
+    private SpotType spotType;
+    private ParkingSpot firstSpot;
+    private ParkingSpot secondSpot;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @BeforeEach
+    void setUp() {
+        spotType = SpotType.builder().id(1L).name("REGULAR").active(true).build();
+        firstSpot = ParkingSpot.builder().id(1L).garageId(1L).spotIdentifier("F1-A-01").spotType(spotType)
+                .active(true).build();
+        secondSpot = ParkingSpot.builder().id(2L).garageId(1L).spotIdentifier("F1-A-02").spotType(spotType)
+                .active(true).build();
+        lenient().when(garageDirectory.currentGarageId()).thenReturn(1L);
+        reservationService.registerSpot(firstSpot);
+        reservationService.registerSpot(secondSpot);
+
+        start = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS);
+        end = start.plusHours(3);
+        lenient().when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            if (reservation.getId() == null) {
+                reservation.setId(100L);
+            }
+            return reservation;
+        });
+        lenient().when(entityMapper.toReservationDto(any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            return ReservationDto.builder()
+                    .id(reservation.getId())
+                    .spotIdentifier(reservation.getParkingSpot().getSpotIdentifier())
+                    .status(reservation.getStatus().name())
+                    .build();
+        });
+    }
+
+    @Test
+    void createReservation_WhenSpotRequestedAndFree_ShouldBookAndIndexIt() {
+        // Arrange
+        when(parkingSpotRepository.findByIdForReservation(1L)).thenReturn(Optional.of(firstSpot));
+        when(reservationRepository.existsOverlapping(1L, start, end)).thenReturn(false);
+
+        // Act
+        ReservationDto result = reservationService.createReservation(request("F1-A-01", null));
+
+        // Assert
+        assertEquals("F1-A-01", result.getSpotIdentifier());
+        assertEquals("BOOKED", result.getStatus());
+        assertFalse(reservationIndex.isFree(1L, start, end, LocalDateTime.now()));
+    }
+
+    @Test
+    void createReservation_WhenTypeRequested_ShouldSkipBookedSpots() {
+        // Arrange
+        reservationIndex.addBooking(1L, new Booking(50L, "OTHER", start.minusHours(1), start.plusHours(1)));
+        when(spotTypeRepository.findByName("REGULAR")).thenReturn(Optional.of(spotType));
+        when(parkingSpotRepository.findByIdForReservation(2L)).thenReturn(Optional.of(secondSpot));
+        when(reservationRepository.existsOverlapping(2L, start, end)).thenReturn(false);
+
+        // Act
+        ReservationDto result = reservationService.createReservation(request(null, "REGULAR"));
+
+        // Assert
+        assertEquals("F1-A-02", result.getSpotIdentifier());
+        verify(parkingSpotRepository, never()).findByIdForReservation(1L);
+    }
+
+    @Test
+    void createReservation_WhenDatabaseHasOverlap_ShouldThrowException() {
+        // Arrange
+        when(parkingSpotRepository.findByIdForReservation(1L)).thenReturn(Optional.of(firstSpot));
+        when(reservationRepository.existsOverlapping(1L, start, end)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () ->
+                reservationService.createReservation(request("F1-A-01", null)));
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void createReservation_WhenWindowInvalid_ShouldThrowException() {
+        // Arrange
+        ReservationRequest request = request("F1-A-01", null);
+        request.setEndTime(start);
+
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () -> reservationService.createReservation(request));
+        assertThrows(ResourceNotFoundException.class, () ->
+                reservationService.createReservation(request("F9-Z-99", null)));
+        verifyNoInteractions(parkingSpotRepository);
+    }
+
+    @Test
+    void cancelReservation_ShouldFreeTheWindow() {
+        // Arrange
+        Reservation reservation = reservation(ReservationStatus.BOOKED);
+        reservationIndex.addBooking(1L, new Booking(100L, "ABC123", start, end));
+        when(reservationRepository.findById(100L)).thenReturn(Optional.of(reservation));
+
+        // Act
+        ReservationDto result = reservationService.cancelReservation(100L);
+
+        // Assert
+        assertEquals("CANCELLED", result.getStatus());
+        assertTrue(reservationIndex.isFree(1L, start, end, LocalDateTime.now()));
+    }
+
+    @Test
+    void cancelReservation_WhenNotBooked_ShouldThrowException() {
+        // Arrange
+        when(reservationRepository.findById(100L)).thenReturn(Optional.of(reservation(ReservationStatus.FULFILLED)));
+
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () -> reservationService.cancelReservation(100L));
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void claimForCheckIn_WhenReservedForSameCar_ShouldFulfillReservation() {
+        // Arrange
+        reservationIndex.addBooking(1L, new Booking(100L, "ABC123", start, end));
+        when(reservationRepository.findHoldingAt(1L, start.minusMinutes(10), start.plusMinutes(5)))
+                .thenReturn(List.of(reservation(ReservationStatus.BOOKED)));
+
+        // Act
+        boolean claimed = reservationService.claimForCheckIn(firstSpot, "ABC123", start.minusMinutes(10));
+
+        // Assert
+        assertTrue(claimed);
+        verify(reservationRepository).updateStatus(100L, ReservationStatus.FULFILLED);
+        assertTrue(reservationIndex.bookingAt(1L, start, Duration.ZERO).isEmpty());
+    }
+
+    @Test
+    void claimForCheckIn_WhenReservedForAnotherCar_ShouldRefuse() {
+        // Arrange
+        when(reservationRepository.findHoldingAt(1L, start.plusHours(1), start.plusHours(1).plusMinutes(15)))
+                .thenReturn(List.of(reservation(ReservationStatus.BOOKED)));
+        when(reservationRepository.findHoldingAt(1L, start.minusHours(1), start.minusHours(1).plusMinutes(15)))
+                .thenReturn(List.of());
+
+        // Act & Assert
+        assertFalse(reservationService.claimForCheckIn(firstSpot, "XYZ789", start.plusHours(1)));
+        assertTrue(reservationService.claimForCheckIn(firstSpot, "XYZ789", start.minusHours(1)));
+        verify(reservationRepository, never()).updateStatus(any(), any());
+    }
+
+    @Test
+    void checkAvailability_WhenSpotOccupied_ShouldOfferAnotherSpot() {
+        // Arrange
+        when(spotTypeRepository.findByName("REGULAR")).thenReturn(Optional.of(spotType));
+        reservationService.recordCheckIn(firstSpot, LocalDateTime.now());
+        LocalDateTime soon = LocalDateTime.now().plusHours(1);
+
+        // Act
+        SpotAvailabilityDto result = reservationService.checkAvailability("REGULAR", soon, soon.plusHours(1));
+
+        // Assert
+        assertTrue(result.getAvailable());
+        assertEquals("F1-A-02", result.getSpotIdentifier());
+    }
+
+    private ReservationRequest request(String spotIdentifier, String spotTypeName) {
+        return ReservationRequest.builder()
+                .licensePlate("ABC123")
+                .spotIdentifier(spotIdentifier)
+                .spotType(spotTypeName)
+                .startTime(start)
+                .endTime(end)
+                .build();
+    }
+
+    private Reservation reservation(ReservationStatus status) {
+        return Reservation.builder()
+                .id(100L)
+                .parkingSpot(firstSpot)
+                .licensePlate("ABC123")
+                .startTime(start)
+                .endTime(end)
+                .status(status)
+                .build();
+    }
+}
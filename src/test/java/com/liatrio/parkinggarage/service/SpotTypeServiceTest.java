@@ -1,5 +1,6 @@
 package com.liatrio.parkinggarage.service;
 
+import com.liatrio.parkinggarage.cache.ResponseCache;
 import com.liatrio.parkinggarage.dto.SpotTypeDto;
 import com.liatrio.parkinggarage.entity.SpotType;
 import com.liatrio.parkinggarage.exception.ResourceAlreadyExistsException;
@@ -26,6 +27,12 @@ class SpotTypeServiceTest {
     @Mock
     private SpotTypeRepository spotTypeRepository;
 
+    @Mock
+    private ResponseCache responseCache;
+
+    @Mock
+    private OccupancyTimeSeries occupancyTimeSeries;
+
     @InjectMocks
     private SpotTypeService spotTypeService;
 
@@ -0,0 +1,212 @@
+package com.liatrio.parkinggarage.service;
+
+import com.liatrio.parkinggarage.dto.ParkingSpotDto;
+import com.liatrio.parkinggarage.entity.Bay;
+import com.liatrio.parkinggarage.entity.Floor;
+import com.liatrio.parkinggarage.entity.ParkingSpot;
+import com.liatrio.parkinggarage.entity.SpotType;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import com.liatrio.parkinggarage.mapper.EntityMapper;
+import com.liatrio.parkinggarage.tenancy.GarageContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotWaitersTest {
+
+    private static final long GARAGE = 1L;
+    private static final long OTHER_GARAGE = 2L;
+    private static final long REGULAR = 1L;
+    private static final long COMPACT = 2L;
+    private static final long FLOOR_1 = 10L;
+    private static final long FLOOR_2 = 20L;
+
+    @Mock
+    private ParkingSpotService parkingSpotService;
+
+    @Mock
+    private EntityMapper entityMapper;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SpotWaiters spotWaiters;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        spotWaiters = new SpotWaiters(parkingSpotService, entityMapper, meterRegistry,
+                Duration.ofSeconds(30), Duration.ofSeconds(120), 10_000);
+    }
+
+    @Test
+    void await_WhenASpotIsAvailable_ShouldAnswerStraightAway() {
+        // Arrange
+        ParkingSpotDto available = ParkingSpotDto.builder().spotIdentifier("F1-A-01").build();
+        when(parkingSpotService.findFirstAvailableSpot(REGULAR, null)).thenReturn(Optional.of(available));
+
+        // Act
+        DeferredResult<ResponseEntity<ParkingSpotDto>> result = await(GARAGE, REGULAR, null);
+
+        // Assert
+        assertEquals(ResponseEntity.ok(available), result.getResult());
+        assertEquals(0, spotWaiters.size());
+        assertEquals(1, outcomes(SpotWaiters.IMMEDIATE));
+    }
+
+    @Test
+    void spotFreed_ShouldWakeOnlyTheLongestWaitingMatchingRequest() {
+        // Arrange
+        when(parkingSpotService.findFirstAvailableSpot(any(), any())).thenReturn(Optional.empty());
+        when(entityMapper.toParkingSpotDto(any())).thenAnswer(invocation -> ParkingSpotDto.builder()
+                .spotIdentifier(invocation.<ParkingSpot>getArgument(0).getSpotIdentifier()).build());
+        DeferredResult<ResponseEntity<ParkingSpotDto>> compact = await(GARAGE, COMPACT, null);
+        DeferredResult<ResponseEntity<ParkingSpotDto>> regularFloor2 = await(GARAGE, REGULAR, FLOOR_2);
+        DeferredResult<ResponseEntity<ParkingSpotDto>> anySpot = await(GARAGE, null, null);
+        DeferredResult<ResponseEntity<ParkingSpotDto>> regular = await(GARAGE, REGULAR, null);
+        DeferredResult<ResponseEntity<ParkingSpotDto>> otherGarage = await(OTHER_GARAGE, null, null);
+
+        // Act
+        spotWaiters.spotFreed(spot(GARAGE, "F1-A-01", REGULAR, FLOOR_1));
+
+        // Assert: the oldest request the spot matches, and no other
+        assertEquals("F1-A-01", spotIdentifier(anySpot));
+        assertFalse(compact.hasResult());
+        assertFalse(regularFloor2.hasResult());
+        assertFalse(regular.hasResult());
+        assertFalse(otherGarage.hasResult());
+        assertEquals(4, spotWaiters.size());
+
+        spotWaiters.spotFreed(spot(GARAGE, "F2-A-01", REGULAR, FLOOR_2));
+        spotWaiters.spotFreed(spot(GARAGE, "F1-A-02", REGULAR, FLOOR_1));
+        assertEquals("F2-A-01", spotIdentifier(regularFloor2));
+        assertEquals("F1-A-02", spotIdentifier(regular));
+        assertFalse(compact.hasResult());
+        assertEquals(2, spotWaiters.size());
+        assertEquals(3, outcomes(SpotWaiters.NOTIFIED));
+    }
+
+    @Test
+    void spotFreed_ShouldSkipRequestsThatAlreadyEnded() {
+        // Arrange
+        when(parkingSpotService.findFirstAvailableSpot(any(), any())).thenReturn(Optional.empty());
+        when(entityMapper.toParkingSpotDto(any())).thenReturn(ParkingSpotDto.builder().spotIdentifier("F1-A-01").build());
+        DeferredResult<ResponseEntity<ParkingSpotDto>> timedOut = await(GARAGE, null, null);
+        DeferredResult<ResponseEntity<ParkingSpotDto>> waiting = await(GARAGE, null, null);
+        timedOut.setResult(ResponseEntity.noContent().build());
+
+        // Act
+        spotWaiters.spotFreed(spot(GARAGE, "F1-A-01", REGULAR, FLOOR_1));
+
+        // Assert
+        assertEquals("F1-A-01", spotIdentifier(waiting));
+        assertEquals(0, spotWaiters.size());
+    }
+
+    @Test
+    void spotFreed_WhenNobodyWaitsForIt_ShouldNotMapTheSpot() {
+        // Arrange
+        when(parkingSpotService.findFirstAvailableSpot(any(), any())).thenReturn(Optional.empty());
+        await(GARAGE, COMPACT, null);
+        ParkingSpot inactive = spot(GARAGE, "F1-A-02", COMPACT, FLOOR_1);
+        inactive.setActive(false);
+
+        // Act
+        spotWaiters.spotFreed(spot(GARAGE, "F1-A-01", REGULAR, FLOOR_1));
+        spotWaiters.spotFreed(inactive);
+
+        // Assert
+        verify(entityMapper, never()).toParkingSpotDto(any());
+        assertEquals(1, spotWaiters.size());
+    }
+
+    @Test
+    void await_WhenManyRequestsWait_ShouldHandEachFreedSpotToTheNextInLine() {
+        // Arrange
+        when(parkingSpotService.findFirstAvailableSpot(any(), any())).thenReturn(Optional.empty());
+        when(entityMapper.toParkingSpotDto(any())).thenReturn(ParkingSpotDto.builder().spotIdentifier("F1-A-01").build());
+        List<DeferredResult<ResponseEntity<ParkingSpotDto>>> results = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            results.add(await(GARAGE, i % 2 == 0 ? REGULAR : null, null));
+        }
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            spotWaiters.spotFreed(spot(GARAGE, "F1-A-01", REGULAR, FLOOR_1));
+        }
+
+        // Assert
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i < 100, results.get(i).hasResult(), "request " + i);
+        }
+        assertEquals(9_900, spotWaiters.size());
+        assertEquals(9_900.0, meterRegistry.get("parking.spot_waiters.waiting").gauge().value());
+    }
+
+    @Test
+    void await_WhenTooManyRequestsWait_ShouldRejectWithRetryAfter() {
+        // Arrange
+        spotWaiters = new SpotWaiters(parkingSpotService, entityMapper, meterRegistry,
+                Duration.ofSeconds(30), Duration.ofSeconds(120), 1);
+        when(parkingSpotService.findFirstAvailableSpot(any(), any())).thenReturn(Optional.empty());
+        await(GARAGE, null, null);
+
+        // Act
+        DeferredResult<ResponseEntity<ParkingSpotDto>> rejected = await(GARAGE, null, null);
+
+        // Assert
+        ResponseEntity<?> response = (ResponseEntity<?>) rejected.getResult();
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        assertEquals(1, spotWaiters.size());
+        verify(parkingSpotService, times(1)).findFirstAvailableSpot(any(), any());
+    }
+
+    @Test
+    void await_WhenTimeoutIsNotPositive_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BusinessLogicException.class, () -> spotWaiters.await(null, null, Duration.ZERO));
+        assertThrows(BusinessLogicException.class, () -> spotWaiters.await(null, null, Duration.ofSeconds(-1)));
+        assertEquals(0, spotWaiters.size());
+    }
+
+    private DeferredResult<ResponseEntity<ParkingSpotDto>> await(long garageId, Long spotTypeId, Long floorId) {
+        return GarageContext.callAs(garageId, () -> spotWaiters.await(spotTypeId, floorId, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String spotIdentifier(DeferredResult<ResponseEntity<ParkingSpotDto>> result) {
+        assertTrue(result.hasResult());
+        return ((ResponseEntity<ParkingSpotDto>) result.getResult()).getBody().getSpotIdentifier();
+    }
+
+    private double outcomes(String outcome) {
+        return meterRegistry.get("parking.spot_waiters.requests").tag("outcome", outcome).counter().count();
+    }
+
+    private static ParkingSpot spot(long garageId, String spotIdentifier, long spotTypeId, long floorId) {
+        Floor floor = Floor.builder().id(floorId).active(true).build();
+        Bay bay = Bay.builder().floor(floor).active(true).build();
+        return ParkingSpot.builder()
+                .garageId(garageId)
+                .spotIdentifier(spotIdentifier)
+                .spotType(SpotType.builder().id(spotTypeId).build())
+                .bay(bay)
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.liatrio.parkinggarage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liatrio.parkinggarage.exception.BusinessLogicException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyRowReaderTest {
+
+    @Test
+    void csv_ShouldReadQuotedFieldsByHeaderName() {
+        // Arrange
+        TopologyRowReader reader = TopologyRowReader.csv(stream("\uFEFFSpot Type,floor_number,bay_identifier,"
+                + "spot_identifier,spot_number,floor_name,extra\n"
+                + "REGULAR,1,A,F1-A-01,01,\"Level 1, \"\"North\"\"\",ignored\n"
+                + "\n"
+                + "COMPACT,2,B,F2-B-01,01\n"));
+
+        // Act
+        TopologyRowReader.ReadRow first = reader.next();
+        TopologyRowReader.ReadRow second = reader.next();
+
+        // Assert
+        assertEquals(2, first.row());
+        assertNull(first.error());
+        assertEquals("Level 1, \"North\"", first.topologyRow().getFloorName());
+        assertEquals("REGULAR", first.topologyRow().getSpotType());
+        assertEquals(1, first.topologyRow().getFloorNumber());
+        assertEquals(4, second.row());
+        assertNull(second.topologyRow().getFloorName());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void csv_WhenRowUnreadable_ShouldReturnRowError() {
+        // Arrange
+        TopologyRowReader reader = TopologyRowReader.csv(stream(
+                "floor_number,bay_identifier,spot_identifier,spot_number,spot_type\n"
+                        + "one,A,F1-A-01,01,REGULAR\n"
+                        + "1,A,\"F1-A-02,02,REGULAR\n"));
+
+        // Act & Assert
+        assertEquals("Floor number is not a number: one", reader.next().error());
+        assertEquals("Unterminated quoted field", reader.next().error());
+    }
+
+    @Test
+    void csv_WhenHeaderMissesColumns_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BusinessLogicException.class,
+                () -> TopologyRowReader.csv(stream("floor_number,spot_identifier\n")));
+    }
+
+    @Test
+    void json_WhenNotAnArray_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BusinessLogicException.class,
+                () -> TopologyRowReader.json(stream("{\"floorNumber\":1}"), new ObjectMapper()));
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
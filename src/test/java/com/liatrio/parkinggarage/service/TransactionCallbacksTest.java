@@ -0,0 +1,45 @@
+package com.liatrio.parkinggarage.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCallbacksTest {
+
+    @Test
+    void afterCommit_OutsideATransaction_ShouldRunStraightAway() {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+
+        // Act
+        TransactionCallbacks.afterCommit(runs::incrementAndGet);
+
+        // Assert
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void afterCommit_InATransaction_ShouldOnlyRunOnCommit() {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            TransactionCallbacks.afterCommit(runs::incrementAndGet);
+
+            // Assert
+            assertEquals(0, runs.get());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertEquals(0, runs.get());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1, runs.get());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.liatrio.parkinggarage.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the JDBC statements Hibernate prepares while running a block of code,
+ * using Hibernate statistics (requires hibernate.generate_statistics=true).
+ *
+ * Statistics are per SessionFactory, so the counted block must not run concurrently
+ * with other database work.
+ */
+public class SqlStatementCounter {
+
+    private final Statistics statistics;
+
+    public SqlStatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Enable hibernate.generate_statistics to count SQL statements");
+        }
+    }
+
+    /**
+     * Run the action and fail if it prepares more statements than the budget allows
+     */
+    public <T> T assertWithinBudget(String name, long budget, ThrowingSupplier<T> action) throws Throwable {
+        statistics.clear();
+        T result = action.get();
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget, String.format(
+                "%s executed %d SQL statements, budget is %d", name, statements, budget));
+        return result;
+    }
+}